@@ -26,6 +26,7 @@ repositories {
 dependencies {
     // Cache
     implementation("org.springframework.boot:spring-boot-starter-cache")
+    implementation("com.github.ben-manes.caffeine:caffeine")
     // Validación
     implementation("org.springframework.boot:spring-boot-starter-validation")
     // lombok
@@ -33,6 +34,8 @@ dependencies {
     annotationProcessor("org.projectlombok:lombok:1.18.38")
     //http
     implementation("org.springframework.boot:spring-boot-starter-web")
+    // Lectura de CSV (importación de productos)
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-csv")
     //test
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -47,6 +50,9 @@ dependencies {
     //bbdd
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     runtimeOnly("org.postgresql:postgresql")
+    // Migraciones del esquema
+    implementation("org.flywaydb:flyway-core")
+    implementation("org.flywaydb:flyway-database-postgresql")
     // Websocket
     implementation("org.springframework.boot:spring-boot-starter-websocket")
     // MongoDB
@@ -111,6 +117,26 @@ tasks.withType<Test> {
     finalizedBy(tasks.named("jacocoTestReport"))
 }
 
+// Las comparativas de rendimiento (@Tag("benchmark")) no se lanzan con los tests normales
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+tasks.register<Test>("benchmark") {
+    description = "Ejecuta las comparativas de rendimiento (@Tag(\"benchmark\"))"
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    testLogging {
+        showStandardStreams = true
+    }
+}
+
 tasks.named<JacocoReport>("jacocoTestReport") {
     dependsOn(tasks.test)
 
@@ -0,0 +1,178 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Caché de dos niveles: una caché en memoria de la réplica (primer nivel, Caffeine)
+ * delante de la caché compartida en Redis (segundo nivel).
+ * <p>
+ * Las lecturas se resuelven primero en memoria, sin ninguna operación de red; si no
+ * está el valor se consulta Redis y, si lo tiene, se guarda también en memoria.
+ * </p>
+ * <p>
+ * Las escrituras y borrados se aplican primero en Redis, después en memoria y por último
+ * se publica un mensaje de invalidación para que el resto de réplicas descarten su copia
+ * local de esa clave (ver {@link CacheDosNivelesManager}).
+ * </p>
+ */
+@Slf4j
+public class CacheDosNiveles implements Cache {
+
+    private final String nombre;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final RedisCache redis;
+    private final PublicadorInvalidacion publicador;
+
+    /**
+     * Envía a las demás réplicas la clave que se ha invalidado.
+     */
+    @FunctionalInterface
+    interface PublicadorInvalidacion {
+        /**
+         * @param cache Nombre de la caché
+         * @param clave Clave invalidada o <code>null</code> si se ha vaciado la caché entera
+         */
+        void publicar(String cache, String clave);
+    }
+
+    CacheDosNiveles(String nombre,
+                    com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                    RedisCache redis,
+                    PublicadorInvalidacion publicador) {
+        this.nombre = nombre;
+        this.local = local;
+        this.redis = redis;
+        this.publicador = publicador;
+    }
+
+    @Override
+    public String getName() {
+        return nombre;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redis.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String clave = clave(key);
+        Object valor = local.getIfPresent(clave);
+        if (valor != null) {
+            return new SimpleValueWrapper(valor);
+        }
+        ValueWrapper remoto = redis.get(key);
+        if (remoto != null && remoto.get() != null) {
+            local.put(clave, remoto.get());
+        }
+        return remoto;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper valor = get(key);
+        if (valor == null || valor.get() == null) {
+            return null;
+        }
+        if (type != null && !type.isInstance(valor.get())) {
+            throw new IllegalStateException("El valor en caché no es del tipo " + type.getName() + ": " + valor.get());
+        }
+        return (T) valor.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String clave = clave(key);
+        Object valor = local.getIfPresent(clave);
+        if (valor != null) {
+            return (T) valor;
+        }
+        T remoto = redis.get(key, valueLoader);
+        if (remoto != null) {
+            local.put(clave, remoto);
+        }
+        return remoto;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redis.put(key, value);
+        String clave = clave(key);
+        if (value != null) {
+            local.put(clave, value);
+        } else {
+            local.invalidate(clave);
+        }
+        publicador.publicar(nombre, clave);
+    }
+
+    @Override
+    public void evict(Object key) {
+        redis.evict(key);
+        String clave = clave(key);
+        local.invalidate(clave);
+        publicador.publicar(nombre, clave);
+    }
+
+    @Override
+    public void clear() {
+        redis.clear();
+        local.invalidateAll();
+        publicador.publicar(nombre, null);
+    }
+
+    /**
+     * Descarta la copia local de una clave sin tocar Redis. Se usa al recibir
+     * un mensaje de invalidación de otra réplica.
+     *
+     * @param clave Clave a descartar
+     */
+    void invalidarLocal(String clave) {
+        local.invalidate(clave);
+    }
+
+    /**
+     * Descarta todas las entradas locales sin tocar Redis.
+     */
+    void invalidarLocalTodo() {
+        local.invalidateAll();
+    }
+
+    /**
+     * @return Caché de Redis (segundo nivel)
+     */
+    public RedisCache getRedis() {
+        return redis;
+    }
+
+    /**
+     * @return Estadísticas de la caché en memoria (primer nivel)
+     */
+    public CacheStats estadisticasLocales() {
+        return local.stats();
+    }
+
+    /**
+     * @return Número aproximado de entradas en la caché en memoria
+     */
+    public long entradasLocales() {
+        return local.estimatedSize();
+    }
+
+    /**
+     * Las claves de la caché local se guardan como texto para que coincidan con las
+     * de Redis y con las que viajan en los mensajes de invalidación.
+     */
+    private static String clave(Object key) {
+        return String.valueOf(key);
+    }
+}
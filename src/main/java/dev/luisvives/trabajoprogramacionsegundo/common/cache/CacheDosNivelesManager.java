@@ -0,0 +1,124 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gestor de cachés de dos niveles ({@link CacheDosNiveles}).
+ * <p>
+ * Envuelve un {@link RedisCacheManager} y añade a cada caché una caché en memoria acotada
+ * según {@link CachePropiedades}. Publica los mensajes de invalidación en el canal de Redis
+ * configurado y, como {@link MessageListener}, descarta las entradas locales que invalidan
+ * las demás réplicas.
+ * </p>
+ */
+@Slf4j
+public class CacheDosNivelesManager implements CacheManager, MessageListener {
+
+    private final RedisCacheManager redisCacheManager;
+    private final CachePropiedades propiedades;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String instanciaId = UUID.randomUUID().toString();
+    private final Map<String, CacheDosNiveles> caches = new ConcurrentHashMap<>();
+
+    public CacheDosNivelesManager(RedisCacheManager redisCacheManager,
+                                  CachePropiedades propiedades,
+                                  StringRedisTemplate redisTemplate,
+                                  ObjectMapper objectMapper) {
+        this.redisCacheManager = redisCacheManager;
+        this.propiedades = propiedades;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::crear);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        Set<String> nombres = new LinkedHashSet<>(redisCacheManager.getCacheNames());
+        nombres.addAll(caches.keySet());
+        return nombres;
+    }
+
+    /**
+     * Recibe los mensajes de invalidación publicados por cualquier réplica.
+     * Los publicados por esta misma réplica se ignoran porque ya se aplicaron al escribir.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        MensajeInvalidacion mensaje;
+        try {
+            mensaje = objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), MensajeInvalidacion.class);
+        } catch (JsonProcessingException e) {
+            log.warn("CACHE: Mensaje de invalidación no válido: {}", e.getMessage());
+            return;
+        }
+        if (instanciaId.equals(mensaje.origen())) {
+            return;
+        }
+        CacheDosNiveles cache = caches.get(mensaje.cache());
+        if (cache == null) {
+            return;
+        }
+        if (mensaje.clave() == null) {
+            log.debug("CACHE: Vaciando caché local '{}' por invalidación remota", mensaje.cache());
+            cache.invalidarLocalTodo();
+        } else {
+            log.debug("CACHE: Invalidando clave '{}' de la caché local '{}'", mensaje.clave(), mensaje.cache());
+            cache.invalidarLocal(mensaje.clave());
+        }
+    }
+
+    /**
+     * @return Identificador de esta réplica en los mensajes de invalidación
+     */
+    String getInstanciaId() {
+        return instanciaId;
+    }
+
+    private CacheDosNiveles crear(String nombre) {
+        RedisCache redis = (RedisCache) redisCacheManager.getCache(nombre);
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumSize(propiedades.maxEntries(nombre))
+                .expireAfterWrite(propiedades.localTtl(nombre))
+                .recordStats()
+                .build();
+        log.info("CACHE: Caché local '{}' creada con {} entradas como máximo y TTL {}",
+                nombre, propiedades.maxEntries(nombre), propiedades.localTtl(nombre));
+        return new CacheDosNiveles(nombre, local, redis, this::publicar);
+    }
+
+    /**
+     * Publica la invalidación de una clave. Un fallo al publicar no debe impedir la escritura:
+     * las demás réplicas descartarán su copia al caducar el TTL local.
+     */
+    private void publicar(String cache, String clave) {
+        try {
+            String cuerpo = objectMapper.writeValueAsString(new MensajeInvalidacion(instanciaId, cache, clave));
+            redisTemplate.convertAndSend(propiedades.getCanalInvalidacion(), cuerpo);
+        } catch (Exception e) {
+            log.warn("CACHE: No se pudo publicar la invalidación de '{}' en la caché '{}': {}", clave, cache, e.getMessage());
+        }
+    }
+}
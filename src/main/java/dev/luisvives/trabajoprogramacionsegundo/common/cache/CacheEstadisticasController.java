@@ -0,0 +1,75 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CacheEstadisticasDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador REST de operaciones que expone las estadísticas de las cachés.
+ * Solo accesible para administradores.
+ */
+@RestController
+@RequestMapping("/cache")
+@PreAuthorize("hasRole('ADMIN')")
+@Slf4j
+public class CacheEstadisticasController {
+
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public CacheEstadisticasController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Devuelve las estadísticas de aciertos, fallos, escrituras y borrados de cada caché,
+     * sumando los aciertos de la caché local y los de Redis.
+     *
+     * @return Lista con un {@link CacheEstadisticasDTO} por caché
+     */
+    @GetMapping("/estadisticas")
+    public ResponseEntity<List<CacheEstadisticasDTO>> getEstadisticas() {
+        log.info("CONTROLLER: Obteniendo estadísticas de las cachés");
+
+        List<CacheEstadisticasDTO> estadisticas = cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(CacheDosNiveles.class::isInstance)
+                .map(cache -> toDto((CacheDosNiveles) cache))
+                .toList();
+
+        return ResponseEntity.ok(estadisticas);
+    }
+
+    /**
+     * Combina las estadísticas de los dos niveles. Los fallos de la caché local se
+     * resuelven en Redis, así que las lecturas totales son los aciertos locales más
+     * las lecturas de Redis.
+     */
+    private CacheEstadisticasDTO toDto(CacheDosNiveles cache) {
+        CacheStats local = cache.estadisticasLocales();
+        CacheStatistics redis = cache.getRedis().getStatistics();
+        long aciertos = local.hitCount() + redis.getHits();
+        long lecturas = local.hitCount() + redis.getHits() + redis.getMisses();
+        return CacheEstadisticasDTO.builder()
+                .nombre(cache.getName())
+                .aciertos(aciertos)
+                .fallos(redis.getMisses())
+                .escrituras(redis.getPuts())
+                .borrados(redis.getDeletes())
+                .ratioAciertos(lecturas == 0 ? 0.0 : (double) aciertos / lecturas)
+                .aciertosLocales(local.hitCount())
+                .expulsionesLocales(local.evictionCount())
+                .entradasLocales(cache.entradasLocales())
+                .build();
+    }
+}
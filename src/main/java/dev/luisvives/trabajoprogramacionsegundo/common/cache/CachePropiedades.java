@@ -0,0 +1,114 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Propiedades de configuración de las cachés de la aplicación.
+ * <p>
+ * Se leen del prefijo <code>app.cache</code> del archivo de configuración, por ejemplo:
+ * <pre>
+ * app.cache.default-ttl=PT10M
+ * app.cache.caches.productos.ttl=PT15M
+ * app.cache.caches.productos.local-ttl=PT1M
+ * app.cache.caches.productos.max-entries=10000
+ * </pre>
+ * El <code>ttl</code> se aplica a Redis (segundo nivel) y <code>local-ttl</code> y
+ * <code>max-entries</code> a la caché en memoria de cada réplica (primer nivel).
+ * </p>
+ *
+ * @see RedisCacheConfig
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class CachePropiedades {
+
+    /**
+     * Prefijo común de todas las claves que la aplicación guarda en Redis.
+     */
+    private String keyPrefix = "tienda";
+
+    /**
+     * Tiempo de vida por defecto de las entradas de una caché sin configuración propia.
+     */
+    private Duration defaultTtl = Duration.ofMinutes(10);
+
+    /**
+     * Tiempo de vida por defecto de las entradas en la caché local de cada réplica.
+     * Actúa como red de seguridad si se pierde algún mensaje de invalidación.
+     */
+    private Duration defaultLocalTtl = Duration.ofMinutes(1);
+
+    /**
+     * Número máximo de entradas por defecto de la caché local de cada réplica.
+     */
+    private long defaultMaxEntries = 10_000;
+
+    /**
+     * Canal de Redis por el que las réplicas se avisan de las entradas invalidadas.
+     */
+    private String canalInvalidacion = "tienda:cache:invalidacion";
+
+    /**
+     * Configuración específica de cada caché, indexada por su nombre.
+     */
+    private Map<String, Especificacion> caches = new HashMap<>();
+
+    /**
+     * Devuelve el tiempo de vida configurado para una caché concreta.
+     *
+     * @param nombre Nombre de la caché
+     * @return TTL de la caché o {@link #defaultTtl} si no tiene uno propio
+     */
+    public Duration ttl(String nombre) {
+        Especificacion especificacion = caches.get(nombre);
+        return especificacion != null && especificacion.getTtl() != null ? especificacion.getTtl() : defaultTtl;
+    }
+
+    /**
+     * Devuelve el tiempo de vida en la caché local configurado para una caché concreta.
+     *
+     * @param nombre Nombre de la caché
+     * @return TTL local de la caché o {@link #defaultLocalTtl} si no tiene uno propio
+     */
+    public Duration localTtl(String nombre) {
+        Especificacion especificacion = caches.get(nombre);
+        return especificacion != null && especificacion.getLocalTtl() != null ? especificacion.getLocalTtl() : defaultLocalTtl;
+    }
+
+    /**
+     * Devuelve el número máximo de entradas en la caché local configurado para una caché concreta.
+     *
+     * @param nombre Nombre de la caché
+     * @return Tamaño máximo de la caché local o {@link #defaultMaxEntries} si no tiene uno propio
+     */
+    public long maxEntries(String nombre) {
+        Especificacion especificacion = caches.get(nombre);
+        return especificacion != null && especificacion.getMaxEntries() != null ? especificacion.getMaxEntries() : defaultMaxEntries;
+    }
+
+    /**
+     * Configuración individual de una caché.
+     */
+    @Data
+    public static class Especificacion {
+        /**
+         * Tiempo de vida de cada entrada.
+         */
+        private Duration ttl;
+
+        /**
+         * Tiempo de vida de cada entrada en la caché local.
+         */
+        private Duration localTtl;
+
+        /**
+         * Número máximo de entradas de la caché local.
+         */
+        private Long maxEntries;
+    }
+}
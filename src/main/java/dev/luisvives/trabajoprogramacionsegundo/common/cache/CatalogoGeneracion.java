@@ -0,0 +1,48 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Número de generación del catálogo de productos y categorías, guardado en Redis.
+ * <p>
+ * Forma parte de la clave de las cachés de listados (ver {@link CatalogoKeyGenerator}).
+ * Cualquier escritura de productos o categorías lo incrementa, de modo que todas las
+ * páginas cacheadas con la generación anterior dejan de usarse de golpe, sin tener que
+ * buscar ni borrar claves. Las entradas antiguas desaparecen al caducar su TTL.
+ * </p>
+ */
+@Component
+@Slf4j
+public class CatalogoGeneracion {
+
+    private final StringRedisTemplate redisTemplate;
+    private final String clave;
+
+    @Autowired
+    public CatalogoGeneracion(StringRedisTemplate redisTemplate, CachePropiedades propiedades) {
+        this.redisTemplate = redisTemplate;
+        this.clave = propiedades.getKeyPrefix() + "::catalogo::generacion";
+    }
+
+    /**
+     * @return Generación actual del catálogo (0 si todavía no se ha modificado)
+     */
+    public long actual() {
+        String valor = redisTemplate.opsForValue().get(clave);
+        return valor == null ? 0L : Long.parseLong(valor);
+    }
+
+    /**
+     * Pasa a la siguiente generación, invalidando todos los listados cacheados.
+     *
+     * @return Nueva generación del catálogo
+     */
+    public long incrementar() {
+        Long generacion = redisTemplate.opsForValue().increment(clave);
+        log.debug("CACHE: Catálogo en la generación {}", generacion);
+        return generacion == null ? 0L : generacion;
+    }
+}
@@ -0,0 +1,84 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+
+/**
+ * Genera las claves de las cachés de listados del catálogo.
+ * <p>
+ * La clave se forma con la generación actual del catálogo ({@link CatalogoGeneracion}),
+ * el nombre del método y los parámetros normalizados: los textos se recortan y pasan a
+ * minúsculas, los filtros vacíos se representan con <code>_</code>, los números se escriben
+ * sin ceros sobrantes y la paginación como <code>página:tamaño:orden</code>. Así la misma
+ * consulta escrita de formas distintas comparte entrada, por ejemplo:
+ * </p>
+ * <pre>
+ * g42::findAllDto::silla::_::muebles::0:10:nombre-asc
+ * </pre>
+ */
+@Component("catalogoKeyGenerator")
+public class CatalogoKeyGenerator implements KeyGenerator {
+
+    private static final String VACIO = "_";
+
+    private final CatalogoGeneracion generacion;
+
+    @Autowired
+    public CatalogoKeyGenerator(CatalogoGeneracion generacion) {
+        this.generacion = generacion;
+    }
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        StringJoiner clave = new StringJoiner("::");
+        clave.add("g" + generacion.actual());
+        clave.add(method.getName());
+        for (Object param : params) {
+            clave.add(normalizar(param));
+        }
+        return clave.toString();
+    }
+
+    /**
+     * Representación normalizada de un parámetro dentro de la clave.
+     *
+     * @param valor Parámetro del método cacheado
+     * @return Texto que identifica el valor en la clave
+     */
+    static String normalizar(Object valor) {
+        if (valor instanceof Optional<?> opcional) {
+            return opcional.map(CatalogoKeyGenerator::normalizar).orElse(VACIO);
+        }
+        if (valor == null) {
+            return VACIO;
+        }
+        if (valor instanceof String texto) {
+            return texto.isBlank() ? VACIO : texto.trim().toLowerCase(Locale.ROOT);
+        }
+        if (valor instanceof Double || valor instanceof Float) {
+            return BigDecimal.valueOf(((Number) valor).doubleValue()).stripTrailingZeros().toPlainString();
+        }
+        if (valor instanceof Pageable pageable) {
+            String orden = normalizar(pageable.getSort());
+            return pageable.isPaged()
+                    ? pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + orden
+                    : "todo:" + orden;
+        }
+        if (valor instanceof Sort sort) {
+            return sort.isUnsorted() ? VACIO : sort.stream()
+                    .map(orden -> orden.getProperty() + "-" + orden.getDirection().name().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.joining(","));
+        }
+        return String.valueOf(valor);
+    }
+}
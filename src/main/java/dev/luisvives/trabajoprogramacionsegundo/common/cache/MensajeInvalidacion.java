@@ -0,0 +1,11 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.cache;
+
+/**
+ * Mensaje publicado en Redis cuando una réplica modifica una entrada de caché.
+ *
+ * @param origen Identificador de la réplica que publica el mensaje, para ignorar los propios
+ * @param cache  Nombre de la caché afectada
+ * @param clave  Clave invalidada o <code>null</code> si se ha vaciado la caché entera
+ */
+public record MensajeInvalidacion(String origen, String cache, String clave) {
+}
@@ -0,0 +1,159 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.GENERICcategoryResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas.FacetasResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.usuarios.dto.usuario.UsuariosAdminResponseDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuración de las cachés de la aplicación respaldadas por Redis.
+ * <p>
+ * Cada caché tiene dos niveles: una caché en memoria de la réplica delante de la caché
+ * compartida en Redis (ver {@link CacheDosNiveles}). Las réplicas se avisan por el canal
+ * de Redis <code>app.cache.canal-invalidacion</code> de las claves que modifican.
+ * </p>
+ * <p>
+ * Cada caché tiene su propio tiempo de vida (ver {@link CachePropiedades}) y un serializador
+ * JSON tipado con el DTO que almacena, de forma que en Redis no se guarda información de
+ * tipos (<code>@class</code>) y las entradas ocupan lo mínimo posible.
+ * </p>
+ * <p>
+ * Las estadísticas de aciertos, fallos, escrituras y borrados de cada caché están activadas
+ * y se pueden consultar mediante {@link CacheEstadisticasController}.
+ * </p>
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CachePropiedades.class)
+@Slf4j
+public class RedisCacheConfig {
+
+    private static final TypeFactory TIPOS = TypeFactory.defaultInstance();
+
+    /**
+     * Tipo de valor almacenado en cada una de las cachés conocidas por la aplicación.
+     */
+    static final Map<String, JavaType> TIPOS_CACHE = Map.of(
+            "productos", TIPOS.constructType(GENERICProductosResponseDTO.class),
+            "productosListado", TIPOS.constructParametricType(PageResponseDTO.class, GENERICProductosResponseDTO.class),
+            "productosFacetas", TIPOS.constructType(FacetasResponseDTO.class),
+            "categorias", TIPOS.constructType(GENERICcategoryResponseDTO.class),
+            "categoriasListado", TIPOS.constructCollectionType(List.class, GENERICcategoryResponseDTO.class),
+            "usuarios", TIPOS.constructType(UsuariosAdminResponseDto.class)
+    );
+
+    private final CachePropiedades propiedades;
+
+    @Autowired
+    public RedisCacheConfig(CachePropiedades propiedades) {
+        this.propiedades = propiedades;
+    }
+
+    /**
+     * Gestor de cachés de dos niveles: memoria local y Redis.
+     * <p>
+     * Las cachés no declaradas en {@link #TIPOS_CACHE} usan en Redis un serializador JSON
+     * genérico que guarda el tipo junto al valor.
+     * </p>
+     *
+     * @param connectionFactory Factoría de conexiones a Redis configurada por Spring Boot
+     * @param redisTemplate     Plantilla usada para publicar las invalidaciones
+     * @return {@link CacheDosNivelesManager} con una configuración propia por caché
+     */
+    @Bean
+    public CacheDosNivelesManager cacheManager(RedisConnectionFactory connectionFactory, StringRedisTemplate redisTemplate) {
+        ObjectMapper objectMapper = cacheObjectMapper();
+
+        Map<String, RedisCacheConfiguration> configuraciones = new LinkedHashMap<>();
+        TIPOS_CACHE.forEach((nombre, tipo) -> {
+            configuraciones.put(nombre, configuracion(nombre, new Jackson2JsonRedisSerializer<>(objectMapper, tipo)));
+            log.info("CACHE: Caché '{}' configurada con TTL {}", nombre, propiedades.ttl(nombre));
+        });
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(configuracion("default", RedisSerializer.json()))
+                .withInitialCacheConfigurations(configuraciones)
+                .enableStatistics()
+                .build();
+        // No es un bean, así que hay que inicializarlo a mano para que cree las cachés iniciales
+        redisCacheManager.afterPropertiesSet();
+
+        return new CacheDosNivelesManager(redisCacheManager, propiedades, redisTemplate, objectMapper);
+    }
+
+    /**
+     * Contenedor que escucha el canal de invalidaciones y las aplica a las cachés locales.
+     *
+     * @param connectionFactory Factoría de conexiones a Redis
+     * @param cacheManager      Gestor de cachés que recibe los mensajes
+     * @return Contenedor de listeners de Redis
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidacionListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           CacheDosNivelesManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(propiedades.getCanalInvalidacion()));
+        return container;
+    }
+
+    /**
+     * Construye la configuración de una caché concreta.
+     *
+     * @param nombre      Nombre de la caché
+     * @param serializador Serializador de los valores
+     * @return Configuración de Redis para esa caché
+     */
+    private RedisCacheConfiguration configuracion(String nombre, RedisSerializer<?> serializador) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(propiedades.ttl(nombre))
+                .disableCachingNullValues()
+                .computePrefixWith(cacheName -> propiedades.getKeyPrefix() + "::" + cacheName + "::")
+                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializador));
+    }
+
+    /**
+     * ObjectMapper usado para serializar los valores de la caché.
+     * <p>
+     * Omite los campos nulos para reducir el tamaño de cada entrada e ignora propiedades
+     * desconocidas para que las entradas antiguas sigan siendo legibles si un DTO cambia.
+     * </p>
+     *
+     * @return ObjectMapper configurado para la caché
+     */
+    static ObjectMapper cacheObjectMapper() {
+        return new ObjectMapper()
+                .findAndRegisterModules()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+}
@@ -0,0 +1,38 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con las estadísticas de uso de una caché.
+ *
+ * <b>Campos:</b>
+ * <ul>
+ *   <li><b>nombre</b> (<code>String</code>): Nombre de la caché.</li>
+ *   <li><b>aciertos</b> (<code>long</code>): Lecturas que encontraron el valor en caché, en memoria o en Redis.</li>
+ *   <li><b>fallos</b> (<code>long</code>): Lecturas que no encontraron el valor y tuvieron que ir a la base de datos.</li>
+ *   <li><b>escrituras</b> (<code>long</code>): Valores guardados en la caché.</li>
+ *   <li><b>borrados</b> (<code>long</code>): Entradas eliminadas o invalidadas.</li>
+ *   <li><b>ratioAciertos</b> (<code>double</code>): Proporción de aciertos sobre el total de lecturas (0 a 1).</li>
+ *   <li><b>aciertosLocales</b> (<code>long</code>): Lecturas servidas desde la memoria de la réplica, sin ir a Redis.</li>
+ *   <li><b>expulsionesLocales</b> (<code>long</code>): Entradas expulsadas de la memoria por tamaño o caducidad.</li>
+ *   <li><b>entradasLocales</b> (<code>long</code>): Entradas actualmente en la memoria de la réplica (aproximado).</li>
+ * </ul>
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheEstadisticasDTO {
+    private String nombre;
+    private long aciertos;
+    private long fallos;
+    private long escrituras;
+    private long borrados;
+    private double ratioAciertos;
+    private long aciertosLocales;
+    private long expulsionesLocales;
+    private long entradasLocales;
+}
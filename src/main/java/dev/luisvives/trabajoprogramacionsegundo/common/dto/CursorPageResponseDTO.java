@@ -0,0 +1,64 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO genérico que representa una página obtenida con paginación por cursor.
+ * <p>
+ * A diferencia de {@link PageResponseDTO} no incluye número de página ni totales: para
+ * pedir la página siguiente se envía de vuelta <code>nextCursor</code>.
+ * </p>
+ *
+ * <b>Campos:</b>
+ * <ul>
+ *   <li><b>content</b> (<code>List&lt;T&gt;</code>): Elementos de la página.</li>
+ *   <li><b>size</b> (<code>int</code>): Número de elementos de la página.</li>
+ *   <li><b>nextCursor</b> (<code>String</code>): Cursor opaco de la página siguiente o <code>null</code> si es la última.</li>
+ *   <li><b>hasNext</b> (<code>boolean</code>): Indica si hay más elementos después de esta página.</li>
+ *   <li><b>sortBy</b> (<code>String</code>): Campo por el que se ordena.</li>
+ *   <li><b>direction</b> (<code>String</code>): Dirección del orden: "asc" o "desc".</li>
+ * </ul>
+ *
+ * @param <T> Tipo de los elementos contenidos en la lista <code>content</code>.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPageResponseDTO<T> {
+
+    /**
+     * Elementos de la página.
+     */
+    private List<T> content;
+
+    /**
+     * Número de elementos de la página.
+     */
+    private int size;
+
+    /**
+     * Cursor de la página siguiente, <code>null</code> si no hay más.
+     */
+    private String nextCursor;
+
+    /**
+     * Indica si hay más elementos después de esta página.
+     */
+    private boolean hasNext;
+
+    /**
+     * Campo por el que se ordena.
+     */
+    private String sortBy;
+
+    /**
+     * Dirección del orden: "asc" (ascendente) o "desc" (descendente).
+     */
+    private String direction;
+}
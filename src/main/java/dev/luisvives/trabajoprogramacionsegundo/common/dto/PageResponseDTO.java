@@ -17,8 +17,8 @@ import java.util.List;
  * <b>Campos:</b>
  * <ul>
  *   <li><b>content</b> (<code>List&lt;T&gt;</code>): Lista de productos de la página actual.</li>
- *   <li><b>totalPages</b> (<code>int</code>): Número total de páginas disponibles.</li>
- *   <li><b>totalElements</b> (<code>long</code>): Número total de productos.</li>
+ *   <li><b>totalPages</b> (<code>int</code>): Número total de páginas disponibles, -1 si se ha pedido sin conteo.</li>
+ *   <li><b>totalElements</b> (<code>long</code>): Número total de productos, -1 si se ha pedido sin conteo.</li>
  *   <li><b>pageSize</b> (<code>int</code>): Cantidad de productos por página.</li>
  *   <li><b>pageNumber</b> (<code>int</code>): Número de la página actual (comenzando en 0).</li>
  *   <li><b>totalPageElements</b> (<code>int</code>): Número de productos en la página actual (puede ser menor que <code>pageSize</code> si es la última página).</li>
@@ -43,12 +43,12 @@ public class PageResponseDTO<T> {
     private List<T> content;
 
     /**
-     * Número total de páginas disponibles.
+     * Número total de páginas disponibles, -1 si la página se ha obtenido sin conteo.
      */
     private int totalPages;
 
     /**
-     * Número total de productos en la consulta.
+     * Número total de productos en la consulta, -1 si la página se ha obtenido sin conteo.
      */
     private long totalElements;
 
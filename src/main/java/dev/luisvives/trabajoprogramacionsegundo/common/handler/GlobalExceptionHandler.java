@@ -1,5 +1,7 @@
 package dev.luisvives.trabajoprogramacionsegundo.common.handler;
 
+import dev.luisvives.trabajoprogramacionsegundo.common.idempotencia.IdempotenciaException;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.CursorInvalidoException;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.exceptions.PedidoException;
 import dev.luisvives.trabajoprogramacionsegundo.productos.exceptions.CategoryNotFoundException;
 import dev.luisvives.trabajoprogramacionsegundo.productos.exceptions.CategoryValidationException;
@@ -113,6 +115,34 @@ public class GlobalExceptionHandler {
         return Map.of("error", ex.getMessage());
     }
 
+    /**
+     * Maneja las excepciones de tipo StockException lanzadas por los servicios.
+     * Convierte StockException en un 409 Conflict.
+     *
+     * @param ex Excepción personalizada que indica que no hay stock suficiente para el pedido.
+     * @return Un mapa con un único elemento "error" con el mensaje de la excepción.
+     */
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(PedidoException.StockException.class)
+    public Map<String, String> handleStockExceptions(PedidoException.StockException ex) {
+        log.info("MANEJADOR DE EXCEPCIONES: Convirtiendo StockException en 409 Conflict");
+        return Map.of("error", ex.getMessage());
+    }
+
+    /**
+     * Maneja las excepciones de tipo ParkedException lanzadas por los servicios.
+     * Convierte ParkedException en un 409 Conflict.
+     *
+     * @param ex Excepción personalizada que indica que el pedido tiene cambios aparcados en la outbox.
+     * @return Un mapa con un único elemento "error" con el mensaje de la excepción.
+     */
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(PedidoException.ParkedException.class)
+    public Map<String, String> handleParkedExceptions(PedidoException.ParkedException ex) {
+        log.info("MANEJADOR DE EXCEPCIONES: Convirtiendo ParkedException en 409 Conflict");
+        return Map.of("error", ex.getMessage());
+    }
+
     /**
      * Maneja las excepciones de tipo ValidationException lanzadas por los servicios.
      * Convierte ValidationException en un 400 Bad Request.
@@ -183,6 +213,20 @@ public class GlobalExceptionHandler {
         return Map.of("error", ex.getMessage());
     }
 
+    /**
+     * Maneja las excepciones de tipo CursorInvalidoException lanzadas por la paginación por cursor.
+     * Convierte CursorInvalidoException en un 400 Bad Request.
+     *
+     * @param ex Excepción que indica que el cursor o la ordenación pedida no son válidos.
+     * @return Un mapa con un único elemento "error" con el mensaje de la excepción.
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(CursorInvalidoException.class)
+    public Map<String, String> handleCursorInvalidoExceptions(CursorInvalidoException ex) {
+        log.info("MANEJADOR DE EXCEPCIONES: Convirtiendo CursorInvalidoException en 400 BAD Request");
+        return Map.of("error", ex.getMessage());
+    }
+
     /**
      * Maneja las excepciones de tipo UserForbiddenException lanzadas por los servicios.
      * Convierte UserForbiddenException en un 403 Forbidden.
@@ -196,4 +240,32 @@ public class GlobalExceptionHandler {
         log.info("MANEJADOR DE EXCEPCIONES: Convirtiendo UserForbiddenException en 403 Forbidden");
         return Map.of("error", ex.getMessage());
     }
+
+    /**
+     * Maneja las excepciones de tipo ClaveReutilizadaException lanzadas al repetir una petición.
+     * Convierte ClaveReutilizadaException en un 422 Unprocessable Entity.
+     *
+     * @param ex Excepción que indica que la clave de idempotencia ya se usó con otra petición.
+     * @return Un mapa con un único elemento "error" con el mensaje de la excepción.
+     */
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    @ExceptionHandler(IdempotenciaException.ClaveReutilizadaException.class)
+    public Map<String, String> handleClaveReutilizadaExceptions(IdempotenciaException.ClaveReutilizadaException ex) {
+        log.info("MANEJADOR DE EXCEPCIONES: Convirtiendo ClaveReutilizadaException en 422 Unprocessable Entity");
+        return Map.of("error", ex.getMessage());
+    }
+
+    /**
+     * Maneja las excepciones de tipo EnCursoException lanzadas al repetir una petición.
+     * Convierte EnCursoException en un 409 Conflict.
+     *
+     * @param ex Excepción que indica que la petición original con la misma clave sigue en curso.
+     * @return Un mapa con un único elemento "error" con el mensaje de la excepción.
+     */
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(IdempotenciaException.EnCursoException.class)
+    public Map<String, String> handleEnCursoExceptions(IdempotenciaException.EnCursoException ex) {
+        log.info("MANEJADOR DE EXCEPCIONES: Convirtiendo EnCursoException en 409 Conflict");
+        return Map.of("error", ex.getMessage());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.http;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cabecera <code>Cache-Control</code> de los listados del catálogo (prefijo <code>app.http.listados</code>).
+ * <p>
+ * Durante <code>max-age</code> el navegador o el proxy reutilizan la respuesta sin preguntar;
+ * después, y durante <code>stale-while-revalidate</code>, pueden seguir sirviéndola mientras
+ * la revalidan en segundo plano con su ETag.
+ * </p>
+ *
+ * @see RespuestaListado
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.http.listados")
+public class ListadosHttpPropiedades {
+
+    /**
+     * Tiempo durante el que la respuesta se considera fresca.
+     */
+    private Duration maxAge = Duration.ofSeconds(30);
+
+    /**
+     * Tiempo extra durante el que se puede servir caducada mientras se revalida.
+     */
+    private Duration staleWhileRevalidate = Duration.ofSeconds(60);
+}
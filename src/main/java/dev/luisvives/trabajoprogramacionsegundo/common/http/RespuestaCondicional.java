@@ -0,0 +1,59 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.http;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Respuestas de lectura con validadores HTTP (<code>ETag</code> y <code>Last-Modified</code>).
+ * <p>
+ * Si la petición trae un <code>If-None-Match</code> (o un <code>If-Modified-Since</code>) que
+ * coincide, Spring contesta <code>304 Not Modified</code> a partir de estas cabeceras sin llegar a
+ * serializar el cuerpo. Como los DTO de un solo recurso salen de la caché del servicio, validar
+ * la copia del cliente tampoco consulta la base de datos.
+ * </p>
+ */
+public final class RespuestaCondicional {
+
+    private RespuestaCondicional() {
+    }
+
+    /**
+     * <code>200 OK</code> con el cuerpo, su ETag y su fecha de modificación. Se envía
+     * <code>Cache-Control: no-cache</code> para que el cliente guarde la respuesta pero la
+     * revalide en cada uso.
+     *
+     * @param cuerpo            DTO de respuesta
+     * @param fechaModificacion Fecha de la última modificación de la entidad, puede ser nula
+     * @param <T>               Tipo del cuerpo
+     * @return La respuesta con las cabeceras de validación
+     */
+    public static <T> ResponseEntity<T> ok(T cuerpo, LocalDateTime fechaModificacion) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag(cuerpo, fechaModificacion));
+        if (fechaModificacion != null) {
+            respuesta.lastModified(fechaModificacion.atZone(ZoneId.systemDefault()));
+        }
+        return respuesta.body(cuerpo);
+    }
+
+    /**
+     * ETag fuerte de un DTO: la fecha de modificación en microsegundos (la precisión de
+     * PostgreSQL) más el hash del propio DTO. El hash hace que el ETag cambie también cuando
+     * cambia un dato derivado que no toca la fecha de la entidad, como el nombre de la categoría
+     * de un producto.
+     *
+     * @param cuerpo            DTO de respuesta
+     * @param fechaModificacion Fecha de la última modificación, puede ser nula
+     * @return El ETag entre comillas
+     */
+    public static String etag(Object cuerpo, LocalDateTime fechaModificacion) {
+        long version = fechaModificacion == null ? 0
+                : fechaModificacion.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + fechaModificacion.getNano() / 1_000;
+        return "\"" + Long.toHexString(version) + "-" + Integer.toHexString(cuerpo.hashCode()) + "\"";
+    }
+}
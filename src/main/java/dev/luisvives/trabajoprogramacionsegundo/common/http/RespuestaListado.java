@@ -0,0 +1,58 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.http;
+
+import dev.luisvives.trabajoprogramacionsegundo.common.cache.CatalogoGeneracion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Respuestas de los listados del catálogo con ETag y <code>Cache-Control</code>.
+ * <p>
+ * El ETag es la generación del catálogo ({@link CatalogoGeneracion}), que cambia con cualquier
+ * escritura de productos o categorías. Para una misma URL, misma generación significa mismo
+ * contenido, así que un <code>If-None-Match</code> que coincide se contesta con
+ * <code>304 Not Modified</code> sin ejecutar la consulta.
+ * </p>
+ * <p>
+ * La generación se lee antes de consultar: si el catálogo cambia entre medias, la respuesta
+ * sale con la generación anterior y el cliente la descarga de nuevo en la siguiente
+ * revalidación. Nunca se da por buena una copia más antigua que la generación actual.
+ * </p>
+ */
+@Component
+public class RespuestaListado {
+
+    private final CatalogoGeneracion catalogoGeneracion;
+    private final ListadosHttpPropiedades propiedades;
+
+    @Autowired
+    public RespuestaListado(CatalogoGeneracion catalogoGeneracion, ListadosHttpPropiedades propiedades) {
+        this.catalogoGeneracion = catalogoGeneracion;
+        this.propiedades = propiedades;
+    }
+
+    /**
+     * Contesta <code>304</code> si el cliente tiene la generación actual o, si no,
+     * <code>200 OK</code> con el resultado de la consulta.
+     *
+     * @param peticion Petición con las cabeceras condicionales
+     * @param consulta Consulta del listado, solo se ejecuta si hace falta el cuerpo
+     * @param <T>      Tipo del cuerpo
+     * @return La respuesta con ETag y <code>Cache-Control</code>
+     */
+    public <T> ResponseEntity<T> responder(WebRequest peticion, Supplier<T> consulta) {
+        String etag = "\"catalogo-" + catalogoGeneracion.actual() + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(propiedades.getMaxAge())
+                .staleWhileRevalidate(propiedades.getStaleWhileRevalidate())
+                .cachePublic();
+        if (peticion.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(consulta.get());
+    }
+}
@@ -0,0 +1,199 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.idempotencia;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.luisvives.trabajoprogramacionsegundo.common.cache.CachePropiedades;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Peticiones idempotentes con la cabecera <code>Idempotency-Key</code>, guardadas en Redis.
+ * <p>
+ * La primera petición con una clave reserva la clave con <code>SET NX</code>, se ejecuta y deja
+ * su respuesta guardada durante {@link IdempotenciaPropiedades#getTtl()}. Las repeticiones con la
+ * misma clave y el mismo cuerpo reciben esa respuesta sin volver a ejecutarse, así que no crean
+ * otro pedido ni envían otro email o notificación; si llegan mientras la original sigue en curso,
+ * esperan a que termine. Una clave reutilizada con otro cuerpo se rechaza.
+ * </p>
+ * <p>
+ * Solo se guardan las respuestas correctas: si la petición original lanza una excepción la clave
+ * se libera y el cliente puede reintentar con ella. De la respuesta se guardan el estado y el
+ * cuerpo, no las cabeceras.
+ * </p>
+ */
+@Slf4j
+@Component
+public class Idempotencia {
+
+    /**
+     * Cabecera con la clave de idempotencia que elige el cliente.
+     */
+    public static final String CABECERA = "Idempotency-Key";
+
+    /**
+     * Cabecera que marca las respuestas repetidas desde Redis.
+     */
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    private static final String EN_CURSO = "EN_CURSO";
+    private static final String COMPLETADA = "COMPLETADA";
+
+    // Solo la petición que reservó la clave puede liberarla o completarla: si su reserva caducó y
+    // otra la ha tomado, no se pisa
+    private static final RedisScript<Long> BORRAR_SI_IGUAL = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    private static final RedisScript<Long> REEMPLAZAR_SI_IGUAL = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final IdempotenciaPropiedades propiedades;
+    private final String prefijo;
+
+    @Autowired
+    public Idempotencia(StringRedisTemplate redisTemplate,
+                        ObjectMapper objectMapper,
+                        IdempotenciaPropiedades propiedades,
+                        CachePropiedades cachePropiedades) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.propiedades = propiedades;
+        this.prefijo = cachePropiedades.getKeyPrefix() + "::idempotencia::";
+    }
+
+    /**
+     * Ejecuta una petición una sola vez por clave.
+     *
+     * @param ambito   Ámbito de la clave (operación y usuario), para que las claves de distintos
+     *                 clientes no choquen
+     * @param clave    Valor de la cabecera {@value #CABECERA}; si es nulo la petición se ejecuta sin más
+     * @param peticion Cuerpo de la petición; una repetición tiene que traer el mismo
+     * @param tipo     Clase del cuerpo de la respuesta, para leerla de Redis al repetirla
+     * @param accion   Ejecución real de la petición
+     * @param <T>      Tipo del cuerpo de la respuesta
+     * @return La respuesta de la petición, la nueva o la guardada
+     * @throws IdempotenciaException.ClaveReutilizadaException Si la clave ya se usó con otro cuerpo
+     * @throws IdempotenciaException.EnCursoException          Si la petición original no termina a tiempo
+     */
+    public <T> ResponseEntity<T> ejecutar(String ambito, String clave, Object peticion, Class<T> tipo,
+                                          Supplier<ResponseEntity<T>> accion) {
+        if (clave == null || clave.isBlank()) {
+            return accion.get();
+        }
+        String claveRedis = prefijo + ambito + "::" + sha256(clave);
+        String huella = sha256(escribir(peticion));
+        String enCurso = escribir(new Registro(EN_CURSO, huella, UUID.randomUUID().toString(), null, null));
+        Instant limite = Instant.now().plus(propiedades.getEspera());
+
+        while (true) {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(claveRedis, enCurso, propiedades.getBloqueo()))) {
+                return ejecutarOriginal(claveRedis, enCurso, huella, accion);
+            }
+            String valor = redisTemplate.opsForValue().get(claveRedis);
+            if (valor == null) {
+                // La original ha fallado o su reserva ha caducado: se intenta reservar otra vez
+                continue;
+            }
+            Registro registro = leer(valor, Registro.class);
+            if (!huella.equals(registro.huella())) {
+                throw new IdempotenciaException.ClaveReutilizadaException(
+                        "La clave de idempotencia " + clave + " ya se ha usado con otra petición");
+            }
+            if (COMPLETADA.equals(registro.estado())) {
+                log.info("IDEMPOTENCIA: Repitiendo la respuesta guardada de la clave {}", clave);
+                return ResponseEntity.status(registro.estadoHttp())
+                        .header(CABECERA_REPETIDA, "true")
+                        .body(leer(registro.cuerpo(), tipo));
+            }
+            if (Instant.now().isAfter(limite)) {
+                throw new IdempotenciaException.EnCursoException(
+                        "La petición con la clave de idempotencia " + clave + " sigue en curso");
+            }
+            esperar();
+        }
+    }
+
+    /**
+     * Ejecuta la petición que ha reservado la clave y guarda su respuesta, o libera la clave si falla.
+     */
+    private <T> ResponseEntity<T> ejecutarOriginal(String claveRedis, String enCurso, String huella,
+                                                   Supplier<ResponseEntity<T>> accion) {
+        ResponseEntity<T> respuesta;
+        try {
+            respuesta = accion.get();
+        } catch (RuntimeException e) {
+            redisTemplate.execute(BORRAR_SI_IGUAL, List.of(claveRedis), enCurso);
+            throw e;
+        }
+        String completada = escribir(new Registro(COMPLETADA, huella, null,
+                respuesta.getStatusCode().value(), escribir(respuesta.getBody())));
+        Long guardada = redisTemplate.execute(REEMPLAZAR_SI_IGUAL, List.of(claveRedis),
+                enCurso, completada, String.valueOf(propiedades.getTtl().toMillis()));
+        if (guardada == null || guardada == 0) {
+            log.warn("IDEMPOTENCIA: La reserva de {} caducó antes de terminar la petición; no se guarda la respuesta", claveRedis);
+        }
+        return respuesta;
+    }
+
+    private void esperar() {
+        try {
+            Thread.sleep(propiedades.getSondeo().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotenciaException.EnCursoException("Interrumpida la espera de la petición original");
+        }
+    }
+
+    private String escribir(Object valor) {
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T leer(String json, Class<T> tipo) {
+        try {
+            return objectMapper.readValue(json, tipo);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String sha256(String valor) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(valor.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Valor guardado en Redis para cada clave.
+     *
+     * @param estado      {@value #EN_CURSO} o {@value #COMPLETADA}
+     * @param huella      SHA-256 del cuerpo de la petición
+     * @param token       Identificador de la petición que tiene reservada la clave
+     * @param estadoHttp Código HTTP de la respuesta guardada
+     * @param cuerpo      Cuerpo de la respuesta guardada, en JSON
+     */
+    record Registro(String estado, String huella, String token, Integer estadoHttp, String cuerpo) {
+    }
+}
@@ -0,0 +1,24 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.idempotencia;
+
+/**
+ * Excepciones de las peticiones con cabecera <code>Idempotency-Key</code>.
+ *
+ * @see Idempotencia
+ */
+public sealed class IdempotenciaException extends RuntimeException {
+    public IdempotenciaException(String message) { super(message); }
+
+    /**
+     * La clave ya se usó con una petición distinta.
+     */
+    public static final class ClaveReutilizadaException extends IdempotenciaException {
+        public ClaveReutilizadaException(String message) { super(message); }
+    }
+
+    /**
+     * La petición original con la misma clave sigue en curso pasado el tiempo de espera.
+     */
+    public static final class EnCursoException extends IdempotenciaException {
+        public EnCursoException(String message) { super(message); }
+    }
+}
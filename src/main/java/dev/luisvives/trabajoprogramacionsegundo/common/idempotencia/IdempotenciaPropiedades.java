@@ -0,0 +1,39 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.idempotencia;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuración de las claves de idempotencia (prefijo <code>app.idempotencia</code>).
+ *
+ * @see Idempotencia
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.idempotencia")
+public class IdempotenciaPropiedades {
+
+    /**
+     * Tiempo durante el que se guarda la respuesta de una clave para repetirla.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Tiempo máximo que una petición en curso retiene su clave. Si la réplica que la atiende se
+     * cae, pasado este tiempo otra petición con la misma clave puede volver a ejecutarla.
+     */
+    private Duration bloqueo = Duration.ofSeconds(30);
+
+    /**
+     * Tiempo máximo que una petición repetida espera a que termine la original.
+     */
+    private Duration espera = Duration.ofSeconds(10);
+
+    /**
+     * Cada cuánto se consulta Redis mientras se espera a la petición original.
+     */
+    private Duration sondeo = Duration.ofMillis(100);
+}
@@ -0,0 +1,82 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.outbox;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Efecto pendiente de un cambio, guardado en la misma transacción que el propio cambio.
+ * <p>
+ * <b>Campos:</b><br>
+ * - <b>id</b> (<code>Long</code>): Identificador; marca el orden de entrega dentro de cada agregado.<br>
+ * - <b>agregado</b> (<code>String</code>): Entidad a la que afecta (por ejemplo <code>pedido:&lt;id&gt;</code>).<br>
+ * - <b>tipo</b> (<code>String</code>): Tipo de evento; decide qué {@link ManejadorOutbox} lo aplica.<br>
+ * - <b>payload</b> (<code>String</code>): Datos del evento en JSON.<br>
+ * - <b>creadoEn</b> (<code>LocalDateTime</code>): Fecha y hora en que se registró.<br>
+ * - <b>intentos</b> (<code>Integer</code>): Entregas fallidas hasta ahora.<br>
+ * - <b>siguienteIntento</b> (<code>LocalDateTime</code>): Momento a partir del cual se puede volver a entregar.<br>
+ * - <b>ultimoError</b> (<code>String</code>): Mensaje del último fallo, si lo hubo.<br>
+ * - <b>estado</b> ({@link Estado}): Pendiente de entregar o aparcado tras agotar los intentos.<br>
+ * </p>
+ *
+ * @see OutboxRelay
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "outbox_eventos")
+public class EventoOutbox {
+    @Id
+    // Sin secuencia por bloques: con varias réplicas los ids reservados por bloques no seguirían
+    // el orden en que se registran los eventos (ver V5__outbox.sql)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String agregado;
+
+    @Column(nullable = false)
+    private String tipo;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime creadoEn;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer intentos = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime siguienteIntento;
+
+    @Column(columnDefinition = "TEXT")
+    private String ultimoError;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private Estado estado = Estado.PENDIENTE;
+
+    /**
+     * Estado de entrega de un evento.
+     */
+    public enum Estado {
+        /**
+         * Se entrega en cuanto llegue su <code>siguienteIntento</code>.
+         */
+        PENDIENTE,
+        /**
+         * Ha fallado el máximo de intentos: no se vuelve a entregar ni bloquea a los siguientes
+         * eventos de su agregado. Se queda en la tabla, con su error, para revisarlo a mano.
+         */
+        APARCADO
+    }
+}
@@ -0,0 +1,110 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de los eventos pendientes de la outbox.
+ */
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    /**
+     * Reclama un lote de eventos listos para entregar y los bloquea hasta el final de la
+     * transacción, en la que se reservan con {@link #reservar}. Solo se devuelve el primer evento
+     * pendiente de cada agregado, así que los eventos de un mismo agregado se aplican en orden
+     * aunque haya varias réplicas repartiendo; los aparcados no cuentan. Con <code>SKIP LOCKED</code>
+     * cada réplica se salta las filas que ya ha reclamado otra en vez de esperarlas.
+     *
+     * @param ahora  Momento actual: solo se reclaman eventos con <code>siguienteIntento</code> anterior
+     * @param limite Número máximo de eventos
+     * @return Eventos reclamados, en orden de id
+     */
+    @Query(value = """
+            SELECT * FROM outbox_eventos e
+            WHERE e.estado = 'PENDIENTE'
+              AND e.siguiente_intento <= :ahora
+              AND NOT EXISTS (SELECT 1 FROM outbox_eventos a
+                              WHERE a.agregado = e.agregado AND a.id < e.id AND a.estado = 'PENDIENTE')
+            ORDER BY e.id
+            LIMIT :limite
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<EventoOutbox> reclamarLote(@Param("ahora") LocalDateTime ahora, @Param("limite") int limite);
+
+    /**
+     * Reserva los eventos reclamados hasta el momento indicado: mientras tanto ninguna réplica
+     * los vuelve a reclamar, y como siguen en la tabla, tampoco a los siguientes de su agregado.
+     *
+     * @param ids   Eventos reclamados
+     * @param hasta Fin de la reserva
+     * @return Número de eventos reservados
+     */
+    @Modifying
+    @Query("UPDATE EventoOutbox e SET e.siguienteIntento = :hasta WHERE e.id IN :ids")
+    int reservar(@Param("ids") Collection<Long> ids, @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Guarda el resultado de una entrega fallida. Si el evento ya no está (otra réplica lo ha
+     * entregado al acabar su reserva), no hace nada.
+     *
+     * @param id        Evento
+     * @param intentos  Entregas fallidas
+     * @param error     Mensaje del fallo
+     * @param siguiente Momento del siguiente intento
+     * @param estado    Pendiente, o aparcado si se han agotado los intentos
+     * @return Número de eventos actualizados
+     */
+    @Modifying
+    @Query("""
+            UPDATE EventoOutbox e
+            SET e.intentos = :intentos, e.ultimoError = :error, e.siguienteIntento = :siguiente, e.estado = :estado
+            WHERE e.id = :id
+            """)
+    int reprogramar(@Param("id") Long id,
+                    @Param("intentos") int intentos,
+                    @Param("error") String error,
+                    @Param("siguiente") LocalDateTime siguiente,
+                    @Param("estado") EventoOutbox.Estado estado);
+
+    /**
+     * Bloquea un agregado hasta el final de la transacción en curso: otra transacción que pida el
+     * mismo agregado espera a que esta se confirme o se deshaga. El bloqueo es consultivo
+     * (<code>pg_advisory_xact_lock</code>) sobre el hash del agregado, así que no bloquea ninguna
+     * fila; si dos agregados comparten hash, solo se esperan sin necesidad.
+     *
+     * @param agregado Agregado a bloquear
+     * @return Siempre 1, cuando se ha obtenido el bloqueo
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext(:agregado))", nativeQuery = true)
+    int bloquear(@Param("agregado") String agregado);
+
+    /**
+     * Busca el último evento de un agregado entre los tipos indicados y en el estado indicado.
+     *
+     * @param agregado Agregado de los eventos
+     * @param tipos    Tipos de evento que interesan
+     * @param estado   Estado de los eventos: pendientes o aparcados
+     * @return El evento más reciente, o vacío si no hay ninguno
+     */
+    Optional<EventoOutbox> findFirstByAgregadoAndTipoInAndEstadoOrderByIdDesc(String agregado,
+                                                                             Collection<String> tipos,
+                                                                             EventoOutbox.Estado estado);
+
+    /**
+     * Indica si un agregado tiene algún evento en el estado indicado.
+     *
+     * @param agregado Agregado de los eventos
+     * @param estado   Estado de los eventos
+     * @return <code>true</code> si hay al menos uno
+     */
+    boolean existsByAgregadoAndEstado(String agregado, EventoOutbox.Estado estado);
+}
@@ -0,0 +1,31 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.outbox;
+
+import java.util.Set;
+
+/**
+ * Aplica los eventos de la outbox de unos tipos concretos. {@link OutboxRelay} recoge todos
+ * los beans que implementan esta interfaz.
+ * <p>
+ * La entrega es "al menos una vez": si algo falla después de aplicar el efecto y antes de borrar
+ * el evento, o la entrega tarda más que su reserva, el evento se vuelve a entregar. Por eso cada
+ * manejador debe ser idempotente o tolerar repeticiones.
+ * </p>
+ */
+public interface ManejadorOutbox {
+
+    /**
+     * Tipos de evento que atiende este manejador.
+     *
+     * @return Conjunto de tipos
+     */
+    Set<String> tipos();
+
+    /**
+     * Aplica el efecto de un evento, fuera de cualquier transacción de la outbox. Si lanza una
+     * excepción el evento se reintenta más tarde, hasta aparcarlo al agotar los intentos.
+     *
+     * @param evento Evento a aplicar
+     * @throws Exception Si el efecto no se ha podido aplicar
+     */
+    void manejar(EventoOutbox evento) throws Exception;
+}
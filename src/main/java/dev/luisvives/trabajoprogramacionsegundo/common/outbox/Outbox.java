@@ -0,0 +1,40 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.outbox;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de eventos en la outbox.
+ */
+@Component
+public class Outbox {
+
+    private final EventoOutboxRepository repository;
+
+    public Outbox(EventoOutboxRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Guarda un evento pendiente. Exige una transacción en curso: el evento se confirma o se
+     * deshace junto con el cambio que lo produce, y ningún efecto se pierde ni se aplica de más.
+     *
+     * @param agregado Entidad a la que afecta el evento
+     * @param tipo     Tipo de evento
+     * @param payload  Datos del evento en JSON
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(String agregado, String tipo, String payload) {
+        LocalDateTime ahora = LocalDateTime.now();
+        repository.save(EventoOutbox.builder()
+                .agregado(agregado)
+                .tipo(tipo)
+                .payload(payload)
+                .creadoEn(ahora)
+                .siguienteIntento(ahora)
+                .build());
+    }
+}
@@ -0,0 +1,50 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.outbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuración del reparto de la outbox (prefijo <code>app.outbox</code>).
+ *
+ * @see OutboxRelay
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxPropiedades {
+
+    /**
+     * Tiempo entre el final de un reparto y el comienzo del siguiente.
+     */
+    private Duration intervalo = Duration.ofMillis(500);
+
+    /**
+     * Eventos que se reclaman en cada transacción.
+     */
+    private int tamanoLote = 100;
+
+    /**
+     * Espera tras el primer fallo de un evento; se duplica con cada fallo siguiente.
+     */
+    private Duration esperaInicial = Duration.ofSeconds(1);
+
+    /**
+     * Espera máxima entre reintentos de un evento.
+     */
+    private Duration esperaMaxima = Duration.ofMinutes(5);
+
+    /**
+     * Intentos fallidos tras los que un evento se aparca.
+     */
+    private int maxIntentos = 20;
+
+    /**
+     * Tiempo que un evento reclamado queda reservado para quien lo entrega. Si pasado este
+     * tiempo no se ha borrado ni reprogramado (por ejemplo porque la réplica se ha caído), se
+     * vuelve a entregar.
+     */
+    private Duration plazoEntrega = Duration.ofMinutes(1);
+}
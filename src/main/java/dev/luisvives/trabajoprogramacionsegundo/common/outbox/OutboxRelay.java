@@ -0,0 +1,144 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reparte en segundo plano los eventos de la outbox a su {@link ManejadorOutbox}.
+ * <p>
+ * Cada lote pasa por dos transacciones cortas: en la primera se reclaman los eventos y se
+ * reservan durante el plazo de entrega; después se aplican fuera de cualquier transacción, sin
+ * retener bloqueos en PostgreSQL mientras se escribe en MongoDB o se envía un email; y en la
+ * segunda se borran los aplicados y se reprograman los fallidos. Si la aplicación se cae a mitad,
+ * los eventos siguen en la tabla y se vuelven a entregar al acabar su reserva.
+ * </p>
+ * <p>
+ * Un evento que falla se reintenta con esperas crecientes; mientras tanto los eventos posteriores
+ * del mismo agregado esperan a que se aplique. Al llegar al máximo de intentos se aparca y deja
+ * de bloquear a los siguientes.
+ * </p>
+ *
+ * @see EventoOutboxRepository#reclamarLote
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final EventoOutboxRepository repository;
+    private final OutboxPropiedades propiedades;
+    private final TransactionTemplate transaccion;
+
+    /**
+     * Manejador de cada tipo de evento.
+     */
+    private final Map<String, ManejadorOutbox> manejadores = new HashMap<>();
+
+    public OutboxRelay(EventoOutboxRepository repository,
+                       List<ManejadorOutbox> manejadores,
+                       OutboxPropiedades propiedades,
+                       PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.propiedades = propiedades;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        manejadores.forEach(manejador -> manejador.tipos().forEach(tipo -> this.manejadores.put(tipo, manejador)));
+    }
+
+    /**
+     * Reparte lotes hasta que no queda ningún evento listo. Como cada lote solo trae el primer
+     * evento pendiente de cada agregado, los siguientes salen en los lotes posteriores.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.intervalo:PT0.5S}")
+    public void repartir() {
+        int procesados;
+        do {
+            procesados = procesarLote();
+        } while (procesados > 0);
+    }
+
+    /**
+     * Reclama un lote, aplica cada evento y borra los aplicados. Los que fallan se reprograman
+     * o, si han agotado los intentos, se aparcan.
+     *
+     * @return Número de eventos reclamados
+     */
+    int procesarLote() {
+        List<EventoOutbox> lote = transaccion.execute(estado -> reclamar());
+        if (lote == null || lote.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> aplicados = new ArrayList<>();
+        List<EventoOutbox> fallidos = new ArrayList<>();
+        for (EventoOutbox evento : lote) {
+            try {
+                ManejadorOutbox manejador = manejadores.get(evento.getTipo());
+                if (manejador == null) {
+                    throw new IllegalStateException("No hay manejador para los eventos de tipo " + evento.getTipo());
+                }
+                manejador.manejar(evento);
+                aplicados.add(evento.getId());
+            } catch (Exception e) {
+                fallo(evento, e);
+                fallidos.add(evento);
+            }
+        }
+
+        transaccion.executeWithoutResult(estado -> {
+            if (!aplicados.isEmpty()) {
+                repository.deleteAllByIdInBatch(aplicados);
+            }
+            fallidos.forEach(evento -> repository.reprogramar(evento.getId(), evento.getIntentos(),
+                    evento.getUltimoError(), evento.getSiguienteIntento(), evento.getEstado()));
+        });
+        log.info("OUTBOX: Lote de {} eventos repartido ({} con error)", lote.size(), fallidos.size());
+        return lote.size();
+    }
+
+    /**
+     * Reclama un lote y lo reserva durante el plazo de entrega. Se llama dentro de una transacción.
+     */
+    private List<EventoOutbox> reclamar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<EventoOutbox> lote = repository.reclamarLote(ahora, propiedades.getTamanoLote());
+        if (!lote.isEmpty()) {
+            repository.reservar(lote.stream().map(EventoOutbox::getId).toList(), ahora.plus(propiedades.getPlazoEntrega()));
+        }
+        return lote;
+    }
+
+    /**
+     * Anota un fallo en el evento: el siguiente intento con espera o, si ya no quedan, lo aparca.
+     */
+    private void fallo(EventoOutbox evento, Exception e) {
+        int intentos = evento.getIntentos() + 1;
+        evento.setIntentos(intentos);
+        evento.setUltimoError(e.getClass().getSimpleName() + ": " + e.getMessage());
+        evento.setSiguienteIntento(LocalDateTime.now().plus(espera(intentos)));
+        if (intentos >= propiedades.getMaxIntentos()) {
+            evento.setEstado(EventoOutbox.Estado.APARCADO);
+            log.error("OUTBOX: El evento {} ({}) de {} se aparca tras {} intentos: {}",
+                    evento.getId(), evento.getTipo(), evento.getAgregado(), intentos, e.getMessage());
+        } else {
+            log.warn("OUTBOX: Error al aplicar el evento {} ({}) de {}, intento {}: {}",
+                    evento.getId(), evento.getTipo(), evento.getAgregado(), intentos, e.getMessage());
+        }
+    }
+
+    /**
+     * Espera antes del siguiente intento: la inicial duplicada por cada fallo anterior, con un máximo.
+     */
+    Duration espera(int intentos) {
+        Duration espera = propiedades.getEsperaInicial().multipliedBy(1L << Math.min(intentos - 1, 30));
+        return espera.compareTo(propiedades.getEsperaMaxima()) > 0 ? propiedades.getEsperaMaxima() : espera;
+    }
+}
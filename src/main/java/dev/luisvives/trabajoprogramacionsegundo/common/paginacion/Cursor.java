@@ -0,0 +1,65 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.paginacion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posición de una página en la paginación por cursor (keyset).
+ * <p>
+ * Guarda el campo y la dirección de ordenación junto con el valor de ese campo y el id
+ * de la última fila devuelta: la página siguiente empieza justo después de esa fila,
+ * sin saltar filas con OFFSET. Al cliente se le entrega codificado como un texto opaco
+ * (JSON en Base64 apto para URL) que solo tiene que devolver tal cual.
+ * </p>
+ *
+ * @param sortBy    Campo de ordenación
+ * @param direction Dirección de la ordenación: "asc" o "desc"
+ * @param valor     Valor del campo de ordenación en la última fila, como texto
+ * @param id        Identificador de la última fila, como texto
+ */
+public record Cursor(String sortBy, String direction, String valor, String id) {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /**
+     * @return <code>true</code> si la ordenación es ascendente
+     */
+    public boolean ascendente() {
+        return !"desc".equalsIgnoreCase(direction);
+    }
+
+    /**
+     * Codifica el cursor para enviarlo al cliente.
+     *
+     * @return Texto opaco apto para usar como parámetro de una URL
+     */
+    public String codificar() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(JSON.writeValueAsBytes(this));
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo codificar el cursor", e);
+        }
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     *
+     * @param texto Texto generado por {@link #codificar()}
+     * @return Cursor decodificado
+     * @throws CursorInvalidoException si el texto no es un cursor válido
+     */
+    public static Cursor decodificar(String texto) {
+        Cursor cursor;
+        try {
+            cursor = JSON.readValue(new String(Base64.getUrlDecoder().decode(texto), StandardCharsets.UTF_8), Cursor.class);
+        } catch (Exception e) {
+            throw new CursorInvalidoException("El cursor no es válido");
+        }
+        if (cursor.sortBy() == null || cursor.id() == null) {
+            throw new CursorInvalidoException("El cursor no es válido");
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,12 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.paginacion;
+
+/**
+ * Excepción lanzada cuando el cursor de una petición paginada por cursor no se puede
+ * decodificar o no corresponde a una ordenación permitida.
+ * @see Cursor
+ */
+public class CursorInvalidoException extends RuntimeException {
+    public CursorInvalidoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,183 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.paginacion;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Paginación por cursor (keyset o "seek") sobre entidades JPA.
+ * <p>
+ * En lugar de saltar filas con OFFSET, cada página pide las filas posteriores a la última
+ * devuelta: <code>campo &gt;= valor AND (campo &gt; valor OR id &gt; ultimoId)</code> (o al revés
+ * si el orden es descendente), ordenadas por el campo y el id. La primera condición permite
+ * a PostgreSQL empezar a leer el índice <code>(campo, id)</code> justo en la posición del
+ * cursor, así que el coste de una página no depende de lo lejos que esté.
+ * </p>
+ * <p>
+ * Solo se puede ordenar por los campos registrados, que deben ser no nulos. Cada campo
+ * lleva la función que convierte el valor guardado en el cursor al tipo del atributo.
+ * </p>
+ *
+ * @param <T> Tipo de la entidad
+ */
+public class PaginacionKeyset<T> {
+
+    private static final String ID = "id";
+
+    private final Map<String, Function<String, ? extends Comparable<?>>> campos;
+
+    /**
+     * @param campos Campos por los que se permite ordenar y cómo convertir su valor desde texto.
+     *               Debe incluir <code>id</code>.
+     */
+    public PaginacionKeyset(Map<String, Function<String, ? extends Comparable<?>>> campos) {
+        if (!campos.containsKey(ID)) {
+            throw new IllegalArgumentException("La paginación por cursor necesita el campo id");
+        }
+        this.campos = Map.copyOf(campos);
+    }
+
+    /**
+     * Ordenación de la página: el campo pedido y, para desempatar, el id en la misma dirección.
+     *
+     * @param sortBy    Campo de ordenación
+     * @param direction "asc" o "desc"
+     * @return Ordenación a aplicar en la consulta
+     * @throws CursorInvalidoException si no se permite ordenar por ese campo
+     */
+    public Sort orden(String sortBy, String direction) {
+        comprobarCampo(sortBy);
+        Sort.Direction dir = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return ID.equals(sortBy) ? Sort.by(dir, ID) : Sort.by(dir, sortBy, ID);
+    }
+
+    /**
+     * Condición para obtener las filas posteriores al cursor. Sin cursor (primera página)
+     * no filtra nada.
+     *
+     * @param cursor Cursor de la página anterior
+     * @return Especificación con la condición de búsqueda por clave
+     * @throws CursorInvalidoException si el cursor no corresponde a un campo permitido
+     *                                 o sus valores no tienen el tipo esperado
+     */
+    public Specification<T> despuesDe(Optional<Cursor> cursor) {
+        return cursor.map(this::despuesDe)
+                .orElseGet(() -> (root, query, criteriaBuilder) -> criteriaBuilder.conjunction());
+    }
+
+    /**
+     * Construye el cursor que apunta a la última fila de una página.
+     *
+     * @param ultima    Última entidad devuelta
+     * @param sortBy    Campo de ordenación
+     * @param direction Dirección de la ordenación
+     * @return Cursor de la página siguiente
+     */
+    public Cursor cursorDe(T ultima, String sortBy, String direction) {
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(ultima);
+        return new Cursor(
+                sortBy,
+                direction.toLowerCase(),
+                String.valueOf(wrapper.getPropertyValue(sortBy)),
+                String.valueOf(wrapper.getPropertyValue(ID))
+        );
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Specification<T> despuesDe(Cursor cursor) {
+        comprobarCampo(cursor.sortBy());
+        boolean asc = cursor.ascendente();
+        Comparable id = valor(ID, cursor.id());
+        if (ID.equals(cursor.sortBy())) {
+            return (root, query, cb) -> {
+                Path<Comparable> pathId = root.get(ID);
+                return asc ? cb.greaterThan(pathId, id) : cb.lessThan(pathId, id);
+            };
+        }
+        Comparable valor = valor(cursor.sortBy(), cursor.valor());
+        return (root, query, cb) -> {
+            Path<Comparable> campo = root.get(cursor.sortBy());
+            Path<Comparable> pathId = root.get(ID);
+            return asc
+                    ? cb.and(cb.greaterThanOrEqualTo(campo, valor),
+                             cb.or(cb.greaterThan(campo, valor), cb.greaterThan(pathId, id)))
+                    : cb.and(cb.lessThanOrEqualTo(campo, valor),
+                             cb.or(cb.lessThan(campo, valor), cb.lessThan(pathId, id)));
+        };
+    }
+
+    private Comparable<?> valor(String campo, String texto) {
+        try {
+            return campos.get(campo).apply(texto);
+        } catch (RuntimeException e) {
+            throw new CursorInvalidoException("El cursor no es válido");
+        }
+    }
+
+    private void comprobarCampo(String campo) {
+        if (!campos.containsKey(campo)) {
+            throw new CursorInvalidoException("No se puede paginar por cursor ordenando por '" + campo
+                    + "'. Campos permitidos: " + campos.keySet());
+        }
+    }
+
+    /**
+     * Ejecuta una consulta paginada sin consulta de conteo: pide una fila más de las
+     * necesarias para saber si hay página siguiente.
+     *
+     * @param entityManager Gestor de entidades
+     * @param tipo          Clase de la entidad
+     * @param criterio      Filtro de la consulta
+     * @param pageable      Posición (desplazamiento), tamaño y ordenación
+     * @param relaciones    Relaciones a uno que se cargan en la misma consulta (grafo de entidad),
+     *                      para no lanzar una consulta más por fila al leerlas
+     * @param <T>           Tipo de la entidad
+     * @return {@link Slice} con las filas de la página
+     */
+    public static <T> Slice<T> slice(EntityManager entityManager,
+                                     Class<T> tipo,
+                                     Specification<T> criterio,
+                                     Pageable pageable,
+                                     String... relaciones) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(tipo);
+        Root<T> root = query.from(tipo);
+        query.select(root);
+        Predicate predicado = criterio.toPredicate(root, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1);
+        if (relaciones.length > 0) {
+            EntityGraph<T> grafo = entityManager.createEntityGraph(tipo);
+            grafo.addAttributeNodes(relaciones);
+            typedQuery.setHint("jakarta.persistence.fetchgraph", grafo);
+        }
+        List<T> filas = typedQuery.getResultList();
+        boolean hayMas = filas.size() > pageable.getPageSize();
+        List<T> contenido = hayMas ? new ArrayList<>(filas.subList(0, pageable.getPageSize())) : filas;
+        return new SliceImpl<>(contenido, pageable, hayMas);
+    }
+}
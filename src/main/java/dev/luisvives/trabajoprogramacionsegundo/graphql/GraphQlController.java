@@ -3,7 +3,6 @@ package dev.luisvives.trabajoprogramacionsegundo.graphql;
 import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.GENERICcategoryResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
-import dev.luisvives.trabajoprogramacionsegundo.productos.mapper.ProductoMapper;
 import dev.luisvives.trabajoprogramacionsegundo.productos.service.CategoriesService;
 import dev.luisvives.trabajoprogramacionsegundo.productos.service.ProductoService;
 import lombok.extern.slf4j.Slf4j;
@@ -24,13 +23,11 @@ public class GraphQlController {
 
     private final ProductoService productoService;
     private final CategoriesService categoriesService;
-    private final ProductoMapper productoMapper;
 
     @Autowired
-    public GraphQlController(ProductoService productoService, CategoriesService categoriesService, ProductoMapper productoMapper) {
+    public GraphQlController(ProductoService productoService, CategoriesService categoriesService) {
         this.productoService = productoService;
         this.categoriesService = categoriesService;
-        this.productoMapper = productoMapper;
     }
 
     @QueryMapping
@@ -71,12 +68,25 @@ public class GraphQlController {
                 : Sort.by(sortBy).descending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        return productoMapper.pageToDTO(productoService.findAll(name, maxPrice, category, pageable), sortBy, direction);
+        return productoService.findAllDto(name, maxPrice, category, pageable);
     }
 
     @QueryMapping
-    public List<GENERICcategoryResponseDTO> getAllCategorias() {
+    public PageResponseDTO<GENERICProductosResponseDTO> searchProductos(
+            @Argument String q,
+            @Argument Integer page,
+            @Argument Integer size
+    ) {
+        log.info("GRAPHQL: Buscando productos por texto: " + q);
+        return productoService.search(q, PageRequest.of(page, size));
+    }
+
+    @QueryMapping
+    public List<GENERICcategoryResponseDTO> getAllCategorias(@Argument boolean withCounts, @Argument boolean withPrices) {
         log.info("GRAPHQL: Obteniendo todas las categorías.");
+        if (withCounts || withPrices) {
+            return categoriesService.getAll(withCounts, withPrices);
+        }
         return categoriesService.getAll();
     }
 
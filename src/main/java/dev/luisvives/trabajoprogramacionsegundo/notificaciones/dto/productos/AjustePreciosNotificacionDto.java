@@ -0,0 +1,19 @@
+package dev.luisvives.trabajoprogramacionsegundo.notificaciones.dto.productos;
+
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios.AjustePreciosRequestDTO;
+import lombok.Data;
+
+/**
+ * Notificación única de un ajuste masivo de precios: los filtros, el ajuste aplicado y
+ * cuántos productos han cambiado, en lugar de una notificación por producto.
+ * @see AjustePreciosRequestDTO
+ */
+@Data
+public class AjustePreciosNotificacionDto {
+    private String categoria;
+    private String nombre;
+    private Double precioMaximo;
+    private Double porcentaje;
+    private Double precio;
+    private Integer actualizados;
+}
@@ -4,11 +4,13 @@ import dev.luisvives.trabajoprogramacionsegundo.notificaciones.dto.pedidos.Clien
 import dev.luisvives.trabajoprogramacionsegundo.notificaciones.dto.pedidos.DireccionNotificacionDto;
 import dev.luisvives.trabajoprogramacionsegundo.notificaciones.dto.pedidos.LineaPedidoNotificacionDto;
 import dev.luisvives.trabajoprogramacionsegundo.notificaciones.dto.pedidos.PedidoNotificacionDto;
+import dev.luisvives.trabajoprogramacionsegundo.notificaciones.dto.productos.AjustePreciosNotificacionDto;
 import dev.luisvives.trabajoprogramacionsegundo.notificaciones.dto.productos.ProductoNotificacionDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Cliente;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Direccion;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.LineaPedido;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Pedido;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios.AjustePreciosRequestDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
 import lombok.NoArgsConstructor;
 import lombok.val;
@@ -29,6 +31,16 @@ public class NotificacionMapper {
         dto.setFechaActualizacion(producto.getFechaModificacion().toString());
         return dto;
     }
+    public static AjustePreciosNotificacionDto toDto(AjustePreciosRequestDTO ajuste, int actualizados) {
+        val dto = new AjustePreciosNotificacionDto();
+        dto.setCategoria(ajuste.getCategory());
+        dto.setNombre(ajuste.getName());
+        dto.setPrecioMaximo(ajuste.getMaxPrice());
+        dto.setPorcentaje(ajuste.getPercentage());
+        dto.setPrecio(ajuste.getPrice());
+        dto.setActualizados(actualizados);
+        return dto;
+    }
     public static PedidoNotificacionDto toDto(Pedido pedido) {
         val dto = new PedidoNotificacionDto();
         dto.setId(pedido.getIdString());
@@ -1,6 +1,8 @@
 package dev.luisvives.trabajoprogramacionsegundo.pedidos.controller;
 
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.idempotencia.Idempotencia;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.request.PostAndPutPedidoRequestDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.DeletePedidosResponseDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.GenericPedidosResponseDto;
@@ -10,6 +12,7 @@ import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -18,6 +21,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
+import java.util.Optional;
+
 /**
  * Controlador REST para la gestión de Pedidos.
  * Expone las operaciones CRUD (Crear, Leer, Actualizar, Borrar) para los pedidos.
@@ -33,17 +39,24 @@ public class PedidosRestController {
 
     private final PedidosService pedidosService;
     private final PedidosMapper pedidosMapper;
+    private final Idempotencia idempotencia;
+    private final int tamanoMaximoCursor;
 
     /**
      * Constructor del controlador para la inyección de dependencias.
      *
      * @param pedidosService Servicio para la lógica de negocio de pedidos.
      * @param pedidosMapper  Mapeador para convertir entre entidades y DTOs de pedidos.
+     * @param idempotencia   Control de las peticiones repetidas con la misma clave de idempotencia.
+     * @param tamanoMaximoCursor Tamaño máximo de una página por cursor.
      */
     @Autowired
-    public PedidosRestController(PedidosService pedidosService, PedidosMapper pedidosMapper) {
+    public PedidosRestController(PedidosService pedidosService, PedidosMapper pedidosMapper, Idempotencia idempotencia,
+                                 @Value("${app.paginacion.cursor.tamano-maximo:100}") int tamanoMaximoCursor) {
         this.pedidosService = pedidosService;
         this.pedidosMapper = pedidosMapper;
+        this.idempotencia = idempotencia;
+        this.tamanoMaximoCursor = tamanoMaximoCursor;
     }
 
     /**
@@ -53,6 +66,8 @@ public class PedidosRestController {
      * @param size      Tamaño de la página (valor por defecto 10).
      * @param sortBy    Campo por el cual ordenar (valor por defecto "id").
      * @param direction Dirección de la ordenación (asc o desc, valor por defecto "asc").
+     * @param withCount Si es false no se cuenta el total de pedidos: totalPages y totalElements valen -1
+     *                  y last indica si no hay página siguiente (valor por defecto true).
      * @return ResponseEntity con un {@link PageResponseDTO} que contiene los pedidos y la información de paginación.
      */
     @GetMapping()
@@ -60,17 +75,42 @@ public class PedidosRestController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String direction
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "true") boolean withCount
     ) {
         log.info("CONTROLLER: Obteniendo todos los pedidos paginados");
         // Configura la ordenación
         Sort sort = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         // Configura la paginación
         Pageable pageable = PageRequest.of(page, size, sort);
+        if (!withCount) {
+            return ResponseEntity.ok(pedidosMapper.toSliceDto(pedidosService.findAllSlice(pageable), sortBy, direction));
+        }
         // Llama al servicio y mapea la respuesta
         return ResponseEntity.ok(pedidosMapper.toPageDto(pedidosService.findAll(pageable), sortBy, direction));
     }
 
+    /**
+     * Obtiene los pedidos con paginación por cursor, ordenados por id. El coste de cada
+     * página es el mismo sea cual sea su posición; para la siguiente se envía el
+     * <code>nextCursor</code> de la respuesta.
+     *
+     * @param cursor    Cursor (opcional) devuelto por la página anterior.
+     * @param size      Tamaño de la página (valor por defecto 10, como máximo <code>app.paginacion.cursor.tamano-maximo</code>).
+     * @param direction Dirección de la ordenación por id (asc o desc, valor por defecto "asc").
+     * @return ResponseEntity con un {@link CursorPageResponseDTO} con los pedidos y el cursor de la página siguiente,
+     * o un error 400 si el cursor no es válido.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponseDTO<GenericPedidosResponseDto>> findAllCursor(
+            @RequestParam(required = false) Optional<String> cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "asc") String direction
+    ) {
+        log.info("CONTROLLER: Obteniendo pedidos por cursor");
+        return ResponseEntity.ok(pedidosService.findAllCursor(cursor, direction, Math.clamp(size, 1, tamanoMaximoCursor)));
+    }
+
     /**
      * Busca un pedido específico por su identificador (ID).
      *
@@ -85,14 +125,23 @@ public class PedidosRestController {
 
     /**
      * Crea un nuevo pedido en el sistema.
+     * <p>
+     * Si la petición trae la cabecera <code>Idempotency-Key</code>, los reintentos con la misma
+     * clave devuelven el pedido creado la primera vez en lugar de crear otro.
+     * </p>
      *
-     * @param order DTO ({@link PostAndPutPedidoRequestDto}) con la información del pedido a crear.
+     * @param order             DTO ({@link PostAndPutPedidoRequestDto}) con la información del pedido a crear.
+     * @param claveIdempotencia Clave de idempotencia elegida por el cliente (opcional).
+     * @param principal         Usuario autenticado; las claves de idempotencia son de cada usuario.
      * @return ResponseEntity con el {@link GenericPedidosResponseDto} del pedido creado y estado HTTP 201 (Created).
      */
     @PostMapping()
-    public ResponseEntity<GenericPedidosResponseDto> save(@Valid @RequestBody PostAndPutPedidoRequestDto order){
+    public ResponseEntity<GenericPedidosResponseDto> save(@Valid @RequestBody PostAndPutPedidoRequestDto order,
+                                                         @RequestHeader(value = Idempotencia.CABECERA, required = false) String claveIdempotencia,
+                                                         Principal principal){
         log.info("CONTROLLER: Guardando pedido");
-        return ResponseEntity.status(HttpStatus.CREATED).body(pedidosService.save(order));
+        return idempotencia.ejecutar("pedidos:" + principal.getName(), claveIdempotencia, order, GenericPedidosResponseDto.class,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(pedidosService.save(order)));
     }
 
     /**
@@ -40,4 +40,21 @@ public sealed class PedidoException extends RuntimeException {
         public ValidationException(String message) { super(message); }
     }
 
+    /**
+     * Subclase de excepciones de dominio que define un pedido con más unidades de las que hay en stock
+     * @see LineaPedido
+     */
+    public static final class StockException extends PedidoException {
+        public StockException(String message) { super(message); }
+    }
+
+    /**
+     * Subclase de excepciones de dominio que define un pedido con cambios aparcados en la outbox,
+     * que no se puede modificar hasta que se revisen
+     * @see Pedido
+     */
+    public static final class ParkedException extends PedidoException {
+        public ParkedException(String message) { super(message); }
+    }
+
 }
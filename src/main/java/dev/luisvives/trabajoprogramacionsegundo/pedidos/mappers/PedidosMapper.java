@@ -1,10 +1,12 @@
 package dev.luisvives.trabajoprogramacionsegundo.pedidos.mappers;
 
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.request.PostAndPutPedidoRequestDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.GenericPedidosResponseDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Pedido;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Controller;
 
 @Controller
@@ -46,4 +48,35 @@ public class PedidosMapper {
                 direction
         );
     }
+
+    public PageResponseDTO<GenericPedidosResponseDto> toSliceDto(Slice<GenericPedidosResponseDto> slice, String sortBy, String direction) {
+        // Sin conteo no hay totales: se devuelven a -1 y "last" indica si no hay página siguiente
+        return new PageResponseDTO<>(
+                slice.getContent(),
+                -1,
+                -1,
+                slice.getSize(),
+                slice.getNumber(),
+                slice.getNumberOfElements(),
+                slice.isEmpty(),
+                slice.isFirst(),
+                slice.isLast(),
+                sortBy,
+                direction
+        );
+    }
+
+    public CursorPageResponseDTO<GenericPedidosResponseDto> toCursorDto(Slice<Pedido> slice, String nextCursor, String direction) {
+        return new CursorPageResponseDTO<>(
+                slice.getContent()
+                        .stream()
+                        .map(this::toResponse)
+                        .toList(),
+                slice.getNumberOfElements(),
+                nextCursor,
+                slice.hasNext(),
+                "id",
+                direction
+        );
+    }
 }
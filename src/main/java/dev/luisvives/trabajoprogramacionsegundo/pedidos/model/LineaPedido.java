@@ -19,9 +19,9 @@ public class LineaPedido {
     private Integer cantidad = 1;
     private Long idProducto;
 
+    // Si no se pasa, se toma el del catálogo; si se pasa, tiene que ser el del catálogo
     @Min(value = 0, message = "El precio del producto no puede ser negativo")
-    @Builder.Default
-    private Double precioProducto = 0.0;
+    private Double precioProducto;
 
     // No hace falta pasarlo, lo calculamos, pero si lo pasamos lo usamos
     @Setter
@@ -31,12 +31,18 @@ public class LineaPedido {
     // Campos calculados
     public void setCantidad(Integer cantidad) {
         this.cantidad = cantidad;
-        this.total = this.cantidad * this.precioProducto;
+        calcularTotal();
     }
 
     public void setPrecioProducto(Double precioProducto) {
         this.precioProducto = precioProducto;
-        this.total = this.cantidad * this.precioProducto;
+        calcularTotal();
+    }
+
+    private void calcularTotal() {
+        if (this.cantidad != null && this.precioProducto != null) {
+            this.total = this.cantidad * this.precioProducto;
+        }
     }
 
 }
@@ -11,12 +11,22 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.List;
 /**
  * Clase que contiene la información de los pedidos realizados en el sistema.
+ * <p>
+ * Índices de la colección, creados al arrancar (<code>spring.data.mongodb.auto-index-creation</code>):<br>
+ * - <b>idUsuario_id</b>: pedidos de un usuario en el orden por defecto (<code>_id</code>), su
+ * conteo, si tiene alguno y la lista de sus ids, que se sirve solo desde el índice.<br>
+ * - <b>idUsuario_createdAt</b>: pedidos de un usuario ordenados por fecha de creación.<br>
+ * - <b>lineasPedido_idProducto</b>: índice multiclave con los productos de las líneas, para
+ * buscar los pedidos que contienen un producto.<br>
+ * </p>
  * @see LineaPedido
  */
 @Data
@@ -27,6 +37,11 @@ import java.util.List;
 @Document("pedidos")
 // Para que sepa con qué clase recuperarlo al traerlo con MongoDB y aplicar polimorfismo
 @TypeAlias("Pedido")
+@CompoundIndexes({
+        @CompoundIndex(name = "idUsuario_id", def = "{'idUsuario': 1, '_id': 1}"),
+        @CompoundIndex(name = "idUsuario_createdAt", def = "{'idUsuario': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "lineasPedido_idProducto", def = "{'lineasPedido.idProducto': 1}")
+})
 public class Pedido {
     @Id
     @Builder.Default
@@ -4,7 +4,9 @@ import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Pedido;
 import org.bson.types.ObjectId;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +17,38 @@ public interface PedidosRepository extends MongoRepository<Pedido, ObjectId> {
 
    List<Pedido> findPedidosByIdUsuario(Long idUsuario);
     Page<Pedido> findPedidosByIdUsuario(Long idUsuario, Pageable pageable);
+
+    /**
+     * Indica si el usuario tiene algún pedido, sin leer ningún documento entero.
+     */
+    boolean existsByIdUsuario(Long idUsuario);
+
+    /**
+     * Indica si algún pedido tiene una línea del producto, usando el índice multiclave
+     * <code>lineasPedido_idProducto</code>.
+     */
+    boolean existsByLineasPedidoIdProducto(Long idProducto);
+
+    /**
+     * Pedidos del usuario con solo el <code>_id</code> relleno: el resto del documento
+     * (cliente, líneas) no se lee de MongoDB.
+     */
+    @Query(value = "{ 'idUsuario': ?0 }", fields = "{ '_id': 1 }")
+    List<Pedido> findIdsByIdUsuario(Long idUsuario);
+
+    /**
+     * Primera página de la paginación por cursor, sin consulta de conteo.
+     */
+    Slice<Pedido> findAllBy(Pageable pageable);
+
+    /**
+     * Pedidos con id posterior al dado. Como el {@link ObjectId} crece con la fecha de creación,
+     * la consulta empieza a leer el índice de <code>_id</code> justo después del cursor.
+     */
+    Slice<Pedido> findByIdGreaterThan(ObjectId id, Pageable pageable);
+
+    /**
+     * Pedidos con id anterior al dado, para recorrer los pedidos en orden descendente.
+     */
+    Slice<Pedido> findByIdLessThan(ObjectId id, Pageable pageable);
 }
\ No newline at end of file
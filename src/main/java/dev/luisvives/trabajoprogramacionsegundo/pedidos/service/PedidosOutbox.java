@@ -0,0 +1,209 @@
+package dev.luisvives.trabajoprogramacionsegundo.pedidos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.luisvives.trabajoprogramacionsegundo.common.email.OrderEmailService;
+import dev.luisvives.trabajoprogramacionsegundo.common.outbox.EventoOutbox;
+import dev.luisvives.trabajoprogramacionsegundo.common.outbox.EventoOutboxRepository;
+import dev.luisvives.trabajoprogramacionsegundo.common.outbox.ManejadorOutbox;
+import dev.luisvives.trabajoprogramacionsegundo.common.outbox.Outbox;
+import dev.luisvives.trabajoprogramacionsegundo.notificaciones.config.WebSocketConfig;
+import dev.luisvives.trabajoprogramacionsegundo.notificaciones.config.WebSocketHandler;
+import dev.luisvives.trabajoprogramacionsegundo.notificaciones.mapper.NotificacionMapper;
+import dev.luisvives.trabajoprogramacionsegundo.notificaciones.models.Notificacion;
+import dev.luisvives.trabajoprogramacionsegundo.notificaciones.models.Tipo;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Pedido;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.repository.PedidosRepository;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Eventos de la outbox de los pedidos.
+ * <p>
+ * Al crear, actualizar o eliminar un pedido, {@link PedidosServiceImpl} solo escribe en
+ * PostgreSQL: el stock y, en la misma transacción, estos eventos. Después {@code OutboxRelay}
+ * los entrega a {@link #manejar(EventoOutbox)}, que escribe el pedido en MongoDB, envía el
+ * email de confirmación y avisa a los clientes WebSocket.
+ * </p>
+ * <p>
+ * Las escrituras y borrados de un pedido comparten agregado, así que se aplican en el orden en
+ * que se registraron. El email y las notificaciones van en agregados propios del pedido: un
+ * fallo del servidor de correo o del WebSocket no retrasa la escritura en MongoDB.
+ * </p>
+ * <p>
+ * El payload es el documento del pedido tal y como se guarda en MongoDB, en JSON extendido
+ * para no perder los tipos (<code>ObjectId</code>, fechas, <code>Long</code>).
+ * </p>
+ */
+@Slf4j
+@Component
+public class PedidosOutbox implements ManejadorOutbox {
+
+    static final String GUARDAR = "PEDIDO_GUARDAR";
+    static final String BORRAR = "PEDIDO_BORRAR";
+    static final String EMAIL = "PEDIDO_EMAIL_CONFIRMACION";
+    static final String NOTIFICAR = "PEDIDO_NOTIFICAR";
+
+    private static final JsonWriterSettings JSON_EXTENDIDO = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+
+    private final Outbox outbox;
+    private final EventoOutboxRepository eventosRepository;
+    private final PedidosRepository pedidosRepository;
+    private final MongoConverter mongoConverter;
+    private final OrderEmailService emailService;
+    private final WebSocketHandler webSocketService;
+
+    private final ObjectMapper jacksonMapper = new ObjectMapper();
+
+    public PedidosOutbox(Outbox outbox,
+                         EventoOutboxRepository eventosRepository,
+                         PedidosRepository pedidosRepository,
+                         MongoConverter mongoConverter,
+                         OrderEmailService emailService,
+                         WebSocketConfig webSocketConfig) {
+        this.outbox = outbox;
+        this.eventosRepository = eventosRepository;
+        this.pedidosRepository = pedidosRepository;
+        this.mongoConverter = mongoConverter;
+        this.emailService = emailService;
+        this.webSocketService = webSocketConfig.webSocketPedidosHandler();
+    }
+
+    /**
+     * Registra la escritura de un pedido nuevo o modificado y su notificación; si es nuevo,
+     * también el email de confirmación.
+     *
+     * @param pedido Pedido con su estado final
+     * @param tipo   {@link Tipo#CREATE} o {@link Tipo#UPDATE}
+     */
+    public void registrarGuardado(Pedido pedido, Tipo tipo) {
+        String agregado = agregado(pedido.getId());
+        String payload = payload(pedido, tipo);
+        outbox.registrar(agregado, GUARDAR, payload);
+        if (tipo == Tipo.CREATE) {
+            outbox.registrar(agregado + ":email", EMAIL, payload);
+        }
+        outbox.registrar(agregado + ":notificaciones", NOTIFICAR, payload);
+    }
+
+    /**
+     * Registra el borrado de un pedido y su notificación.
+     *
+     * @param pedido Pedido eliminado
+     */
+    public void registrarBorrado(Pedido pedido) {
+        String agregado = agregado(pedido.getId());
+        String payload = payload(pedido, Tipo.DELETE);
+        outbox.registrar(agregado, BORRAR, payload);
+        outbox.registrar(agregado + ":notificaciones", NOTIFICAR, payload);
+    }
+
+    /**
+     * Bloquea un pedido hasta el final de la transacción en curso, para leerlo con
+     * {@link #buscar(ObjectId)} y registrar sus cambios sin que otra transacción lo modifique o
+     * lo borre entre medias. Debe llamarse antes de leer el pedido: tras esperar el bloqueo, la
+     * lectura ya ve los eventos que registró la transacción anterior.
+     *
+     * @param id Identificador del pedido
+     */
+    public void bloquear(ObjectId id) {
+        eventosRepository.bloquear(agregado(id));
+    }
+
+    /**
+     * Busca el estado más reciente de un pedido: el de su última escritura o borrado aún
+     * pendiente en la outbox y, si no hay ninguno, el guardado en MongoDB. Así un pedido recién
+     * creado se puede leer y modificar antes de que se reparta su evento.
+     * <p>
+     * Los eventos aparcados no cuentan: no se van a aplicar mientras nadie los revise, así que
+     * se lee lo que hay en MongoDB. Antes de modificar el pedido hay que comprobarlo con
+     * {@link #tieneAparcados(ObjectId)}.
+     * </p>
+     *
+     * @param id Identificador del pedido
+     * @return El pedido, o vacío si no existe o tiene un borrado pendiente
+     */
+    public Optional<Pedido> buscar(ObjectId id) {
+        return eventosRepository.findFirstByAgregadoAndTipoInAndEstadoOrderByIdDesc(agregado(id), List.of(GUARDAR, BORRAR), EventoOutbox.Estado.PENDIENTE)
+                .map(evento -> GUARDAR.equals(evento.getTipo()) ? Optional.of(leerPedido(evento)) : Optional.<Pedido>empty())
+                .orElseGet(() -> pedidosRepository.findById(id));
+    }
+
+    /**
+     * Indica si el pedido tiene una escritura o un borrado aparcado en la outbox. Entonces
+     * MongoDB no tiene su último estado, aunque el stock ya lo refleje, y no se debe modificar
+     * hasta que se revise el evento.
+     *
+     * @param id Identificador del pedido
+     * @return <code>true</code> si hay algún evento aparcado del pedido
+     */
+    public boolean tieneAparcados(ObjectId id) {
+        return eventosRepository.existsByAgregadoAndEstado(agregado(id), EventoOutbox.Estado.APARCADO);
+    }
+
+    @Override
+    public Set<String> tipos() {
+        return Set.of(GUARDAR, BORRAR, EMAIL, NOTIFICAR);
+    }
+
+    /**
+     * Aplica un evento. Guardar (reemplaza el documento por id) y borrar son idempotentes; el
+     * email y la notificación pueden repetirse si el lote se vuelve a entregar.
+     *
+     * @param evento Evento de un pedido
+     * @throws Exception Si falla MongoDB, el envío del email o el de la notificación
+     */
+    @Override
+    public void manejar(EventoOutbox evento) throws Exception {
+        Pedido pedido = leerPedido(evento);
+        switch (evento.getTipo()) {
+            case GUARDAR -> pedidosRepository.save(pedido);
+            case BORRAR -> pedidosRepository.deleteById(pedido.getId());
+            case EMAIL -> {
+                emailService.enviarConfirmacionPedidoHtml(pedido);
+                log.info("✅ Email de confirmación enviado correctamente para pedido: {}", pedido.getId());
+            }
+            case NOTIFICAR -> notificar(Tipo.valueOf(Document.parse(evento.getPayload()).getString("tipo")), pedido);
+            default -> throw new IllegalArgumentException("Tipo de evento de pedido desconocido: " + evento.getTipo());
+        }
+    }
+
+    /**
+     * Envía a los clientes WebSocket el cambio de un pedido.
+     */
+    private void notificar(Tipo tipo, Pedido pedido) throws Exception {
+        val notificacion = Notificacion.builder()
+                .entity("Producto")
+                .type(tipo)
+                .data(NotificacionMapper.toDto(pedido))
+                .createdAt(LocalDateTime.now().toString())
+                .build();
+        webSocketService.sendMessage(jacksonMapper.writeValueAsString(notificacion));
+    }
+
+    private String payload(Pedido pedido, Tipo tipo) {
+        Document documento = new Document();
+        mongoConverter.write(pedido, documento);
+        return new Document("tipo", tipo.name()).append("pedido", documento).toJson(JSON_EXTENDIDO);
+    }
+
+    private Pedido leerPedido(EventoOutbox evento) {
+        return mongoConverter.read(Pedido.class, Document.parse(evento.getPayload()).get("pedido", Document.class));
+    }
+
+    private static String agregado(ObjectId id) {
+        return "pedido:" + id.toHexString();
+    }
+}
@@ -1,14 +1,20 @@
 package dev.luisvives.trabajoprogramacionsegundo.pedidos.service;
 
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.request.PostAndPutPedidoRequestDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.DeletePedidosResponseDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.GenericPedidosResponseDto;
 import org.bson.types.ObjectId;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Optional;
 
 public interface PedidosService {
     Page<GenericPedidosResponseDto> findAll(Pageable pageable);
+    Slice<GenericPedidosResponseDto> findAllSlice(Pageable pageable);
+    CursorPageResponseDTO<GenericPedidosResponseDto> findAllCursor(Optional<String> cursor, String direction, int size);
     GenericPedidosResponseDto findById(ObjectId id);
     GenericPedidosResponseDto save(PostAndPutPedidoRequestDto pedido);
     GenericPedidosResponseDto update(ObjectId id, PostAndPutPedidoRequestDto pedido);
@@ -1,12 +1,8 @@
 package dev.luisvives.trabajoprogramacionsegundo.pedidos.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import dev.luisvives.trabajoprogramacionsegundo.common.email.OrderEmailService;
-import dev.luisvives.trabajoprogramacionsegundo.notificaciones.config.WebSocketConfig;
-import dev.luisvives.trabajoprogramacionsegundo.notificaciones.config.WebSocketHandler;
-import dev.luisvives.trabajoprogramacionsegundo.notificaciones.mapper.NotificacionMapper;
-import dev.luisvives.trabajoprogramacionsegundo.notificaciones.models.Notificacion;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.Cursor;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.CursorInvalidoException;
 import dev.luisvives.trabajoprogramacionsegundo.notificaciones.models.Tipo;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.request.PostAndPutPedidoRequestDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.DeletePedidosResponseDto;
@@ -16,57 +12,63 @@ import dev.luisvives.trabajoprogramacionsegundo.pedidos.mappers.PedidosMapper;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Pedido;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.repository.PedidosRepository;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.validator.PedidosValidator;
-import dev.luisvives.trabajoprogramacionsegundo.productos.repository.ProductsRepository;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.LineaPedido;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.service.ProductoService;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Implementación de la interfaz {@link PedidosService}.
  * <p>
  * Gestiona la lógica de negocio relacionada con la gestión de pedidos,
  * incluyendo operaciones CRUD y la validación de productos.
- * Utiliza {@link Transactional} para asegurar la integridad de las operaciones de escritura
- * y {@link OrderEmailService} para la comunicación asíncrona de confirmaciones.
+ * Las operaciones de escritura solo escriben en PostgreSQL, en una transacción: el stock de
+ * los productos y los eventos de {@link PedidosOutbox}. La escritura en MongoDB, el email de
+ * confirmación y las notificaciones WebSocket se aplican después, al repartir esos eventos.
  * </p>
  */
 @Service
 @Slf4j
 public class PedidosServiceImpl implements PedidosService {
     private final PedidosRepository pedidosRepository;
-    private final ProductsRepository productsRepository;
-    private final OrderEmailService emailService;
-    private WebSocketHandler webSocketService;
-    private final WebSocketConfig webSocketConfig;
+    private final ProductoService productoService;
     private final PedidosMapper pedidosMapper;
     private final PedidosValidator pedidosValidator;
-
-    private ObjectMapper jacksonMapper = new ObjectMapper();
+    private final PedidosOutbox pedidosOutbox;
 
     /**
      * Constructor para inyección de dependencias.
      *
      * @param pedidosRepository Repositorio para la entidad {@link Pedido}.
-     * @param productsRepository Repositorio para la entidad de productos, usado para validación.
-     * @param emailService Servicio para el envío de correos electrónicos de pedidos.
+     * @param productoService Servicio de productos, usado para validar las líneas contra el catálogo.
      * @param pedidosMapper Mapper para la conversión entre DTOs y la entidad {@link Pedido}.
+     * @param pedidosValidator Validador de los campos de un pedido.
+     * @param pedidosOutbox Eventos de la outbox de pedidos (MongoDB, email y WebSocket).
      */
     @Autowired
-    public PedidosServiceImpl(PedidosRepository pedidosRepository, ProductsRepository productsRepository, OrderEmailService emailService, PedidosMapper pedidosMapper, WebSocketConfig webSocketConfig, PedidosValidator pedidosValidator) {
+    public PedidosServiceImpl(PedidosRepository pedidosRepository, ProductoService productoService, PedidosMapper pedidosMapper, PedidosValidator pedidosValidator, PedidosOutbox pedidosOutbox) {
         this.pedidosRepository = pedidosRepository;
-        this.productsRepository = productsRepository;
-        this.emailService = emailService;
+        this.productoService = productoService;
         this.pedidosMapper = pedidosMapper;
-        this.webSocketConfig = webSocketConfig;
-        this.webSocketService = webSocketConfig.webSocketPedidosHandler();
         this.pedidosValidator = pedidosValidator;
+        this.pedidosOutbox = pedidosOutbox;
     }
 
     /**
@@ -82,7 +84,69 @@ public class PedidosServiceImpl implements PedidosService {
     }
 
     /**
-     * Busca un pedido por su identificador único.
+     * Busca los pedidos paginados sin contar el total: se lee un documento de más para
+     * saber si hay página siguiente, así que no se lanza la consulta <code>count</code>.
+     *
+     * @param pageable Configuración de paginación.
+     * @return Un {@link Slice} de {@link GenericPedidosResponseDto}.
+     */
+    @Override
+    public Slice<GenericPedidosResponseDto> findAllSlice(Pageable pageable) {
+        log.info("SERVICE: Buscando pedidos sin conteo");
+        return pedidosRepository.findAllBy(pageable).map(pedidosMapper::toResponse);
+    }
+
+    /**
+     * Busca los pedidos con paginación por cursor, ordenados por id.
+     * <p>
+     * El {@link ObjectId} crece con la fecha de creación, así que basta con pedir los pedidos
+     * con id mayor (o menor, en orden descendente) que el último devuelto: Mongo recorre el
+     * índice de <code>_id</code> desde esa posición en lugar de saltar documentos con
+     * <code>skip</code>. Si llega un cursor, su dirección manda sobre <code>direction</code>.
+     * </p>
+     *
+     * @param cursor    Cursor de la página anterior o vacío para la primera.
+     * @param direction Dirección de la ordenación por id ("asc" o "desc").
+     * @param size      Tamaño de página.
+     * @return Página de pedidos con el cursor de la siguiente.
+     * @throws CursorInvalidoException si el cursor no es válido.
+     */
+    @Override
+    public CursorPageResponseDTO<GenericPedidosResponseDto> findAllCursor(Optional<String> cursor, String direction, int size) {
+        log.info("SERVICE: Buscando pedidos por cursor");
+        Optional<Cursor> posicion = cursor.map(Cursor::decodificar);
+        String orden = posicion.map(Cursor::direction).orElse(direction).toLowerCase();
+        boolean ascendente = !"desc".equals(orden);
+        Pageable pageable = PageRequest.of(0, size, ascendente ? Sort.by("id").ascending() : Sort.by("id").descending());
+
+        Slice<Pedido> slice = posicion
+                .map(this::ultimoId)
+                .map(id -> ascendente
+                        ? pedidosRepository.findByIdGreaterThan(id, pageable)
+                        : pedidosRepository.findByIdLessThan(id, pageable))
+                .orElseGet(() -> pedidosRepository.findAllBy(pageable));
+
+        String siguiente = null;
+        if (slice.hasNext()) {
+            String ultimo = slice.getContent().getLast().getId().toHexString();
+            siguiente = new Cursor("id", orden, ultimo, ultimo).codificar();
+        }
+        return pedidosMapper.toCursorDto(slice, siguiente, orden);
+    }
+
+    /**
+     * Lee el id del último pedido de la página anterior guardado en el cursor.
+     */
+    private ObjectId ultimoId(Cursor cursor) {
+        if (!"id".equals(cursor.sortBy()) || !ObjectId.isValid(cursor.id())) {
+            throw new CursorInvalidoException("El cursor no es válido");
+        }
+        return new ObjectId(cursor.id());
+    }
+
+    /**
+     * Busca un pedido por su identificador único. Incluye los cambios que aún no se han
+     * repartido a MongoDB (ver {@link PedidosOutbox#buscar(ObjectId)}).
      *
      * @param id El {@link ObjectId} del pedido a buscar.
      * @return Un {@link GenericPedidosResponseDto} con los datos del pedido.
@@ -91,163 +155,172 @@ public class PedidosServiceImpl implements PedidosService {
     @Override
     public GenericPedidosResponseDto findById(ObjectId id) {
         log.info("SERVICE: Buscando pedido por id: " + id);
-        return pedidosMapper.toResponse(pedidosRepository.findById(id).orElseThrow(() -> new PedidoException.NotFoundException("SERVICE: No se encontró el pedido con id: " + id)));
+        return pedidosMapper.toResponse(pedidosOutbox.buscar(id).orElseThrow(() -> new PedidoException.NotFoundException("SERVICE: No se encontró el pedido con id: " + id)));
     }
 
     /**
-     * Guarda un nuevo pedido en la base de datos y, si tiene éxito, envía un email
-     * de confirmación de manera asíncrona.
+     * Guarda un nuevo pedido y, si tiene éxito, envía un email de confirmación.
+     * <p>
+     * En la misma transacción se reserva el stock de los productos y se registran los eventos
+     * que guardan el pedido en MongoDB, envían el email y notifican el cambio: o se confirma
+     * todo o no se confirma nada.
+     * </p>
      *
      * @param pedido El DTO de solicitud {@link PostAndPutPedidoRequestDto} que contiene los datos del pedido a guardar.
      * @return Un {@link GenericPedidosResponseDto} con los datos del pedido guardado.
+     * @throws PedidoException.StockException Si no hay stock suficiente para alguno de los productos.
      */
     @Override
     @Transactional
     public GenericPedidosResponseDto save(PostAndPutPedidoRequestDto pedido) {
         log.info("SERVICE: Guardando Pedido");
-        validarPedido(pedido);
-        val savedPedido = pedidosRepository.save(pedidosMapper.toModel(pedido));
-        sendConfirmationEmailAsync(savedPedido);
-
-        onChange(Tipo.CREATE, pedidosMapper.toModel(pedido));
+        reservarStock(validarPedido(pedido));
+        val nuevoPedido = pedidosMapper.toModel(pedido);
+        pedidosOutbox.registrarGuardado(nuevoPedido, Tipo.CREATE);
 
-        return pedidosMapper.toResponse(savedPedido);
+        return pedidosMapper.toResponse(nuevoPedido);
     }
 
     /**
      * Actualiza un pedido existente identificado por su ID.
+     * Solo se reserva (o se devuelve) la diferencia de unidades entre las líneas nuevas y las anteriores.
+     * El pedido se lee bloqueado ({@link PedidosOutbox#bloquear}): dos cambios simultáneos del mismo
+     * pedido se aplican uno detrás de otro y el segundo parte de las líneas que dejó el primero.
      *
      * @param id El {@link ObjectId} del pedido a actualizar.
      * @param pedido El DTO de solicitud {@link PostAndPutPedidoRequestDto} con los nuevos datos.
      * @return Un {@link GenericPedidosResponseDto} con los datos del pedido actualizado.
      * @throws PedidoException.NotFoundException Si el pedido con el ID dado no es encontrado.
+     * @throws PedidoException.StockException Si no hay stock suficiente para las unidades añadidas.
+     * @throws PedidoException.ParkedException Si el pedido tiene eventos aparcados en la outbox.
      */
     @Override
     @Transactional
     public GenericPedidosResponseDto update(ObjectId id, PostAndPutPedidoRequestDto pedido) {
         log.info("SERVICE: Actualizando pedido con id: " + id);
-        validarPedido(pedido);
-        val pedidoToUpdate = pedidosRepository.findById(id).orElseThrow(() -> new PedidoException.NotFoundException("Pedido no encontrado con id: " + id));
+        Map<Long, Integer> unidades = validarPedido(pedido);
+        val pedidoToUpdate = buscarBloqueado(id);
+        unidadesPorProducto(pedidoToUpdate.getLineasPedido()).forEach((idProducto, cantidad) ->
+                unidades.merge(idProducto, -cantidad, Integer::sum));
+        reservarStock(unidades);
         pedidoToUpdate.setCliente(pedido.getCliente());
         pedidoToUpdate.setLineasPedido(pedido.getLineaPedido()); // Esto actualiza totalItems y total (el del precio)
         pedidoToUpdate.setUpdatedAt(LocalDateTime.now());
+        pedidosOutbox.registrarGuardado(pedidoToUpdate, Tipo.UPDATE);
 
-        onChange(Tipo.UPDATE, pedidosMapper.toModel(pedido));
-
-        return pedidosMapper.toResponse(pedidosRepository.save(pedidoToUpdate));
+        return pedidosMapper.toResponse(pedidoToUpdate);
     }
 
     /**
-     * Elimina un pedido por su identificador.
+     * Elimina un pedido por su identificador y devuelve al stock las unidades de sus líneas.
+     * Como en {@link #update}, el pedido se lee bloqueado: de dos borrados simultáneos, el segundo
+     * ya no lo encuentra y no devuelve el stock otra vez.
      *
      * @param id El {@link ObjectId} del pedido a eliminar.
      * @return Un {@link DeletePedidosResponseDto} con el pedido eliminado y un mensaje de confirmación.
      * @throws PedidoException.NotFoundException Si el pedido con el ID dado no es encontrado.
+     * @throws PedidoException.ParkedException Si el pedido tiene eventos aparcados en la outbox.
      */
     @Override
+    @Transactional
     public DeletePedidosResponseDto delete(ObjectId id) {
         log.info("SERVICE: Eliminando pedido con id: " + id);
-        val pedido = pedidosRepository.findById(id).orElseThrow(() -> new PedidoException.NotFoundException("Pedido no encontrado con id: " + id));
-        pedidosRepository.delete(pedido);
-
-        onChange(Tipo.DELETE, pedido);
+        val pedido = buscarBloqueado(id);
+        productoService.liberarStock(unidadesPorProducto(pedido.getLineasPedido()));
+        pedidosOutbox.registrarBorrado(pedido);
 
         return new DeletePedidosResponseDto(pedidosMapper.toResponse(pedido), "Pedido con id: " + id + " eliminado correctamente.");
     }
-    public Page<GenericPedidosResponseDto> findPedidosByUserId(Long id, Pageable pageable) {
-        return pedidosRepository.findPedidosByIdUsuario(id,pageable).map(pedidosMapper::toResponse);
-    }
 
     /**
-     * Envía email de confirmación en un hilo separado
-     * ¿Por qué asíncrono?
-     * - No bloquea la respuesta al usuario
-     * - Si falla el email, no afecta al pedido
-     * - Mejor experiencia de usuario
+     * Lee bloqueado ({@link PedidosOutbox#bloquear}) un pedido que se va a modificar o borrar.
      *
-     * @param pedido El {@link Pedido} para el cual se enviará el email de confirmación.
+     * @throws PedidoException.ParkedException Si el pedido tiene eventos aparcados en la outbox: MongoDB
+     *                                         no tiene su último estado y el stock no cuadraría con él.
+     * @throws PedidoException.NotFoundException Si el pedido no existe o tiene un borrado pendiente.
      */
-    private void sendConfirmationEmailAsync(Pedido pedido) {
-        Thread emailThread = new Thread(() -> {
-            try {
-                log.info("🚀 Iniciando envío de email en hilo separado para pedido: {}", pedido.getId());
-
-                // Enviar el email (irá a Mailtrap en desarrollo)
-                emailService.enviarConfirmacionPedidoHtml(pedido);
-
-                log.info("✅ Email de confirmación enviado correctamente para pedido: {}", pedido.getId());
-
-            } catch (Exception e) {
-                log.warn("❌ Error enviando email de confirmación para pedido {}: {}",
-                        pedido.getId(), e.getMessage());
-
-                // El error no se propaga - el pedido ya está guardado
-            }
-        });
-
-        // Configurar el hilo
-        emailThread.setName("EmailSender-Pedido-" + pedido.getId());
-        emailThread.setDaemon(true); // No impide que la aplicación se cierre
-
-        // Iniciar el hilo (no bloqueante)
-        emailThread.start();
+    private Pedido buscarBloqueado(ObjectId id) {
+        pedidosOutbox.bloquear(id);
+        if (pedidosOutbox.tieneAparcados(id)) {
+            log.warn("SERVICE: El pedido con id " + id + " tiene eventos aparcados en la outbox");
+            throw new PedidoException.ParkedException("El pedido con id: " + id + " tiene cambios pendientes de revisar y no se puede modificar");
+        }
+        return pedidosOutbox.buscar(id).orElseThrow(() -> new PedidoException.NotFoundException("Pedido no encontrado con id: " + id));
+    }
 
-        log.info("🧵 Hilo de email iniciado para pedido: {}", pedido.getId());
+    public Page<GenericPedidosResponseDto> findPedidosByUserId(Long id, Pageable pageable) {
+        return pedidosRepository.findPedidosByIdUsuario(id,pageable).map(pedidosMapper::toResponse);
     }
 
     /**
-     * Valida que todos los productos referenciados en las líneas de pedido existan.
+     * Valida el pedido y comprueba sus líneas contra el catálogo.
+     * <p>
+     * Los productos de todas las líneas se obtienen de una vez con {@link ProductoService#getByIds},
+     * que los sirve desde la caché o en una sola consulta. Con esa foto del catálogo se comprueba
+     * que existen todos los productos y que el precio de cada línea, si se ha enviado, es el actual.
+     * Las líneas sin precio toman el del catálogo, y el total de cada línea se recalcula con él. El stock no se mira aquí: lo comprueba la propia
+     * reserva ({@link #reservarStock(Map)}), que es atómica.
+     * </p>
      *
      * @param pedido El DTO de solicitud {@link PostAndPutPedidoRequestDto} del pedido a validar.
+     * @return Unidades pedidas de cada producto, sumando las líneas repetidas.
+     * @throws PedidoException.ValidationException Si algún campo del pedido no es válido.
      * @throws PedidoException.NotFoundException Si alguno de los productos referenciados no es encontrado.
+     * @throws PedidoException.BadPriceException Si el precio enviado en alguna línea no coincide con el del producto.
      */
-    private void validarPedido(PostAndPutPedidoRequestDto pedido) {
+    private Map<Long, Integer> validarPedido(PostAndPutPedidoRequestDto pedido) {
         log.info("SERVICE: Validando Pedido");
+        pedidosValidator.validarPedido(pedido);
 
-        pedido.getLineaPedido().forEach(lineaPedido -> {
-            var producto = productsRepository.findById(
-                    lineaPedido.getIdProducto()).orElseThrow(() -> new PedidoException.NotFoundException("Producto no encontrado con id: " + lineaPedido.getIdProducto())
-            );
-        });
+        Map<Long, Integer> unidades = unidadesPorProducto(pedido.getLineaPedido());
+        Map<Long, GENERICProductosResponseDTO> productos = productoService.getByIds(unidades.keySet());
 
-        pedidosValidator.validarPedido(pedido);
+        List<Long> noEncontrados = unidades.keySet().stream().filter(id -> !productos.containsKey(id)).toList();
+        if (!noEncontrados.isEmpty()) {
+            throw new PedidoException.NotFoundException("Productos no encontrados con id: " + noEncontrados);
+        }
+
+        List<String> preciosErroneos = new ArrayList<>();
+        for (LineaPedido linea : pedido.getLineaPedido()) {
+            Double precio = productos.get(linea.getIdProducto()).getPrice();
+            if (linea.getPrecioProducto() != null && Double.compare(linea.getPrecioProducto(), precio) != 0) {
+                preciosErroneos.add(linea.getIdProducto() + " (recibido " + linea.getPrecioProducto() + ", actual " + precio + ")");
+            }
+            // El total de la línea se calcula siempre con el precio del catálogo
+            linea.setPrecioProducto(precio);
+        }
+        if (!preciosErroneos.isEmpty()) {
+            throw new PedidoException.BadPriceException("El precio no coincide con el actual para los productos: " + preciosErroneos);
+        }
+        return unidades;
     }
 
     /**
-     * Envía notificaciones vía WebSocket cuando hay cambios en productos.
+     * Reserva (o devuelve, si son negativas) las unidades indicadas dentro de la transacción en
+     * curso. Si falta stock de algún producto se lanza la excepción, que deshace la reserva entera.
      *
-     * @param tipo Tipo de operación (CREATE, UPDATE, DELETE)
-     * @param data Pedido afectado
+     * @param unidades Unidades por id de producto.
+     * @throws PedidoException.StockException Si no hay stock suficiente para alguno de los productos.
      */
-    void onChange(Tipo tipo, Pedido data) {
-        log.info("SERVICE: onChange con tipo: " + tipo + " y datos: " + data);
-
-        if (webSocketService == null) {
-            log.warn("SERVICE: No se ha podido enviar la notificación a los clientes ws");
-            webSocketService = this.webSocketConfig.webSocketProductosHandler();
+    private void reservarStock(Map<Long, Integer> unidades) {
+        List<Long> sinStock = productoService.reservarStock(unidades);
+        if (!sinStock.isEmpty()) {
+            throw new PedidoException.StockException("No hay stock suficiente para los productos: " + sinStock);
         }
+    }
 
-        try {
-            val notificacion = Notificacion.builder()
-                    .entity("Producto")
-                    .type(tipo)
-                    .data(NotificacionMapper.toDto(data))
-                    .createdAt(LocalDateTime.now().toString())
-                    .build();
-
-            String json = jacksonMapper.writeValueAsString(notificacion);
-
-            Thread senderThread = new Thread(() -> {
-                try {
-                    webSocketService.sendMessage(json);
-                } catch (Exception e) {
-                    log.error("SERVICE: Error al enviar mensaje vía WebSocket");
-                }
-            });
-            senderThread.start();
-        } catch (JsonProcessingException e) {
-            log.error("SERVICE: Error al convertir la notificación a JSON");
+    /**
+     * Suma las unidades de las líneas de cada producto.
+     *
+     * @param lineas Líneas de un pedido.
+     * @return Unidades por id de producto, en el orden de las líneas.
+     */
+    private static Map<Long, Integer> unidadesPorProducto(List<LineaPedido> lineas) {
+        Map<Long, Integer> unidades = new LinkedHashMap<>();
+        if (lineas != null) {
+            lineas.forEach(linea -> unidades.merge(linea.getIdProducto(), linea.getCantidad(), Integer::sum));
         }
+        return unidades;
     }
 
 }
\ No newline at end of file
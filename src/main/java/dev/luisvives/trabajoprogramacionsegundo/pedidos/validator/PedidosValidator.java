@@ -180,8 +180,8 @@ public class PedidosValidator {
                 );
             }
 
-            // @Min(value = 0)
-            if (linea.getPrecioProducto() == null || linea.getPrecioProducto() < 0.0) {
+            // @Min(value = 0); sin precio se toma el del catálogo
+            if (linea.getPrecioProducto() != null && linea.getPrecioProducto() < 0.0) {
                 throw new ValidationException(
                         "Error en LineaPedido (Índice " + i + "): El campo 'precioProducto' no es válido. Valor: " + linea.getPrecioProducto() +
                                 ". Razón: El precio del producto no puede ser negativo."
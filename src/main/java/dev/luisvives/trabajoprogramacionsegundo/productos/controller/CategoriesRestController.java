@@ -1,5 +1,7 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.controller;
 
+import dev.luisvives.trabajoprogramacionsegundo.common.http.RespuestaCondicional;
+import dev.luisvives.trabajoprogramacionsegundo.common.http.RespuestaListado;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.DELETEcategoryResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.GENERICcategoryResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.PATCHcategoryRequestDTO;
@@ -11,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -21,17 +24,34 @@ import java.util.logging.Logger;
 public class CategoriesRestController {
     private final Logger log = Logger.getLogger(CategoriesRestController.class.getName());
     private final CategoriesService service;
+    private final RespuestaListado respuestaListado;
 
     @Autowired
-    public CategoriesRestController(CategoriesService service) {
+    public CategoriesRestController(CategoriesService service, RespuestaListado respuestaListado) {
         this.service = service;
+        this.respuestaListado = respuestaListado;
     }
 
+    /**
+     * Lista todas las categorías. Con <code>withCounts</code> y <code>withPrices</code> cada categoría
+     * incluye su número de productos y su precio mínimo y máximo, calculados en una sola consulta.
+     *
+     * @param withCounts Si se incluye <code>productCount</code> (por defecto false).
+     * @param withPrices Si se incluyen <code>minPrice</code> y <code>maxPrice</code> (por defecto false).
+     * @param peticion   Petición, para contestar 304 si el cliente ya tiene la generación actual del catálogo.
+     * @return {@link ResponseEntity} con la lista de {@link GENERICcategoryResponseDTO}.
+     */
     @GetMapping({"", "/"})
-    public ResponseEntity<List<GENERICcategoryResponseDTO>> getAll() {
+    public ResponseEntity<List<GENERICcategoryResponseDTO>> getAll(
+            @RequestParam(defaultValue = "false") boolean withCounts,
+            @RequestParam(defaultValue = "false") boolean withPrices,
+            WebRequest peticion) {
         log.info("CONTROLLER: Buscando todas las Categorías");
 
-        return ResponseEntity.ok(service.getAll());
+        if (withCounts || withPrices) {
+            return respuestaListado.responder(peticion, () -> service.getAll(withCounts, withPrices));
+        }
+        return respuestaListado.responder(peticion, service::getAll);
     }
 
     @GetMapping("/{id}")
@@ -42,7 +62,8 @@ public class CategoriesRestController {
         //Si no existiera, el servicio lanza la excepción que el ExceptionHandler transforma en 404
         GENERICcategoryResponseDTO category = service.getById(id);
 
-        return ResponseEntity.ok(category); //Devolvemos un 200 Ok con la propia categoría en el cuerpo
+        //200 Ok con la categoría, o 304 sin cuerpo si coincide el ETag que envía el cliente
+        return RespuestaCondicional.ok(category, category.getFechaModificacion());
     }
 
     @PostMapping({"", "/"})
@@ -1,22 +1,38 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.controller;
 
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.http.RespuestaCondicional;
+import dev.luisvives.trabajoprogramacionsegundo.common.http.RespuestaListado;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas.FacetasResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.importacion.ImportacionResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios.AjustePreciosRequestDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios.AjustePreciosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.DELETEProductoResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.PATCHProductoRequestDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.POSTandPUTProductoRequestDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.mapper.ProductoMapper;
+import dev.luisvives.trabajoprogramacionsegundo.productos.service.FormatoExportacion;
+import dev.luisvives.trabajoprogramacionsegundo.productos.service.ProductoImportacionService;
 import dev.luisvives.trabajoprogramacionsegundo.productos.service.ProductoService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.Optional;
 import java.util.logging.Logger;
 
@@ -37,16 +53,38 @@ public class ProductoRestController {
      * @see dev.luisvives.trabajoprogramacionsegundo.productos.service.ProductoService
      */
     private final ProductoService service;
+    /**
+     * Servicio de importación masiva de productos.
+     */
+    private final ProductoImportacionService importacionService;
+    /**
+     * Añade a los listados el ETag de la generación del catálogo y su Cache-Control.
+     */
+    private final RespuestaListado respuestaListado;
+
+    /**
+     * Tamaño máximo de una página por cursor.
+     */
+    private final int tamanoMaximoCursor;
 
     /**
      * Constructor para la inyección de dependencias del servicio de Producto.
      *
-     * @param service El servicio {@link ProductoService} a inyectar.
+     * @param service            El servicio {@link ProductoService} a inyectar.
+     * @param importacionService El servicio {@link ProductoImportacionService} a inyectar.
+     * @param respuestaListado   Constructor de las respuestas de los listados.
+     * @param tamanoMaximoCursor Tamaño máximo de una página por cursor.
      */
     @Autowired
-    public ProductoRestController(ProductoService service, ProductoMapper productoMapper) {
+    public ProductoRestController(ProductoService service, ProductoMapper productoMapper,
+                                  ProductoImportacionService importacionService,
+                                  RespuestaListado respuestaListado,
+                                  @Value("${app.paginacion.cursor.tamano-maximo:100}") int tamanoMaximoCursor) {
         this.service = service;
         this.mapper = productoMapper;
+        this.importacionService = importacionService;
+        this.respuestaListado = respuestaListado;
+        this.tamanoMaximoCursor = tamanoMaximoCursor;
     }
 
     /**
@@ -63,6 +101,9 @@ public class ProductoRestController {
      * @param size        Tamaño de la página (por defecto 10).
      * @param sortBy      Campo por el cual ordenar (por defecto 'id').
      * @param direction   Dirección de la ordenación (asc o desc, por defecto 'asc').
+     * @param withCount   Si es <code>false</code> no se cuentan los resultados: la respuesta es más rápida,
+     *                    <code>totalPages</code> y <code>totalElements</code> valen -1 y <code>last</code> indica si no hay más (por defecto true).
+     * @param peticion    Petición, para contestar 304 si el cliente ya tiene la generación actual del catálogo.
      * @return {@link ResponseEntity} con un {@link PageResponseDTO} que contiene la lista de {@link GENERICProductosResponseDTO} y la información de paginación.
      */
     @GetMapping()
@@ -75,14 +116,128 @@ public class ProductoRestController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String direction
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "true") boolean withCount,
+            WebRequest peticion
     ) {
         log.info("Buscando todos los Productos con las siguientes opciones: " + uuid + " " + name + " " + maxPrice + " " + category + " " + releaseDate);
         // Creamos el objeto de ordenación
         Sort sort = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         // Creamos cómo va a ser la paginación
         Pageable pageable = PageRequest.of(page, size, sort);
-        return ResponseEntity.ok(mapper.pageToDTO(service.findAll(name, maxPrice, category, pageable), sortBy, direction));
+        if (!withCount) {
+            return respuestaListado.responder(peticion, () -> service.findAllSliceDto(name, maxPrice, category, pageable));
+        }
+        return respuestaListado.responder(peticion, () -> service.findAllDto(name, maxPrice, category, pageable));
+    }
+
+    /**
+     * Obtiene cuántos productos hay por categoría y por tramo de precio con los filtros
+     * indicados, para mostrarlos junto a cada filtro sin hacer una petición por categoría.
+     *
+     * @param name     Nombre (Opcional) para filtrar por nombre (búsqueda parcial).
+     * @param maxPrice Precio máximo (Opcional) para filtrar productos con precio menor o igual.
+     * @param category Categoría (Opcional) para filtrar por categoría.
+     * @param peticion Petición, para contestar 304 si el cliente ya tiene la generación actual del catálogo.
+     * @return {@link ResponseEntity} con un {@link FacetasResponseDTO} con los recuentos.
+     */
+    @GetMapping("/facetas")
+    public ResponseEntity<FacetasResponseDTO> getFacetas(
+            @RequestParam(required = false) Optional<String> name,
+            @RequestParam(required = false) Optional<Double> maxPrice,
+            @RequestParam(required = false) Optional<String> category,
+            WebRequest peticion
+    ) {
+        log.info("CONTROLLER: Buscando facetas de Productos");
+        return respuestaListado.responder(peticion, () -> service.findFacetas(name, maxPrice, category));
+    }
+
+    /**
+     * Obtiene los productos con paginación por cursor, pensada para recorrer el catálogo
+     * entero (rastreadores, tareas de sincronización): el coste de cada página es el mismo
+     * sea cual sea su posición. Para la página siguiente se envía el <code>nextCursor</code>
+     * de la respuesta con los mismos filtros.
+     *
+     * @param name      Nombre (Opcional) para filtrar por nombre (búsqueda parcial).
+     * @param maxPrice  Precio máximo (Opcional) para filtrar productos con precio menor o igual.
+     * @param category  Categoría (Opcional) para filtrar por categoría.
+     * @param cursor    Cursor (Opcional) devuelto por la página anterior.
+     * @param size      Tamaño de la página (por defecto 10, como máximo <code>app.paginacion.cursor.tamano-maximo</code>).
+     * @param sortBy    Campo por el cual ordenar: id, nombre, precio, cantidad o fechaCreacion (por defecto 'id').
+     * @param direction Dirección de la ordenación (asc o desc, por defecto 'asc').
+     * @param peticion  Petición, para contestar 304 si el cliente ya tiene la generación actual del catálogo.
+     * @return {@link ResponseEntity} con un {@link CursorPageResponseDTO} de {@link GENERICProductosResponseDTO},
+     * o una respuesta 400 Bad Request si el cursor o el campo de ordenación no son válidos.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponseDTO<GENERICProductosResponseDTO>> getAllProductosCursor(
+            @RequestParam(required = false) Optional<String> name,
+            @RequestParam(required = false) Optional<Double> maxPrice,
+            @RequestParam(required = false) Optional<String> category,
+            @RequestParam(required = false) Optional<String> cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction,
+            WebRequest peticion
+    ) {
+        log.info("CONTROLLER: Buscando Productos por cursor");
+        return respuestaListado.responder(peticion,
+                () -> service.findAllCursor(name, maxPrice, category, cursor, sortBy, direction,
+                        Math.clamp(size, 1, tamanoMaximoCursor)));
+    }
+
+    /**
+     * Busca productos por texto libre en el nombre y la descripción, ordenados por relevancia.
+     * Encuentra también coincidencias parciales y nombres mal escritos.
+     *
+     * @param q    Texto a buscar.
+     * @param page Número de página (por defecto 0).
+     * @param size Tamaño de la página (por defecto 10).
+     * @param peticion Petición, para contestar 304 si el cliente ya tiene la generación actual del catálogo.
+     * @return {@link ResponseEntity} con un {@link PageResponseDTO} de {@link GENERICProductosResponseDTO}.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<PageResponseDTO<GENERICProductosResponseDTO>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest peticion
+    ) {
+        log.info("CONTROLLER: Buscando Productos por texto: " + q);
+        return respuestaListado.responder(peticion, () -> service.search(q, PageRequest.of(page, size)));
+    }
+
+    /**
+     * Exporta todos los productos que cumplen los filtros, ordenados por id, en NDJSON o CSV.
+     * La respuesta se escribe a medida que se leen los productos (fuera del hilo de la petición),
+     * así que la memoria no depende del tamaño del catálogo. El CSV se puede volver a cargar con
+     * <code>POST /productos/importar</code>.
+     *
+     * @param name     Nombre (Opcional) para filtrar por nombre (búsqueda parcial).
+     * @param maxPrice Precio máximo (Opcional) para filtrar productos con precio menor o igual.
+     * @param category Categoría (Opcional) para filtrar por categoría.
+     * @param format   Formato de salida: ndjson o csv (por defecto 'ndjson').
+     * @return {@link ResponseEntity} con el fichero como adjunto (200 OK),
+     * o una respuesta 400 Bad Request si el formato no es válido.
+     */
+    @GetMapping("/exportar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(required = false) Optional<String> name,
+            @RequestParam(required = false) Optional<Double> maxPrice,
+            @RequestParam(required = false) Optional<String> category,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        log.info("CONTROLLER: Exportando Productos en formato " + format);
+        FormatoExportacion formato = FormatoExportacion.of(format);
+        StreamingResponseBody cuerpo = salida -> service.exportar(name, maxPrice, category, formato, salida);
+        return ResponseEntity.ok()
+                .contentType(formato.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("productos." + formato.getExtension())
+                        .build()
+                        .toString())
+                .body(cuerpo);
     }
    /* @GetMapping({"", "/"})
     public ResponseEntity<List<GENERICResponseDTO>> getAll() {
@@ -95,7 +250,8 @@ public class ProductoRestController {
      * Busca un producto específico por su ID.
      *
      * @param id El ID (Long) del producto a buscar.
-     * @return {@link ResponseEntity} con el {@link GENERICProductosResponseDTO} encontrado (200 OK)
+     * @return {@link ResponseEntity} con el {@link GENERICProductosResponseDTO} encontrado (200 OK) y su ETag,
+     * 304 Not Modified si el cliente ya tiene esa versión (<code>If-None-Match</code>)
      * o una respuesta 404 Not Found si no se encuentra (gestionado por GlobalExceptionHandler).
      */
     @GetMapping("/{id}")
@@ -106,7 +262,8 @@ public class ProductoRestController {
         //Si no existiera, el servicio lanza la excepción que el GlobalExceptionHandler transforma en 404
         GENERICProductosResponseDTO producto = service.getById(id);
 
-        return ResponseEntity.ok(producto); //Devolvemos un 200 Ok con el propio producto en el cuerpo
+        //200 Ok con el producto, o 304 sin cuerpo si coincide el ETag que envía el cliente
+        return RespuestaCondicional.ok(producto, producto.getFechaModificacion());
     }
 
     /**
@@ -128,6 +285,36 @@ public class ProductoRestController {
                 .body(service.save(productoDTO)); //En el cuerpo del response, el propio producto creado
     }
 
+    /**
+     * Importa productos en masa desde un CSV con cabecera (<code>name, price, category, descripcion, image, cantidad</code>).
+     * El cuerpo se lee a medida que llega, sin cargarlo entero en memoria.
+     *
+     * @param cuerpo Contenido del CSV en UTF-8.
+     * @return {@link ResponseEntity} con el {@link ImportacionResponseDTO} (200 OK): filas importadas,
+     * errores por fila y rendimiento.
+     */
+    @PostMapping(value = "/importar", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportacionResponseDTO> importarCsv(InputStream cuerpo) {
+        log.info("CONTROLLER: Importando productos desde CSV");
+        return ResponseEntity.ok(importacionService.importarCsv(cuerpo));
+    }
+
+    /**
+     * Importa productos en masa desde NDJSON: un {@link POSTandPUTProductoRequestDTO} en JSON por línea.
+     * El cuerpo se lee a medida que llega, sin cargarlo entero en memoria.
+     *
+     * @param cuerpo Contenido NDJSON en UTF-8.
+     * @return {@link ResponseEntity} con el {@link ImportacionResponseDTO} (200 OK): filas importadas,
+     * errores por fila y rendimiento.
+     */
+    @PostMapping(value = "/importar", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportacionResponseDTO> importarNdjson(InputStream cuerpo) {
+        log.info("CONTROLLER: Importando productos desde NDJSON");
+        return ResponseEntity.ok(importacionService.importarNdjson(cuerpo));
+    }
+
     /**
      * Actualiza completamente un producto existente (operación PUT).
      *
@@ -176,6 +363,22 @@ public class ProductoRestController {
         return ResponseEntity.ok(patchedProducto); //Devolvemos un 200 Ok con el propio producto en el cuerpo
     }
 
+    /**
+     * Ajusta a la vez el precio de todos los productos de una categoría o que cumplen unos filtros,
+     * sumando un porcentaje o fijando un precio nuevo, con una sola actualización en la base de datos.
+     *
+     * @param ajuste El DTO ({@link AjustePreciosRequestDTO}) con los filtros y el ajuste.
+     * Este DTO está sujeto a validación (@Valid).
+     * @return {@link ResponseEntity} con el {@link AjustePreciosResponseDTO} (200 OK) con los productos actualizados,
+     * o una respuesta 400 Bad Request si el ajuste no es válido o la categoría no existe.
+     */
+    @PatchMapping("/precios")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AjustePreciosResponseDTO> ajustarPrecios(@Valid @RequestBody AjustePreciosRequestDTO ajuste) {
+        log.info("CONTROLLER: Ajustando precios de Productos");
+        return ResponseEntity.ok(service.ajustarPrecios(ajuste));
+    }
+
 
     /**
      * Elimina un producto por su ID.
@@ -1,17 +1,41 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.dto.category;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * DTO de respuesta de una categoría. Los recuentos y precios solo se rellenan (y se incluyen
+ * en el JSON) cuando se piden en el listado de categorías.
+ */
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class GENERICcategoryResponseDTO {
     private Long id;
     private String name;
+    /**
+     * Número de productos de la categoría.
+     */
+    private Long productCount;
+    /**
+     * Precio más bajo de sus productos.
+     */
+    private Double minPrice;
+    /**
+     * Precio más alto de sus productos.
+     */
+    private Double maxPrice;
+    /**
+     * Fecha de la última modificación de la categoría. Es la base del ETag y del
+     * <code>Last-Modified</code> de <code>GET /categories/{id}</code>.
+     */
+    private LocalDateTime fechaModificacion;
 }
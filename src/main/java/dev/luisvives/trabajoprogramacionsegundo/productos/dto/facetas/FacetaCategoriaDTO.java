@@ -0,0 +1,32 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Número de productos de una categoría que cumplen los filtros de la búsqueda.
+ *
+ * <b>Campos:</b>
+ * <ul>
+ *   <li><b>category</b> (<code>String</code>): Nombre de la categoría.</li>
+ *   <li><b>count</b> (<code>long</code>): Número de productos de esa categoría.</li>
+ * </ul>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetaCategoriaDTO {
+
+    /**
+     * Nombre de la categoría.
+     */
+    private String category;
+
+    /**
+     * Número de productos de esa categoría.
+     */
+    private long count;
+}
@@ -0,0 +1,38 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Número de productos cuyo precio cae en un tramo <code>[min, max)</code>.
+ *
+ * <b>Campos:</b>
+ * <ul>
+ *   <li><b>min</b> (<code>Double</code>): Precio mínimo del tramo (incluido), <code>null</code> en el primer tramo.</li>
+ *   <li><b>max</b> (<code>Double</code>): Precio máximo del tramo (excluido), <code>null</code> en el último tramo.</li>
+ *   <li><b>count</b> (<code>long</code>): Número de productos del tramo.</li>
+ * </ul>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetaPrecioDTO {
+
+    /**
+     * Precio mínimo del tramo (incluido), <code>null</code> si no tiene límite inferior.
+     */
+    private Double min;
+
+    /**
+     * Precio máximo del tramo (excluido), <code>null</code> si no tiene límite superior.
+     */
+    private Double max;
+
+    /**
+     * Número de productos del tramo.
+     */
+    private long count;
+}
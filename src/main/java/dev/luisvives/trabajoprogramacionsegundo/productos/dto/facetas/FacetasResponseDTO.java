@@ -0,0 +1,41 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Recuentos (facetas) de los productos que cumplen unos filtros, para mostrar junto a
+ * cada opción de filtrado cuántos resultados hay.
+ *
+ * <b>Campos:</b>
+ * <ul>
+ *   <li><b>total</b> (<code>long</code>): Número total de productos que cumplen los filtros.</li>
+ *   <li><b>categories</b> (<code>List&lt;FacetaCategoriaDTO&gt;</code>): Recuento por categoría, de mayor a menor.</li>
+ *   <li><b>prices</b> (<code>List&lt;FacetaPrecioDTO&gt;</code>): Recuento por tramo de precio, en orden de precio (incluye los tramos vacíos).</li>
+ * </ul>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetasResponseDTO {
+
+    /**
+     * Número total de productos que cumplen los filtros.
+     */
+    private long total;
+
+    /**
+     * Recuento por categoría.
+     */
+    private List<FacetaCategoriaDTO> categories;
+
+    /**
+     * Recuento por tramo de precio.
+     */
+    private List<FacetaPrecioDTO> prices;
+}
@@ -0,0 +1,32 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.dto.importacion;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila de un fichero de importación que no se ha podido guardar.
+ *
+ * <b>Campos:</b>
+ * <ul>
+ *   <li><b>row</b> (<code>long</code>): Número de línea del fichero (la cabecera del CSV es la línea 1).</li>
+ *   <li><b>message</b> (<code>String</code>): Motivo por el que se ha descartado la fila.</li>
+ * </ul>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorFilaDTO {
+
+    /**
+     * Número de línea del fichero.
+     */
+    private long row;
+
+    /**
+     * Motivo por el que se ha descartado la fila.
+     */
+    private String message;
+}
@@ -0,0 +1,59 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.dto.importacion;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva de productos.
+ *
+ * <b>Campos:</b>
+ * <ul>
+ *   <li><b>read</b> (<code>long</code>): Filas de datos leídas del fichero.</li>
+ *   <li><b>imported</b> (<code>long</code>): Productos guardados.</li>
+ *   <li><b>failed</b> (<code>long</code>): Filas descartadas.</li>
+ *   <li><b>errors</b> (<code>List&lt;ErrorFilaDTO&gt;</code>): Detalle de las filas descartadas, limitado a
+ *       <code>app.productos.importacion.max-errores</code> (<code>failed</code> siempre tiene el total).</li>
+ *   <li><b>millis</b> (<code>long</code>): Duración de la importación en milisegundos.</li>
+ *   <li><b>rowsPerSecond</b> (<code>double</code>): Filas leídas por segundo.</li>
+ * </ul>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacionResponseDTO {
+
+    /**
+     * Filas de datos leídas del fichero.
+     */
+    private long read;
+
+    /**
+     * Productos guardados.
+     */
+    private long imported;
+
+    /**
+     * Filas descartadas.
+     */
+    private long failed;
+
+    /**
+     * Detalle de las filas descartadas.
+     */
+    private List<ErrorFilaDTO> errors;
+
+    /**
+     * Duración de la importación en milisegundos.
+     */
+    private long millis;
+
+    /**
+     * Filas leídas por segundo.
+     */
+    private double rowsPerSecond;
+}
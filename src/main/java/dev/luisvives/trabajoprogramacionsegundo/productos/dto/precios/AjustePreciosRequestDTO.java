@@ -0,0 +1,65 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para ajustar de una vez el precio de todos los productos que cumplen unos filtros.
+ * <p>
+ * Se envía <b>uno</b> de los dos ajustes: <code>percentage</code> o <code>price</code>.
+ * Los filtros son opcionales y se combinan, pero hace falta al menos uno: para ajustar
+ * todo el catálogo hay que pedirlo de forma explícita con <code>all</code>.
+ * </p>
+ *
+ * <b>Campos:</b>
+ * <ul>
+ *   <li><b>category</b> (<code>String</code>): Nombre exacto de la categoría. Opcional.</li>
+ *   <li><b>name</b> (<code>String</code>): Texto que debe contener el nombre del producto. Opcional.</li>
+ *   <li><b>maxPrice</b> (<code>Double</code>): Solo productos con precio menor o igual. Opcional.</li>
+ *   <li><b>all</b> (<code>boolean</code>): Ajusta todo el catálogo cuando no se envía ningún filtro.</li>
+ *   <li><b>percentage</b> (<code>Double</code>): Porcentaje a sumar al precio (negativo para rebajar), mayor que -100.</li>
+ *   <li><b>price</b> (<code>Double</code>): Precio nuevo, mayor o igual a 0.</li>
+ * </ul>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AjustePreciosRequestDTO {
+
+    /**
+     * Nombre exacto de la categoría.
+     */
+    private String category;
+
+    /**
+     * Texto que debe contener el nombre del producto.
+     */
+    private String name;
+
+    /**
+     * Precio máximo de los productos a ajustar.
+     */
+    private Double maxPrice;
+
+    /**
+     * Confirma que se quiere ajustar todo el catálogo si no hay filtros.
+     */
+    private boolean all;
+
+    /**
+     * Porcentaje a aplicar sobre el precio actual.
+     */
+    @DecimalMin(value = "-100", inclusive = false, message = "El porcentaje debe ser mayor que -100")
+    private Double percentage;
+
+    /**
+     * Precio nuevo para todos los productos.
+     */
+    @Min(value = 0, message = "El precio no puede ser negativo")
+    private Double price;
+}
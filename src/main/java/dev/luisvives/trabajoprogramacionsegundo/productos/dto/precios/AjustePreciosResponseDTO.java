@@ -0,0 +1,26 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de un ajuste masivo de precios.
+ *
+ * <b>Campos:</b>
+ * <ul>
+ *   <li><b>updated</b> (<code>int</code>): Número de productos actualizados.</li>
+ * </ul>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AjustePreciosResponseDTO {
+
+    /**
+     * Número de productos actualizados.
+     */
+    private int updated;
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 /**
  * DTO genérico utilizado para representar la respuesta de un producto.
  * <p>
@@ -20,6 +22,7 @@ import lombok.NoArgsConstructor;
  *   <li><b>category</b> (<code>String</code>): Nombre de la categoría asociada.</li>
  *   <li><b>descripcion</b> (<code>String</code>): Descripción del producto o entidad.</li>
  *   <li><b>image</b> (<code>String</code>): Nombre o ruta de la imagen asociada.</li>
+ *   <li><b>fechaModificacion</b> (<code>LocalDateTime</code>): Fecha de la última modificación del producto.</li>
  * </ul>
  */
 @Data
@@ -62,5 +65,11 @@ public class GENERICProductosResponseDTO {
      * Nombre o ruta de la imagen asociada.
      */
     private String image;
+
+    /**
+     * Fecha de la última modificación del producto. Es la base del ETag y del
+     * <code>Last-Modified</code> de <code>GET /productos/{id}</code>.
+     */
+    private LocalDateTime fechaModificacion;
 }
 
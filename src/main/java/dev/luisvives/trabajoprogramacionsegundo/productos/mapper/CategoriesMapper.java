@@ -3,6 +3,7 @@ package dev.luisvives.trabajoprogramacionsegundo.productos.mapper;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.GENERICcategoryResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.POSTandPUTcategoryRequestDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
+import dev.luisvives.trabajoprogramacionsegundo.productos.repository.EstadisticaCategoria;
 import org.springframework.stereotype.Controller;
 
 import java.util.logging.Logger;
@@ -45,7 +46,33 @@ public class CategoriesMapper {
 
         categoryDTO.setId(category.getId());
         categoryDTO.setName(category.getName());
+        categoryDTO.setFechaModificacion(category.getFechaModificacion());
 
         return categoryDTO;
     }
+
+    /**
+     * Transforma una fila de {@link EstadisticaCategoria} en un {@link GENERICcategoryResponseDTO}
+     * con solo los datos pedidos.
+     * @param estadistica Fila con los recuentos y precios de la categoría
+     * @param conRecuento Si se incluye el número de productos
+     * @param conPrecios  Si se incluyen los precios mínimo y máximo
+     * @return DTO de la categoría
+     */
+    public GENERICcategoryResponseDTO estadisticaToGenericResponseDTO(EstadisticaCategoria estadistica,
+                                                                      boolean conRecuento,
+                                                                      boolean conPrecios) {
+        GENERICcategoryResponseDTO categoryDTO = GENERICcategoryResponseDTO.builder()
+                .id(estadistica.id())
+                .name(estadistica.name())
+                .build();
+        if (conRecuento) {
+            categoryDTO.setProductCount(estadistica.productos());
+        }
+        if (conPrecios) {
+            categoryDTO.setMinPrice(estadistica.precioMinimo());
+            categoryDTO.setMaxPrice(estadistica.precioMaximo());
+        }
+        return categoryDTO;
+    }
 }
\ No newline at end of file
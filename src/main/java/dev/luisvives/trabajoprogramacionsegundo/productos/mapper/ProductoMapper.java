@@ -1,11 +1,22 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.mapper;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.POSTandPUTProductoRequestDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas.FacetaCategoriaDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas.FacetaPrecioDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas.FacetasResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
+import dev.luisvives.trabajoprogramacionsegundo.productos.repository.FacetaFila;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
@@ -51,6 +62,7 @@ public class ProductoMapper {
         productoDto.setDescripcion(producto.getDescripcion());
         productoDto.setImage(producto.getImagen());
         productoDto.setCantidad(producto.getCantidad());
+        productoDto.setFechaModificacion(producto.getFechaModificacion());
         return productoDto;
     }
 
@@ -79,4 +91,112 @@ public class ProductoMapper {
                 direction
         );
     }
+
+    /**
+     * transforma una {@link Page} que ya trae los DTO (proyección) en un {@link PageResponseDTO}
+     * @param page elementos de la pagina
+     * @param sortBy como se ordena
+     * @param direction direccion de ordenacion
+     * @return devuelve el {@link PageResponseDTO} ya ordenado
+     */
+    public  PageResponseDTO<GENERICProductosResponseDTO> responsePageToDTO (Page<GENERICProductosResponseDTO> page, String sortBy, String direction) {
+        return new PageResponseDTO<>(
+                page.getContent(),
+                page.getTotalPages(),
+                page.getTotalElements(),
+                page.getSize(),
+                page.getNumber(),
+                page.getNumberOfElements(),
+                page.isEmpty(),
+                page.isFirst(),
+                page.isLast(),
+                sortBy,
+                direction
+        );
+    }
+
+    /**
+     * transforma un {@link Slice} en un {@link PageResponseDTO} sin totales: como no se ha
+     * contado, <code>totalPages</code> y <code>totalElements</code> valen -1 y
+     * <code>last</code> indica si no hay página siguiente
+     * @param slice elementos de la pagina
+     * @param sortBy como se ordena
+     * @param direction direccion de ordenacion
+     * @return devuelve el {@link PageResponseDTO}
+     */
+    public  PageResponseDTO<GENERICProductosResponseDTO> sliceToDTO (Slice<Producto> slice, String sortBy, String direction) {
+        return new PageResponseDTO<>(
+                slice.getContent()
+                        .stream()
+                        .map(model -> modelToGenericResponseDTO(model))
+                        .toList(),
+                -1,
+                -1,
+                slice.getSize(),
+                slice.getNumber(),
+                slice.getNumberOfElements(),
+                slice.isEmpty(),
+                slice.isFirst(),
+                slice.isLast(),
+                sortBy,
+                direction
+        );
+    }
+
+    /**
+     * transforma un {@link Slice} de la paginación por cursor en un {@link CursorPageResponseDTO}
+     * @param slice elementos de la pagina
+     * @param nextCursor cursor de la pagina siguiente, null si es la ultima
+     * @param sortBy como se ordena
+     * @param direction direccion de ordenacion
+     * @return devuelve el {@link CursorPageResponseDTO}
+     */
+    public CursorPageResponseDTO<GENERICProductosResponseDTO> sliceToCursorDTO(Slice<Producto> slice, String nextCursor, String sortBy, String direction) {
+        return new CursorPageResponseDTO<>(
+                slice.getContent()
+                        .stream()
+                        .map(model -> modelToGenericResponseDTO(model))
+                        .toList(),
+                slice.getNumberOfElements(),
+                nextCursor,
+                slice.hasNext(),
+                sortBy,
+                direction
+        );
+    }
+
+    /**
+     * transforma las filas de la consulta de facetas (categoría, tramo, total) en un
+     * {@link FacetasResponseDTO}, sumando por categoría y por tramo de precio
+     * @param filas filas agrupadas por categoría y tramo
+     * @param limites límites entre tramos de precio, ordenados
+     * @return devuelve el {@link FacetasResponseDTO}
+     */
+    public FacetasResponseDTO facetasToDTO(List<FacetaFila> filas, List<Double> limites) {
+        Map<String, Long> porCategoria = new HashMap<>();
+        long[] porTramo = new long[limites.size() + 1];
+        long total = 0;
+        for (FacetaFila fila : filas) {
+            total += fila.total();
+            porTramo[fila.tramo()] += fila.total();
+            if (fila.categoria() != null) {
+                porCategoria.merge(fila.categoria(), fila.total(), Long::sum);
+            }
+        }
+
+        List<FacetaCategoriaDTO> categorias = porCategoria.entrySet().stream()
+                .map(entrada -> new FacetaCategoriaDTO(entrada.getKey(), entrada.getValue()))
+                .sorted(Comparator.comparingLong(FacetaCategoriaDTO::getCount).reversed()
+                        .thenComparing(FacetaCategoriaDTO::getCategory))
+                .toList();
+        List<FacetaPrecioDTO> precios = new ArrayList<>();
+        for (int i = 0; i < porTramo.length; i++) {
+            precios.add(new FacetaPrecioDTO(
+                    i == 0 ? null : limites.get(i - 1),
+                    i == limites.size() ? null : limites.get(i),
+                    porTramo[i]
+            ));
+        }
+        return new FacetasResponseDTO(total, categorias, precios);
+    }
 }
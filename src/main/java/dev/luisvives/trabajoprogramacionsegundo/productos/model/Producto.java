@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -40,6 +41,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+// El UPDATE solo lleva las columnas modificadas: editar un producto no reescribe la cantidad
+// leída, que los pedidos cambian a la vez con ProductsRepository#cambiarStock
+@DynamicUpdate
+// Los índices de la tabla los crean las migraciones de Flyway (db/migration)
 @Table(name = "productos")
 @EntityListeners(AuditingEntityListener.class)
 public class Producto {
@@ -53,7 +58,8 @@ public class Producto {
      * Identificador único del producto.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productos_seq")
+    @SequenceGenerator(name = "productos_seq", sequenceName = "productos_id_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -3,8 +3,10 @@ package dev.luisvives.trabajoprogramacionsegundo.productos.repository;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,4 +17,21 @@ import java.util.UUID;
 @Repository
 public interface CategoriesRepository extends JpaRepository<Categoria, Long> {
     Optional<Categoria> findByNameIgnoreCase(@NotBlank(message = "La categoría no puede estar vacía") String category);
+
+    /**
+     * Indica si ya existe una categoría con ese nombre, sin distinguir mayúsculas.
+     */
+    boolean existsByNameIgnoreCase(String name);
+
+    /**
+     * Obtiene todas las categorías con su número de productos y su precio mínimo y máximo,
+     * en una sola consulta agrupada. Las categorías sin productos aparecen con 0 productos.
+     *
+     * @return Una fila por categoría, ordenadas por id
+     */
+    @Query("SELECT new dev.luisvives.trabajoprogramacionsegundo.productos.repository.EstadisticaCategoria(" +
+            "c.id, c.name, count(p.id), min(p.precio), max(p.precio)) " +
+            "FROM Categoria c LEFT JOIN Producto p ON p.categoria = c " +
+            "GROUP BY c.id, c.name ORDER BY c.id")
+    List<EstadisticaCategoria> findEstadisticas();
 }
\ No newline at end of file
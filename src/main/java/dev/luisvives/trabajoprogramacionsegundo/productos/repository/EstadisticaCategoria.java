@@ -0,0 +1,13 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.repository;
+
+/**
+ * Fila de la consulta de estadísticas de categorías: número de productos y rango de precios de una categoría.
+ *
+ * @param id           Id de la categoría
+ * @param name         Nombre de la categoría
+ * @param productos    Número de productos de la categoría
+ * @param precioMinimo Precio más bajo (<code>null</code> si no tiene productos)
+ * @param precioMaximo Precio más alto (<code>null</code> si no tiene productos)
+ */
+public record EstadisticaCategoria(Long id, String name, Long productos, Double precioMinimo, Double precioMaximo) {
+}
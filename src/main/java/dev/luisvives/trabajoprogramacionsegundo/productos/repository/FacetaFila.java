@@ -0,0 +1,11 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.repository;
+
+/**
+ * Fila de la consulta de facetas: número de productos de una categoría en un tramo de precio.
+ *
+ * @param categoria Nombre de la categoría (<code>null</code> si el producto no tiene)
+ * @param tramo     Índice del tramo de precio, de 0 al número de límites
+ * @param total     Número de productos
+ */
+public record FacetaFila(String categoria, int tramo, long total) {
+}
@@ -1,24 +1,87 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.repository;
 
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Clase que representa el repositorio de productos, que realiza las operaciones CRUD.
  * @see Producto
  */
 @Repository
-public interface ProductsRepository extends JpaRepository <Producto, Long>{
+public interface ProductsRepository extends JpaRepository <Producto, Long>, ProductsRepositoryCustom {
+    // Los métodos con @EntityGraph traen la categoría con un join en la misma consulta,
+    // en lugar de una consulta más por cada categoría al convertir a DTO
+    @EntityGraph(attributePaths = "categoria")
     Page<Producto> findAll(Specification<Producto> criterio, Pageable pageable);
 
+    @EntityGraph(attributePaths = "categoria")
+    Optional<Producto> findById(Long id);
+
+    /**
+     * Lee un producto directamente como DTO de respuesta, sin crear la entidad gestionada.
+     *
+     * @param id Identificador del producto
+     * @return El DTO del producto si existe
+     */
+    @Query("""
+            SELECT new dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO(
+                p.id, p.nombre, p.precio, p.cantidad, c.name, p.descripcion, p.imagen, p.fechaModificacion)
+            FROM Producto p LEFT JOIN p.categoria c
+            WHERE p.id = :id
+            """)
+    Optional<GENERICProductosResponseDTO> findResponseById(@Param("id") Long id);
+
+    /**
+     * Lee varios productos como DTO de respuesta en una sola consulta. Los ids que no existen
+     * simplemente no aparecen en el resultado.
+     *
+     * @param ids Identificadores de los productos
+     * @return Los DTO de los productos encontrados, sin orden concreto
+     */
+    @Query("""
+            SELECT new dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO(
+                p.id, p.nombre, p.precio, p.cantidad, c.name, p.descripcion, p.imagen, p.fechaModificacion)
+            FROM Producto p LEFT JOIN p.categoria c
+            WHERE p.id IN :ids
+            """)
+    List<GENERICProductosResponseDTO> findResponseByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Lee la cantidad en stock de un producto de la base de datos, aunque la entidad ya esté
+     * cargada en la transacción con una cantidad anterior.
+     *
+     * @param id Identificador del producto
+     * @return La cantidad si el producto existe
+     */
+    @Query("SELECT p.cantidad FROM Producto p WHERE p.id = :id")
+    Optional<Integer> findCantidadById(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = "categoria")
     List<Producto> findByCategoria(Categoria categoria);
+
+    /**
+     * Indica si la categoría tiene algún producto. La consulta se detiene en la primera fila
+     * (<code>LIMIT 1</code>) y no carga ningún producto.
+     *
+     * @param categoriaId Id de la categoría
+     * @return <code>true</code> si hay al menos un producto de la categoría
+     */
+    boolean existsByCategoriaId(Long categoriaId);
+
+    @EntityGraph(attributePaths = "categoria")
     List<Producto> findAllByFechaCreacionBetween(LocalDateTime fechaCreacion, LocalDateTime ahora);
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.repository;
+
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de productos implementadas a mano con la API Criteria.
+ * @see ProductsRepositoryCustomImpl
+ */
+public interface ProductsRepositoryCustom {
+
+    /**
+     * Busca productos sin lanzar la consulta de conteo: se lee una fila de más para
+     * saber si hay página siguiente.
+     *
+     * @param criterio Filtro de la consulta
+     * @param pageable Desplazamiento, tamaño y ordenación
+     * @return {@link Slice} de productos
+     */
+    Slice<Producto> findSlice(Specification<Producto> criterio, Pageable pageable);
+
+    /**
+     * Busca productos seleccionando directamente el DTO de respuesta (<code>SELECT new ...</code>).
+     * No se crean entidades gestionadas ni copias para el <i>dirty checking</i>: es el camino de
+     * lectura para los listados que solo se devuelven al cliente.
+     *
+     * @param criterio Filtro de la consulta
+     * @param pageable Página, tamaño y ordenación
+     * @return Página de {@link GENERICProductosResponseDTO}
+     */
+    Page<GENERICProductosResponseDTO> findAllResponse(Specification<Producto> criterio, Pageable pageable);
+
+    /**
+     * Recorre todos los productos que cumplen el filtro, ordenados por id, seleccionando
+     * directamente el DTO de respuesta. Las filas se leen de un cursor de la base de datos en
+     * bloques de tamaño fijo y ninguna entra en el contexto de persistencia, así que la memoria
+     * no depende del número de productos.
+     * <p>
+     * Debe consumirse dentro de una transacción y cerrarse al terminar (<i>try-with-resources</i>).
+     * </p>
+     *
+     * @param criterio Filtro de la consulta
+     * @return {@link Stream} de {@link GENERICProductosResponseDTO}
+     */
+    Stream<GENERICProductosResponseDTO> streamResponse(Specification<Producto> criterio);
+
+    /**
+     * Búsqueda de productos por texto con relevancia.
+     * <p>
+     * Combina la búsqueda de texto completo en español sobre nombre y descripción
+     * (<code>tsvector</code>) con la similitud por trigramas del nombre (<code>pg_trgm</code>),
+     * que encuentra también subcadenas y nombres mal escritos. Ambas condiciones usan índices
+     * GIN (creados por la migración <code>V2__indices.sql</code>). Los resultados se ordenan por relevancia y, a igualdad,
+     * por similitud del nombre; la ordenación del {@link Pageable} se ignora.
+     * </p>
+     * <p>
+     * Como {@link #findAllResponse}, selecciona directamente el DTO: el nombre de la categoría
+     * sale del <code>LEFT JOIN</code> de la propia consulta, sin una consulta más por categoría.
+     * </p>
+     *
+     * @param texto    Texto a buscar
+     * @param pageable Página y tamaño
+     * @return Página de {@link GENERICProductosResponseDTO} ordenada por relevancia
+     */
+    Page<GENERICProductosResponseDTO> buscar(String texto, Pageable pageable);
+
+    /**
+     * Cuenta en una sola consulta agrupada los productos que cumplen los filtros por
+     * categoría y tramo de precio (<code>GROUP BY</code> categoría, tramo). Con esas filas se
+     * obtienen tanto los recuentos por categoría como por tramo.
+     *
+     * @param nombre        Filtro opcional por parte del nombre
+     * @param precioMaximo  Filtro opcional por precio máximo
+     * @param idsCategoria  Filtro opcional por ids de categoría
+     * @param limitesPrecio Límites entre tramos de precio, ordenados de menor a mayor
+     * @return Una fila por cada combinación de categoría y tramo con productos
+     */
+    List<FacetaFila> contarFacetas(Optional<String> nombre,
+                                   Optional<Double> precioMaximo,
+                                   Optional<List<Long>> idsCategoria,
+                                   List<Double> limitesPrecio);
+
+    /**
+     * Cambia el precio de todos los productos que cumplen los filtros con una sola sentencia
+     * <code>UPDATE</code>, sin cargar ninguna entidad. Se indica o bien un porcentaje (el precio
+     * resultante se redondea a dos decimales) o bien un precio nuevo, que tiene prioridad.
+     * La fecha de modificación de las filas pasa a ser la actual.
+     * <p>
+     * Como no pasa por el contexto de persistencia, las entidades ya cargadas en la transacción
+     * que llama no ven el cambio.
+     * </p>
+     *
+     * @param nombre       Filtro opcional por parte del nombre
+     * @param precioMaximo Filtro opcional por precio máximo
+     * @param idsCategoria Filtro opcional por ids de categoría
+     * @param porcentaje   Porcentaje a aplicar sobre el precio actual
+     * @param precioNuevo  Precio nuevo para todas las filas
+     * @return Número de productos actualizados
+     */
+    @Transactional
+    int ajustarPrecios(Optional<String> nombre,
+                       Optional<Double> precioMaximo,
+                       Optional<List<Long>> idsCategoria,
+                       Optional<Double> porcentaje,
+                       Optional<Double> precioNuevo);
+
+    /**
+     * Inserta un lote de productos nuevos en lotes JDBC (<code>hibernate.jdbc.batch_size</code>)
+     * y vacía después el contexto de persistencia. Es el camino de escritura de la importación
+     * masiva: la memoria no crece con el número de lotes.
+     *
+     * @param productos Productos sin id, con la categoría ya resuelta
+     * @return Número de productos insertados
+     */
+    @Transactional
+    int insertarLote(List<Producto> productos);
+
+    /**
+     * Cambia el stock de varios productos en un único lote JDBC de sentencias condicionales
+     * <code>UPDATE productos SET cantidad = cantidad - ? WHERE id = ? AND cantidad >= ?</code>.
+     * Una cantidad positiva descuenta unidades y solo se aplica si hay suficientes; una negativa
+     * las devuelve y se aplica siempre. La comprobación y el cambio son atómicos en cada fila,
+     * así que pedidos simultáneos del mismo producto no pierden actualizaciones.
+     * <p>
+     * Las filas se actualizan en orden de id (de ahí el {@link SortedMap}): dos transacciones que
+     * cambian los mismos productos bloquean las filas en el mismo orden y no se interbloquean.
+     * Como no pasa por el contexto de persistencia, las entidades ya cargadas en la transacción
+     * que llama no ven el cambio.
+     * </p>
+     *
+     * @param unidades Unidades a descontar (o a devolver si son negativas) por id de producto
+     * @return Filas actualizadas por cada producto, en el orden de las claves: 0 si no había stock
+     * suficiente o el producto no existe
+     */
+    @Transactional
+    int[] cambiarStock(SortedMap<Long, Integer> unidades);
+}
@@ -0,0 +1,287 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.repository;
+
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.PaginacionKeyset;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de {@link ProductsRepositoryCustom}. Spring Data la combina con
+ * {@link ProductsRepository} por el sufijo <code>Impl</code>.
+ */
+public class ProductsRepositoryCustomImpl implements ProductsRepositoryCustom {
+
+    /**
+     * Filas que se piden a la base de datos en cada lectura del cursor de {@link #streamResponse}.
+     */
+    static final int FILAS_POR_LECTURA = 500;
+
+    /**
+     * Condición de la búsqueda por texto: texto completo, trigramas del nombre o subcadena del
+     * nombre. La subcadena usa <code>:patron</code>, el texto con los comodines escapados.
+     */
+    private static final String BUSQUEDA = """
+             WHERE to_tsvector('spanish', p.nombre || ' ' || coalesce(p.descripcion, '')) @@ plainto_tsquery('spanish', :texto)
+                OR lower(p.nombre) % lower(:texto)
+                OR lower(p.nombre) LIKE '%' || lower(:patron) || '%' ESCAPE '\\'
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductsRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Slice<Producto> findSlice(Specification<Producto> criterio, Pageable pageable) {
+        // La categoría se trae en la misma consulta: el mapper la lee en cada fila
+        return PaginacionKeyset.slice(entityManager, Producto.class, criterio, pageable, "categoria");
+    }
+
+    @Override
+    public Page<GENERICProductosResponseDTO> findAllResponse(Specification<Producto> criterio, Pageable pageable) {
+        List<GENERICProductosResponseDTO> contenido = entityManager.createQuery(consultaResponse(criterio, pageable.getSort()))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        // Como Spring Data: el conteo solo se lanza si no se puede deducir de la propia página
+        return PageableExecutionUtils.getPage(contenido, pageable, () -> contar(criterio));
+    }
+
+    @Override
+    public Stream<GENERICProductosResponseDTO> streamResponse(Specification<Producto> criterio) {
+        // Con un tamaño de lectura el driver de PostgreSQL usa un cursor en el servidor y solo
+        // trae FILAS_POR_LECTURA filas cada vez (requiere estar dentro de una transacción)
+        return entityManager.createQuery(consultaResponse(criterio, Sort.by("id")))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FILAS_POR_LECTURA)
+                .getResultStream();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Page<GENERICProductosResponseDTO> buscar(String texto, Pageable pageable) {
+        List<Object[]> filas = entityManager.createNativeQuery("""
+                        SELECT p.id, p.nombre, p.precio, p.cantidad, c.name, p.descripcion, p.imagen, p.fecha_modificacion
+                        FROM productos p LEFT JOIN categoria c ON c.id = p.categoria_id
+                        """ + BUSQUEDA + """
+                        ORDER BY ts_rank(to_tsvector('spanish', p.nombre || ' ' || coalesce(p.descripcion, '')), plainto_tsquery('spanish', :texto)) DESC,
+                                 similarity(lower(p.nombre), lower(:texto)) DESC,
+                                 p.id
+                        """)
+                .setParameter("texto", texto)
+                .setParameter("patron", escaparLike(texto))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        List<GENERICProductosResponseDTO> contenido = filas.stream()
+                .map(fila -> new GENERICProductosResponseDTO(
+                        ((Number) fila[0]).longValue(),
+                        (String) fila[1],
+                        ((Number) fila[2]).doubleValue(),
+                        ((Number) fila[3]).intValue(),
+                        (String) fila[4],
+                        (String) fila[5],
+                        (String) fila[6],
+                        fecha(fila[7])))
+                .toList();
+        return PageableExecutionUtils.getPage(contenido, pageable, () -> ((Number) entityManager
+                .createNativeQuery("SELECT count(*) FROM productos p" + BUSQUEDA)
+                .setParameter("texto", texto)
+                .setParameter("patron", escaparLike(texto))
+                .getSingleResult()).longValue());
+    }
+
+    /**
+     * Escapa los comodines de <code>LIKE</code> (y el propio carácter de escape) para que el
+     * texto se busque tal cual: "%" o "_" no deben coincidir con cualquier nombre.
+     */
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<FacetaFila> contarFacetas(Optional<String> nombre,
+                                          Optional<Double> precioMaximo,
+                                          Optional<List<Long>> idsCategoria,
+                                          List<Double> limitesPrecio) {
+        // width_bucket devuelve cuántos límites son menores o iguales que el precio, es decir,
+        // el índice del tramo. Los límites salen de la configuración y se escriben como literales
+        // para que la misma expresión valga en el SELECT y en el GROUP BY.
+        String tramo = limitesPrecio.isEmpty()
+                ? "0"
+                : limitesPrecio.stream()
+                        .map(limite -> BigDecimal.valueOf(limite).toPlainString())
+                        .collect(Collectors.joining(",", "width_bucket(p.precio, ARRAY[", "]::double precision[])"));
+        StringBuilder sql = new StringBuilder("SELECT c.name, ").append(tramo).append(", count(*)")
+                .append(" FROM productos p LEFT JOIN categoria c ON c.id = p.categoria_id WHERE 1 = 1");
+        Map<String, Object> parametros = new HashMap<>();
+        filtrar(sql, parametros, nombre, precioMaximo, idsCategoria);
+        sql.append(" GROUP BY 1, 2");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        parametros.forEach(query::setParameter);
+        List<Object[]> filas = query.getResultList();
+        return filas.stream()
+                .map(fila -> new FacetaFila(
+                        (String) fila[0],
+                        ((Number) fila[1]).intValue(),
+                        ((Number) fila[2]).longValue()))
+                .toList();
+    }
+
+    @Override
+    public int ajustarPrecios(Optional<String> nombre,
+                              Optional<Double> precioMaximo,
+                              Optional<List<Long>> idsCategoria,
+                              Optional<Double> porcentaje,
+                              Optional<Double> precioNuevo) {
+        Map<String, Object> parametros = new HashMap<>();
+        StringBuilder sql = new StringBuilder("UPDATE productos p SET fecha_modificacion = now(), precio = ");
+        if (precioNuevo.isPresent()) {
+            sql.append(":precioNuevo");
+            parametros.put("precioNuevo", precioNuevo.get());
+        } else {
+            // Se redondea a céntimos en la base de datos para no arrastrar decimales de coma flotante
+            sql.append("round(CAST(p.precio * :factor AS numeric), 2)");
+            parametros.put("factor", 1 + porcentaje.orElse(0.0) / 100);
+        }
+        sql.append(" WHERE 1 = 1");
+        filtrar(sql, parametros, nombre, precioMaximo, idsCategoria);
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        parametros.forEach(query::setParameter);
+        return query.executeUpdate();
+    }
+
+    @Override
+    public int insertarLote(List<Producto> productos) {
+        // Con ids de secuencia persist no lanza el INSERT: se envían todos al hacer flush,
+        // agrupados según hibernate.jdbc.batch_size
+        productos.forEach(entityManager::persist);
+        entityManager.flush();
+        // Se sueltan las entidades para que el contexto no crezca lote a lote
+        entityManager.clear();
+        return productos.size();
+    }
+
+    @Override
+    public int[] cambiarStock(SortedMap<Long, Integer> unidades) {
+        // JdbcTemplate usa la conexión de la transacción JPA en curso; una cantidad negativa
+        // suma unidades y su condición (cantidad >= negativo) se cumple siempre
+        List<Object[]> filas = unidades.entrySet().stream()
+                .map(e -> new Object[]{e.getValue(), e.getKey(), e.getValue()})
+                .toList();
+        return jdbcTemplate.batchUpdate(
+                "UPDATE productos SET cantidad = cantidad - ?, fecha_modificacion = now() WHERE id = ? AND cantidad >= ?",
+                filas);
+    }
+
+    /**
+     * Fecha de una columna <code>timestamp</code> leída con una consulta nativa.
+     */
+    private static LocalDateTime fecha(Object valor) {
+        return valor instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) valor;
+    }
+
+    /**
+     * Consulta que selecciona directamente {@link GENERICProductosResponseDTO} con el filtro y el orden indicados.
+     */
+    private CriteriaQuery<GENERICProductosResponseDTO> consultaResponse(Specification<Producto> criterio, Sort orden) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<GENERICProductosResponseDTO> query = cb.createQuery(GENERICProductosResponseDTO.class);
+        Root<Producto> root = query.from(Producto.class);
+        Join<Producto, Categoria> categoria = root.join("categoria", JoinType.LEFT);
+        // Mismo orden que el constructor de GENERICProductosResponseDTO
+        query.select(cb.construct(GENERICProductosResponseDTO.class,
+                root.get("id"),
+                root.get("nombre"),
+                root.get("precio"),
+                root.get("cantidad"),
+                categoria.get("name"),
+                root.get("descripcion"),
+                root.get("imagen"),
+                root.get("fechaModificacion")
+        ));
+        Predicate predicado = criterio.toPredicate(root, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+        query.orderBy(QueryUtils.toOrders(orden, root, cb));
+        return query;
+    }
+
+    /**
+     * Añade a una consulta SQL sobre <code>productos p</code> los filtros opcionales del
+     * listado, con sus parámetros.
+     */
+    private void filtrar(StringBuilder sql,
+                         Map<String, Object> parametros,
+                         Optional<String> nombre,
+                         Optional<Double> precioMaximo,
+                         Optional<List<Long>> idsCategoria) {
+        nombre.ifPresent(n -> {
+            sql.append(" AND lower(p.nombre) LIKE :nombre");
+            parametros.put("nombre", "%" + n.toLowerCase() + "%");
+        });
+        precioMaximo.ifPresent(precio -> {
+            sql.append(" AND p.precio <= :precioMaximo");
+            parametros.put("precioMaximo", precio);
+        });
+        idsCategoria.ifPresent(ids -> {
+            if (ids.isEmpty()) {
+                sql.append(" AND 1 = 0");
+            } else {
+                sql.append(" AND p.categoria_id IN (:ids)");
+                parametros.put("ids", ids);
+            }
+        });
+    }
+
+    /**
+     * Cuenta los productos que cumplen el filtro.
+     */
+    private long contar(Specification<Producto> criterio) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Producto> root = query.from(Producto.class);
+        query.select(cb.count(root));
+        Predicate predicado = criterio.toPredicate(root, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
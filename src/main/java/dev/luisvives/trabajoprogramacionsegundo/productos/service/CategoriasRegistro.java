@@ -0,0 +1,153 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.service;
+
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
+import dev.luisvives.trabajoprogramacionsegundo.productos.repository.CategoriesRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Diccionario en memoria de las categorías, indexado por nombre en minúsculas.
+ * <p>
+ * Las categorías cambian muy poco, así que las escrituras de productos y el filtro por
+ * categoría del listado las resuelven aquí sin ir a la base de datos. El diccionario se
+ * carga al arrancar y se sustituye entero (de forma atómica) cada vez que
+ * {@link CategoriesServiceImpl} crea, modifica o borra una categoría. El resto de réplicas
+ * se enteran por un canal de Redis y recargan el suyo.
+ * </p>
+ */
+@Component
+@Slf4j
+public class CategoriasRegistro implements MessageListener {
+
+    private final CategoriesRepository repository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String canal;
+    private final String instanciaId = UUID.randomUUID().toString();
+
+    /**
+     * Categorías por nombre en minúsculas. Es inmutable: cada recarga crea un mapa nuevo.
+     */
+    private volatile Map<String, Categoria> porNombre;
+
+    @Autowired
+    public CategoriasRegistro(CategoriesRepository repository,
+                              StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              @Value("${app.categorias.canal-recarga:tienda:categorias:recarga}") String canal) {
+        this.repository = repository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.canal = canal;
+    }
+
+    @PostConstruct
+    void suscribir() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(canal));
+    }
+
+    /**
+     * Carga las categorías al arrancar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        recargar();
+    }
+
+    /**
+     * Busca una categoría por nombre sin distinguir mayúsculas y minúsculas.
+     *
+     * @param nombre Nombre de la categoría
+     * @return La categoría o vacío si no existe
+     */
+    public Optional<Categoria> buscar(String nombre) {
+        if (nombre == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(categorias().get(nombre.trim().toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Identificadores de las categorías cuyo nombre contiene el texto indicado,
+     * sin distinguir mayúsculas y minúsculas.
+     *
+     * @param fragmento Texto a buscar en el nombre
+     * @return Lista de ids, vacía si ninguna categoría coincide
+     */
+    public List<Long> idsQueContienen(String fragmento) {
+        String buscado = fragmento.trim().toLowerCase(Locale.ROOT);
+        return categorias().entrySet().stream()
+                .filter(entrada -> entrada.getKey().contains(buscado))
+                .map(entrada -> entrada.getValue().getId())
+                .toList();
+    }
+
+    /**
+     * Vuelve a leer las categorías de la base de datos y sustituye el diccionario.
+     */
+    public void recargar() {
+        Map<String, Categoria> nuevo = repository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(
+                        categoria -> categoria.getName().toLowerCase(Locale.ROOT),
+                        Function.identity(),
+                        (a, b) -> a));
+        porNombre = nuevo;
+        log.info("CATEGORIAS: Diccionario recargado con {} categorías", nuevo.size());
+    }
+
+    /**
+     * Recarga el diccionario y avisa al resto de réplicas para que recarguen el suyo.
+     * Se llama después de cada escritura de categorías.
+     */
+    public void notificarCambio() {
+        recargar();
+        try {
+            redisTemplate.convertAndSend(canal, instanciaId);
+        } catch (Exception e) {
+            log.warn("CATEGORIAS: No se pudo avisar del cambio de categorías: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recibe los avisos de cambio de otras réplicas. Los propios se ignoran porque ya se recargó.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (instanciaId.equals(new String(message.getBody(), StandardCharsets.UTF_8))) {
+            return;
+        }
+        recargar();
+    }
+
+    /**
+     * Devuelve el diccionario actual, cargándolo si todavía no se ha hecho
+     * (por ejemplo, si llega una petición antes de que termine el arranque).
+     */
+    private Map<String, Categoria> categorias() {
+        Map<String, Categoria> actual = porNombre;
+        if (actual == null) {
+            recargar();
+            actual = porNombre;
+        }
+        return actual;
+    }
+}
@@ -33,6 +33,14 @@ public interface CategoriesService extends Service<GENERICcategoryResponseDTO,DE
      * @return DTO con los datos del producto actualizado.
      */
     List<GENERICcategoryResponseDTO> getAll();
+
+    /**
+     * Lista de categorías con, opcionalmente, su número de productos y su precio mínimo y máximo.
+     * @param withCounts Si se incluye el número de productos de cada categoría.
+     * @param withPrices Si se incluyen el precio mínimo y máximo de cada categoría.
+     * @return Lista de categorías.
+     */
+    List<GENERICcategoryResponseDTO> getAll(boolean withCounts, boolean withPrices);
     GENERICcategoryResponseDTO getById(Long id);
     GENERICcategoryResponseDTO save(POSTandPUTcategoryRequestDTO categoryDTO);
     GENERICcategoryResponseDTO update(Long id, POSTandPUTcategoryRequestDTO categoryDTO);
@@ -1,5 +1,6 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.service;
 
+import dev.luisvives.trabajoprogramacionsegundo.common.cache.CatalogoGeneracion;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.DELETEcategoryResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.GENERICcategoryResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.PATCHcategoryRequestDTO;
@@ -8,12 +9,13 @@ import dev.luisvives.trabajoprogramacionsegundo.productos.exceptions.CategoryNot
 import dev.luisvives.trabajoprogramacionsegundo.productos.exceptions.CategoryValidationException;
 import dev.luisvives.trabajoprogramacionsegundo.productos.mapper.CategoriesMapper;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
-import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
 import dev.luisvives.trabajoprogramacionsegundo.productos.repository.CategoriesRepository;
 import dev.luisvives.trabajoprogramacionsegundo.productos.repository.ProductsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
@@ -29,12 +31,15 @@ import java.util.logging.Logger;
  * @see Categoria
  */
 @Service
+@CacheConfig(cacheNames = {"categorias"})
 public class CategoriesServiceImpl implements CategoriesService {
     private final Logger log = Logger.getLogger(CategoriesServiceImpl.class.getName());
 
     private final CategoriesMapper categoriesMapper;
     private final ProductsRepository productsRepository;
     private final CategoriesRepository repository;
+    private final CatalogoGeneracion catalogoGeneracion;
+    private final CategoriasRegistro categoriasRegistro;
 
     /**
      * Constructor del servicio de Categorías.
@@ -42,13 +47,18 @@ public class CategoriesServiceImpl implements CategoriesService {
      * @param repository Repositorio de categorías
      * @param productsRepository Repositorio de productos
      * @param categoriesMapper Mapper para convertir entre modelos y DTOs
+     * @param catalogoGeneracion Generación del catálogo para invalidar los listados cacheados
+     * @param categoriasRegistro Diccionario en memoria de categorías que se recarga en cada escritura
      */
     @Autowired
     public CategoriesServiceImpl(CategoriesRepository repository,
-                                 ProductsRepository productsRepository, CategoriesMapper categoriesMapper) {
+                                 ProductsRepository productsRepository, CategoriesMapper categoriesMapper,
+                                 CatalogoGeneracion catalogoGeneracion, CategoriasRegistro categoriasRegistro) {
         this.repository = repository;
         this.productsRepository = productsRepository;
         this.categoriesMapper = categoriesMapper;
+        this.catalogoGeneracion = catalogoGeneracion;
+        this.categoriasRegistro = categoriasRegistro;
     }
 
     /**
@@ -66,6 +76,32 @@ public class CategoriesServiceImpl implements CategoriesService {
                 .toList();
     }
 
+    /**
+     * Devuelve todas las categorías y, si se piden, su número de productos y su precio mínimo y máximo.
+     * <p>
+     * Los datos de todas las categorías salen de una única consulta agrupada
+     * ({@link CategoriesRepository#findEstadisticas()}), en lugar de una consulta de productos
+     * por categoría. El resultado se guarda en la caché "categoriasListado" con la generación del
+     * catálogo en la clave, así que cualquier escritura de productos o categorías lo invalida.
+     * </p>
+     * @param withCounts Si se incluye el número de productos de cada categoría
+     * @param withPrices Si se incluyen el precio mínimo y máximo de cada categoría
+     * @return Lista de categorías
+     */
+    @Override
+    @Cacheable(cacheNames = "categoriasListado", keyGenerator = "catalogoKeyGenerator")
+    public List<GENERICcategoryResponseDTO> getAll(boolean withCounts, boolean withPrices) {
+        if (!withCounts && !withPrices) {
+            return getAll();
+        }
+        log.info("SERVICE: Buscando todas las Categorías con sus recuentos");
+
+        return repository.findEstadisticas()
+                .stream()
+                .map(estadistica -> categoriesMapper.estadisticaToGenericResponseDTO(estadistica, withCounts, withPrices))
+                .toList();
+    }
+
     /**
      * Metodo para buscar la categoria {@link Categoria} en el repositorio {@link CategoriesRepository}
      * @param id id de categoría
@@ -96,9 +132,7 @@ public class CategoriesServiceImpl implements CategoriesService {
     public GENERICcategoryResponseDTO save(POSTandPUTcategoryRequestDTO categoryDTO) {
         log.info("SERVICE: Guardando Categoría");
 
-        var sameNameCategory = repository.findByNameIgnoreCase(categoryDTO.getName());
-
-        if (sameNameCategory.isPresent()) {
+        if (repository.existsByNameIgnoreCase(categoryDTO.getName())) {
             log.warning("SERVICE: Se intentó crear (POST) una categoría que ya existía");
             throw new CategoryValidationException("La categoría " + categoryDTO.getName() + " ya existe");
         }
@@ -108,6 +142,8 @@ public class CategoriesServiceImpl implements CategoriesService {
         Categoria categoryModel = categoriesMapper.postPutDTOToModel(categoryDTO);
 
         Categoria savedCategory = repository.save(categoryModel);
+        catalogoGeneracion.incrementar();
+        categoriasRegistro.notificarCambio();
 
         log.info("SERVICE: Categoría con id " + savedCategory.getId() + " creada (POST) correctamente");
         return categoriesMapper.modelToGenericResponseDTO(savedCategory);
@@ -120,7 +156,10 @@ public class CategoriesServiceImpl implements CategoriesService {
      * @return CategoriesMapper
      */
     @Override
-    @CacheEvict(key = "#result.id")
+    @Caching(evict = {
+            @CacheEvict(key = "#result.id"),
+            @CacheEvict(cacheNames = "productos", allEntries = true)
+    })
     public GENERICcategoryResponseDTO update(Long id, POSTandPUTcategoryRequestDTO categoryDTO) {
         log.info("SERVICE: Actualizando Categoría con id: " + id);
 
@@ -146,6 +185,8 @@ public class CategoriesServiceImpl implements CategoriesService {
         categoryModel.setFechaCreacion(foundCategory.get().getFechaCreacion());
 
         Categoria updatedCategory = repository.save(categoryModel);
+        catalogoGeneracion.incrementar();
+        categoriasRegistro.notificarCambio();
 
         log.info("SERVICE: Categoría con id " + id + " actualizada (PUT) correctamente");
         return categoriesMapper.modelToGenericResponseDTO(updatedCategory);
@@ -158,7 +199,10 @@ public class CategoriesServiceImpl implements CategoriesService {
      * @return CategoriesMapper
      */
     @Override
-    @CacheEvict(key = "#result.id")
+    @Caching(evict = {
+            @CacheEvict(key = "#result.id"),
+            @CacheEvict(cacheNames = "productos", allEntries = true)
+    })
     public GENERICcategoryResponseDTO patch(Long id, PATCHcategoryRequestDTO categoryDTO) {
         log.info("SERVICE: Haciendo PATCH a la Categoría con id: " + id);
 
@@ -181,6 +225,8 @@ public class CategoriesServiceImpl implements CategoriesService {
         }
 
         Categoria updatedCategory = repository.save(foundCategory.get());
+        catalogoGeneracion.incrementar();
+        categoriasRegistro.notificarCambio();
 
         log.info("SERVICE: Categoría con id " + id + " actualizada (PATCH) correctamente");
         return categoriesMapper.modelToGenericResponseDTO(updatedCategory);
@@ -203,15 +249,16 @@ public class CategoriesServiceImpl implements CategoriesService {
             throw new CategoryNotFoundException(id);
         }
 
-        List<Producto> categoryToDeleteProducts = productsRepository.findByCategoria(foundCategory.get());
-
-        if (!categoryToDeleteProducts.isEmpty()) {
+        // Solo hace falta saber si hay alguno: no se cargan los productos de la categoría
+        if (productsRepository.existsByCategoriaId(id)) {
             log.warning("SERVICE: Se intentó eliminar una categoría a la que pertenece un producto existente");
             throw new DataIntegrityViolationException("No puede borrarse la categoría " +
                     foundCategory.get().getName() + " porque existe un producto asociado");
         }
 
         repository.delete(foundCategory.get());
+        catalogoGeneracion.incrementar();
+        categoriasRegistro.notificarCambio();
 
         GENERICcategoryResponseDTO deletedCategoryDTO = categoriesMapper.modelToGenericResponseDTO(foundCategory.get());
 
@@ -0,0 +1,35 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración de las facetas de productos (prefijo <code>app.productos.facetas</code>).
+ * <p>
+ * <code>limites-precio</code> son los precios que separan los tramos: con
+ * <code>10,50</code> los tramos son <code>[-, 10)</code>, <code>[10, 50)</code> y <code>[50, -)</code>.
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.productos.facetas")
+public class FacetasPropiedades {
+
+    /**
+     * Límites entre tramos de precio.
+     */
+    private List<Double> limitesPrecio = new ArrayList<>(List.of(10.0, 25.0, 50.0, 100.0, 250.0));
+
+    /**
+     * Límites ordenados y sin repetidos, como los necesita la consulta.
+     *
+     * @return Lista ordenada de límites
+     */
+    public List<Double> limitesOrdenados() {
+        return limitesPrecio.stream().distinct().sorted().toList();
+    }
+}
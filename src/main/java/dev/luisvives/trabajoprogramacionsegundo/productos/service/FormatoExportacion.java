@@ -0,0 +1,45 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.service;
+
+import dev.luisvives.trabajoprogramacionsegundo.productos.exceptions.ProductoException;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+/**
+ * Formatos en los que se puede exportar el catálogo de productos.
+ * Ambos se escriben fila a fila y son los mismos que acepta la importación masiva.
+ */
+@Getter
+public enum FormatoExportacion {
+    /**
+     * Un objeto JSON por línea.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    /**
+     * CSV con cabecera.
+     */
+    CSV(new MediaType("text", "csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    FormatoExportacion(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * Obtiene el formato a partir de su nombre sin distinguir mayúsculas.
+     *
+     * @param nombre Nombre del formato (ndjson o csv)
+     * @return Formato correspondiente
+     * @throws ProductoException.ValidationException si el formato no existe
+     */
+    public static FormatoExportacion of(String nombre) {
+        for (FormatoExportacion formato : values()) {
+            if (formato.name().equalsIgnoreCase(nombre)) {
+                return formato;
+            }
+        }
+        throw new ProductoException.ValidationException("Formato de exportación no válido: " + nombre + ". Usa ndjson o csv");
+    }
+}
@@ -0,0 +1,24 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuración de la importación masiva de productos (prefijo <code>app.productos.importacion</code>).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.productos.importacion")
+public class ImportacionPropiedades {
+
+    /**
+     * Filas que se insertan juntas en un mismo lote (y una misma transacción).
+     */
+    private int tamanoLote = 1000;
+
+    /**
+     * Máximo de errores de fila que se devuelven en detalle; el recuento no tiene límite.
+     */
+    private int maxErrores = 1000;
+}
@@ -0,0 +1,34 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.service;
+
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.importacion.ImportacionResponseDTO;
+
+import java.io.InputStream;
+
+/**
+ * Importación masiva de productos desde un fichero que se lee a medida que llega.
+ * <p>
+ * Cada fila se valida igual que un {@link dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.POSTandPUTProductoRequestDTO}
+ * y su categoría se resuelve por nombre. Las filas válidas se insertan en lotes; las
+ * inválidas se descartan y se informan en la respuesta sin detener la importación.
+ * </p>
+ */
+public interface ProductoImportacionService {
+
+    /**
+     * Importa productos desde un CSV con cabecera. Las columnas se llaman como los campos del
+     * DTO (<code>name, price, category, descripcion, image, cantidad</code>); el resto se ignoran.
+     *
+     * @param entrada Contenido del fichero en UTF-8
+     * @return Resumen de la importación
+     */
+    ImportacionResponseDTO importarCsv(InputStream entrada);
+
+    /**
+     * Importa productos desde NDJSON: un objeto JSON con los campos del DTO por línea.
+     * Las líneas en blanco se ignoran.
+     *
+     * @param entrada Contenido del fichero en UTF-8
+     * @return Resumen de la importación
+     */
+    ImportacionResponseDTO importarNdjson(InputStream entrada);
+}
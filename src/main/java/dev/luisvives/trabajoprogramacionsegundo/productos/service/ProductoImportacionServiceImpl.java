@@ -0,0 +1,254 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import dev.luisvives.trabajoprogramacionsegundo.common.cache.CatalogoGeneracion;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.importacion.ErrorFilaDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.importacion.ImportacionResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.POSTandPUTProductoRequestDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.exceptions.ProductoException;
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
+import dev.luisvives.trabajoprogramacionsegundo.productos.repository.ProductsRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación de {@link ProductoImportacionService}.
+ * <p>
+ * El fichero nunca se carga entero: se lee fila a fila y en memoria solo está el lote en
+ * curso ({@link ImportacionPropiedades#getTamanoLote()} productos). Cada lote se inserta con
+ * {@link ProductsRepository#insertarLote} en su propia transacción, así que si la importación
+ * se corta a medias los lotes anteriores quedan guardados. Las categorías se buscan en
+ * {@link CategoriasRegistro}, sin consultas por fila.
+ * </p>
+ */
+@Service
+@Slf4j
+public class ProductoImportacionServiceImpl implements ProductoImportacionService {
+
+    private final ProductsRepository repository;
+    private final CategoriasRegistro categoriasRegistro;
+    private final CatalogoGeneracion catalogoGeneracion;
+    private final Validator validator;
+    private final ImportacionPropiedades propiedades;
+
+    private final ObjectMapper jacksonMapper = new ObjectMapper();
+    private final ObjectReader lectorProducto = jacksonMapper.readerFor(POSTandPUTProductoRequestDTO.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final ObjectReader lectorCsv = new CsvMapper()
+            .enable(CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .readerForMapOf(String.class)
+            .with(CsvSchema.emptySchema().withHeader());
+
+    @Autowired
+    public ProductoImportacionServiceImpl(ProductsRepository repository,
+                                          CategoriasRegistro categoriasRegistro,
+                                          CatalogoGeneracion catalogoGeneracion,
+                                          Validator validator,
+                                          ImportacionPropiedades propiedades) {
+        this.repository = repository;
+        this.categoriasRegistro = categoriasRegistro;
+        this.catalogoGeneracion = catalogoGeneracion;
+        this.validator = validator;
+        this.propiedades = propiedades;
+    }
+
+    @Override
+    public ImportacionResponseDTO importarCsv(InputStream entrada) {
+        log.info("SERVICE: Importando productos desde CSV");
+        Importacion importacion = new Importacion();
+        // La cabecera es la línea 1; cada registro ocupa una línea
+        long linea = 1;
+        try (MappingIterator<Map<String, String>> filas =
+                     lectorCsv.readValues(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            while (filas.hasNextValue()) {
+                Map<String, String> fila = filas.nextValue();
+                linea++;
+                importacion.leidas++;
+                // Vacíos como ausentes, igual que un campo que no viene en el JSON
+                fila.values().removeIf(String::isEmpty);
+                try {
+                    procesar(importacion, linea, lectorProducto.readValue(jacksonMapper.valueToTree(fila)));
+                } catch (IOException e) {
+                    importacion.descartar(linea, "Formato no válido: " + mensaje(e));
+                }
+            }
+        } catch (IOException e) {
+            // Un CSV mal formado (comillas sin cerrar...) no deja seguir leyendo: se guarda lo leído hasta aquí
+            log.warn("SERVICE: Importación CSV interrumpida en la línea {}: {}", linea + 1, e.getMessage());
+            importacion.descartar(linea + 1, "No se pudo leer el fichero a partir de esta línea: " + mensaje(e));
+        }
+        return terminar(importacion);
+    }
+
+    @Override
+    public ImportacionResponseDTO importarNdjson(InputStream entrada) {
+        log.info("SERVICE: Importando productos desde NDJSON");
+        Importacion importacion = new Importacion();
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            String linea;
+            long numero = 0;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                importacion.leidas++;
+                try {
+                    procesar(importacion, numero, lectorProducto.readValue(linea));
+                } catch (JsonProcessingException e) {
+                    importacion.descartar(numero, "Formato no válido: " + mensaje(e));
+                }
+            }
+        } catch (IOException e) {
+            throw new ProductoException.ValidationException("No se pudo leer el fichero: " + e.getMessage());
+        }
+        return terminar(importacion);
+    }
+
+    /**
+     * Valida una fila y, si es correcta, la añade al lote en curso (que se inserta al llenarse).
+     */
+    private void procesar(Importacion importacion, long linea, POSTandPUTProductoRequestDTO dto) {
+        Set<ConstraintViolation<POSTandPUTProductoRequestDTO>> errores = validator.validate(dto);
+        if (!errores.isEmpty()) {
+            importacion.descartar(linea, errores.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return;
+        }
+        Optional<Categoria> categoria = categoriasRegistro.buscar(dto.getCategory());
+        if (categoria.isEmpty()) {
+            importacion.descartar(linea, "La categoría " + dto.getCategory() + " no existe.");
+            return;
+        }
+        importacion.lote.add(producto(dto, categoria.get(), importacion.inicio));
+        if (importacion.primeraLineaLote == 0) {
+            importacion.primeraLineaLote = linea;
+        }
+        if (importacion.lote.size() >= propiedades.getTamanoLote()) {
+            volcar(importacion);
+        }
+    }
+
+    /**
+     * Inserta el lote en curso. Si la base de datos lo rechaza se descartan todas sus filas.
+     */
+    private void volcar(Importacion importacion) {
+        if (importacion.lote.isEmpty()) {
+            return;
+        }
+        try {
+            importacion.importadas += repository.insertarLote(importacion.lote);
+        } catch (DataAccessException e) {
+            log.warn("SERVICE: Lote de {} productos rechazado: {}", importacion.lote.size(), e.getMessage());
+            importacion.descartarLote(e.getMostSpecificCause().getMessage());
+        }
+        importacion.lote = new ArrayList<>(propiedades.getTamanoLote());
+        importacion.primeraLineaLote = 0;
+    }
+
+    /**
+     * Guarda el último lote, invalida los listados cacheados y construye el resumen.
+     */
+    private ImportacionResponseDTO terminar(Importacion importacion) {
+        volcar(importacion);
+        if (importacion.importadas > 0) {
+            catalogoGeneracion.incrementar();
+        }
+        long nanos = System.nanoTime() - importacion.inicioNanos;
+        double segundos = nanos / 1_000_000_000.0;
+        ImportacionResponseDTO resumen = ImportacionResponseDTO.builder()
+                .read(importacion.leidas)
+                .imported(importacion.importadas)
+                .failed(importacion.fallidas)
+                .errors(importacion.errores)
+                .millis(nanos / 1_000_000)
+                .rowsPerSecond(segundos > 0 ? importacion.leidas / segundos : 0)
+                .build();
+        log.info("SERVICE: Importación terminada: {} filas leídas, {} importadas, {} descartadas en {} ms ({} filas/s)",
+                resumen.getRead(), resumen.getImported(), resumen.getFailed(), resumen.getMillis(),
+                Math.round(resumen.getRowsPerSecond()));
+        return resumen;
+    }
+
+    /**
+     * Construye el producto a insertar. No se usa {@link dev.luisvives.trabajoprogramacionsegundo.productos.mapper.ProductoMapper}
+     * porque deja una línea de log por producto. Sin imagen se usa la de por defecto y sin
+     * cantidad se importa con 0 unidades.
+     */
+    private Producto producto(POSTandPUTProductoRequestDTO dto, Categoria categoria, LocalDateTime fecha) {
+        return Producto.builder()
+                .nombre(dto.getName())
+                .precio(dto.getPrice())
+                .cantidad(dto.getCantidad() == null ? 0 : dto.getCantidad())
+                .imagen(dto.getImage() == null || dto.getImage().isBlank() ? Producto.IMAGE_DEFAULT : dto.getImage())
+                .descripcion(dto.getDescripcion())
+                .categoria(categoria)
+                .fechaCreacion(fecha)
+                .fechaModificacion(fecha)
+                .build();
+    }
+
+    /**
+     * Mensaje de un error de lectura sin la posición que añade Jackson (ya se informa la línea).
+     */
+    private static String mensaje(IOException e) {
+        return e instanceof JsonProcessingException json ? json.getOriginalMessage() : e.getMessage();
+    }
+
+    /**
+     * Estado de una importación en curso.
+     */
+    private class Importacion {
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final long inicioNanos = System.nanoTime();
+        private List<Producto> lote = new ArrayList<>();
+        private final List<ErrorFilaDTO> errores = new ArrayList<>();
+        private long primeraLineaLote;
+        private long leidas;
+        private long importadas;
+        private long fallidas;
+
+        void descartar(long linea, String mensaje) {
+            fallidas++;
+            if (errores.size() < propiedades.getMaxErrores()) {
+                errores.add(new ErrorFilaDTO(linea, mensaje));
+            }
+        }
+
+        void descartarLote(String mensaje) {
+            fallidas += lote.size();
+            if (errores.size() < propiedades.getMaxErrores()) {
+                errores.add(new ErrorFilaDTO(primeraLineaLote,
+                        "No se pudo guardar el lote de " + lote.size() + " filas que empieza en esta línea: " + mensaje));
+            }
+        }
+    }
+}
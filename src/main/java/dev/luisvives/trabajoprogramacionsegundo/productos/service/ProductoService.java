@@ -1,5 +1,10 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.service;
 
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas.FacetasResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios.AjustePreciosRequestDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios.AjustePreciosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.DELETEProductoResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.PATCHProductoRequestDTO;
@@ -9,6 +14,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
@@ -56,6 +66,137 @@ public interface ProductoService extends Service<
                            Optional<String> category,
                            Pageable pageable);
 
+    /**
+     * Obtiene una página de productos aplicando filtros opcionales, ya convertida a DTO.
+     * Las implementaciones pueden cachear el resultado.
+     *
+     * @param name     Filtro opcional por nombre del producto.
+     * @param maxPrice Filtro opcional por precio máximo.
+     * @param category Filtro opcional por categoría.
+     * @param pageable Información de paginación y ordenación.
+     * @return Página de productos que cumplen los filtros.
+     */
+    PageResponseDTO<GENERICProductosResponseDTO> findAllDto(Optional<String> name,
+                                                           Optional<Double> maxPrice,
+                                                           Optional<String> category,
+                                                           Pageable pageable);
+
+    /**
+     * Igual que {@link #findAllDto} pero sin consulta de conteo: la respuesta no trae
+     * totales (valen -1) y solo indica si hay página siguiente.
+     *
+     * @param name     Filtro opcional por nombre del producto.
+     * @param maxPrice Filtro opcional por precio máximo.
+     * @param category Filtro opcional por categoría.
+     * @param pageable Información de paginación y ordenación.
+     * @return Página de productos que cumplen los filtros, sin totales.
+     */
+    PageResponseDTO<GENERICProductosResponseDTO> findAllSliceDto(Optional<String> name,
+                                                                Optional<Double> maxPrice,
+                                                                Optional<String> category,
+                                                                Pageable pageable);
+
+    /**
+     * Obtiene una página de productos con paginación por cursor (keyset), aplicando los
+     * mismos filtros opcionales que {@link #findAllDto}. El coste de cada página no depende
+     * de su posición en el listado.
+     *
+     * @param name      Filtro opcional por nombre del producto.
+     * @param maxPrice  Filtro opcional por precio máximo.
+     * @param category  Filtro opcional por categoría.
+     * @param cursor    Cursor devuelto en la página anterior; vacío para la primera página.
+     * @param sortBy    Campo de ordenación (se ignora si hay cursor, que ya lleva el suyo).
+     * @param direction Dirección de la ordenación (se ignora si hay cursor).
+     * @param size      Número de productos por página.
+     * @return Página de productos y cursor de la siguiente.
+     */
+    CursorPageResponseDTO<GENERICProductosResponseDTO> findAllCursor(Optional<String> name,
+                                                                    Optional<Double> maxPrice,
+                                                                    Optional<String> category,
+                                                                    Optional<String> cursor,
+                                                                    String sortBy,
+                                                                    String direction,
+                                                                    int size);
+
+    /**
+     * Cuenta los productos que cumplen los filtros por categoría y por tramo de precio,
+     * para mostrar junto a cada filtro cuántos resultados hay.
+     *
+     * @param name     Filtro opcional por nombre del producto.
+     * @param maxPrice Filtro opcional por precio máximo.
+     * @param category Filtro opcional por categoría.
+     * @return Recuentos por categoría y por tramo de precio.
+     */
+    FacetasResponseDTO findFacetas(Optional<String> name,
+                                   Optional<Double> maxPrice,
+                                   Optional<String> category);
+
+    /**
+     * Escribe en <code>salida</code> todos los productos que cumplen los mismos filtros que
+     * {@link #findAll}, ordenados por id, en el formato indicado. Los productos se escriben a
+     * medida que se leen, sin cargar el catálogo en memoria.
+     *
+     * @param name     Filtro opcional por nombre del producto.
+     * @param maxPrice Filtro opcional por precio máximo.
+     * @param category Filtro opcional por categoría.
+     * @param formato  Formato de salida.
+     * @param salida   Flujo donde se escriben los productos; no se cierra.
+     * @throws IOException si falla la escritura.
+     */
+    void exportar(Optional<String> name,
+                  Optional<Double> maxPrice,
+                  Optional<String> category,
+                  FormatoExportacion formato,
+                  OutputStream salida) throws IOException;
+
+    /**
+     * Busca productos por texto libre en nombre y descripción, ordenados por relevancia.
+     *
+     * @param texto    Texto a buscar.
+     * @param pageable Página y tamaño de página.
+     * @return Página de productos encontrados.
+     */
+    PageResponseDTO<GENERICProductosResponseDTO> search(String texto, Pageable pageable);
+
+    /**
+     * Ajusta a la vez el precio de todos los productos que cumplen los filtros, con un
+     * porcentaje o fijando un precio nuevo. Sin filtros solo se ajusta todo el catálogo
+     * si se pide de forma explícita.
+     *
+     * @param ajuste Filtros y ajuste a aplicar.
+     * @return Número de productos actualizados.
+     */
+    AjustePreciosResponseDTO ajustarPrecios(AjustePreciosRequestDTO ajuste);
+
+    /**
+     * Obtiene varios productos a la vez. Los que están en la caché de productos se sirven desde
+     * ella y el resto se leen en una sola consulta, sea cual sea el número de ids.
+     *
+     * @param ids Identificadores de los productos (puede haber repetidos).
+     * @return Productos encontrados indexados por id; los ids que no existen no aparecen.
+     */
+    Map<Long, GENERICProductosResponseDTO> getByIds(Collection<Long> ids);
+
+    /**
+     * Reserva stock: descuenta de cada producto las unidades indicadas, solo si tiene suficientes.
+     * Las cantidades negativas devuelven unidades (por ejemplo, al quitar líneas de un pedido).
+     * <p>
+     * Debe llamarse dentro de una transacción. Si falta stock de algún producto, quien llama debe
+     * lanzar una excepción para deshacer los descuentos que sí se aplicaron.
+     * </p>
+     *
+     * @param unidades Unidades a descontar (o devolver si son negativas) por id de producto.
+     * @return Ids de los productos sin stock suficiente; vacía si se reservó todo.
+     */
+    List<Long> reservarStock(Map<Long, Integer> unidades);
+
+    /**
+     * Devuelve al stock las unidades indicadas (por ejemplo, al eliminar un pedido).
+     *
+     * @param unidades Unidades a devolver por id de producto.
+     */
+    void liberarStock(Map<Long, Integer> unidades);
+
     /**
      * Actualiza la imagen de un producto.
      *
@@ -1,12 +1,28 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import dev.luisvives.trabajoprogramacionsegundo.common.cache.CatalogoGeneracion;
+import dev.luisvives.trabajoprogramacionsegundo.common.cache.CatalogoKeyGenerator;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.Cursor;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.PaginacionKeyset;
 import dev.luisvives.trabajoprogramacionsegundo.notificaciones.config.WebSocketConfig;
 import dev.luisvives.trabajoprogramacionsegundo.notificaciones.config.WebSocketHandler;
 import dev.luisvives.trabajoprogramacionsegundo.notificaciones.mapper.NotificacionMapper;
 import dev.luisvives.trabajoprogramacionsegundo.notificaciones.models.Notificacion;
 import dev.luisvives.trabajoprogramacionsegundo.notificaciones.models.Tipo;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.repository.PedidosRepository;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas.FacetasResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios.AjustePreciosRequestDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios.AjustePreciosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.DELETEProductoResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.PATCHProductoRequestDTO;
@@ -15,24 +31,45 @@ import dev.luisvives.trabajoprogramacionsegundo.productos.exceptions.ProductoExc
 import dev.luisvives.trabajoprogramacionsegundo.productos.mapper.ProductoMapper;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
-import dev.luisvives.trabajoprogramacionsegundo.productos.repository.CategoriesRepository;
+import dev.luisvives.trabajoprogramacionsegundo.productos.repository.FacetaFila;
 import dev.luisvives.trabajoprogramacionsegundo.productos.repository.ProductsRepository;
 import dev.luisvives.trabajoprogramacionsegundo.storage.StorageService;
-import jakarta.persistence.criteria.Join;
 import lombok.val;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import java.util.logging.Logger;
 
 /**
@@ -47,7 +84,8 @@ import java.util.logging.Logger;
  * Anotaciones:
  * <ul>
  *     <li>{@link Service}: Indica que esta clase es un servicio gestionado por Spring.</li>
- *     <li>{@link CacheConfig}: Configura la caché con nombre "productos".</li>
+ *     <li>{@link CacheConfig}: Configura la caché con nombre "productos". Las escrituras guardan
+ *     en ella el producto actualizado ({@link CachePut}) para que la siguiente lectura no vaya a la base de datos.</li>
  * </ul>
  * </p>
  *
@@ -62,15 +100,46 @@ public class ProductoServiceImpl implements ProductoService {
 
     private final Logger log = Logger.getLogger(ProductoServiceImpl.class.getName());
 
+    /**
+     * Campos por los que se puede paginar por cursor y cómo leer su valor del cursor.
+     * Todos tienen un índice (campo, id) en la tabla de productos.
+     */
+    private static final Map<String, Function<String, ? extends Comparable<?>>> CAMPOS_CURSOR = Map.of(
+            "id", Long::valueOf,
+            "nombre", valor -> valor,
+            "precio", Double::valueOf,
+            "cantidad", Integer::valueOf,
+            "fechaCreacion", LocalDateTime::parse
+    );
+
+    private static final PaginacionKeyset<Producto> PAGINACION_CURSOR = new PaginacionKeyset<>(CAMPOS_CURSOR);
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder().findAndAddModules().build();
+
+    /**
+     * Columnas del CSV de exportación, compatibles con la importación masiva. El resto de
+     * propiedades del DTO (la fecha de modificación) no se escriben.
+     */
+    private static final CsvSchema ESQUEMA_CSV = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("name")
+            .addColumn("price")
+            .addColumn("category")
+            .addColumn("descripcion")
+            .addColumn("image")
+            .addColumn("cantidad")
+            .build()
+            .withHeader();
+
     /**
      * Repositorio de productos para operaciones CRUD
      */
     private final ProductsRepository repository;
 
     /**
-     * Repositorio de categorías para validaciones de integridad referencial
+     * Diccionario en memoria de categorías para validaciones de integridad referencial
      */
-    private final CategoriesRepository categoryRepository;
+    private final CategoriasRegistro categoriasRegistro;
 
     /**
      * Servicio de almacenamiento para manejar imágenes
@@ -93,27 +162,62 @@ public class ProductoServiceImpl implements ProductoService {
     ObjectMapper jacksonMapper;
     ProductoMapper mapper;
 
+    /**
+     * Generación del catálogo, se incrementa en cada cambio para invalidar los listados cacheados
+     */
+    private final CatalogoGeneracion catalogoGeneracion;
+
+    /**
+     * Configuración de las facetas (tramos de precio)
+     */
+    private final FacetasPropiedades facetasPropiedades;
+
+    /**
+     * Gestor de cachés, para leer y rellenar la caché "productos" en las búsquedas por varios ids
+     */
+    private final CacheManager cacheManager;
+
+    /**
+     * Repositorio de pedidos, para no borrar productos que aparecen en algún pedido
+     */
+    private final PedidosRepository pedidosRepository;
+
     /**
      * Constructor que inyecta dependencias necesarias.
      *
      * @param repository         Repositorio de productos
-     * @param categoryRepository Repositorio de categorías
+     * @param categoriasRegistro Diccionario en memoria de categorías
      * @param storageService     Servicio de almacenamiento de imágenes
      * @param webSocketConfig    Configuración de WebSocket para notificaciones
+     * @param mapper             Mapper de productos
+     * @param catalogoGeneracion Generación del catálogo para invalidar los listados cacheados
+     * @param facetasPropiedades Configuración de las facetas
+     * @param cacheManager       Gestor de cachés de la aplicación
+     * @param pedidosRepository  Repositorio de pedidos
      */
     @Autowired
     public ProductoServiceImpl(ProductsRepository repository,
-                               CategoriesRepository categoryRepository,
+                               CategoriasRegistro categoriasRegistro,
                                StorageService storageService,
                                WebSocketConfig webSocketConfig,
-                               ProductoMapper mapper) {
+                               ProductoMapper mapper,
+                               CatalogoGeneracion catalogoGeneracion,
+                               FacetasPropiedades facetasPropiedades,
+                               CacheManager cacheManager,
+                               PedidosRepository pedidosRepository) {
         this.repository = repository;
-        this.categoryRepository = categoryRepository;
+        this.categoriasRegistro = categoriasRegistro;
         this.storageService = storageService;
         this.webSocketConfig = webSocketConfig;
         this.webSocketService = webSocketConfig.webSocketProductosHandler();
-        this.jacksonMapper = new ObjectMapper();
+        this.jacksonMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         this.mapper = mapper;
+        this.catalogoGeneracion = catalogoGeneracion;
+        this.facetasPropiedades = facetasPropiedades;
+        this.cacheManager = cacheManager;
+        this.pedidosRepository = pedidosRepository;
     }
 
     /**
@@ -130,36 +234,261 @@ public class ProductoServiceImpl implements ProductoService {
                                   Optional<Double> maxPrice,
                                   Optional<String> category,
                                   Pageable pageable) {
+        return repository.findAll(criterio(name, maxPrice, category), pageable);
+    }
+
+    /**
+     * Busca productos aplicando los mismos filtros que {@link #findAll} y devuelve la página ya
+     * convertida a DTO.
+     * <p>
+     * El resultado se guarda en la caché "productosListado" con una clave formada por la
+     * generación del catálogo y los filtros normalizados (ver {@link CatalogoKeyGenerator}),
+     * así las páginas más consultadas no vuelven a lanzar la consulta de datos ni la de conteo.
+     * Cualquier escritura de productos o categorías cambia de generación e invalida todas las
+     * páginas a la vez.
+     * </p>
+     * <p>
+     * Cuando no está en caché, la consulta selecciona directamente el DTO (ver
+     * {@link ProductsRepository#findAllResponse}) dentro de una transacción de solo lectura:
+     * no se crean entidades gestionadas ni se guardan copias para el <i>dirty checking</i>.
+     * </p>
+     *
+     * @param name     Filtro opcional por nombre
+     * @param maxPrice Filtro opcional por precio máximo
+     * @param category Filtro opcional por nombre de categoría
+     * @param pageable Paginación y ordenación
+     * @return Página de productos en forma de {@link PageResponseDTO}
+     */
+    @Override
+    @Cacheable(cacheNames = "productosListado", keyGenerator = "catalogoKeyGenerator")
+    @Transactional(readOnly = true)
+    public PageResponseDTO<GENERICProductosResponseDTO> findAllDto(Optional<String> name,
+                                                                  Optional<Double> maxPrice,
+                                                                  Optional<String> category,
+                                                                  Pageable pageable) {
+        log.info("SERVICE: Buscando página de Productos sin caché");
+        Sort.Order orden = pageable.getSort().stream().findFirst().orElse(Sort.Order.asc("id"));
+        return mapper.responsePageToDTO(
+                repository.findAllResponse(criterio(name, maxPrice, category), pageable),
+                orden.getProperty(),
+                orden.getDirection().name().toLowerCase()
+        );
+    }
 
+    /**
+     * Busca productos como {@link #findAllDto} pero sin lanzar la consulta <code>count(*)</code>:
+     * se lee una fila de más para saber si hay página siguiente y los totales se devuelven a -1.
+     * Se cachea en "productosListado" igual que el listado con totales; el nombre del método
+     * forma parte de la clave, así que no se mezclan.
+     *
+     * @param name     Filtro opcional por nombre
+     * @param maxPrice Filtro opcional por precio máximo
+     * @param category Filtro opcional por nombre de categoría
+     * @param pageable Paginación y ordenación
+     * @return Página de productos sin totales
+     */
+    @Override
+    @Cacheable(cacheNames = "productosListado", keyGenerator = "catalogoKeyGenerator")
+    public PageResponseDTO<GENERICProductosResponseDTO> findAllSliceDto(Optional<String> name,
+                                                                       Optional<Double> maxPrice,
+                                                                       Optional<String> category,
+                                                                       Pageable pageable) {
+        log.info("SERVICE: Buscando página de Productos sin conteo");
+        Sort.Order orden = pageable.getSort().stream().findFirst().orElse(Sort.Order.asc("id"));
+        return mapper.sliceToDTO(
+                repository.findSlice(criterio(name, maxPrice, category), pageable),
+                orden.getProperty(),
+                orden.getDirection().name().toLowerCase()
+        );
+    }
+
+    /**
+     * Cuenta los productos que cumplen los filtros por categoría y por tramo de precio.
+     * <p>
+     * Una única consulta agrupa por (categoría, tramo) y el mapper suma las filas por cada
+     * lado, así una página de la tienda obtiene todos los recuentos en un solo viaje a la base
+     * de datos. Se cachea en "productosFacetas" con la misma clave por generación y filtros que
+     * los listados, de modo que cualquier cambio del catálogo la invalida.
+     * </p>
+     *
+     * @param name     Filtro opcional por nombre
+     * @param maxPrice Filtro opcional por precio máximo
+     * @param category Filtro opcional por nombre de categoría
+     * @return Recuentos por categoría y por tramo de precio
+     */
+    @Override
+    @Cacheable(cacheNames = "productosFacetas", keyGenerator = "catalogoKeyGenerator")
+    @Transactional(readOnly = true)
+    public FacetasResponseDTO findFacetas(Optional<String> name,
+                                          Optional<Double> maxPrice,
+                                          Optional<String> category) {
+        log.info("SERVICE: Calculando facetas de Productos sin caché");
+        List<Double> limites = facetasPropiedades.limitesOrdenados();
+        Optional<List<Long>> idsCategoria = category.map(categoriasRegistro::idsQueContienen);
+        List<FacetaFila> filas = repository.contarFacetas(name, maxPrice, idsCategoria, limites);
+        return mapper.facetasToDTO(filas, limites);
+    }
+
+    /**
+     * Busca productos con paginación por cursor (keyset).
+     * <p>
+     * En vez de <code>OFFSET</code>, cada página filtra las filas posteriores a la última de la
+     * página anterior (ver {@link PaginacionKeyset}) y lee una fila de más para saber si hay
+     * siguiente, sin consulta de conteo. Si llega un cursor, su ordenación manda sobre
+     * <code>sortBy</code> y <code>direction</code> para que todas las páginas sigan el mismo orden.
+     * No se cachea: cada cursor se suele pedir una sola vez.
+     * </p>
+     *
+     * @param name      Filtro opcional por nombre
+     * @param maxPrice  Filtro opcional por precio máximo
+     * @param category  Filtro opcional por nombre de categoría
+     * @param cursor    Cursor de la página anterior o vacío para la primera
+     * @param sortBy    Campo de ordenación
+     * @param direction Dirección de la ordenación
+     * @param size      Tamaño de página
+     * @return Página de productos con el cursor de la siguiente
+     * @throws dev.luisvives.trabajoprogramacionsegundo.common.paginacion.CursorInvalidoException
+     *         si el cursor no es válido o no se permite ordenar por ese campo
+     */
+    @Override
+    public CursorPageResponseDTO<GENERICProductosResponseDTO> findAllCursor(Optional<String> name,
+                                                                           Optional<Double> maxPrice,
+                                                                           Optional<String> category,
+                                                                           Optional<String> cursor,
+                                                                           String sortBy,
+                                                                           String direction,
+                                                                           int size) {
+        log.info("SERVICE: Buscando página de Productos por cursor");
+        Optional<Cursor> posicion = cursor.map(Cursor::decodificar);
+        String campo = posicion.map(Cursor::sortBy).orElse(sortBy);
+        String orden = posicion.map(Cursor::direction).orElse(direction).toLowerCase();
+
+        Slice<Producto> slice = repository.findSlice(
+                criterio(name, maxPrice, category).and(PAGINACION_CURSOR.despuesDe(posicion)),
+                PageRequest.of(0, size, PAGINACION_CURSOR.orden(campo, orden))
+        );
+        String siguiente = slice.hasNext()
+                ? PAGINACION_CURSOR.cursorDe(slice.getContent().getLast(), campo, orden).codificar()
+                : null;
+        return mapper.sliceToCursorDTO(slice, siguiente, campo, orden);
+    }
+
+    /**
+     * Busca productos por texto libre ordenados por relevancia.
+     * <p>
+     * Usa la búsqueda de texto completo y por trigramas de PostgreSQL (ver
+     * {@link ProductsRepository#buscar}). Se cachea igual que los listados, con la
+     * generación del catálogo en la clave.
+     * </p>
+     *
+     * @param texto    Texto a buscar en el nombre y la descripción
+     * @param pageable Página y tamaño (la ordenación siempre es por relevancia)
+     * @return Página de productos en forma de {@link PageResponseDTO}
+     * @throws ProductoException.ValidationException si el texto está vacío
+     */
+    @Override
+    @Cacheable(cacheNames = "productosListado", keyGenerator = "catalogoKeyGenerator")
+    public PageResponseDTO<GENERICProductosResponseDTO> search(String texto, Pageable pageable) {
+        if (texto == null || texto.isBlank()) {
+            throw new ProductoException.ValidationException("El texto de búsqueda no puede estar vacío");
+        }
+        log.info("SERVICE: Buscando Productos por texto: " + texto);
+        Page<GENERICProductosResponseDTO> page = repository.buscar(texto.trim(), PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        return mapper.responsePageToDTO(page, "relevancia", "desc");
+    }
+
+    /**
+     * Exporta los productos que cumplen los filtros en NDJSON o CSV.
+     * <p>
+     * Los productos se leen con {@link ProductsRepository#streamResponse}, que recorre un cursor
+     * de la base de datos con un tamaño de lectura fijo y selecciona directamente el DTO, así que
+     * ninguna fila queda en el contexto de persistencia. Cada producto se escribe en
+     * <code>salida</code> nada más leerlo, sin vaciar el buffer en cada fila: la memoria usada
+     * es la misma exporte cien productos o un millón. El CSV tiene las columnas que acepta la
+     * importación masiva (más el id, que la importación ignora).
+     * </p>
+     *
+     * @param name     Filtro opcional por nombre
+     * @param maxPrice Filtro opcional por precio máximo
+     * @param category Filtro opcional por nombre de categoría
+     * @param formato  Formato de salida
+     * @param salida   Flujo donde se escriben los productos; no se cierra
+     * @throws IOException si falla la escritura
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportar(Optional<String> name,
+                         Optional<Double> maxPrice,
+                         Optional<String> category,
+                         FormatoExportacion formato,
+                         OutputStream salida) throws IOException {
+        log.info("SERVICE: Exportando Productos en formato " + formato);
+        try (Stream<GENERICProductosResponseDTO> productos = repository.streamResponse(criterio(name, maxPrice, category));
+             SequenceWriter escritor = escritorExportacion(formato).writeValues(salida)) {
+            Iterator<GENERICProductosResponseDTO> it = productos.iterator();
+            while (it.hasNext()) {
+                escritor.write(it.next());
+            }
+        }
+    }
+
+    /**
+     * Escritor de {@link GENERICProductosResponseDTO} para el formato indicado. No cierra el
+     * flujo de salida, que pertenece a quien llama.
+     */
+    private ObjectWriter escritorExportacion(FormatoExportacion formato) {
+        ObjectWriter escritor = switch (formato) {
+            case NDJSON -> jacksonMapper.writerFor(GENERICProductosResponseDTO.class)
+                    .withRootValueSeparator("\n");
+            case CSV -> CSV_MAPPER.writerFor(GENERICProductosResponseDTO.class)
+                    .with(ESQUEMA_CSV)
+                    .with(JsonGenerator.Feature.IGNORE_UNKNOWN);
+        };
+        return escritor
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Construye el criterio de búsqueda de productos combinando los filtros opcionales.
+     *
+     * @param name     Filtro opcional por nombre
+     * @param maxPrice Filtro opcional por precio máximo
+     * @param category Filtro opcional por nombre de categoría
+     * @return {@link Specification} con todos los filtros presentes
+     */
+    private Specification<Producto> criterio(Optional<String> name,
+                                             Optional<Double> maxPrice,
+                                             Optional<String> category) {
         Specification<Producto> specNameProducto = (root, query, criteriaBuilder) ->
-                name.map(n -> criteriaBuilder.like(criteriaBuilder.lower(root.get("name")),
+                name.map(n -> criteriaBuilder.like(criteriaBuilder.lower(root.get("nombre")),
                                 "%" + n.toLowerCase() + "%"))
                         .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
 
         Specification<Producto> specMaxPriceProducto = (root, query, criteriaBuilder) ->
-                maxPrice.map(p -> criteriaBuilder.lessThanOrEqualTo(root.get("price"), p))
+                maxPrice.map(p -> criteriaBuilder.lessThanOrEqualTo(root.get("precio"), p))
                         .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
 
+        // Las categorías se resuelven en memoria: el filtro queda como categoria_id IN (...) sin join
+        Optional<List<Long>> idsCategoria = category.map(categoriasRegistro::idsQueContienen);
         Specification<Producto> specCategoryProducto = (root, query, criteriaBuilder) ->
-                category.map(c -> {
-                    Join<Producto, Categoria> categoriaJoin = root.join("category");
-                    return criteriaBuilder.like(criteriaBuilder.lower(categoriaJoin.get("name")),
-                            "%" + c.toLowerCase() + "%");
-                }).orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+                idsCategoria.map(ids -> ids.isEmpty()
+                                ? criteriaBuilder.disjunction()
+                                : root.get("categoria").get("id").in(ids))
+                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
 
-        Specification<Producto> criterio = Specification.allOf(
+        return Specification.allOf(
                 specNameProducto,
                 specMaxPriceProducto,
                 specCategoryProducto
         );
-
-        return repository.findAll(criterio, pageable);
     }
 
     /**
      * Recupera un producto por su ID.
      * <p>
-     * Se utiliza caché para mejorar el rendimiento.
+     * Se utiliza caché para mejorar el rendimiento. Si no está en caché, el producto se lee
+     * directamente como DTO en una transacción de solo lectura, sin crear la entidad.
      * </p>
      *
      * @param id Identificador del producto
@@ -168,16 +497,155 @@ public class ProductoServiceImpl implements ProductoService {
      */
     @Override
     @Cacheable(key = "#id")
+    @Transactional(readOnly = true)
     public GENERICProductosResponseDTO getById(Long id) {
         log.info("SERVICE: Buscando Producto con id: " + id);
 
-        Producto productoFound = repository.findById(id)
+        return repository.findResponseById(id)
                 .orElseThrow(() -> {
                     log.warning("SERVICE: No se encontró Producto con id: " + id);
                     return new ProductoException.NotFoundException("SERVICE: No se encontró Producto con id: " + id);
                 });
+    }
+
+    /**
+     * Obtiene varios productos por id.
+     * <p>
+     * Primero se buscan en la caché "productos" (la misma que usa {@link #getById(Long)}) y los
+     * que faltan se leen todos en una única consulta <code>IN</code>, guardándolos después en la
+     * caché para las siguientes peticiones.
+     * </p>
+     *
+     * @param ids Identificadores de los productos
+     * @return Productos encontrados indexados por id
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, GENERICProductosResponseDTO> getByIds(Collection<Long> ids) {
+        log.info("SERVICE: Buscando Productos con ids: " + ids);
+
+        Cache cache = cacheManager.getCache("productos");
+        Map<Long, GENERICProductosResponseDTO> productos = new HashMap<>();
+        List<Long> pendientes = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            GENERICProductosResponseDTO cacheado = cache != null ? cache.get(id, GENERICProductosResponseDTO.class) : null;
+            if (cacheado != null) {
+                productos.put(id, cacheado);
+            } else {
+                pendientes.add(id);
+            }
+        }
+
+        if (!pendientes.isEmpty()) {
+            for (GENERICProductosResponseDTO producto : repository.findResponseByIdIn(pendientes)) {
+                productos.put(producto.getId(), producto);
+                if (cache != null) {
+                    cache.put(producto.getId(), producto);
+                }
+            }
+        }
+        return productos;
+    }
+
+    /**
+     * Reserva stock con un lote de <code>UPDATE</code> condicionales (ver
+     * {@link ProductsRepository#cambiarStock}), aplicados en orden de id para que dos pedidos
+     * con los mismos productos no se interbloqueen.
+     * <p>
+     * Exige una transacción en curso: es la de quien llama la que se deshace si falta stock.
+     * Al confirmarse se invalida la cantidad cacheada (ver {@link #invalidarStockAlConfirmar}).
+     * </p>
+     *
+     * @param unidades Unidades a descontar (o devolver si son negativas) por id de producto
+     * @return Ids de los productos sin stock suficiente
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> reservarStock(Map<Long, Integer> unidades) {
+        log.info("SERVICE: Reservando stock: " + unidades);
+
+        SortedMap<Long, Integer> cambios = new TreeMap<>();
+        unidades.forEach((id, cantidad) -> {
+            if (cantidad != 0) {
+                cambios.put(id, cantidad);
+            }
+        });
+        if (cambios.isEmpty()) {
+            return List.of();
+        }
+
+        int[] filas = repository.cambiarStock(cambios);
+        List<Long> sinStock = new ArrayList<>();
+        Iterator<Map.Entry<Long, Integer>> cambio = cambios.entrySet().iterator();
+        for (int actualizadas : filas) {
+            Map.Entry<Long, Integer> entrada = cambio.next();
+            // Solo falla un descuento; una devolución sobre un producto ya borrado se ignora
+            if (actualizadas == 0 && entrada.getValue() > 0) {
+                sinStock.add(entrada.getKey());
+            }
+        }
+        if (sinStock.isEmpty()) {
+            invalidarStockAlConfirmar(cambios.keySet());
+        } else {
+            log.warning("SERVICE: Sin stock suficiente para los productos: " + sinStock);
+        }
+        return sinStock;
+    }
+
+    /**
+     * Devuelve unidades al stock con el mismo lote de <code>UPDATE</code> que la reserva.
+     *
+     * @param unidades Unidades a devolver por id de producto
+     */
+    @Override
+    @Transactional
+    public void liberarStock(Map<Long, Integer> unidades) {
+        log.info("SERVICE: Liberando stock: " + unidades);
+
+        SortedMap<Long, Integer> cambios = new TreeMap<>();
+        unidades.forEach((id, cantidad) -> {
+            if (cantidad != 0) {
+                cambios.put(id, -cantidad);
+            }
+        });
+        if (!cambios.isEmpty()) {
+            repository.cambiarStock(cambios);
+            invalidarStockAlConfirmar(cambios.keySet());
+        }
+    }
+
+    /**
+     * Invalida la cantidad cacheada de los productos cuando se confirma la transacción en curso,
+     * para que nadie vuelva a cachear la cantidad anterior entre el cambio y el commit.
+     * <p>
+     * Se sacan los productos de la caché "productos" y, como los listados cacheados y su ETag
+     * también muestran la cantidad, se cambia la generación del catálogo. Cada pedido invalida
+     * así los listados: se prefiere a servir un stock desfasado durante el TTL de la caché.
+     * </p>
+     */
+    private void invalidarStockAlConfirmar(Collection<Long> ids) {
+        List<Long> pendientes = List.copyOf(ids);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidarStock(pendientes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidarStock(pendientes);
+            }
+        });
+    }
 
-        return mapper.modelToGenericResponseDTO(productoFound);
+    /**
+     * Saca los productos de la caché "productos" y cambia la generación del catálogo.
+     */
+    private void invalidarStock(List<Long> ids) {
+        Cache cache = cacheManager.getCache("productos");
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+        catalogoGeneracion.incrementar();
     }
 
     /**
@@ -191,10 +659,11 @@ public class ProductoServiceImpl implements ProductoService {
      * @throws ProductoException.ValidationException si la categoría no existe
      */
     @Override
+    @CachePut(key = "#result.id")
     public GENERICProductosResponseDTO save(POSTandPUTProductoRequestDTO productoDto) {
         log.info("SERVICE: Guardando Producto");
 
-        var existingCategory = categoryRepository.findByNameIgnoreCase(productoDto.getCategory());
+        var existingCategory = categoriasRegistro.buscar(productoDto.getCategory());
         if (existingCategory.isEmpty()) {
             log.warning("SERVICE: Se intentó crear un Producto de una categoría inexistente");
             throw new ProductoException.ValidationException("La categoría " + productoDto.getCategory() + " no existe.");
@@ -212,15 +681,22 @@ public class ProductoServiceImpl implements ProductoService {
 
     /**
      * Actualiza completamente un producto existente.
+     * <p>
+     * Se modifica la entidad cargada y, con {@link org.hibernate.annotations.DynamicUpdate}, el
+     * <code>UPDATE</code> no lleva la cantidad. La cantidad pedida se aplica como diferencia con la
+     * leída mediante {@link ProductsRepository#cambiarStock}, igual que los pedidos, así que las
+     * unidades vendidas entre la lectura y el commit no se pierden.
+     * </p>
      *
      * @param id          ID del producto a actualizar
      * @param productoDto DTO con los datos nuevos
      * @return DTO genérico del producto actualizado
      * @throws ProductoException.NotFoundException   si no existe el producto
-     * @throws ProductoException.ValidationException si la categoría no existe
+     * @throws ProductoException.ValidationException si la categoría no existe o ya no quedan las unidades a retirar
      */
     @Override
-    @CacheEvict(key = "#result.id")
+    @Transactional
+    @CachePut(key = "#id")
     public GENERICProductosResponseDTO update(Long id, POSTandPUTProductoRequestDTO productoDto) {
         log.info("SERVICE: Actualizando Producto con id: " + id);
 
@@ -230,23 +706,35 @@ public class ProductoServiceImpl implements ProductoService {
             throw new ProductoException.NotFoundException("SERVICE: No se encontró producto con id: " + id);
         }
 
-        var existingCategory = categoryRepository.findByNameIgnoreCase(productoDto.getCategory());
+        var existingCategory = categoriasRegistro.buscar(productoDto.getCategory());
         if (existingCategory.isEmpty()) {
             log.warning("SERVICE: Intento de actualizar un Producto con categoría inexistente");
             throw new ProductoException.ValidationException("La categoría " + productoDto.getCategory() + " no existe.");
         }
 
         Producto productoModel = mapper.postPutDTOToModel(productoDto);
-        productoModel.setId(id);
-        productoModel.setFechaCreacion(foundProducto.get().getFechaCreacion());
-        productoModel.setCategoria(existingCategory.get());
+        Producto producto = foundProducto.get();
+        producto.setNombre(productoModel.getNombre());
+        producto.setPrecio(productoModel.getPrecio());
+        producto.setDescripcion(productoModel.getDescripcion());
+        producto.setImagen(productoModel.getImagen());
+        producto.setCategoria(existingCategory.get());
+
+        int retiradas = producto.getCantidad() - productoModel.getCantidad();
+        if (retiradas != 0) {
+            int[] filas = repository.cambiarStock(new TreeMap<>(Map.of(id, retiradas)));
+            if (filas[0] == 0) {
+                log.warning("SERVICE: No quedan " + retiradas + " unidades que retirar del Producto con id: " + id);
+                throw new ProductoException.ValidationException("No quedan " + retiradas + " unidades que retirar del producto con id " + id);
+            }
+        }
 
-        Producto updatedProductos = repository.save(productoModel);
+        Producto updatedProductos = repository.save(producto);
 
         onChange(Tipo.UPDATE, updatedProductos);
 
         log.info("SERVICE: Producto con id " + updatedProductos.getId() + " actualizado correctamente");
-        return mapper.modelToGenericResponseDTO(updatedProductos);
+        return respuestaConStockActual(updatedProductos);
     }
 
     /**
@@ -259,7 +747,8 @@ public class ProductoServiceImpl implements ProductoService {
      * @throws ProductoException.ValidationException si la categoría no existe
      */
     @Override
-    @CacheEvict(key = "#result.id")
+    @Transactional
+    @CachePut(key = "#id")
     public GENERICProductosResponseDTO patch(Long id, PATCHProductoRequestDTO productoDTO) {
         log.info("SERVICE: Haciendo PATCH al Producto con id: " + id);
 
@@ -272,7 +761,7 @@ public class ProductoServiceImpl implements ProductoService {
         if (productoDTO.getName() != null) foundProducto.get().setNombre(productoDTO.getName());
         if (productoDTO.getPrice() != null) foundProducto.get().setPrecio(productoDTO.getPrice());
         if (productoDTO.getCategory() != null) {
-            var existingCategory = categoryRepository.findByNameIgnoreCase(productoDTO.getCategory());
+            var existingCategory = categoriasRegistro.buscar(productoDTO.getCategory());
             if (existingCategory.isEmpty()) {
                 log.warning("SERVICE: Intento de patch con categoría inexistente");
                 throw new ProductoException.ValidationException("La categoría " + productoDTO.getCategory() + " no existe.");
@@ -285,15 +774,30 @@ public class ProductoServiceImpl implements ProductoService {
         onChange(Tipo.UPDATE, updatedProducto);
 
         log.info("SERVICE: Producto con id " + updatedProducto.getId() + " actualizado (PATCH) correctamente");
-        return mapper.modelToGenericResponseDTO(updatedProducto);
+        return respuestaConStockActual(updatedProducto);
+    }
+
+    /**
+     * DTO de respuesta de un producto recién modificado con la cantidad de la base de datos: la
+     * de la entidad cargada no incluye los pedidos confirmados después de leerla.
+     */
+    private GENERICProductosResponseDTO respuestaConStockActual(Producto producto) {
+        GENERICProductosResponseDTO respuesta = mapper.modelToGenericResponseDTO(producto);
+        repository.findCantidadById(producto.getId()).ifPresent(respuesta::setCantidad);
+        return respuesta;
     }
 
     /**
      * Elimina un producto por su ID.
+     * <p>
+     * No se borran productos que aparecen en algún pedido: la comprobación usa el índice
+     * multiclave <code>lineasPedido_idProducto</code> de MongoDB y no lee ningún pedido entero.
+     * </p>
      *
      * @param id ID del producto
      * @return DTO con mensaje y producto eliminado
      * @throws ProductoException.NotFoundException si no existe el producto
+     * @throws ProductoException.ValidationException si el producto aparece en algún pedido
      */
     @Override
     @CacheEvict(key = "#id")
@@ -305,6 +809,10 @@ public class ProductoServiceImpl implements ProductoService {
             log.warning("SERVICE: No se encontró Producto con id: " + id);
             throw new ProductoException.NotFoundException("SERVICE: No se encontró Producto con id: " + id);
         }
+        if (pedidosRepository.existsByLineasPedidoIdProducto(id)) {
+            log.warning("SERVICE: El Producto con id " + id + " aparece en pedidos");
+            throw new ProductoException.ValidationException("No se puede eliminar el producto con id " + id + ": aparece en algún pedido");
+        }
 
         repository.delete(foundProducto.get());
         onChange(Tipo.DELETE, foundProducto.get());
@@ -313,6 +821,54 @@ public class ProductoServiceImpl implements ProductoService {
         return new DELETEProductoResponseDTO("Producto eliminado correctamente", deletedProductoDTO);
     }
 
+    /**
+     * Ajusta el precio de todos los productos que cumplen los filtros con una única sentencia
+     * <code>UPDATE</code> (ver {@link ProductsRepository#ajustarPrecios}): no se carga ni se
+     * guarda ningún producto uno a uno.
+     * <p>
+     * Después se vacía entera la caché "productos" y se cambia la generación del catálogo, así
+     * que todas las entradas afectadas se invalidan a la vez, y se envía una sola notificación
+     * con el resumen del ajuste en lugar de una por producto.
+     * </p>
+     *
+     * @param ajuste Filtros y ajuste a aplicar
+     * @return Número de productos actualizados
+     * @throws ProductoException.ValidationException si no se indica exactamente un ajuste, no hay ningún filtro
+     *                                               ni se pide <code>all</code>, o la categoría no existe
+     */
+    @Override
+    @CacheEvict(allEntries = true)
+    public AjustePreciosResponseDTO ajustarPrecios(AjustePreciosRequestDTO ajuste) {
+        log.info("SERVICE: Ajustando precios de Productos: " + ajuste);
+        if ((ajuste.getPercentage() == null) == (ajuste.getPrice() == null)) {
+            throw new ProductoException.ValidationException("Indica un porcentaje o un precio nuevo, pero no los dos");
+        }
+        if (ajuste.getCategory() == null && ajuste.getName() == null && ajuste.getMaxPrice() == null && !ajuste.isAll()) {
+            throw new ProductoException.ValidationException("Indica al menos un filtro o all=true para ajustar todo el catálogo");
+        }
+
+        Optional<List<Long>> idsCategoria = Optional.empty();
+        if (ajuste.getCategory() != null) {
+            Categoria categoria = categoriasRegistro.buscar(ajuste.getCategory())
+                    .orElseThrow(() -> new ProductoException.ValidationException("La categoría " + ajuste.getCategory() + " no existe."));
+            idsCategoria = Optional.of(List.of(categoria.getId()));
+        }
+
+        int actualizados = repository.ajustarPrecios(
+                Optional.ofNullable(ajuste.getName()),
+                Optional.ofNullable(ajuste.getMaxPrice()),
+                idsCategoria,
+                Optional.ofNullable(ajuste.getPercentage()),
+                Optional.ofNullable(ajuste.getPrice())
+        );
+        if (actualizados > 0) {
+            onAjustePrecios(ajuste, actualizados);
+        }
+
+        log.info("SERVICE: Precio ajustado en " + actualizados + " Productos");
+        return new AjustePreciosResponseDTO(actualizados);
+    }
+
     /**
      * Actualiza la imagen de un producto.
      *
@@ -322,6 +878,8 @@ public class ProductoServiceImpl implements ProductoService {
      * @throws ProductoException.NotFoundException si no existe el producto
      */
     @Override
+    @Transactional
+    @CachePut(key = "#id")
     public GENERICProductosResponseDTO updateImage(Long id, MultipartFile image) {
         val foundProducto = repository.findById(id)
                 .orElseThrow(() -> new ProductoException.NotFoundException("Producto no encontrado con id: " + id));
@@ -332,21 +890,13 @@ public class ProductoServiceImpl implements ProductoService {
         }
 
         String imageStored = storageService.store(image);
-        Producto productoToUpdate = Producto.builder()
-                .id(foundProducto.getId())
-                .nombre(foundProducto.getNombre())
-                .precio(foundProducto.getPrecio())
-                .categoria(foundProducto.getCategoria())
-                .descripcion(foundProducto.getDescripcion())
-                .imagen(imageStored)
-                .fechaCreacion(foundProducto.getFechaCreacion())
-                .fechaModificacion(foundProducto.getFechaModificacion())
-                .build();
-
-        var updatedFunko = repository.save(productoToUpdate);
+        // Se cambia la entidad cargada y no una copia: el UPDATE solo lleva la imagen
+        foundProducto.setImagen(imageStored);
+
+        var updatedFunko = repository.save(foundProducto);
         onChange(Tipo.UPDATE, updatedFunko);
 
-        return mapper.modelToGenericResponseDTO(updatedFunko);
+        return respuestaConStockActual(updatedFunko);
     }
 
     /**
@@ -357,20 +907,45 @@ public class ProductoServiceImpl implements ProductoService {
      */
     void onChange(Tipo tipo, Producto data) {
         log.info("SERVICE: onChange con tipo: " + tipo + " y datos: " + data);
+        catalogoGeneracion.incrementar();
+
+        notificar(Notificacion.builder()
+                .entity("Producto")
+                .type(tipo)
+                .data(NotificacionMapper.toDto(data))
+                .createdAt(LocalDateTime.now().toString())
+                .build());
+    }
 
+    /**
+     * Invalida los listados y envía una única notificación vía WebSocket tras un ajuste masivo de precios.
+     *
+     * @param ajuste       Filtros y ajuste aplicados
+     * @param actualizados Número de productos actualizados
+     */
+    void onAjustePrecios(AjustePreciosRequestDTO ajuste, int actualizados) {
+        catalogoGeneracion.incrementar();
+
+        notificar(Notificacion.builder()
+                .entity("Productos")
+                .type(Tipo.UPDATE)
+                .data(NotificacionMapper.toDto(ajuste, actualizados))
+                .createdAt(LocalDateTime.now().toString())
+                .build());
+    }
+
+    /**
+     * Envía la notificación a los clientes WebSocket en un hilo aparte.
+     *
+     * @param notificacion Notificación a enviar
+     */
+    private void notificar(Notificacion<?> notificacion) {
         if (webSocketService == null) {
             log.warning("SERVICE: No se ha podido enviar la notificación a los clientes ws");
             webSocketService = this.webSocketConfig.webSocketProductosHandler();
         }
 
         try {
-            val notificacion = Notificacion.builder()
-                    .entity("Producto")
-                    .type(tipo)
-                    .data(NotificacionMapper.toDto(data))
-                    .createdAt(LocalDateTime.now().toString())
-                    .build();
-
             String json = jacksonMapper.writeValueAsString(notificacion);
 
             Thread senderThread = new Thread(() -> {
@@ -1,6 +1,8 @@
 package dev.luisvives.trabajoprogramacionsegundo.usuarios.controller;
 
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.idempotencia.Idempotencia;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.request.PostAndPutPedidoRequestDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.DeletePedidosResponseDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.GenericPedidosResponseDto;
@@ -17,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -37,12 +40,17 @@ public class UsuariosRestController {
     private final PedidosServiceImpl pedidosService;
     private final UsuariosMapper mapper;
     private final PedidosMapper pedidosMapper;
+    private final Idempotencia idempotencia;
+    private final int tamanoMaximoCursor;
     @Autowired
-    public UsuariosRestController(UsuariosPedidosServiceImpl usuariosService, PedidosServiceImpl pedidosService, UsuariosMapper usuariosMapper, PedidosMapper pedidosMapper) {
+    public UsuariosRestController(UsuariosPedidosServiceImpl usuariosService, PedidosServiceImpl pedidosService, UsuariosMapper usuariosMapper, PedidosMapper pedidosMapper, Idempotencia idempotencia,
+                                  @Value("${app.paginacion.cursor.tamano-maximo:100}") int tamanoMaximoCursor) {
         this.usuariosService = usuariosService;
         this.pedidosService = pedidosService;
         this.mapper = usuariosMapper;
         this.pedidosMapper = pedidosMapper;
+        this.idempotencia = idempotencia;
+        this.tamanoMaximoCursor = tamanoMaximoCursor;
     }
     @GetMapping({"", "/"})
     @PreAuthorize("hasRole('ADMIN')")
@@ -52,14 +60,31 @@ public class UsuariosRestController {
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(defaultValue = "true") boolean withCount,
             HttpServletRequest httpServletRequest
             ){
         log.info("CONTROLLER: Buscando todos los Usuarios");
         Sort sort= order.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder.fromHttpUrl(httpServletRequest.getRequestURL().toString());
+        if (!withCount) {
+            // Sin conteo: totalPages y totalElements valen -1
+            return ResponseEntity.ok(mapper.sliceToDTO(usuariosService.findAllSlice(isDeleted, PageRequest.of(page, size, sort)),sortBy,order));
+        }
         Page<UsuariosResponseDto> result= usuariosService.findAll(isDeleted, PageRequest.of(page, size, sort));
         return ResponseEntity.ok(mapper.pageToDTO(result,sortBy,order));
     }
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageResponseDTO<UsuariosResponseDto>> findAllCursor(
+            @RequestParam(required = false)Optional<Boolean> isDeleted,
+            @RequestParam(required = false) Optional<String> cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String order
+            ){
+        log.info("CONTROLLER: Buscando Usuarios por cursor");
+        return ResponseEntity.ok(usuariosService.findAllCursor(isDeleted, cursor, sortBy, order, Math.clamp(size, 1, tamanoMaximoCursor)));
+    }
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<UsuariosAdminResponseDto> findById(@PathVariable Long id){
@@ -124,14 +149,17 @@ public class UsuariosRestController {
     @PreAuthorize("hasRole('USUARIO')")
     public ResponseEntity<GenericPedidosResponseDto> savePedido(
             @AuthenticationPrincipal Usuario usuario,
-            @Valid @RequestBody PostAndPutPedidoRequestDto postAndPutPedidoRequestDto
+            @Valid @RequestBody PostAndPutPedidoRequestDto postAndPutPedidoRequestDto,
+            @RequestHeader(value = Idempotencia.CABECERA, required = false) String claveIdempotencia
             ){
         log.info("CONTROLLER: guardar pedido del usuario autenticado");
         if (!usuario.getId().equals(postAndPutPedidoRequestDto.getIdUsuario())){
             log.warn("CONTROLLER: Usuario no aceptado");
             throw new UserForbiddenException("No puedes acceder al pedido con un id de usuario distinto al tuyo");
         }
-        return ResponseEntity.ok(pedidosService.save(postAndPutPedidoRequestDto));
+        // Los reintentos con la misma Idempotency-Key devuelven el pedido ya creado
+        return idempotencia.ejecutar("usuario:" + usuario.getId() + ":pedidos", claveIdempotencia, postAndPutPedidoRequestDto,
+                GenericPedidosResponseDto.class, () -> ResponseEntity.ok(pedidosService.save(postAndPutPedidoRequestDto)));
     }
     @PutMapping("/me/pedidos/{id}")
     @PreAuthorize("hasRole('USUARIO')")
@@ -1,5 +1,6 @@
 package dev.luisvives.trabajoprogramacionsegundo.usuarios.mapper;
 
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
@@ -10,6 +11,7 @@ import dev.luisvives.trabajoprogramacionsegundo.usuarios.dto.usuario.UsuariosRes
 import dev.luisvives.trabajoprogramacionsegundo.usuarios.model.Tipo;
 import dev.luisvives.trabajoprogramacionsegundo.usuarios.model.Usuario;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -66,4 +68,33 @@ public class UsuariosMapper {
                 direction
         );
     }
+    public PageResponseDTO<UsuariosResponseDto> sliceToDTO (Slice<UsuariosResponseDto> slice, String sortBy, String direction) {
+        // Sin conteo no hay totales: se devuelven a -1 y "last" indica si no hay página siguiente
+        return new PageResponseDTO<>(
+                slice.getContent(),
+                -1,
+                -1,
+                slice.getSize(),
+                slice.getNumber(),
+                slice.getNumberOfElements(),
+                slice.isEmpty(),
+                slice.isFirst(),
+                slice.isLast(),
+                sortBy,
+                direction
+        );
+    }
+    public CursorPageResponseDTO<UsuariosResponseDto> sliceToCursorDTO(Slice<Usuario> slice, String nextCursor, String sortBy, String direction) {
+        return new CursorPageResponseDTO<>(
+                slice.getContent()
+                        .stream()
+                        .map(this::usuariosResponseDtoToUsuariosDto)
+                        .toList(),
+                slice.getNumberOfElements(),
+                nextCursor,
+                slice.hasNext(),
+                sortBy,
+                direction
+        );
+    }
 }
@@ -27,11 +27,13 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+// Los índices de la tabla los crean las migraciones de Flyway (db/migration)
 @Table(name="usuarios")
 @EntityListeners(AuditingEntityListener.class)
 public class Usuario implements UserDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_id_seq", allocationSize = 50)
     private Long id;
     @Column(nullable = false, unique = true)
     private String username;
@@ -14,7 +14,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
 @Repository
-public interface UsuariosRepository extends JpaRepository<Usuario,Long> {
+public interface UsuariosRepository extends JpaRepository<Usuario,Long>, UsuariosRepositoryCustom {
     
     Optional<Usuario> findByEmail(String email);
     Optional<Usuario> findByUsername(String username);
@@ -0,0 +1,23 @@
+package dev.luisvives.trabajoprogramacionsegundo.usuarios.repository;
+
+import dev.luisvives.trabajoprogramacionsegundo.usuarios.model.Usuario;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Consultas de usuarios implementadas a mano con la API Criteria.
+ * @see UsuariosRepositoryCustomImpl
+ */
+public interface UsuariosRepositoryCustom {
+
+    /**
+     * Busca usuarios sin lanzar la consulta de conteo: se lee una fila de más para
+     * saber si hay página siguiente.
+     *
+     * @param criterio Filtro de la consulta
+     * @param pageable Desplazamiento, tamaño y ordenación
+     * @return {@link Slice} de usuarios
+     */
+    Slice<Usuario> findSlice(Specification<Usuario> criterio, Pageable pageable);
+}
@@ -0,0 +1,24 @@
+package dev.luisvives.trabajoprogramacionsegundo.usuarios.repository;
+
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.PaginacionKeyset;
+import dev.luisvives.trabajoprogramacionsegundo.usuarios.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Implementación de {@link UsuariosRepositoryCustom}. Spring Data la combina con
+ * {@link UsuariosRepository} por el sufijo <code>Impl</code>.
+ */
+public class UsuariosRepositoryCustomImpl implements UsuariosRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Usuario> findSlice(Specification<Usuario> criterio, Pageable pageable) {
+        return PaginacionKeyset.slice(entityManager, Usuario.class, criterio, pageable);
+    }
+}
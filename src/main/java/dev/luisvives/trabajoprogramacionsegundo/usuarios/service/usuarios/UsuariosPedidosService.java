@@ -1,13 +1,17 @@
 package dev.luisvives.trabajoprogramacionsegundo.usuarios.service.usuarios;
 
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.usuarios.dto.usuario.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.Optional;
 
 public interface UsuariosPedidosService {
     Page<UsuariosResponseDto> findAll(Optional<Boolean> isDeleted, Pageable pageable);
+    Slice<UsuariosResponseDto> findAllSlice(Optional<Boolean> isDeleted, Pageable pageable);
+    CursorPageResponseDTO<UsuariosResponseDto> findAllCursor(Optional<Boolean> isDeleted, Optional<String> cursor, String sortBy, String direction, int size);
     UsuariosAdminResponseDto findById(Long id);
     UsuariosResponseDto update(Long id, UsuarioPutRequestByUserDto usuarioPutRequestByUserDto);
     UsuariosDeleteResponse delete(Long id);
@@ -1,5 +1,8 @@
 package dev.luisvives.trabajoprogramacionsegundo.usuarios.service.usuarios;
 
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.Cursor;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.PaginacionKeyset;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.repository.PedidosRepository;
 import dev.luisvives.trabajoprogramacionsegundo.usuarios.dto.usuario.*;
 import dev.luisvives.trabajoprogramacionsegundo.usuarios.exceptions.auth.UserEmailOrUsernameExists;
@@ -15,18 +18,34 @@ import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 @Service
 @Slf4j
 @CacheConfig(cacheNames = "usuarios")
 public class UsuariosPedidosServiceImpl implements UsuariosPedidosService{
+    /**
+     * Campos por los que se puede paginar por cursor y cómo leer su valor del cursor.
+     */
+    private static final Map<String, Function<String, ? extends Comparable<?>>> CAMPOS_CURSOR = Map.of(
+            "id", Long::valueOf,
+            "username", valor -> valor,
+            "email", valor -> valor,
+            "fechaCreacion", LocalDateTime::parse
+    );
+    private static final PaginacionKeyset<Usuario> PAGINACION_CURSOR = new PaginacionKeyset<>(CAMPOS_CURSOR);
+
     private final UsuariosRepository usuariosRepository;
     private final PedidosRepository pedidosRepository;
     private final UsuariosMapper usuariosMapper;
@@ -41,11 +60,46 @@ public class UsuariosPedidosServiceImpl implements UsuariosPedidosService{
     @Override
     public Page<UsuariosResponseDto> findAll(Optional<Boolean> isDeleted, Pageable pageable) {
         log.info("Finding all user pendientes del usuario");
+        return usuariosRepository.findAll(criterio(isDeleted),pageable).map(usuariosMapper::usuariosResponseDtoToUsuariosDto);
+    }
+
+    /**
+     * Igual que findAll pero sin la consulta de conteo: se lee un usuario de más para saber
+     * si hay página siguiente.
+     */
+    @Override
+    public Slice<UsuariosResponseDto> findAllSlice(Optional<Boolean> isDeleted, Pageable pageable) {
+        log.info("Finding all users without count");
+        return usuariosRepository.findSlice(criterio(isDeleted), pageable).map(usuariosMapper::usuariosResponseDtoToUsuariosDto);
+    }
+
+    /**
+     * Busca usuarios con paginación por cursor (keyset): cada página filtra los usuarios
+     * posteriores al último de la anterior en lugar de saltar filas con OFFSET.
+     * Si llega un cursor, su ordenación manda sobre sortBy y direction.
+     */
+    @Override
+    public CursorPageResponseDTO<UsuariosResponseDto> findAllCursor(Optional<Boolean> isDeleted, Optional<String> cursor, String sortBy, String direction, int size) {
+        log.info("Finding users by cursor");
+        Optional<Cursor> posicion = cursor.map(Cursor::decodificar);
+        String campo = posicion.map(Cursor::sortBy).orElse(sortBy);
+        String orden = posicion.map(Cursor::direction).orElse(direction).toLowerCase();
+
+        Slice<Usuario> slice = usuariosRepository.findSlice(
+                criterio(isDeleted).and(PAGINACION_CURSOR.despuesDe(posicion)),
+                PageRequest.of(0, size, PAGINACION_CURSOR.orden(campo, orden))
+        );
+        String siguiente = slice.hasNext()
+                ? PAGINACION_CURSOR.cursorDe(slice.getContent().getLast(), campo, orden).codificar()
+                : null;
+        return usuariosMapper.sliceToCursorDTO(slice, siguiente, campo, orden);
+    }
+
+    private Specification<Usuario> criterio(Optional<Boolean> isDeleted) {
         Specification<Usuario> specIsDeleted= (root, query, builder) ->
                 isDeleted.map(m -> builder.equal(root.get("isDeleted"),m))
                         .orElseGet(() -> builder.isTrue(builder.literal(true)));
-        Specification<Usuario> crit = Specification.allOf(specIsDeleted);
-        return usuariosRepository.findAll(crit,pageable).map(usuariosMapper::usuariosResponseDtoToUsuariosDto);
+        return Specification.allOf(specIsDeleted);
     }
 
     @Override
@@ -58,7 +112,7 @@ public class UsuariosPedidosServiceImpl implements UsuariosPedidosService{
             }
 
         );
-        val pedidos= pedidosRepository.findPedidosByIdUsuario(id).stream().map(p-> p.getId().toHexString()).toList();
+        val pedidos= pedidosRepository.findIdsByIdUsuario(id).stream().map(p-> p.getId().toHexString()).toList();
         return usuariosMapper.usuariosAdminResponseDto(user,pedidos);
     }
 
@@ -91,13 +145,14 @@ public class UsuariosPedidosServiceImpl implements UsuariosPedidosService{
 
     @Override
     @Transactional
+    @CacheEvict(key = "#id")
     public UsuariosDeleteResponse delete(Long id) {
         log.info("Deleting user:" +id);
         val usuario= usuariosRepository.findById(id).orElseThrow(()->{
             log.info("User not found: "+id);
             return new UserNotFound("User not found:"+id);
         });
-        if (!pedidosRepository.findPedidosByIdUsuario(id).isEmpty()){
+        if (pedidosRepository.existsByIdUsuario(id)){
             log.info("User con pedidos");
             usuariosRepository.updateIsDeletedToTrueById(id);
             return UsuariosDeleteResponse.builder()
@@ -111,6 +166,7 @@ public class UsuariosPedidosServiceImpl implements UsuariosPedidosService{
     }
 
     @Override
+    @CacheEvict(key = "#id")
     public UsuariosResponseDto updateAdmin(Long id, UsuariosPutPostDto usuariosPutPostDto) {
         log.info("Updating user pendientes del usuario");
         val contraseñaAntigua=usuariosRepository.findById(id).orElseThrow(()->{
@@ -0,0 +1,72 @@
+-- ---------------------------------
+-- DATOS INICIALES
+-- ---------------------------------
+-- Solo se carga donde spring.flyway.locations incluye classpath:db/datos. Cada bloque
+-- comprueba lo que ya existe para no duplicar datos en bases de datos adoptadas.
+
+INSERT INTO categoria (name, fecha_creacion, fecha_modificacion) VALUES
+    ('MUEBLES', NOW(), NOW()),
+    ('VIDEOJUEGOS', NOW(), NOW()),
+    ('LIBROS', NOW(), NOW())
+ON CONFLICT (name) DO NOTHING;
+
+INSERT INTO usuarios (username, password, email, is_deleted, fecha_modificacion, fecha_creacion) VALUES
+    ('juanperez', '$2a$12$OT0/dJ52EXI7KOCPIm.huehGVDJXgWgN2GCEAboj/q7YtV4hdyJw2', 'juanperez@example.com', false, NOW(), NOW()),
+    ('maria_g', '$2a$12$3BY.t5v6NmclR6Q7aAXkQ.1Ybztfpzipk/vyftR0OotmO0J9JLb72', 'maria.garcia@example.com', false, NOW(), NOW()),
+    ('carlos_r', '$2a$12$RDtfi9fX9et9svHFEXwwLubOaDQet3wWBH3OeGlNwrvIIJtKboE3i', 'carlos.ruiz@example.com', false, NOW(), NOW()),
+    ('laura_s', '$2a$12$XX7wtgBUv56sNaL8XtRJ/.0/JbeqVcz5Aom5hff0z0TihcNGdaG0.', 'laura.sanchez@example.com', false, NOW(), NOW()),
+    ('pedro_m', '$2a$12$tWy0BqfcKBMKcjig2YbuA.Vh/Ggy5EovgP1KW9bwdzZeTO8x/QXBS', 'pedro.martin@example.com', false, NOW(), NOW()),
+    ('ADMIN', '$2a$12$6ZgTPESRUI95KX5ie19IL.qaYQvCVsGRJNA46gd.7QqUzv/oqUVo6', 'admin.admin@example.com', false, NOW(), NOW())
+ON CONFLICT DO NOTHING;
+
+INSERT INTO usuario_tipo (usuario_id, tipo)
+SELECT u.id, t.tipo
+FROM (VALUES
+    ('juanperez', 'USUARIO'),
+    ('maria_g', 'USUARIO'),
+    ('carlos_r', 'USUARIO'),
+    ('laura_s', 'USUARIO'),
+    ('pedro_m', 'USUARIO'),
+    ('ADMIN', 'USUARIO'),
+    ('ADMIN', 'ADMIN')
+) AS t (username, tipo)
+JOIN usuarios u ON u.username = t.username
+ON CONFLICT DO NOTHING;
+
+-- Los productos solo se cargan si el catálogo está vacío
+INSERT INTO productos (nombre, precio, cantidad, imagen, descripcion, categoria_id, fecha_creacion, fecha_modificacion)
+SELECT p.nombre, p.precio, p.cantidad, p.imagen, p.descripcion, c.id, NOW(), NOW()
+FROM (VALUES
+    ('Silla de Oficina Ergonómica', 149.99, 25, 'silla_oficina.png', 'Silla cómoda con soporte lumbar ajustable.', 'MUEBLES'),
+    ('Mesa de Escritorio de Roble', 219.50, 10, 'mesa_roble.png', 'Escritorio espacioso de madera maciza de roble.', 'MUEBLES'),
+    ('Sofá Cama 3 Plazas', 399.00, 5, 'sofa_cama.png', 'Sofá convertible en cama, tapizado en tela gris.', 'MUEBLES'),
+    ('Estantería de 5 Niveles', 89.90, 30, 'default.png', 'Estantería metálica y de madera para almacenamiento.', 'MUEBLES'),
+    ('Lámpara de Pie LED', 59.95, 15, 'lampara_pie.png', 'Lámpara de diseño minimalista con luz LED regulable.', 'MUEBLES'),
+    ('Cama Doble con Almacenamiento', 320.00, 8, 'cama_doble.png', 'Estructura de cama con cajones inferiores.', 'MUEBLES'),
+    ('Armario Ropero 2 Puertas', 180.75, 12, 'default.png', 'Armario básico color blanco con barra y estante.', 'MUEBLES'),
+    ('Mesa de Centro Elevable', 110.00, 20, 'mesa_centro.png', 'Mesa de centro con tapa elevable para portátil.', 'MUEBLES'),
+    ('Zapatero Alto', 65.00, 18, 'zapatero.png', 'Mueble zapatero estrecho para entrada.', 'MUEBLES'),
+    ('Sillón Relax Manual', 250.00, 7, 'sillon_relax.png', 'Sillón reclinable con reposapiés.', 'MUEBLES'),
+    ('Elden Ring (PS5)', 59.99, 150, 'elden_ring.png', 'Juego de rol de acción de FromSoftware.', 'VIDEOJUEGOS'),
+    ('The Legend of Zelda: Tears of the Kingdom', 69.99, 200, 'zelda_totk.png', 'Aventura épica en Hyrule (Nintendo Switch).', 'VIDEOJUEGOS'),
+    ('Baldur''s Gate 3 (PC)', 49.99, 120, 'bg3.png', 'Juego de rol clásico basado en D&D 5e.', 'VIDEOJUEGOS'),
+    ('Cyberpunk 2077: Phantom Liberty', 39.99, 80, 'cyberpunk_pl.png', 'Expansión del RPG de mundo abierto.', 'VIDEOJUEGOS'),
+    ('Hogwarts Legacy (Xbox Series X)', 64.95, 90, 'hogwarts.png', 'Vive la vida de estudiante en Hogwarts en el siglo XIX.', 'VIDEOJUEGOS'),
+    ('Stardew Valley', 14.99, 300, 'stardew.png', 'Simulador de granja indie.', 'VIDEOJUEGOS'),
+    ('God of War: Ragnarok', 79.99, 110, 'gow_ragnarok.png', 'Secuela de las aventuras de Kratos y Atreus.', 'VIDEOJUEGOS'),
+    ('Resident Evil 4 Remake', 55.00, 70, 'default.png', 'Remake del clásico survival horror.', 'VIDEOJUEGOS'),
+    ('FIFA 24 (EA Sports FC 24)', 69.90, 180, 'fc24.png', 'Simulador de fútbol.', 'VIDEOJUEGOS'),
+    ('Red Dead Redemption 2', 45.50, 95, 'rdr2.png', 'Aventura de vaqueros en el salvaje oeste.', 'VIDEOJUEGOS'),
+    ('Cien Años de Soledad', 19.95, 80, 'cien_anos.png', 'Novela de Gabriel García Márquez. Tapa dura.', 'LIBROS'),
+    ('Dune (Saga Completa)', 120.00, 30, 'dune_saga.png', 'Box set con la saga de Frank Herbert.', 'LIBROS'),
+    ('El Nombre del Viento', 22.50, 60, 'nombre_viento.png', 'Primer libro de la Crónica del Asesino de Reyes.', 'LIBROS'),
+    ('1984', 15.00, 100, '1984.png', 'Novela distópica de George Orwell.', 'LIBROS'),
+    ('Sapiens: De animales a dioses', 24.90, 70, 'sapiens.png', 'Breve historia de la humanidad por Yuval Noah Harari.', 'LIBROS'),
+    ('El Señor de los Anillos (Ilustrado)', 89.99, 20, 'default.png', 'Edición de lujo ilustrada por Alan Lee.', 'LIBROS'),
+    ('Clean Code', 45.00, 50, 'clean_code.png', 'Manual de desarrollo de software ágil por Robert C. Martin.', 'LIBROS'),
+    ('It', 29.99, 40, 'it.png', 'Novela de terror por Stephen King.', 'LIBROS'),
+    ('El Problema de los Tres Cuerpos', 21.00, 65, 'tres_cuerpos.png', 'Ciencia ficción por Cixin Liu.', 'LIBROS'),
+    ('Orgullo y Prejuicio', 12.95, 90, 'orgullo_prejuicio.png', 'Clásico de Jane Austen. Edición de bolsillo.', 'LIBROS')
+) AS p (nombre, precio, cantidad, imagen, descripcion, categoria)
+JOIN categoria c ON c.name = p.categoria
+WHERE NOT EXISTS (SELECT 1 FROM productos);
@@ -0,0 +1,47 @@
+-- ---------------------------------
+-- ESQUEMA INICIAL
+-- ---------------------------------
+-- Tablas de categorías, productos y usuarios tal y como las mapean las entidades JPA.
+-- Se usa IF NOT EXISTS para poder adoptar bases de datos creadas antes de las
+-- migraciones (Flyway las marca con la línea base 0 y aplica esta versión encima).
+
+-- Creación de la tabla 'categoria'
+CREATE TABLE IF NOT EXISTS categoria (
+    id                 BIGSERIAL PRIMARY KEY,
+    name               VARCHAR(255) NOT NULL UNIQUE,
+    fecha_creacion     TIMESTAMP    NOT NULL DEFAULT NOW(),
+    fecha_modificacion TIMESTAMP    NOT NULL DEFAULT NOW()
+);
+
+-- Creación de la tabla 'productos'
+CREATE TABLE IF NOT EXISTS productos (
+    id                 BIGSERIAL PRIMARY KEY,
+    nombre             VARCHAR(255)     NOT NULL,
+    precio             DOUBLE PRECISION NOT NULL,
+    cantidad           INTEGER          NOT NULL,
+    imagen             VARCHAR(255)     NOT NULL DEFAULT 'default.png',
+    descripcion        TEXT,
+    categoria_id       BIGINT,
+    fecha_creacion     TIMESTAMP        NOT NULL DEFAULT NOW(),
+    fecha_modificacion TIMESTAMP        NOT NULL DEFAULT NOW(),
+    CONSTRAINT fk_categoria FOREIGN KEY (categoria_id) REFERENCES categoria (id)
+);
+
+-- Creación de la tabla 'usuarios'
+CREATE TABLE IF NOT EXISTS usuarios (
+    id                 BIGSERIAL PRIMARY KEY,
+    username           VARCHAR(255) NOT NULL UNIQUE,
+    password           VARCHAR(255) NOT NULL,
+    email              VARCHAR(255) NOT NULL UNIQUE,
+    is_deleted         BOOLEAN      NOT NULL DEFAULT FALSE,
+    fecha_modificacion TIMESTAMP    NOT NULL DEFAULT NOW(),
+    fecha_creacion     TIMESTAMP    NOT NULL DEFAULT NOW()
+);
+
+-- Roles de cada usuario (@ElementCollection de Usuario.tipo)
+CREATE TABLE IF NOT EXISTS usuario_tipo (
+    usuario_id BIGINT      NOT NULL,
+    tipo       VARCHAR(50) NOT NULL,
+    CONSTRAINT fk_usuario_tipo FOREIGN KEY (usuario_id) REFERENCES usuarios (id) ON DELETE CASCADE,
+    CONSTRAINT usuarios_tipo_unique UNIQUE (usuario_id, tipo)
+);
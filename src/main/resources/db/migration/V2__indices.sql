@@ -0,0 +1,36 @@
+-- ---------------------------------
+-- ÍNDICES
+-- ---------------------------------
+-- Cada índice corresponde a una consulta concreta de ProductoServiceImpl, de la
+-- paginación por cursor o de UsuariosRepository. MigracionesIndicesTest comprueba con
+-- EXPLAIN que PostgreSQL los usa para esas consultas.
+
+-- Búsqueda de productos (ProductsRepository#buscar): texto completo y trigramas
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_productos_busqueda_fts ON productos
+    USING GIN (to_tsvector('spanish', nombre || ' ' || coalesce(descripcion, '')));
+-- Filtro por nombre del listado: lower(nombre) LIKE '%texto%'
+CREATE INDEX IF NOT EXISTS idx_productos_nombre_trgm ON productos
+    USING GIN (lower(nombre) gin_trgm_ops);
+
+-- Filtro por categoría y precio máximo del listado y de las facetas. También sirve a la
+-- clave foránea (borrado de categorías) y a findByCategoria.
+CREATE INDEX IF NOT EXISTS idx_productos_categoria_precio ON productos (categoria_id, precio);
+
+-- Índices (campo, id) para la paginación por cursor ordenando por cada campo permitido.
+-- El de fecha_creacion sirve además a findAllByFechaCreacionBetween.
+CREATE INDEX IF NOT EXISTS idx_productos_nombre_id ON productos (nombre, id);
+CREATE INDEX IF NOT EXISTS idx_productos_precio_id ON productos (precio, id);
+CREATE INDEX IF NOT EXISTS idx_productos_cantidad_id ON productos (cantidad, id);
+CREATE INDEX IF NOT EXISTS idx_productos_fecha_creacion_id ON productos (fecha_creacion, id);
+
+-- Categorías: findByNameIgnoreCase compara upper(name)
+CREATE INDEX IF NOT EXISTS idx_categoria_name_upper ON categoria (upper(name));
+
+-- Usuarios: el login (findByUsernameEqualsIgnoreCaseOrEmailEqualsIgnoreCase) compara upper(...)
+CREATE INDEX IF NOT EXISTS idx_usuarios_username_upper ON usuarios (upper(username));
+CREATE INDEX IF NOT EXISTS idx_usuarios_email_upper ON usuarios (upper(email));
+
+-- Usuarios: paginación por cursor por fecha de creación y listado de usuarios activos
+CREATE INDEX IF NOT EXISTS idx_usuarios_fecha_creacion_id ON usuarios (fecha_creacion, id);
+CREATE INDEX IF NOT EXISTS idx_usuarios_activos_id ON usuarios (id) WHERE is_deleted = FALSE;
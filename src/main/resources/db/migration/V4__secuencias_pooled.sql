@@ -0,0 +1,20 @@
+-- ---------------------------------
+-- SECUENCIAS PARA IDS POR BLOQUES
+-- ---------------------------------
+-- Producto, Categoria y Usuario pasan de IDENTITY a SEQUENCE con optimizador pooled
+-- (allocationSize = 50): Hibernate reserva 50 ids con cada nextval y ya no necesita lanzar
+-- cada INSERT en el momento para conocer el id, así que puede agruparlos en lotes JDBC.
+--
+-- Se reutilizan las secuencias de las columnas BIGSERIAL, que siguen siendo el valor por
+-- defecto del id para los INSERT escritos a mano. Cada secuencia se coloca de forma que el
+-- primer bloque que reserve Hibernate (valor - 49 .. valor) empiece justo después del id más
+-- alto: los ids existentes no cambian.
+
+ALTER SEQUENCE categoria_id_seq INCREMENT BY 50;
+SELECT setval('categoria_id_seq', COALESCE((SELECT MAX(id) FROM categoria), 0) + 50, false);
+
+ALTER SEQUENCE productos_id_seq INCREMENT BY 50;
+SELECT setval('productos_id_seq', COALESCE((SELECT MAX(id) FROM productos), 0) + 50, false);
+
+ALTER SEQUENCE usuarios_id_seq INCREMENT BY 50;
+SELECT setval('usuarios_id_seq', COALESCE((SELECT MAX(id) FROM usuarios), 0) + 50, false);
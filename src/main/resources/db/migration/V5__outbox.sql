@@ -0,0 +1,23 @@
+-- ---------------------------------
+-- OUTBOX DE EVENTOS
+-- ---------------------------------
+-- Efectos pendientes de un cambio (escritura del pedido en MongoDB, email de confirmación,
+-- notificación WebSocket) que se guardan en la misma transacción que el stock. OutboxRelay
+-- los reparte en segundo plano y borra cada fila al aplicarla.
+--
+-- El id es BIGSERIAL sin bloques: su orden es el orden en que se entregan los eventos de
+-- cada agregado.
+
+CREATE TABLE IF NOT EXISTS outbox_eventos (
+    id                BIGSERIAL PRIMARY KEY,
+    agregado          VARCHAR(255) NOT NULL,
+    tipo              VARCHAR(255) NOT NULL,
+    payload           TEXT         NOT NULL,
+    creado_en         TIMESTAMP    NOT NULL DEFAULT NOW(),
+    intentos          INTEGER      NOT NULL DEFAULT 0,
+    siguiente_intento TIMESTAMP    NOT NULL DEFAULT NOW(),
+    ultimo_error      TEXT
+);
+
+-- Primer evento pendiente de cada agregado (reparto en orden) y último estado pendiente de un pedido
+CREATE INDEX IF NOT EXISTS idx_outbox_eventos_agregado_id ON outbox_eventos (agregado, id);
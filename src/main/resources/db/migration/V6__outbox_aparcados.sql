@@ -0,0 +1,11 @@
+-- ---------------------------------
+-- OUTBOX: EVENTOS APARCADOS
+-- ---------------------------------
+-- Un evento que falla app.outbox.max-intentos veces pasa a APARCADO: OutboxRelay deja de
+-- entregarlo y ya no bloquea a los eventos siguientes de su agregado. Se queda en la tabla con
+-- su último error para revisarlo; para reintentarlo basta con volver a ponerlo en PENDIENTE.
+
+ALTER TABLE outbox_eventos ADD COLUMN IF NOT EXISTS estado VARCHAR(20) NOT NULL DEFAULT 'PENDIENTE';
+
+-- Eventos aparcados, para revisarlos
+CREATE INDEX IF NOT EXISTS idx_outbox_eventos_aparcados ON outbox_eventos (id) WHERE estado = 'APARCADO';
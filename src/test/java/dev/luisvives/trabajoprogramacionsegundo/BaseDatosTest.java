@@ -27,7 +27,7 @@ public abstract class BaseDatosTest {
         registry.add("spring.data.mongodb.database", () -> "tienda_test");
 
         // Redis
-        registry.add("spring.redis.host", () -> containers.getRedisContainer().getHost());
-        registry.add("spring.redis.port", () -> containers.getRedisContainer().getFirstMappedPort());
+        registry.add("spring.data.redis.host", () -> containers.getRedisContainer().getHost());
+        registry.add("spring.data.redis.port", () -> containers.getRedisContainer().getFirstMappedPort());
     }
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package dev.luisvives.trabajoprogramacionsegundo;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Aplica las migraciones de Flyway sobre una base de datos vacía y comprueba con EXPLAIN
+ * que cada consulta del catálogo y de usuarios usa el índice pensado para ella.
+ * <p>
+ * Se usa una base de datos propia dentro del contenedor compartido para no chocar con el
+ * esquema <code>create-drop</code> del resto de tests. Como las tablas son pequeñas se
+ * desactiva el recorrido secuencial: así el plan muestra si el índice sirve a la consulta,
+ * que es lo que se quiere comprobar.
+ * </p>
+ */
+class MigracionesIndicesTest {
+
+    private static final String BASE_DATOS = "migraciones_test";
+
+    private static Connection conexion;
+
+    @BeforeAll
+    static void migrar() throws SQLException {
+        PostgreSQLContainer<?> postgres = TestContainersConfig.getInstance().getPostgresContainer();
+        try (Connection admin = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement st = admin.createStatement()) {
+            st.execute("DROP DATABASE IF EXISTS " + BASE_DATOS);
+            st.execute("CREATE DATABASE " + BASE_DATOS);
+        }
+        String url = postgres.getJdbcUrl().replace("/" + postgres.getDatabaseName(), "/" + BASE_DATOS);
+
+        Flyway.configure()
+                .dataSource(url, postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration", "classpath:db/datos")
+                .load()
+                .migrate();
+
+        conexion = DriverManager.getConnection(url, postgres.getUsername(), postgres.getPassword());
+        try (Statement st = conexion.createStatement()) {
+            st.execute("INSERT INTO productos (nombre, precio, cantidad, imagen, descripcion, categoria_id) " +
+                    "SELECT 'Producto ' || i, i % 500, i % 100, 'default.png', 'Descripción ' || i, (i % 3) + 1 " +
+                    "FROM generate_series(1, 2000) i");
+            st.execute("INSERT INTO usuarios (username, password, email, is_deleted) " +
+                    "SELECT 'usuario' || i, 'x', 'usuario' || i || '@example.com', i % 10 = 0 " +
+                    "FROM generate_series(1, 2000) i");
+            st.execute("ANALYZE");
+            st.execute("SET enable_seqscan = off");
+        }
+    }
+
+    @AfterAll
+    static void cerrar() throws SQLException {
+        conexion.close();
+    }
+
+    @Test
+    @DisplayName("Las migraciones crean el esquema y cargan los datos iniciales")
+    void datosIniciales() throws SQLException {
+        assertThat(contar("SELECT count(*) FROM categoria")).isEqualTo(3);
+        assertThat(contar("SELECT count(*) FROM usuarios WHERE email LIKE '%@example.com' AND username NOT LIKE 'usuario%'")).isEqualTo(6);
+        assertThat(contar("SELECT count(*) FROM usuario_tipo")).isEqualTo(7);
+        assertThat(contar("SELECT count(*) FROM productos")).isEqualTo(2030);
+    }
+
+    @Test
+    @DisplayName("Las secuencias reservan bloques de 50 ids por encima de los ids existentes")
+    void secuenciasPooled() throws SQLException {
+        // Los datos iniciales conservan sus ids
+        assertThat(contar("SELECT count(*) FROM productos WHERE id BETWEEN 1 AND 30")).isEqualTo(30);
+        for (String tabla : List.of("categoria", "productos", "usuarios")) {
+            assertThat(contar("SELECT increment_by FROM pg_sequences WHERE sequencename = '" + tabla + "_id_seq'"))
+                    .isEqualTo(50);
+            // Primer id del bloque que reservaría Hibernate (optimizador pooled) frente al id más alto
+            assertThat(contar("SELECT nextval('" + tabla + "_id_seq') - 49"))
+                    .isGreaterThan(contar("SELECT max(id) FROM " + tabla));
+        }
+    }
+
+    @Test
+    @DisplayName("El filtro por categoría y precio máximo usa idx_productos_categoria_precio")
+    void filtroCategoriaPrecio() throws SQLException {
+        assertThat(plan("SELECT p.id FROM productos p WHERE p.precio <= 50 AND p.categoria_id IN (1, 2)"))
+                .contains("idx_productos_categoria_precio");
+    }
+
+    @Test
+    @DisplayName("El filtro por nombre del listado usa el índice de trigramas")
+    void filtroNombre() throws SQLException {
+        assertThat(plan("SELECT p.id FROM productos p WHERE lower(p.nombre) LIKE '%silla%'"))
+                .contains("idx_productos_nombre_trgm");
+    }
+
+    @Test
+    @DisplayName("La búsqueda de texto completo usa idx_productos_busqueda_fts")
+    void busquedaTextoCompleto() throws SQLException {
+        assertThat(plan("SELECT p.id FROM productos p WHERE to_tsvector('spanish', p.nombre || ' ' || coalesce(p.descripcion, '')) " +
+                "@@ plainto_tsquery('spanish', 'silla')"))
+                .contains("idx_productos_busqueda_fts");
+    }
+
+    @Test
+    @DisplayName("La página por cursor ordenada por precio usa idx_productos_precio_id")
+    void cursorPorPrecio() throws SQLException {
+        assertThat(plan("SELECT p.id FROM productos p WHERE p.precio >= 100 AND (p.precio > 100 OR p.id > 10) " +
+                "ORDER BY p.precio, p.id LIMIT 20"))
+                .contains("idx_productos_precio_id");
+    }
+
+    @Test
+    @DisplayName("El rango de fechas de creación usa idx_productos_fecha_creacion_id")
+    void rangoFechas() throws SQLException {
+        assertThat(plan("SELECT p.id FROM productos p WHERE p.fecha_creacion BETWEEN now() - interval '1 day' AND now()"))
+                .contains("idx_productos_fecha_creacion_id");
+    }
+
+    @Test
+    @DisplayName("La búsqueda de categoría sin distinguir mayúsculas usa idx_categoria_name_upper")
+    void categoriaPorNombre() throws SQLException {
+        assertThat(plan("SELECT c.id FROM categoria c WHERE upper(c.name) = upper('muebles')"))
+                .contains("idx_categoria_name_upper");
+    }
+
+    @Test
+    @DisplayName("El login por usuario o email sin distinguir mayúsculas usa los índices sobre upper(...)")
+    void loginUsuario() throws SQLException {
+        String plan = plan("SELECT u.id FROM usuarios u WHERE upper(u.username) = upper('ADMIN') OR upper(u.email) = upper('ADMIN')");
+
+        assertThat(plan).contains("idx_usuarios_username_upper").contains("idx_usuarios_email_upper");
+    }
+
+    @Test
+    @DisplayName("El listado de usuarios activos usa el índice parcial idx_usuarios_activos_id")
+    void usuariosActivos() throws SQLException {
+        assertThat(plan("SELECT u.id FROM usuarios u WHERE u.is_deleted = false ORDER BY u.id LIMIT 20"))
+                .contains("idx_usuarios_activos_id");
+    }
+
+    private String plan(String sql) throws SQLException {
+        StringJoiner plan = new StringJoiner("\n");
+        try (Statement st = conexion.createStatement(); ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.add(rs.getString(1));
+            }
+        }
+        return plan.toString();
+    }
+
+    private long contar(String sql) throws SQLException {
+        try (Statement st = conexion.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheDosNivelesTest {
+    @Mock
+    private RedisCache redisCache;
+    @Mock
+    private CacheDosNiveles.PublicadorInvalidacion publicador;
+
+    private Cache<String, Object> local;
+    private CacheDosNiveles cache;
+
+    @BeforeEach
+    void setUp() {
+        local = Caffeine.newBuilder().recordStats().build();
+        cache = new CacheDosNiveles("productos", local, redisCache, publicador);
+    }
+
+    @Test
+    @DisplayName("get devuelve el valor local sin consultar Redis")
+    void getLocal() {
+        local.put("1", "producto");
+
+        assertEquals("producto", cache.get(1L).get());
+        verifyNoInteractions(redisCache);
+    }
+
+    @Test
+    @DisplayName("get consulta Redis si no está en memoria y guarda el valor localmente")
+    void getRemoto() {
+        when(redisCache.get(1L)).thenReturn(new SimpleValueWrapper("producto"));
+
+        assertEquals("producto", cache.get(1L).get());
+        assertEquals("producto", local.getIfPresent("1"));
+        verify(redisCache, times(1)).get(1L);
+    }
+
+    @Test
+    @DisplayName("get devuelve null si no está en ningún nivel")
+    void getNoExiste() {
+        when(redisCache.get(1L)).thenReturn(null);
+
+        assertNull(cache.get(1L));
+        assertEquals(0, local.estimatedSize());
+    }
+
+    @Test
+    @DisplayName("put escribe en Redis y en memoria y publica la invalidación")
+    void put() {
+        cache.put(1L, "producto");
+
+        verify(redisCache, times(1)).put(1L, "producto");
+        assertEquals("producto", local.getIfPresent("1"));
+        verify(publicador, times(1)).publicar("productos", "1");
+    }
+
+    @Test
+    @DisplayName("evict borra de Redis y de memoria y publica la invalidación")
+    void evict() {
+        local.put("1", "producto");
+
+        cache.evict(1L);
+
+        verify(redisCache, times(1)).evict(1L);
+        assertNull(local.getIfPresent("1"));
+        verify(publicador, times(1)).publicar("productos", "1");
+    }
+
+    @Test
+    @DisplayName("clear vacía los dos niveles y publica una invalidación sin clave")
+    void clear() {
+        local.put("1", "producto");
+
+        cache.clear();
+
+        verify(redisCache, times(1)).clear();
+        assertEquals(0, local.estimatedSize());
+        verify(publicador, times(1)).publicar("productos", null);
+    }
+
+    @Test
+    @DisplayName("El gestor aplica las invalidaciones de otras réplicas e ignora las propias")
+    void invalidacionRemota() throws Exception {
+        RedisCacheManager redisCacheManager = mock(RedisCacheManager.class);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ObjectMapper objectMapper = RedisCacheConfig.cacheObjectMapper();
+        when(redisCacheManager.getCache("productos")).thenReturn(redisCache);
+        CacheDosNivelesManager manager = new CacheDosNivelesManager(redisCacheManager, new CachePropiedades(), redisTemplate, objectMapper);
+
+        var productos = (CacheDosNiveles) manager.getCache("productos");
+        productos.put(1L, "producto");
+        productos.put(2L, "otro");
+        verify(redisTemplate, times(2)).convertAndSend(eq("tienda:cache:invalidacion"), anyString());
+
+        manager.onMessage(mensaje(objectMapper, new MensajeInvalidacion(manager.getInstanciaId(), "productos", "1")), null);
+        assertEquals(2, productos.entradasLocales());
+
+        manager.onMessage(mensaje(objectMapper, new MensajeInvalidacion("otra-replica", "productos", "1")), null);
+        when(redisCache.get(1L)).thenReturn(null);
+        assertNull(productos.get(1L));
+        assertEquals("otro", productos.get(2L).get());
+
+        manager.onMessage(mensaje(objectMapper, new MensajeInvalidacion("otra-replica", "productos", null)), null);
+        assertEquals(0, productos.entradasLocales());
+    }
+
+    private DefaultMessage mensaje(ObjectMapper objectMapper, MensajeInvalidacion mensaje) throws Exception {
+        return new DefaultMessage("tienda:cache:invalidacion".getBytes(StandardCharsets.UTF_8),
+                objectMapper.writeValueAsBytes(mensaje));
+    }
+}
@@ -0,0 +1,80 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CacheEstadisticasDTO;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheEstadisticasControllerTest {
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private RedisCache redisCache;
+    @Mock
+    private CacheStatistics statistics;
+    @Mock
+    private CacheDosNiveles.PublicadorInvalidacion publicador;
+    @InjectMocks
+    private CacheEstadisticasController controller;
+
+    private CacheDosNiveles cacheDosNiveles(String nombre, Cache<String, Object> local) {
+        return new CacheDosNiveles(nombre, local, redisCache, publicador);
+    }
+
+    @Test
+    @DisplayName("GET /cache/estadisticas suma los aciertos locales y de Redis de cada caché")
+    void getEstadisticas() {
+        Cache<String, Object> local = Caffeine.newBuilder().recordStats().build();
+        local.put("1", "valor");
+        local.getIfPresent("1");
+        when(cacheManager.getCacheNames()).thenReturn(List.of("productos"));
+        when(cacheManager.getCache("productos")).thenReturn(cacheDosNiveles("productos", local));
+        when(redisCache.getStatistics()).thenReturn(statistics);
+        when(statistics.getHits()).thenReturn(2L);
+        when(statistics.getMisses()).thenReturn(1L);
+        when(statistics.getPuts()).thenReturn(1L);
+        when(statistics.getDeletes()).thenReturn(0L);
+
+        val response = controller.getEstadisticas();
+        CacheEstadisticasDTO dto = response.getBody().getFirst();
+
+        assertAll(
+                () -> assertEquals(HttpStatus.OK, response.getStatusCode()),
+                () -> assertEquals("productos", dto.getNombre()),
+                () -> assertEquals(3L, dto.getAciertos()),
+                () -> assertEquals(1L, dto.getAciertosLocales()),
+                () -> assertEquals(1L, dto.getEntradasLocales()),
+                () -> assertEquals(1L, dto.getFallos()),
+                () -> assertEquals(0.75, dto.getRatioAciertos())
+        );
+    }
+
+    @Test
+    @DisplayName("GET /cache/estadisticas sin lecturas devuelve ratio 0")
+    void getEstadisticasSinLecturas() {
+        when(cacheManager.getCacheNames()).thenReturn(List.of("categorias"));
+        when(cacheManager.getCache("categorias"))
+                .thenReturn(cacheDosNiveles("categorias", Caffeine.newBuilder().recordStats().build()));
+        when(redisCache.getStatistics()).thenReturn(statistics);
+
+        val response = controller.getEstadisticas();
+
+        assertEquals(0.0, response.getBody().getFirst().getRatioAciertos());
+    }
+}
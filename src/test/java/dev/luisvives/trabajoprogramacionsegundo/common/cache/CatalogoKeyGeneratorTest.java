@@ -0,0 +1,61 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogoKeyGeneratorTest {
+    @Mock
+    private CatalogoGeneracion generacion;
+    @InjectMocks
+    private CatalogoKeyGenerator keyGenerator;
+
+    private final Method metodo = ReflectionUtils.findMethod(Object.class, "toString");
+
+    @Test
+    @DisplayName("La clave incluye la generación, el método y los filtros normalizados")
+    void generate() {
+        when(generacion.actual()).thenReturn(7L);
+
+        Object clave = keyGenerator.generate(this, metodo,
+                Optional.of("  Silla "), Optional.of(10.0), Optional.empty(),
+                PageRequest.of(0, 10, Sort.by("nombre").ascending()));
+
+        assertEquals("g7::toString::silla::10::_::0:10:nombre-asc", clave);
+    }
+
+    @Test
+    @DisplayName("Consultas equivalentes escritas de forma distinta comparten clave")
+    void generateEquivalentes() {
+        when(generacion.actual()).thenReturn(1L);
+
+        Object a = keyGenerator.generate(this, metodo, Optional.of("SILLA"), Optional.of(10.0), Optional.of(""), PageRequest.of(1, 5));
+        Object b = keyGenerator.generate(this, metodo, Optional.of("silla "), Optional.of(10.00), Optional.empty(), PageRequest.of(1, 5));
+
+        assertEquals(a, b);
+    }
+
+    @Test
+    @DisplayName("Al cambiar de generación cambia la clave")
+    void generateOtraGeneracion() {
+        when(generacion.actual()).thenReturn(1L, 2L);
+
+        Object antes = keyGenerator.generate(this, metodo, Optional.empty(), PageRequest.of(0, 10));
+        Object despues = keyGenerator.generate(this, metodo, Optional.empty(), PageRequest.of(0, 10));
+
+        assertNotEquals(antes, despues);
+    }
+}
@@ -0,0 +1,216 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.idempotencia;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.luisvives.trabajoprogramacionsegundo.TestContainersConfig;
+import dev.luisvives.trabajoprogramacionsegundo.common.cache.CachePropiedades;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.GenericPedidosResponseDto;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Cliente;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Direccion;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.LineaPedido;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests de {@link Idempotencia} contra el Redis de Testcontainers.
+ */
+class IdempotenciaTest {
+
+    private static final int HILOS = 20;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private final IdempotenciaPropiedades propiedades = new IdempotenciaPropiedades();
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+    private Idempotencia idempotencia;
+    private String clave;
+
+    @BeforeAll
+    static void conectar() {
+        var redis = TestContainersConfig.getInstance().getRedisContainer();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(redis.getHost(), redis.getFirstMappedPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void desconectar() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        propiedades.setSondeo(Duration.ofMillis(10));
+        idempotencia = new Idempotencia(new StringRedisTemplate(connectionFactory), new ObjectMapper(), propiedades, new CachePropiedades());
+        clave = UUID.randomUUID().toString();
+    }
+
+    @Test
+    @DisplayName("Una repetición devuelve la respuesta guardada sin volver a ejecutar la petición")
+    void repeticion() {
+        ResponseEntity<Map> primera = crear("pedido", Map.of("id", "1"));
+        ResponseEntity<Map> repetida = crear("pedido", Map.of("id", "2"));
+
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(repetida.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(repetida.getBody()).isEqualTo(primera.getBody());
+        assertThat(repetida.getHeaders().getFirst(Idempotencia.CABECERA_REPETIDA)).isEqualTo("true");
+        assertThat(primera.getHeaders().containsKey(Idempotencia.CABECERA_REPETIDA)).isFalse();
+    }
+
+    @Test
+    @DisplayName("La respuesta de un pedido se repite con su id y sus líneas")
+    void repeticionPedido() {
+        ObjectId id = new ObjectId();
+        Cliente cliente = new Cliente("Pepe", "pepe@mail.com", "123456789",
+                new Direccion("calle", "1", "ciudad", "provincia", "pais", "01000"));
+        List<LineaPedido> lineas = List.of(new LineaPedido(2, 1L, 10.0, 20.0), new LineaPedido(1, 2L, 5.5, 5.5));
+        GenericPedidosResponseDto pedido = new GenericPedidosResponseDto(id, 1L, cliente, lineas, 3, 25.5);
+
+        ResponseEntity<GenericPedidosResponseDto> primera = idempotencia.ejecutar("test", clave, "pedido",
+                GenericPedidosResponseDto.class, () -> ResponseEntity.status(HttpStatus.CREATED).body(pedido));
+        ResponseEntity<GenericPedidosResponseDto> repetida = idempotencia.ejecutar("test", clave, "pedido",
+                GenericPedidosResponseDto.class, () -> {
+                    throw new IllegalStateException("La repetición no debe ejecutarse");
+                });
+
+        assertThat(primera.getBody()).isSameAs(pedido);
+        assertThat(repetida.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(repetida.getHeaders().getFirst(Idempotencia.CABECERA_REPETIDA)).isEqualTo("true");
+        assertThat(repetida.getBody()).isEqualTo(pedido);
+        assertThat(repetida.getBody().getId()).isEqualTo(id);
+        assertThat(repetida.getBody().getLineaPedido()).isEqualTo(lineas);
+    }
+
+    @Test
+    @DisplayName("Las peticiones simultáneas con la misma clave esperan a la primera y se ejecutan una vez")
+    void simultaneas() throws Exception {
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<ResponseEntity<Map>>> respuestas = new ArrayList<>();
+        try {
+            for (int i = 0; i < HILOS; i++) {
+                respuestas.add(hilos.submit(() -> {
+                    salida.await();
+                    return idempotencia.ejecutar("test", clave, "pedido", Map.class, () -> {
+                        ejecuciones.incrementAndGet();
+                        dormir(200);
+                        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", "1"));
+                    });
+                }));
+            }
+            salida.countDown();
+            for (Future<ResponseEntity<Map>> respuesta : respuestas) {
+                assertThat(respuesta.get(30, TimeUnit.SECONDS).getBody()).isEqualTo(Map.of("id", "1"));
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Reutilizar la clave con otra petición se rechaza")
+    void claveReutilizada() {
+        crear("pedido", Map.of("id", "1"));
+
+        assertThatThrownBy(() -> crear("otro pedido", Map.of("id", "2")))
+                .isInstanceOf(IdempotenciaException.ClaveReutilizadaException.class);
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Si la petición original falla, la clave se libera y se puede reintentar")
+    void falloLiberaLaClave() {
+        assertThatThrownBy(() -> idempotencia.ejecutar("test", clave, "pedido", Map.class, () -> {
+            throw new IllegalStateException("sin stock");
+        })).isInstanceOf(IllegalStateException.class);
+
+        crear("pedido", Map.of("id", "1"));
+
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Si la original no termina a tiempo, la repetición recibe un error en vez de ejecutarse")
+    void enCurso() throws Exception {
+        propiedades.setEspera(Duration.ofMillis(100));
+        CountDownLatch empezada = new CountDownLatch(1);
+        CountDownLatch terminar = new CountDownLatch(1);
+        ExecutorService hilo = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> original = hilo.submit(() -> idempotencia.ejecutar("test", clave, "pedido", Map.class, () -> {
+                empezada.countDown();
+                esperar(terminar);
+                return ResponseEntity.ok(Map.of());
+            }));
+            empezada.await(10, TimeUnit.SECONDS);
+
+            assertThatThrownBy(() -> crear("pedido", Map.of()))
+                    .isInstanceOf(IdempotenciaException.EnCursoException.class);
+
+            terminar.countDown();
+            original.get(10, TimeUnit.SECONDS);
+        } finally {
+            hilo.shutdownNow();
+        }
+        assertThat(ejecuciones).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Sin clave la petición se ejecuta siempre")
+    void sinClave() {
+        clave = null;
+
+        crear("pedido", Map.of("id", "1"));
+        crear("pedido", Map.of("id", "1"));
+
+        assertThat(ejecuciones).hasValue(2);
+    }
+
+    private ResponseEntity<Map> crear(String peticion, Map<String, String> cuerpo) {
+        return idempotencia.ejecutar("test", clave, peticion, Map.class, () -> {
+            ejecuciones.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(cuerpo);
+        });
+    }
+
+    private static void dormir(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
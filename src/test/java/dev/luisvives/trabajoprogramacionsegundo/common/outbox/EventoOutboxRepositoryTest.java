@@ -0,0 +1,122 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.outbox;
+
+import dev.luisvives.trabajoprogramacionsegundo.BaseRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de integración de la reclamación de lotes de la outbox usando Testcontainers.
+ */
+class EventoOutboxRepositoryTest extends BaseRepositoryTest {
+
+    @Autowired
+    private EventoOutboxRepository repository;
+
+    private final LocalDateTime ahora = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Solo se reclama el primer evento pendiente de cada agregado, en orden de id")
+    void reclamarLote_primeroDeCadaAgregado() {
+        EventoOutbox a1 = guardar("pedido:a", "GUARDAR", ahora);
+        guardar("pedido:a", "NOTIFICAR", ahora);
+        EventoOutbox b1 = guardar("pedido:b", "GUARDAR", ahora);
+
+        List<EventoOutbox> lote = repository.reclamarLote(ahora.plusSeconds(1), 10);
+
+        assertThat(lote).extracting(EventoOutbox::getId).containsExactly(a1.getId(), b1.getId());
+    }
+
+    @Test
+    @DisplayName("Un evento en espera bloquea a los siguientes de su agregado, pero no a los de otros")
+    void reclamarLote_respetaLaEspera() {
+        guardar("pedido:a", "GUARDAR", ahora.plusMinutes(5));
+        guardar("pedido:a", "NOTIFICAR", ahora);
+        EventoOutbox b1 = guardar("pedido:b", "GUARDAR", ahora);
+
+        List<EventoOutbox> lote = repository.reclamarLote(ahora.plusSeconds(1), 10);
+
+        assertThat(lote).extracting(EventoOutbox::getId).containsExactly(b1.getId());
+    }
+
+    @Test
+    @DisplayName("Un evento aparcado no se reclama ni bloquea a los siguientes de su agregado")
+    void reclamarLote_ignoraLosAparcados() {
+        EventoOutbox aparcado = guardar("pedido:a", "GUARDAR", ahora);
+        EventoOutbox a2 = guardar("pedido:a", "NOTIFICAR", ahora);
+        repository.reprogramar(aparcado.getId(), 20, "Error", ahora, EventoOutbox.Estado.APARCADO);
+
+        List<EventoOutbox> lote = repository.reclamarLote(ahora.plusSeconds(1), 10);
+
+        assertThat(lote).extracting(EventoOutbox::getId).containsExactly(a2.getId());
+    }
+
+    @Test
+    @DisplayName("Un evento reservado no se vuelve a reclamar hasta que acaba su reserva")
+    void reservar_aplazaLaReclamacion() {
+        EventoOutbox a1 = guardar("pedido:a", "GUARDAR", ahora);
+
+        repository.reservar(List.of(a1.getId()), ahora.plusMinutes(1));
+
+        assertThat(repository.reclamarLote(ahora.plusSeconds(1), 10)).isEmpty();
+        assertThat(repository.reclamarLote(ahora.plusMinutes(2), 10))
+                .extracting(EventoOutbox::getId).containsExactly(a1.getId());
+    }
+
+    @Test
+    @DisplayName("El tamaño del lote limita los eventos reclamados")
+    void reclamarLote_limite() {
+        guardar("pedido:a", "GUARDAR", ahora);
+        guardar("pedido:b", "GUARDAR", ahora);
+        guardar("pedido:c", "GUARDAR", ahora);
+
+        assertThat(repository.reclamarLote(ahora.plusSeconds(1), 2)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Busca el último evento pendiente de un agregado entre los tipos pedidos")
+    void findFirstByAgregadoAndTipoIn() {
+        guardar("pedido:a", "GUARDAR", ahora);
+        EventoOutbox borrado = guardar("pedido:a", "BORRAR", ahora);
+        guardar("pedido:a", "NOTIFICAR", ahora);
+
+        assertThat(repository.findFirstByAgregadoAndTipoInAndEstadoOrderByIdDesc("pedido:a", List.of("GUARDAR", "BORRAR"), EventoOutbox.Estado.PENDIENTE))
+                .get().extracting(EventoOutbox::getId).isEqualTo(borrado.getId());
+        assertThat(repository.findFirstByAgregadoAndTipoInAndEstadoOrderByIdDesc("pedido:b", List.of("GUARDAR", "BORRAR"), EventoOutbox.Estado.PENDIENTE))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Los eventos aparcados no cuentan como pendientes")
+    void findFirstByAgregadoAndTipoIn_ignoraLosAparcados() {
+        EventoOutbox guardado = guardar("pedido:a", "GUARDAR", ahora);
+        EventoOutbox aparcado = guardar("pedido:a", "GUARDAR", ahora);
+        repository.reprogramar(aparcado.getId(), 20, "Error", ahora, EventoOutbox.Estado.APARCADO);
+
+        assertThat(repository.findFirstByAgregadoAndTipoInAndEstadoOrderByIdDesc("pedido:a", List.of("GUARDAR", "BORRAR"), EventoOutbox.Estado.PENDIENTE))
+                .get().extracting(EventoOutbox::getId).isEqualTo(guardado.getId());
+        assertThat(repository.existsByAgregadoAndEstado("pedido:a", EventoOutbox.Estado.APARCADO)).isTrue();
+        assertThat(repository.existsByAgregadoAndEstado("pedido:b", EventoOutbox.Estado.APARCADO)).isFalse();
+    }
+
+    private EventoOutbox guardar(String agregado, String tipo, LocalDateTime siguienteIntento) {
+        return repository.saveAndFlush(EventoOutbox.builder()
+                .agregado(agregado)
+                .tipo(tipo)
+                .payload("{}")
+                .creadoEn(ahora)
+                .siguienteIntento(siguienteIntento)
+                .build());
+    }
+}
@@ -0,0 +1,159 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private EventoOutboxRepository repository;
+
+    @Mock
+    private ManejadorOutbox manejador;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final OutboxPropiedades propiedades = new OutboxPropiedades();
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        propiedades.setTamanoLote(10);
+        propiedades.setEsperaInicial(Duration.ofSeconds(1));
+        propiedades.setEsperaMaxima(Duration.ofSeconds(10));
+        when(manejador.tipos()).thenReturn(Set.of("PRUEBA"));
+        relay = new OutboxRelay(repository, List.of(manejador), propiedades, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Los eventos aplicados se borran de la outbox")
+    void procesarLote_borraLosAplicados() throws Exception {
+        EventoOutbox evento = evento("PRUEBA");
+        when(repository.reclamarLote(any(LocalDateTime.class), eq(10))).thenReturn(List.of(evento));
+
+        int procesados = relay.procesarLote();
+
+        assertThat(procesados).isEqualTo(1);
+        verify(repository).reservar(eq(List.of(1L)), any(LocalDateTime.class));
+        verify(manejador).manejar(evento);
+        verify(repository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("El evento se aplica entre dos transacciones cortas, sin retener los bloqueos del lote")
+    void procesarLote_aplicaFueraDeLaTransaccion() throws Exception {
+        EventoOutbox evento = evento("PRUEBA");
+        when(repository.reclamarLote(any(LocalDateTime.class), anyInt())).thenReturn(List.of(evento));
+
+        relay.procesarLote();
+
+        var orden = inOrder(transactionManager, repository, manejador);
+        orden.verify(transactionManager).getTransaction(any());
+        orden.verify(repository).reclamarLote(any(LocalDateTime.class), anyInt());
+        orden.verify(transactionManager).commit(any());
+        orden.verify(manejador).manejar(evento);
+        orden.verify(transactionManager).getTransaction(any());
+        orden.verify(repository).deleteAllByIdInBatch(List.of(1L));
+        orden.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Sin eventos listos no se abre la segunda transacción")
+    void procesarLote_sinEventos() throws Exception {
+        when(repository.reclamarLote(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+
+        assertThat(relay.procesarLote()).isZero();
+
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(repository, never()).reservar(any(), any());
+        verify(manejador, never()).manejar(any());
+    }
+
+    @Test
+    @DisplayName("Un evento que falla se queda con el error y se reprograma con espera")
+    void procesarLote_reprogramaLosFallidos() throws Exception {
+        EventoOutbox evento = evento("PRUEBA");
+        evento.setIntentos(2);
+        when(repository.reclamarLote(any(LocalDateTime.class), anyInt())).thenReturn(List.of(evento));
+        doThrow(new IllegalStateException("MongoDB caído")).when(manejador).manejar(evento);
+
+        LocalDateTime antes = LocalDateTime.now();
+        relay.procesarLote();
+
+        assertThat(evento.getIntentos()).isEqualTo(3);
+        assertThat(evento.getUltimoError()).isEqualTo("IllegalStateException: MongoDB caído");
+        // Tercer fallo: 1s * 2^2
+        assertThat(evento.getSiguienteIntento()).isAfterOrEqualTo(antes.plusSeconds(4));
+        verify(repository).reprogramar(1L, 3, "IllegalStateException: MongoDB caído",
+                evento.getSiguienteIntento(), EventoOutbox.Estado.PENDIENTE);
+        verify(repository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    @DisplayName("Al agotar los intentos el evento se aparca")
+    void procesarLote_aparcaAlAgotarLosIntentos() throws Exception {
+        propiedades.setMaxIntentos(3);
+        EventoOutbox evento = evento("PRUEBA");
+        evento.setIntentos(2);
+        when(repository.reclamarLote(any(LocalDateTime.class), anyInt())).thenReturn(List.of(evento));
+        doThrow(new IllegalStateException("SMTP caído")).when(manejador).manejar(evento);
+
+        relay.procesarLote();
+
+        assertThat(evento.getEstado()).isEqualTo(EventoOutbox.Estado.APARCADO);
+        verify(repository).reprogramar(eq(1L), eq(3), any(), any(), eq(EventoOutbox.Estado.APARCADO));
+    }
+
+    @Test
+    @DisplayName("Un evento sin manejador no se pierde: se reprograma")
+    void procesarLote_tipoDesconocido() throws Exception {
+        EventoOutbox evento = evento("OTRO");
+        when(repository.reclamarLote(any(LocalDateTime.class), anyInt())).thenReturn(List.of(evento));
+
+        relay.procesarLote();
+
+        assertThat(evento.getIntentos()).isEqualTo(1);
+        assertThat(evento.getUltimoError()).contains("OTRO");
+        verify(manejador, never()).manejar(any());
+        verify(repository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    @DisplayName("La espera se duplica en cada fallo hasta el máximo")
+    void espera_creceHastaElMaximo() {
+        assertThat(relay.espera(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(relay.espera(2)).isEqualTo(Duration.ofSeconds(2));
+        assertThat(relay.espera(4)).isEqualTo(Duration.ofSeconds(8));
+        assertThat(relay.espera(5)).isEqualTo(Duration.ofSeconds(10));
+        assertThat(relay.espera(100)).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    private EventoOutbox evento(String tipo) {
+        return EventoOutbox.builder()
+                .id(1L)
+                .agregado("pedido:1")
+                .tipo(tipo)
+                .payload("{}")
+                .creadoEn(LocalDateTime.now())
+                .siguienteIntento(LocalDateTime.now())
+                .build();
+    }
+}
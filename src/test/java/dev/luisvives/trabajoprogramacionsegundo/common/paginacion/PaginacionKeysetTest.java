@@ -0,0 +1,79 @@
+package dev.luisvives.trabajoprogramacionsegundo.common.paginacion;
+
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaginacionKeysetTest {
+
+    private static final Map<String, Function<String, ? extends Comparable<?>>> CAMPOS = Map.of(
+            "id", Long::valueOf,
+            "precio", Double::valueOf,
+            "fechaCreacion", LocalDateTime::parse
+    );
+
+    private final PaginacionKeyset<Producto> paginacion = new PaginacionKeyset<>(CAMPOS);
+
+    @Test
+    @DisplayName("El cursor codificado se puede decodificar y es apto para una URL")
+    void cursorIdaYVuelta() {
+        Cursor cursor = new Cursor("nombre", "desc", "Silla / mesa?", "42");
+
+        String texto = cursor.codificar();
+
+        assertTrue(texto.matches("[A-Za-z0-9_-]+"), "solo debe tener caracteres seguros para una URL");
+        assertEquals(cursor, Cursor.decodificar(texto));
+        assertFalse(Cursor.decodificar(texto).ascendente());
+    }
+
+    @Test
+    @DisplayName("Un texto que no es un cursor lanza CursorInvalidoException")
+    void cursorInvalido() {
+        assertThrows(CursorInvalidoException.class, () -> Cursor.decodificar("no es un cursor"));
+        assertThrows(CursorInvalidoException.class, () -> Cursor.decodificar("e30"));
+    }
+
+    @Test
+    @DisplayName("La ordenación añade el id para desempatar salvo si ya se ordena por id")
+    void orden() {
+        assertEquals(Sort.by(Sort.Direction.DESC, "precio", "id"), paginacion.orden("precio", "DESC"));
+        assertEquals(Sort.by(Sort.Direction.ASC, "id"), paginacion.orden("id", "asc"));
+    }
+
+    @Test
+    @DisplayName("No se puede ordenar por un campo no registrado")
+    void ordenCampoNoPermitido() {
+        var ex = assertThrows(CursorInvalidoException.class, () -> paginacion.orden("descripcion", "asc"));
+        assertTrue(ex.getMessage().contains("descripcion"));
+    }
+
+    @Test
+    @DisplayName("Un cursor con valores del tipo equivocado no es válido")
+    void despuesDeValorInvalido() {
+        Cursor cursor = new Cursor("precio", "asc", "caro", "1");
+
+        assertThrows(CursorInvalidoException.class, () -> paginacion.despuesDe(Optional.of(cursor)));
+    }
+
+    @Test
+    @DisplayName("El cursor de la última fila guarda el valor del campo de ordenación y el id")
+    void cursorDe() {
+        LocalDateTime fecha = LocalDateTime.of(2025, 1, 2, 3, 4, 5, 600_000_000);
+        Producto producto = Producto.builder().id(7L).precio(9.5).fechaCreacion(fecha).build();
+
+        Cursor porPrecio = paginacion.cursorDe(producto, "precio", "ASC");
+        Cursor porFecha = paginacion.cursorDe(producto, "fechaCreacion", "desc");
+
+        assertEquals(new Cursor("precio", "asc", "9.5", "7"), porPrecio);
+        assertEquals(fecha, LocalDateTime.parse(porFecha.valor()));
+        assertEquals("7", porFecha.id());
+    }
+}
@@ -3,8 +3,6 @@ package dev.luisvives.trabajoprogramacionsegundo.graphql;
 import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.GENERICcategoryResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
-import dev.luisvives.trabajoprogramacionsegundo.productos.mapper.ProductoMapper;
-import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto; // Necesario para Page<Producto>
 import dev.luisvives.trabajoprogramacionsegundo.productos.service.CategoriesService;
 import dev.luisvives.trabajoprogramacionsegundo.productos.service.ProductoService;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,9 +36,6 @@ class GraphQlControllerTest {
     @Mock
     private CategoriesService categoriesService;
 
-    @Mock
-    private ProductoMapper productoMapper;
-
     // Inyectamos los mocks en la clase que queremos probar
     @InjectMocks
     private GraphQlController graphQlController;
@@ -144,7 +139,7 @@ class GraphQlControllerTest {
         when(categoriesService.getAll()).thenReturn(categoryList);
 
         // Act
-        List<GENERICcategoryResponseDTO> result = graphQlController.getAllCategorias();
+        List<GENERICcategoryResponseDTO> result = graphQlController.getAllCategorias(false, false);
 
         // Assert
         assertNotNull(result);
@@ -153,6 +148,20 @@ class GraphQlControllerTest {
         verify(categoriesService, times(1)).getAll();
     }
 
+    @Test
+    void getAllCategorias_WithCounts_ShouldUseAggregatedQuery() {
+        // Arrange
+        GENERICcategoryResponseDTO conRecuento = GENERICcategoryResponseDTO.builder().id(1L).name("MUEBLES").productCount(7L).build();
+        when(categoriesService.getAll(true, false)).thenReturn(List.of(conRecuento));
+
+        // Act
+        List<GENERICcategoryResponseDTO> result = graphQlController.getAllCategorias(true, false);
+
+        // Assert
+        assertEquals(7L, result.get(0).getProductCount());
+        verify(categoriesService, never()).getAll();
+    }
+
     // --- Tests para getAllProductos ---
 
     @Test
@@ -169,14 +178,10 @@ class GraphQlControllerTest {
         // Capturamos el Pageable que el controlador crea para verificarlo
         ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
 
-        // Mockeamos la respuesta del servicio (Page<Producto>)
-        Page<Producto> serviceResponse = new PageImpl<>(List.of(new Producto()), PageRequest.of(page, size), 1);
+        // Mockeamos la respuesta del servicio (PageResponseDTO<...>)
+        PageResponseDTO<GENERICProductosResponseDTO> serviceResponse = new PageResponseDTO<>();
 
-        // Mockeamos la respuesta del mapper (PageResponseDTO<...>)
-        PageResponseDTO<GENERICProductosResponseDTO> mapperResponse = new PageResponseDTO<>();
-
-        when(productoService.findAll(eq(name), eq(maxPrice), eq(category), pageableCaptor.capture())).thenReturn(serviceResponse);
-        when(productoMapper.pageToDTO(serviceResponse, sortBy, direction)).thenReturn(mapperResponse);
+        when(productoService.findAllDto(eq(name), eq(maxPrice), eq(category), pageableCaptor.capture())).thenReturn(serviceResponse);
 
         // Act: Llamamos al controlador
         PageResponseDTO<GENERICProductosResponseDTO> result = graphQlController.getAllProductos(
@@ -185,7 +190,7 @@ class GraphQlControllerTest {
 
         // Assert: Verificamos el resultado final
         assertNotNull(result);
-        assertEquals(mapperResponse, result);
+        assertEquals(serviceResponse, result);
 
         // Assert: Verificamos el Pageable capturado
         Pageable capturedPageable = pageableCaptor.getValue();
@@ -194,8 +199,7 @@ class GraphQlControllerTest {
         assertEquals(Sort.by(sortBy).ascending(), capturedPageable.getSort());
 
         // Verificamos las llamadas a los mocks
-        verify(productoService, times(1)).findAll(eq(name), eq(maxPrice), eq(category), any(Pageable.class));
-        verify(productoMapper, times(1)).pageToDTO(serviceResponse, sortBy, direction);
+        verify(productoService, times(1)).findAllDto(eq(name), eq(maxPrice), eq(category), any(Pageable.class));
     }
 
     @Test
@@ -207,12 +211,10 @@ class GraphQlControllerTest {
         String direction = "desc"; // <-- Probamos la ordenación descendente
 
         ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
-        Page<Producto> serviceResponse = Page.empty();
-        PageResponseDTO<GENERICProductosResponseDTO> mapperResponse = new PageResponseDTO<>();
+        PageResponseDTO<GENERICProductosResponseDTO> serviceResponse = new PageResponseDTO<>();
 
         // Usamos any() para los Optional por simplicidad, lo importante es el Pageable
-        when(productoService.findAll(any(), any(), any(), pageableCaptor.capture())).thenReturn(serviceResponse);
-        when(productoMapper.pageToDTO(serviceResponse, sortBy, direction)).thenReturn(mapperResponse);
+        when(productoService.findAllDto(any(), any(), any(), pageableCaptor.capture())).thenReturn(serviceResponse);
 
         // Act
         graphQlController.getAllProductos(
@@ -226,4 +228,15 @@ class GraphQlControllerTest {
         // Verificamos que la lógica de ordenación "desc" funciona
         assertEquals(Sort.by(sortBy).descending(), capturedPageable.getSort());
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchProductos_ShouldDelegateToServiceWithPage() {
+        PageResponseDTO<GENERICProductosResponseDTO> serviceResponse = new PageResponseDTO<>();
+        when(productoService.search(eq("silla"), eq(PageRequest.of(2, 5)))).thenReturn(serviceResponse);
+
+        PageResponseDTO<GENERICProductosResponseDTO> result = graphQlController.searchProductos("silla", 2, 5);
+
+        assertEquals(serviceResponse, result);
+        verify(productoService, times(1)).search("silla", PageRequest.of(2, 5));
+    }
+}
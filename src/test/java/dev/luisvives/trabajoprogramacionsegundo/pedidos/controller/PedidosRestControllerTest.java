@@ -1,7 +1,9 @@
 package dev.luisvives.trabajoprogramacionsegundo.pedidos.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.idempotencia.Idempotencia;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.request.PostAndPutPedidoRequestDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.DeletePedidosResponseDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.GenericPedidosResponseDto;
@@ -32,13 +34,17 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -79,6 +85,9 @@ class PedidosRestControllerTest {
     @MockitoBean
     private JwtService jwtService;
 
+    @MockitoBean
+    private Idempotencia idempotencia;
+
     @MockitoBean
     private UserServiceImpl userServiceImpl;
 
@@ -90,6 +99,10 @@ class PedidosRestControllerTest {
 
     @BeforeEach
     void setUp() {
+        // Sin Redis: el control de idempotencia ejecuta directamente la petición
+        when(idempotencia.ejecutar(anyString(), any(), any(), any(), any()))
+                .thenAnswer(invocacion -> ((Supplier<?>) invocacion.getArgument(4)).get());
+
         testId = new ObjectId();
 
         Direccion direccion = new Direccion("Calle Falsa", "123", "Springfield", "Provincia", "País", "12345");
@@ -145,6 +158,46 @@ class PedidosRestControllerTest {
         verify(pedidosMapper).toPageDto(any(), eq("id"), eq("asc"));
     }
 
+    @Test
+    @DisplayName("GET /pedidos/cursor - Obtener pedidos por cursor - OK")
+    void findAllCursor_ShouldReturnCursorPage() throws Exception {
+        var cursorDto = new CursorPageResponseDTO<>(
+                List.of(pedidoResponseDto),
+                1,
+                null,
+                false,
+                "id",
+                "desc"
+        );
+
+        when(pedidosService.findAllCursor(Optional.empty(), "desc", 10)).thenReturn(cursorDto);
+
+        mockMvc.perform(get("/pedidos/cursor")
+                        .with(user("testuser").roles("ADMIN","USUARIO"))
+                        .param("direction", "desc")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.direction").value("desc"));
+
+        verify(pedidosService).findAllCursor(Optional.empty(), "desc", 10);
+    }
+
+    @Test
+    @DisplayName("GET /pedidos/cursor - El tamaño de página se limita al máximo configurado")
+    void findAllCursor_ShouldClampSize() throws Exception {
+        var cursorDto = new CursorPageResponseDTO<>(List.of(pedidoResponseDto), 1, null, false, "id", "asc");
+        when(pedidosService.findAllCursor(Optional.empty(), "asc", 100)).thenReturn(cursorDto);
+
+        mockMvc.perform(get("/pedidos/cursor")
+                        .with(user("testuser").roles("ADMIN","USUARIO"))
+                        .param("size", "1000000")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(pedidosService).findAllCursor(Optional.empty(), "asc", 100);
+    }
+
     @Test
     @DisplayName("GET /pedidos/{id} - Obtener pedido por ID - OK")
     void findById_ShouldReturnPedido() throws Exception {
@@ -194,6 +247,44 @@ class PedidosRestControllerTest {
         verify(pedidosService).save(any(PostAndPutPedidoRequestDto.class));
     }
 
+    @Test
+    @DisplayName("POST /pedidos - La Idempotency-Key se aplica por usuario")
+    void save_ShouldUseIdempotencyKey() throws Exception {
+        when(pedidosService.save(any(PostAndPutPedidoRequestDto.class))).thenReturn(pedidoResponseDto);
+
+        mockMvc.perform(post("/pedidos")
+                        .with(user("testuser").roles("ADMIN","USUARIO"))
+                        .with(csrf())
+                        .header(Idempotencia.CABECERA, "clave-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(pedidoRequestDto)))
+                .andExpect(status().isCreated());
+
+        verify(idempotencia).ejecutar(eq("pedidos:testuser"), eq("clave-1"), any(PostAndPutPedidoRequestDto.class),
+                eq(GenericPedidosResponseDto.class), any());
+    }
+
+    @Test
+    @DisplayName("POST /pedidos - Repetición con la misma Idempotency-Key - Devuelve la respuesta guardada")
+    void save_WhenReplayed_ShouldReturnStoredResponse() throws Exception {
+        when(idempotencia.ejecutar(eq("pedidos:testuser"), eq("clave-1"), any(), eq(GenericPedidosResponseDto.class), any()))
+                .thenReturn(ResponseEntity.status(HttpStatus.CREATED)
+                        .header(Idempotencia.CABECERA_REPETIDA, "true")
+                        .body(pedidoResponseDto));
+
+        mockMvc.perform(post("/pedidos")
+                        .with(user("testuser").roles("ADMIN","USUARIO"))
+                        .with(csrf())
+                        .header(Idempotencia.CABECERA, "clave-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(pedidoRequestDto)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(Idempotencia.CABECERA_REPETIDA, "true"))
+                .andExpect(jsonPath("$.id").value(testId.toHexString()));
+
+        verify(pedidosService, never()).save(any());
+    }
+
     @Test
     @DisplayName("POST /pedidos - Petición inválida (Cliente Nulo) - Bad Request (400)")
     void save_WhenInvalid_ShouldReturnBadRequest() throws Exception {
@@ -14,6 +14,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -336,6 +338,33 @@ class PedidosMapperTest {
         assertTrue(result.isLast());
     }
 
+    @Test
+    @DisplayName("toSliceDto - Sin conteo los totales valen -1 y last depende de si hay más")
+    void toSliceDto_ShouldMapSliceWithoutTotals() {
+        // Arrange
+        GenericPedidosResponseDto pedido = new GenericPedidosResponseDto(
+                testId,
+                1L,
+                clienteTest,
+                List.of(lineaPedidoTest),
+                2,
+                20.0
+        );
+        Slice<GenericPedidosResponseDto> slice = new SliceImpl<>(List.of(pedido), PageRequest.of(1, 1), true);
+
+        // Act
+        PageResponseDTO<GenericPedidosResponseDto> result = mapper.toSliceDto(slice, "id", "desc");
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertEquals(-1, result.getTotalPages());
+        assertEquals(-1L, result.getTotalElements());
+        assertEquals(1, result.getPageNumber());
+        assertFalse(result.isFirst());
+        assertFalse(result.isLast());
+        assertEquals("desc", result.getDirection());
+    }
+
     @Test
     @DisplayName("toPageDto - Debe manejar ordenación descendente")
     void toPageDto_ShouldHandleDescendingSort() {
@@ -0,0 +1,163 @@
+package dev.luisvives.trabajoprogramacionsegundo.pedidos.repository;
+
+import dev.luisvives.trabajoprogramacionsegundo.BaseMongoRepositoryTest;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Cliente;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Direccion;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.LineaPedido;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Pedido;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que los índices declarados en {@link Pedido} se crean al arrancar y que las consultas
+ * de {@link PedidosRepository} los usan: el plan ganador de cada una tiene un <code>IXSCAN</code>
+ * sobre el índice esperado y no recorre la colección (<code>COLLSCAN</code>) ni ordena en memoria
+ * (<code>SORT</code>).
+ */
+@DisplayName("Índices de la colección pedidos")
+class PedidosIndicesTest extends BaseMongoRepositoryTest {
+
+    @Autowired
+    private PedidosRepository pedidosRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        pedidosRepository.deleteAll();
+
+        Cliente cliente = Cliente.builder().nombreCompleto("User").email("user@test.com").telefono("111111111")
+                .direccion(Direccion.builder().calle("Calle").numero("1").ciudad("Ciudad").codigoPostal("11111")
+                        .pais("Pais").provincia("Prov").build())
+                .build();
+        // Varios usuarios con varios pedidos, para que el planificador tenga algo que elegir
+        List<Pedido> pedidos = new ArrayList<>();
+        for (long usuario = 1; usuario <= 20; usuario++) {
+            for (int i = 0; i < 5; i++) {
+                Pedido pedido = Pedido.builder()
+                        .idUsuario(usuario)
+                        .cliente(cliente)
+                        .createdAt(LocalDateTime.now().minusDays(i))
+                        .build();
+                pedido.setLineasPedido(List.of(
+                        LineaPedido.builder().idProducto(usuario).cantidad(1).precioProducto(10.0).total(10.0).build(),
+                        LineaPedido.builder().idProducto(100L + i).cantidad(1).precioProducto(10.0).total(10.0).build()));
+                pedidos.add(pedido);
+            }
+        }
+        pedidosRepository.saveAll(pedidos);
+    }
+
+    @Test
+    @DisplayName("Los índices declarados en Pedido se crean automáticamente")
+    void indicesCreados() {
+        assertThat(mongoTemplate.indexOps(Pedido.class).getIndexInfo())
+                .extracting(IndexInfo::getName)
+                .contains("idUsuario_id", "idUsuario_createdAt", "lineasPedido_idProducto");
+    }
+
+    @Test
+    @DisplayName("findPedidosByIdUsuario con el orden por defecto usa idUsuario_id")
+    void pedidosDeUsuarioPorId() {
+        Document plan = explicarFind(new Document("idUsuario", 3L), new Document("_id", 1), null);
+
+        assertUsaIndice(plan, "idUsuario_id");
+    }
+
+    @Test
+    @DisplayName("findPedidosByIdUsuario ordenado por fecha usa idUsuario_createdAt")
+    void pedidosDeUsuarioPorFecha() {
+        Document plan = explicarFind(new Document("idUsuario", 3L), new Document("createdAt", -1), null);
+
+        assertUsaIndice(plan, "idUsuario_createdAt");
+    }
+
+    @Test
+    @DisplayName("El conteo de la página de pedidos de un usuario usa el índice")
+    void conteoPedidosDeUsuario() {
+        Document explicacion = mongoTemplate.getDb().runCommand(new Document("explain",
+                new Document("count", "pedidos").append("query", new Document("idUsuario", 3L))));
+
+        List<String> etapas = etapas(explicacion.get("queryPlanner", Document.class));
+        assertThat(etapas).doesNotContain("COLLSCAN");
+        assertThat(etapas).containsAnyOf("IXSCAN", "COUNT_SCAN");
+    }
+
+    @Test
+    @DisplayName("findIdsByIdUsuario se sirve solo desde el índice, sin leer documentos")
+    void idsDeUsuario() {
+        Document plan = explicarFind(new Document("idUsuario", 3L), null, new Document("_id", 1));
+
+        assertUsaIndice(plan, "idUsuario_id");
+        assertThat(etapas(plan)).doesNotContain("FETCH");
+    }
+
+    @Test
+    @DisplayName("existsByLineasPedidoIdProducto usa el índice multiclave de las líneas")
+    void pedidosConProducto() {
+        Document plan = explicarFind(new Document("lineasPedido.idProducto", 102L), null, null);
+
+        assertUsaIndice(plan, "lineasPedido_idProducto");
+    }
+
+    /**
+     * Plan ganador de un <code>find</code> sobre la colección de pedidos.
+     */
+    private Document explicarFind(Document filtro, Document orden, Document proyeccion) {
+        var find = mongoTemplate.getCollection("pedidos").find(filtro);
+        if (orden != null) {
+            find = find.sort(orden);
+        }
+        if (proyeccion != null) {
+            find = find.projection(proyeccion);
+        }
+        return find.explain().get("queryPlanner", Document.class);
+    }
+
+    private void assertUsaIndice(Document plan, String indice) {
+        List<String> etapas = etapas(plan);
+        assertThat(etapas).contains("IXSCAN").doesNotContain("COLLSCAN", "SORT");
+        assertThat(indices(plan)).containsOnly(indice);
+    }
+
+    /**
+     * Etapas del plan ganador, recorriendo sus etapas anidadas.
+     */
+    private static List<String> etapas(Document queryPlanner) {
+        List<String> etapas = new ArrayList<>();
+        recorrer(queryPlanner.get("winningPlan"), "stage", etapas);
+        return etapas;
+    }
+
+    /**
+     * Índices usados por el plan ganador.
+     */
+    private static List<String> indices(Document queryPlanner) {
+        List<String> indices = new ArrayList<>();
+        recorrer(queryPlanner.get("winningPlan"), "indexName", indices);
+        return indices;
+    }
+
+    private static void recorrer(Object nodo, String campo, List<String> valores) {
+        if (nodo instanceof Document documento) {
+            if (documento.get(campo) instanceof String valor) {
+                valores.add(valor);
+            }
+            documento.values().forEach(hijo -> recorrer(hijo, campo, valores));
+        } else if (nodo instanceof List<?> lista) {
+            lista.forEach(hijo -> recorrer(hijo, campo, valores));
+        }
+    }
+}
@@ -16,6 +16,8 @@ import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 
@@ -117,6 +119,34 @@ class PedidosRepositoryTest extends BaseMongoRepositoryTest {
         assertThat(pedidos).isEmpty();
     }
 
+    @Test
+    @DisplayName("existsByIdUsuario - Indica si el usuario tiene algún pedido")
+    void existsByIdUsuario() {
+        assertThat(pedidosRepository.existsByIdUsuario(USER_ID_1)).isTrue();
+        assertThat(pedidosRepository.existsByIdUsuario(USER_ID_3)).isFalse();
+    }
+
+    @Test
+    @DisplayName("existsByLineasPedidoIdProducto - Indica si algún pedido contiene el producto")
+    void existsByLineasPedidoIdProducto() {
+        assertThat(pedidosRepository.existsByLineasPedidoIdProducto(2L)).isTrue();
+        assertThat(pedidosRepository.existsByLineasPedidoIdProducto(99L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("findIdsByIdUsuario - Devuelve solo el id de los pedidos del usuario")
+    void findIdsByIdUsuario_SoloIds() {
+        List<Pedido> pedidos = pedidosRepository.findIdsByIdUsuario(USER_ID_1);
+
+        assertThat(pedidos).extracting(Pedido::getId)
+                .containsExactlyInAnyOrder(pedidoUser1_1.getId(), pedidoUser1_2.getId());
+        // El resto de campos no se lee de la base de datos
+        assertThat(pedidos).allSatisfy(pedido -> {
+            assertThat(pedido.getIdUsuario()).isNull();
+            assertThat(pedido.getCliente()).isNull();
+        });
+    }
+
     @Test
     @DisplayName("findPedidosByIdUsuario (Pageable) - Encuentra pedidos paginados")
     void findPedidosByIdUsuario_Pageable_UsuarioConPedidos() {
@@ -177,4 +207,31 @@ class PedidosRepositoryTest extends BaseMongoRepositoryTest {
         assertThat(paginaPedidos.getTotalPages()).isEqualTo(1);    // Solo 1 página
         assertThat(paginaPedidos.getContent()).hasSize(2);      // 2 elementos en la página
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("findByIdGreaterThan - Recorre los pedidos por cursor de id")
+    void findByIdGreaterThan_RecorrePorCursor() {
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
+
+        Slice<Pedido> primera = pedidosRepository.findAllBy(pageable);
+        Slice<Pedido> segunda = pedidosRepository.findByIdGreaterThan(primera.getContent().getLast().getId(), pageable);
+
+        assertThat(primera.getContent()).extracting(Pedido::getId)
+                .containsExactly(pedidoUser1_1.getId(), pedidoUser1_2.getId());
+        assertThat(primera.hasNext()).isTrue();
+        assertThat(segunda.getContent()).extracting(Pedido::getId).containsExactly(pedidoUser2.getId());
+        assertThat(segunda.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("findByIdLessThan - Recorre los pedidos por cursor de id en orden descendente")
+    void findByIdLessThan_RecorrePorCursorDescendente() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").descending());
+
+        Slice<Pedido> anteriores = pedidosRepository.findByIdLessThan(pedidoUser2.getId(), pageable);
+
+        assertThat(anteriores.getContent()).extracting(Pedido::getId)
+                .containsExactly(pedidoUser1_2.getId(), pedidoUser1_1.getId());
+        assertThat(anteriores.hasNext()).isFalse();
+    }
+}
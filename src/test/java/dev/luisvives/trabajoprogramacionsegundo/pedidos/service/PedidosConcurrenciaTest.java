@@ -0,0 +1,95 @@
+package dev.luisvives.trabajoprogramacionsegundo.pedidos.service;
+
+import dev.luisvives.trabajoprogramacionsegundo.BaseDatosTest;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.request.PostAndPutPedidoRequestDto;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.exceptions.PedidoException;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Cliente;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Direccion;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.LineaPedido;
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
+import dev.luisvives.trabajoprogramacionsegundo.productos.repository.ProductsRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas de integración de los cambios simultáneos de un mismo pedido: el servicio lo lee
+ * bloqueado, así que el stock no se devuelve ni se reserva dos veces.
+ */
+class PedidosConcurrenciaTest extends BaseDatosTest {
+
+    @Autowired
+    private PedidosService pedidosService;
+
+    @Autowired
+    private ProductsRepository productosRepository;
+
+    private Long idProducto;
+
+    @AfterEach
+    void tearDown() {
+        productosRepository.deleteById(idProducto);
+    }
+
+    @Test
+    @DisplayName("De dos borrados simultáneos del mismo pedido solo uno devuelve el stock")
+    void borradosSimultaneos() throws Exception {
+        idProducto = productosRepository.save(Producto.builder()
+                .nombre("Producto concurrencia")
+                .descripcion("Prueba de borrado de pedidos")
+                .precio(10.0)
+                .cantidad(10)
+                .imagen("default.png")
+                .build()).getId();
+        Cliente cliente = new Cliente("Pepe", "pepe@mail.com", "123456789",
+                new Direccion("calle", "1", "ciudad", "provincia", "pais", "01000"));
+        ObjectId idPedido = pedidosService.save(new PostAndPutPedidoRequestDto(
+                1L, cliente, List.of(LineaPedido.builder().idProducto(idProducto).cantidad(2).build())
+        )).getId();
+        assertThat(cantidad()).isEqualTo(8);
+
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> borrados = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                borrados.add(hilos.submit(() -> {
+                    salida.await();
+                    return pedidosService.delete(idPedido);
+                }));
+            }
+            salida.countDown();
+            int confirmados = 0;
+            for (Future<?> borrado : borrados) {
+                try {
+                    borrado.get(30, TimeUnit.SECONDS);
+                    confirmados++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(PedidoException.NotFoundException.class);
+                }
+            }
+            assertThat(confirmados).isEqualTo(1);
+        } finally {
+            hilos.shutdownNow();
+        }
+
+        assertThat(cantidad()).isEqualTo(10);
+    }
+
+    private int cantidad() {
+        return productosRepository.findCantidadById(idProducto).orElseThrow();
+    }
+}
@@ -0,0 +1,184 @@
+package dev.luisvives.trabajoprogramacionsegundo.pedidos.service;
+
+import dev.luisvives.trabajoprogramacionsegundo.common.email.OrderEmailService;
+import dev.luisvives.trabajoprogramacionsegundo.common.outbox.EventoOutbox;
+import dev.luisvives.trabajoprogramacionsegundo.common.outbox.EventoOutboxRepository;
+import dev.luisvives.trabajoprogramacionsegundo.common.outbox.Outbox;
+import dev.luisvives.trabajoprogramacionsegundo.notificaciones.config.WebSocketConfig;
+import dev.luisvives.trabajoprogramacionsegundo.notificaciones.config.WebSocketHandler;
+import dev.luisvives.trabajoprogramacionsegundo.notificaciones.models.Tipo;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Cliente;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Direccion;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.LineaPedido;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Pedido;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.repository.PedidosRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PedidosOutboxTest {
+
+    @Mock
+    private Outbox outbox;
+    @Mock
+    private EventoOutboxRepository eventosRepository;
+    @Mock
+    private PedidosRepository pedidosRepository;
+    @Mock
+    private OrderEmailService emailService;
+    @Mock
+    private WebSocketConfig webSocketConfig;
+    @Mock
+    private WebSocketHandler webSocketHandler;
+
+    private PedidosOutbox pedidosOutbox;
+
+    private final ObjectId id = new ObjectId();
+    private final String agregado = "pedido:" + id.toHexString();
+
+    private final Pedido pedido = Pedido.builder()
+            .id(id)
+            .idUsuario(1L)
+            .cliente(new Cliente("Pepe", "pepe@mail.com", "123456789",
+                    new Direccion("calle", "1", "ciudad", "provincia", "pais", "01000")))
+            .lineasPedido(List.of(new LineaPedido(2, 1L, 10.0, 20.0)))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        // Conversor real: el payload tiene que sobrevivir a la ida y vuelta igual que en MongoDB
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        when(webSocketConfig.webSocketPedidosHandler()).thenReturn(webSocketHandler);
+        pedidosOutbox = new PedidosOutbox(outbox, eventosRepository, pedidosRepository, converter, emailService, webSocketConfig);
+    }
+
+    @Test
+    @DisplayName("Un pedido nuevo registra su escritura, el email y la notificación, cada uno en su agregado")
+    void registrarGuardado_create() {
+        pedidosOutbox.registrarGuardado(pedido, Tipo.CREATE);
+
+        var orden = inOrder(outbox);
+        orden.verify(outbox).registrar(eq(agregado), eq(PedidosOutbox.GUARDAR), anyString());
+        orden.verify(outbox).registrar(eq(agregado + ":email"), eq(PedidosOutbox.EMAIL), anyString());
+        orden.verify(outbox).registrar(eq(agregado + ":notificaciones"), eq(PedidosOutbox.NOTIFICAR), anyString());
+    }
+
+    @Test
+    @DisplayName("Al actualizar un pedido no se vuelve a enviar el email de confirmación")
+    void registrarGuardado_update() {
+        pedidosOutbox.registrarGuardado(pedido, Tipo.UPDATE);
+
+        verify(outbox).registrar(eq(agregado), eq(PedidosOutbox.GUARDAR), anyString());
+        verify(outbox).registrar(eq(agregado + ":notificaciones"), eq(PedidosOutbox.NOTIFICAR), anyString());
+        verify(outbox, never()).registrar(any(), eq(PedidosOutbox.EMAIL), any());
+    }
+
+    @Test
+    @DisplayName("Bloquear un pedido bloquea el agregado de sus escrituras y borrados")
+    void bloquear() {
+        pedidosOutbox.bloquear(id);
+
+        verify(eventosRepository).bloquear(agregado);
+    }
+
+    @Test
+    @DisplayName("El evento de guardado escribe en MongoDB el pedido registrado")
+    void manejar_guardar() throws Exception {
+        pedidosOutbox.manejar(evento(PedidosOutbox.GUARDAR, Tipo.CREATE));
+
+        var guardado = ArgumentCaptor.forClass(Pedido.class);
+        verify(pedidosRepository).save(guardado.capture());
+        assertThat(guardado.getValue().getId()).isEqualTo(id);
+        assertThat(guardado.getValue().getCliente()).isEqualTo(pedido.getCliente());
+        assertThat(guardado.getValue().getLineasPedido()).isEqualTo(pedido.getLineasPedido());
+        assertThat(guardado.getValue().getTotal()).isEqualTo(pedido.getTotal());
+    }
+
+    @Test
+    @DisplayName("Los eventos de borrado, email y notificación llegan a su destino")
+    void manejar_otrosTipos() throws Exception {
+        pedidosOutbox.manejar(evento(PedidosOutbox.BORRAR, Tipo.DELETE));
+        pedidosOutbox.manejar(evento(PedidosOutbox.EMAIL, Tipo.CREATE));
+        pedidosOutbox.manejar(evento(PedidosOutbox.NOTIFICAR, Tipo.DELETE));
+
+        verify(pedidosRepository).deleteById(id);
+        verify(emailService).enviarConfirmacionPedidoHtml(any(Pedido.class));
+        verify(webSocketHandler).sendMessage(contains("\"type\":\"DELETE\""));
+    }
+
+    @Test
+    @DisplayName("Buscar devuelve la escritura pendiente en la outbox antes que MongoDB")
+    void buscar_escrituraPendiente() {
+        when(eventosRepository.findFirstByAgregadoAndTipoInAndEstadoOrderByIdDesc(
+                agregado, List.of(PedidosOutbox.GUARDAR, PedidosOutbox.BORRAR), EventoOutbox.Estado.PENDIENTE))
+                .thenReturn(Optional.of(evento(PedidosOutbox.GUARDAR, Tipo.CREATE)));
+
+        assertThat(pedidosOutbox.buscar(id)).get().extracting(Pedido::getId).isEqualTo(id);
+        verifyNoInteractions(pedidosRepository);
+    }
+
+    @Test
+    @DisplayName("Un pedido con un borrado pendiente ya no se encuentra")
+    void buscar_borradoPendiente() {
+        when(eventosRepository.findFirstByAgregadoAndTipoInAndEstadoOrderByIdDesc(
+                agregado, List.of(PedidosOutbox.GUARDAR, PedidosOutbox.BORRAR), EventoOutbox.Estado.PENDIENTE))
+                .thenReturn(Optional.of(evento(PedidosOutbox.BORRAR, Tipo.DELETE)));
+
+        assertThat(pedidosOutbox.buscar(id)).isEmpty();
+        verifyNoInteractions(pedidosRepository);
+    }
+
+    @Test
+    @DisplayName("Sin eventos pendientes, el pedido se lee de MongoDB")
+    void buscar_sinPendientes() {
+        when(eventosRepository.findFirstByAgregadoAndTipoInAndEstadoOrderByIdDesc(
+                agregado, List.of(PedidosOutbox.GUARDAR, PedidosOutbox.BORRAR), EventoOutbox.Estado.PENDIENTE))
+                .thenReturn(Optional.empty());
+        when(pedidosRepository.findById(id)).thenReturn(Optional.of(pedido));
+
+        assertThat(pedidosOutbox.buscar(id)).contains(pedido);
+    }
+
+    @Test
+    @DisplayName("Los aparcados se buscan en el agregado de las escrituras y borrados del pedido")
+    void tieneAparcados() {
+        when(eventosRepository.existsByAgregadoAndEstado(agregado, EventoOutbox.Estado.APARCADO)).thenReturn(true);
+
+        assertThat(pedidosOutbox.tieneAparcados(id)).isTrue();
+    }
+
+    /**
+     * Registra el pedido con el tipo indicado y devuelve el evento tal y como se habría guardado.
+     */
+    private EventoOutbox evento(String tipoEvento, Tipo tipo) {
+        if (tipo == Tipo.DELETE) {
+            pedidosOutbox.registrarBorrado(pedido);
+        } else {
+            pedidosOutbox.registrarGuardado(pedido, tipo);
+        }
+        var payload = ArgumentCaptor.forClass(String.class);
+        var agregadoEvento = ArgumentCaptor.forClass(String.class);
+        verify(outbox, atLeastOnce()).registrar(agregadoEvento.capture(), eq(tipoEvento), payload.capture());
+        clearInvocations(outbox);
+        return EventoOutbox.builder().agregado(agregadoEvento.getValue()).tipo(tipoEvento).payload(payload.getValue()).build();
+    }
+}
@@ -1,8 +1,9 @@
 package dev.luisvives.trabajoprogramacionsegundo.pedidos.service;
 
-import dev.luisvives.trabajoprogramacionsegundo.common.email.OrderEmailService;
-import dev.luisvives.trabajoprogramacionsegundo.notificaciones.config.WebSocketConfig;
-import dev.luisvives.trabajoprogramacionsegundo.notificaciones.config.WebSocketHandler;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.Cursor;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.CursorInvalidoException;
+import dev.luisvives.trabajoprogramacionsegundo.notificaciones.models.Tipo;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.request.PostAndPutPedidoRequestDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.DeletePedidosResponseDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.GenericPedidosResponseDto;
@@ -14,8 +15,8 @@ import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.LineaPedido;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.model.Pedido;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.repository.PedidosRepository;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.validator.PedidosValidator;
-import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
-import dev.luisvives.trabajoprogramacionsegundo.productos.repository.ProductsRepository;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.service.ProductoService;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -27,11 +28,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -43,19 +48,13 @@ class PedidosServiceImplTest {
     @Mock
     private PedidosRepository pedidoRepository;
     @Mock
-    private ProductsRepository productsRepository;
-    @Mock
-    private OrderEmailService emailService;
+    private ProductoService productoService;
     @Mock
     private PedidosMapper pedidosMapper;
     @Mock
-    private WebSocketConfig webSocketConfig;
-    @Mock
-    private WebSocketHandler webSocketHandler;
-    @Mock
-    private Producto productoMock; // Mock para la validación de productos
-    @Mock
     private PedidosValidator pedidosValidator;
+    @Mock
+    private PedidosOutbox pedidosOutbox;
 
     private PedidosServiceImpl pedidosServiceImpl;
 
@@ -77,6 +76,10 @@ class PedidosServiceImplTest {
 
     private final List<LineaPedido> lineasPedido = List.of(lineaPedido);
 
+    // Producto del catálogo para la validación de las líneas: 10.0 € y 5 unidades en stock
+    private final GENERICProductosResponseDTO producto = GENERICProductosResponseDTO.builder()
+            .id(idProducto).name("producto").price(10.0).cantidad(5).build();
+
     private final Pedido pedido = new Pedido(
             objectId, 1L, cliente, lineasPedido, 1, 10.0, LocalDateTime.now(), LocalDateTime.now(), false
     );
@@ -91,15 +94,13 @@ class PedidosServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        when(webSocketConfig.webSocketPedidosHandler()).thenReturn(webSocketHandler);
 
         pedidosServiceImpl = new PedidosServiceImpl(
                 pedidoRepository,
-                productsRepository,
-                emailService,
+                productoService,
                 pedidosMapper,
-                webSocketConfig,
-                pedidosValidator
+                pedidosValidator,
+                pedidosOutbox
         );
     }
 
@@ -125,11 +126,79 @@ class PedidosServiceImplTest {
         );
     }
 
+    @Test
+    @DisplayName("FindAllSlice - Devuelve los pedidos sin contar el total")
+    void findAllSlice() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        Slice<Pedido> slice = new SliceImpl<>(List.of(pedido), pageable, false);
+        when(pedidoRepository.findAllBy(pageable)).thenReturn(slice);
+        when(pedidosMapper.toResponse(pedido)).thenReturn(pedidoResponse);
+
+        // Act
+        Slice<GenericPedidosResponseDto> result = pedidosServiceImpl.findAllSlice(pageable);
+
+        // Assert
+        assertAll(
+                () -> assertEquals(1, result.getNumberOfElements()),
+                () -> assertFalse(result.hasNext()),
+                () -> verify(pedidoRepository, never()).findAll(pageable)
+        );
+    }
+
+    @Test
+    @DisplayName("FindAllCursor - Primera página ordenada por id con cursor de la siguiente")
+    void findAllCursor_PrimeraPagina() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("id").ascending());
+        Slice<Pedido> slice = new SliceImpl<>(List.of(pedido), pageable, true);
+        CursorPageResponseDTO<GenericPedidosResponseDto> cursorDto = new CursorPageResponseDTO<>();
+        when(pedidoRepository.findAllBy(pageable)).thenReturn(slice);
+        when(pedidosMapper.toCursorDto(eq(slice), anyString(), eq("asc"))).thenReturn(cursorDto);
+
+        // Act
+        CursorPageResponseDTO<GenericPedidosResponseDto> result = pedidosServiceImpl.findAllCursor(Optional.empty(), "asc", 1);
+
+        // Assert
+        assertSame(cursorDto, result);
+        verify(pedidosMapper).toCursorDto(eq(slice), argThat(siguiente ->
+                Cursor.decodificar(siguiente).id().equals(objectId.toHexString())), eq("asc"));
+        verify(pedidoRepository, never()).findByIdGreaterThan(any(), any());
+    }
+
+    @Test
+    @DisplayName("FindAllCursor - Con cursor descendente busca los pedidos anteriores al último")
+    void findAllCursor_ConCursorDescendente() {
+        // Arrange
+        String cursor = new Cursor("id", "desc", objectId.toHexString(), objectId.toHexString()).codificar();
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").descending());
+        Slice<Pedido> slice = new SliceImpl<>(List.of(), pageable, false);
+        CursorPageResponseDTO<GenericPedidosResponseDto> cursorDto = new CursorPageResponseDTO<>();
+        when(pedidoRepository.findByIdLessThan(objectId, pageable)).thenReturn(slice);
+        when(pedidosMapper.toCursorDto(slice, null, "desc")).thenReturn(cursorDto);
+
+        // Act
+        CursorPageResponseDTO<GenericPedidosResponseDto> result = pedidosServiceImpl.findAllCursor(Optional.of(cursor), "asc", 10);
+
+        // Assert
+        assertSame(cursorDto, result);
+        verify(pedidoRepository).findByIdLessThan(objectId, pageable);
+    }
+
+    @Test
+    @DisplayName("FindAllCursor - Cursor con un id que no es un ObjectId")
+    void findAllCursor_CursorInvalido() {
+        String cursor = new Cursor("id", "asc", "1", "1").codificar();
+
+        assertThrows(CursorInvalidoException.class, () -> pedidosServiceImpl.findAllCursor(Optional.of(cursor), "asc", 10));
+        verify(pedidoRepository, never()).findByIdGreaterThan(any(), any());
+    }
+
     @Test
     @DisplayName("FindById - Devuelve pedido")
     void findById_ShouldReturnPedido() {
         // Arrange
-        when(pedidoRepository.findById(objectId)).thenReturn(Optional.of(pedido));
+        when(pedidosOutbox.buscar(objectId)).thenReturn(Optional.of(pedido));
         when(pedidosMapper.toResponse(pedido)).thenReturn(pedidoResponse);
 
         // Act
@@ -139,7 +208,7 @@ class PedidosServiceImplTest {
         assertAll(
                 () -> assertNotNull(result),
                 () -> assertEquals(pedidoResponse.getId(), result.getId()),
-                () -> verify(pedidoRepository).findById(objectId),
+                () -> verify(pedidosOutbox).buscar(objectId),
                 () -> verify(pedidosMapper).toResponse(pedido)
         );
     }
@@ -148,7 +217,7 @@ class PedidosServiceImplTest {
     @DisplayName("FindById - Lanza NotFoundException")
     void findById_ShouldThrowNotFoundException() {
         // Arrange
-        when(pedidoRepository.findById(objectId)).thenReturn(Optional.empty());
+        when(pedidosOutbox.buscar(objectId)).thenReturn(Optional.empty());
 
         // Act & Assert
         var exception = assertThrows(PedidoException.NotFoundException.class, () -> {
@@ -156,23 +225,18 @@ class PedidosServiceImplTest {
         });
 
         assertEquals("SERVICE: No se encontró el pedido con id: " + objectId, exception.getMessage());
-        verify(pedidoRepository).findById(objectId);
+        verify(pedidosOutbox).buscar(objectId);
         verify(pedidosMapper, never()).toResponse(any());
     }
 
     @Test
-    @DisplayName("Save - Guarda pedido y envía email/websocket")
-    void save_ShouldSaveAndNotify() throws InterruptedException, IOException {
+    @DisplayName("Save - Reserva el stock y registra los eventos del pedido en la outbox")
+    void save_ShouldSaveAndNotify() {
         // Arrange
-        when(productsRepository.findById(idProducto)).thenReturn(Optional.of(productoMock)); // Validación OK
+        when(productoService.getByIds(Set.of(idProducto))).thenReturn(Map.of(idProducto, producto)); // Validación OK
         when(pedidosMapper.toModel(postAndPutRequestDto)).thenReturn(pedido);
-        when(pedidoRepository.save(pedido)).thenReturn(pedido);
         when(pedidosMapper.toResponse(pedido)).thenReturn(pedidoResponse);
 
-        // Mocks para los hilos asíncronos (email y websocket)
-        doNothing().when(emailService).enviarConfirmacionPedidoHtml(pedido);
-        doNothing().when(webSocketHandler).sendMessage(anyString());
-
         // Act
         GenericPedidosResponseDto result = pedidosServiceImpl.save(postAndPutRequestDto);
 
@@ -180,45 +244,151 @@ class PedidosServiceImplTest {
         assertAll(
                 () -> assertNotNull(result),
                 () -> assertEquals(pedidoResponse.getId(), result.getId()),
-                () -> verify(productsRepository).findById(idProducto),
-                // CORRECCIÓN 2: Verificar que se llama 2 veces
-                () -> verify(pedidosMapper, times(2)).toModel(postAndPutRequestDto),
-                () -> verify(pedidoRepository).save(pedido),
+                () -> verify(productoService).getByIds(Set.of(idProducto)),
+                () -> verify(productoService).reservarStock(Map.of(idProducto, 1)),
+                () -> verify(pedidosOutbox).registrarGuardado(pedido, Tipo.CREATE),
+                // MongoDB no se toca desde la petición: el pedido lo escribe el reparto de la outbox
+                () -> verifyNoInteractions(pedidoRepository),
                 () -> verify(pedidosMapper).toResponse(pedido)
         );
-
-        // Verificar llamadas asíncronas con timeout
-        verify(emailService, timeout(1000)).enviarConfirmacionPedidoHtml(pedido);
-        verify(webSocketHandler, timeout(1000)).sendMessage(anyString());
     }
 
     @Test
     @DisplayName("Save - Lanza NotFoundException si producto no existe")
     void save_ShouldThrowNotFoundExceptionIfProductMissing() {
         // Arrange
-        when(productsRepository.findById(idProducto)).thenReturn(Optional.empty()); // Validación KO
+        when(productoService.getByIds(Set.of(idProducto))).thenReturn(Map.of()); // Validación KO
 
         // Act & Assert
         var exception = assertThrows(PedidoException.NotFoundException.class, () -> {
             pedidosServiceImpl.save(postAndPutRequestDto);
         });
 
-        assertEquals("Producto no encontrado con id: " + idProducto, exception.getMessage());
-        verify(productsRepository).findById(idProducto);
-        verify(pedidoRepository, never()).save(any());
-        verify(emailService, never()).enviarConfirmacionPedidoHtml(any());
+        assertEquals("Productos no encontrados con id: [" + idProducto + "]", exception.getMessage());
+        verify(productoService).getByIds(Set.of(idProducto));
+        verify(pedidosOutbox, never()).registrarGuardado(any(), any());
+    }
+
+    @Test
+    @DisplayName("Save - Busca todos los productos de una vez e informa de todos los que no existen")
+    void save_ShouldReportAllMissingProducts() {
+        var lineas = List.of(
+                new LineaPedido(1, idProducto, 10.0, 10.0),
+                new LineaPedido(1, 2L, 5.0, 5.0),
+                new LineaPedido(1, 3L, 5.0, 5.0)
+        );
+        when(productoService.getByIds(Set.of(idProducto, 2L, 3L))).thenReturn(Map.of(idProducto, producto));
+
+        var exception = assertThrows(PedidoException.NotFoundException.class, () ->
+                pedidosServiceImpl.save(new PostAndPutPedidoRequestDto(1L, cliente, lineas)));
+
+        assertEquals("Productos no encontrados con id: [2, 3]", exception.getMessage());
+        verify(productoService, times(1)).getByIds(any());
+        verify(pedidosOutbox, never()).registrarGuardado(any(), any());
+    }
+
+    @Test
+    @DisplayName("Save - Lanza BadPriceException si el precio de la línea no es el del catálogo")
+    void save_ShouldThrowBadPriceExceptionIfPriceChanged() {
+        var lineas = List.of(new LineaPedido(1, idProducto, 8.0, 8.0));
+        when(productoService.getByIds(Set.of(idProducto))).thenReturn(Map.of(idProducto, producto));
+
+        var exception = assertThrows(PedidoException.BadPriceException.class, () ->
+                pedidosServiceImpl.save(new PostAndPutPedidoRequestDto(1L, cliente, lineas)));
+
+        assertEquals("El precio no coincide con el actual para los productos: [1 (recibido 8.0, actual 10.0)]", exception.getMessage());
+        verify(pedidosOutbox, never()).registrarGuardado(any(), any());
     }
 
     @Test
-    @DisplayName("Update - Actualiza pedido y envía websocket")
-    void update_ShouldUpdateAndNotify() throws IOException {
+    @DisplayName("Save - Una línea sin precio toma el del catálogo")
+    void save_ShouldFillOmittedPriceFromCatalog() {
+        var linea = LineaPedido.builder().cantidad(2).idProducto(idProducto).build();
+        var request = new PostAndPutPedidoRequestDto(1L, cliente, List.of(linea));
+        when(productoService.getByIds(Set.of(idProducto))).thenReturn(Map.of(idProducto, producto));
+        when(pedidosMapper.toModel(request)).thenReturn(pedido);
+        when(pedidosMapper.toResponse(pedido)).thenReturn(pedidoResponse);
+
+        pedidosServiceImpl.save(request);
+
+        assertEquals(10.0, linea.getPrecioProducto());
+        assertEquals(20.0, linea.getTotal());
+    }
+
+    @Test
+    @DisplayName("Save - Una línea con precio null toma el del catálogo")
+    void save_ShouldFillNullPriceFromCatalog() {
+        var linea = new LineaPedido(2, idProducto, null, null);
+        var request = new PostAndPutPedidoRequestDto(1L, cliente, List.of(linea));
+        when(productoService.getByIds(Set.of(idProducto))).thenReturn(Map.of(idProducto, producto));
+        when(pedidosMapper.toModel(request)).thenReturn(pedido);
+        when(pedidosMapper.toResponse(pedido)).thenReturn(pedidoResponse);
+
+        pedidosServiceImpl.save(request);
+
+        assertEquals(10.0, linea.getPrecioProducto());
+        assertEquals(20.0, linea.getTotal());
+        verify(pedidosOutbox).registrarGuardado(pedido, Tipo.CREATE);
+    }
+
+    @Test
+    @DisplayName("Save - Reserva las unidades sumadas por producto y lanza StockException si no hay stock")
+    void save_ShouldThrowStockExceptionIfNotEnoughStock() {
+        // 3 + 3 unidades del mismo producto en dos líneas
+        var lineas = List.of(
+                new LineaPedido(3, idProducto, 10.0, 30.0),
+                new LineaPedido(3, idProducto, 10.0, 30.0)
+        );
+        when(productoService.getByIds(Set.of(idProducto))).thenReturn(Map.of(idProducto, producto));
+        when(productoService.reservarStock(Map.of(idProducto, 6))).thenReturn(List.of(idProducto));
+
+        var exception = assertThrows(PedidoException.StockException.class, () ->
+                pedidosServiceImpl.save(new PostAndPutPedidoRequestDto(1L, cliente, lineas)));
+
+        assertEquals("No hay stock suficiente para los productos: [1]", exception.getMessage());
+        verify(pedidosOutbox, never()).registrarGuardado(any(), any());
+    }
+
+    @Test
+    @DisplayName("Update - Solo reserva la diferencia de unidades con las líneas anteriores")
+    void update_ShouldReserveOnlyTheDifference() {
+        // El pedido guardado tiene 1 unidad del producto 1; el nuevo pide 3 del 1 y 2 del 2
+        var lineas = List.of(
+                new LineaPedido(3, idProducto, 10.0, 30.0),
+                new LineaPedido(2, 2L, 5.0, 10.0)
+        );
+        var otro = GENERICProductosResponseDTO.builder().id(2L).price(5.0).cantidad(5).build();
+        when(productoService.getByIds(Set.of(idProducto, 2L))).thenReturn(Map.of(idProducto, producto, 2L, otro));
+        when(pedidosOutbox.buscar(objectId)).thenReturn(Optional.of(pedido));
+        when(productoService.reservarStock(Map.of(idProducto, 2, 2L, 2))).thenReturn(List.of(2L));
+
+        assertThrows(PedidoException.StockException.class, () ->
+                pedidosServiceImpl.update(objectId, new PostAndPutPedidoRequestDto(1L, cliente, lineas)));
+
+        verify(pedidosOutbox, never()).registrarGuardado(any(), any());
+    }
+
+    @Test
+    @DisplayName("Save - El total de cada línea se recalcula con el precio del catálogo")
+    void save_ShouldRecalculateLineTotals() {
+        var linea = new LineaPedido(2, idProducto, 10.0, 999.0);
+        var request = new PostAndPutPedidoRequestDto(1L, cliente, List.of(linea));
+        when(productoService.getByIds(Set.of(idProducto))).thenReturn(Map.of(idProducto, producto));
+        when(pedidosMapper.toModel(request)).thenReturn(pedido);
+        when(pedidosMapper.toResponse(pedido)).thenReturn(pedidoResponse);
+
+        pedidosServiceImpl.save(request);
+
+        assertEquals(20.0, linea.getTotal());
+    }
+
+    @Test
+    @DisplayName("Update - Actualiza pedido y registra sus eventos en la outbox")
+    void update_ShouldUpdateAndNotify() {
         // Arrange
-        when(pedidoRepository.findById(objectId)).thenReturn(Optional.of(pedido));
-        when(productsRepository.findById(idProducto)).thenReturn(Optional.of(productoMock)); // Validación OK
-        when(pedidosMapper.toModel(postAndPutRequestDto)).thenReturn(pedido);
-        when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedido); // 'any' porque se actualiza internamente
+        when(pedidosOutbox.buscar(objectId)).thenReturn(Optional.of(pedido));
+        when(productoService.getByIds(Set.of(idProducto))).thenReturn(Map.of(idProducto, producto)); // Validación OK
         when(pedidosMapper.toResponse(pedido)).thenReturn(pedidoResponse);
-        doNothing().when(webSocketHandler).sendMessage(anyString());
 
         // Act
         GenericPedidosResponseDto result = pedidosServiceImpl.update(objectId, postAndPutRequestDto);
@@ -227,22 +397,24 @@ class PedidosServiceImplTest {
         assertAll(
                 () -> assertNotNull(result),
                 () -> assertEquals(pedidoResponse.getId(), result.getId()),
-                () -> verify(pedidoRepository).findById(objectId),
-                () -> verify(productsRepository).findById(idProducto),
-                () -> verify(pedidoRepository).save(any(Pedido.class)),
+                () -> {
+                    var orden = inOrder(pedidosOutbox);
+                    orden.verify(pedidosOutbox).bloquear(objectId);
+                    orden.verify(pedidosOutbox).buscar(objectId);
+                },
+                () -> verify(productoService).getByIds(Set.of(idProducto)),
+                () -> verify(pedidosOutbox).registrarGuardado(pedido, Tipo.UPDATE),
+                () -> verifyNoInteractions(pedidoRepository),
                 () -> verify(pedidosMapper).toResponse(pedido)
         );
-
-        // Verificar llamada asíncrona con timeout
-        verify(webSocketHandler, timeout(1000)).sendMessage(anyString());
     }
 
     @Test
     @DisplayName("Update - Lanza NotFoundException si pedido no existe")
     void update_ShouldThrowNotFoundExceptionIfPedidoMissing() {
         // Arrange
-        when(productsRepository.findById(idProducto)).thenReturn(Optional.of(productoMock));
-        when(pedidoRepository.findById(objectId)).thenReturn(Optional.empty());
+        when(productoService.getByIds(Set.of(idProducto))).thenReturn(Map.of(idProducto, producto));
+        when(pedidosOutbox.buscar(objectId)).thenReturn(Optional.empty());
 
         // Act & Assert
         var exception = assertThrows(PedidoException.NotFoundException.class, () -> {
@@ -251,36 +423,49 @@ class PedidosServiceImplTest {
 
         // Ahora el mensaje de excepción esperado será el correcto
         assertEquals("Pedido no encontrado con id: " + objectId, exception.getMessage());
-        verify(pedidoRepository).findById(objectId);
-        verify(productsRepository).findById(idProducto); // Se verifica que la validación se intentó
-        verify(pedidoRepository, never()).save(any());
+        verify(pedidosOutbox).buscar(objectId);
+        verify(productoService).getByIds(Set.of(idProducto)); // Se verifica que la validación se intentó
+        verify(pedidosOutbox, never()).registrarGuardado(any(), any());
+    }
+
+    @Test
+    @DisplayName("Update - Lanza ParkedException si el pedido tiene eventos aparcados")
+    void update_ShouldThrowParkedExceptionIfPedidoHasParkedEvents() {
+        // Arrange
+        when(productoService.getByIds(Set.of(idProducto))).thenReturn(Map.of(idProducto, producto));
+        when(pedidosOutbox.tieneAparcados(objectId)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(PedidoException.ParkedException.class, () -> pedidosServiceImpl.update(objectId, postAndPutRequestDto));
+
+        verify(pedidosOutbox, never()).buscar(any());
+        verify(productoService, never()).reservarStock(any());
+        verify(pedidosOutbox, never()).registrarGuardado(any(), any());
     }
 
     @Test
     @DisplayName("Update - Lanza NotFoundException si producto no existe")
     void update_ShouldThrowNotFoundExceptionIfProductMissing() {
         // Arrange
-        when(productsRepository.findById(idProducto)).thenReturn(Optional.empty()); // Validación KO
+        when(productoService.getByIds(Set.of(idProducto))).thenReturn(Map.of()); // Validación KO
 
         // Act & Assert
         var exception = assertThrows(PedidoException.NotFoundException.class, () -> {
             pedidosServiceImpl.update(objectId, postAndPutRequestDto);
         });
 
-        assertEquals("Producto no encontrado con id: " + idProducto, exception.getMessage());
-        verify(productsRepository).findById(idProducto);
-        verify(pedidoRepository, never()).save(any());
+        assertEquals("Productos no encontrados con id: [" + idProducto + "]", exception.getMessage());
+        verify(productoService).getByIds(Set.of(idProducto));
+        verify(pedidosOutbox, never()).registrarGuardado(any(), any());
     }
 
 
     @Test
-    @DisplayName("Delete - Elimina pedido y envía websocket")
-    void delete_ShouldDeleteAndNotify() throws IOException {
+    @DisplayName("Delete - Devuelve el stock y registra el borrado en la outbox")
+    void delete_ShouldDeleteAndNotify() {
         // Arrange
-        when(pedidoRepository.findById(objectId)).thenReturn(Optional.of(pedido));
-        doNothing().when(pedidoRepository).delete(pedido);
+        when(pedidosOutbox.buscar(objectId)).thenReturn(Optional.of(pedido));
         when(pedidosMapper.toResponse(pedido)).thenReturn(pedidoResponse);
-        doNothing().when(webSocketHandler).sendMessage(anyString());
 
         // Act
         DeletePedidosResponseDto result = pedidosServiceImpl.delete(objectId);
@@ -290,20 +475,23 @@ class PedidosServiceImplTest {
                 () -> assertNotNull(result),
                 () -> assertEquals(pedidoResponse, result.getGenericPedidosResponseDto()),
                 () -> assertEquals("Pedido con id: " + objectId + " eliminado correctamente.", result.getMessage()),
-                () -> verify(pedidoRepository).findById(objectId),
-                () -> verify(pedidoRepository).delete(pedido),
+                () -> {
+                    var orden = inOrder(pedidosOutbox);
+                    orden.verify(pedidosOutbox).bloquear(objectId);
+                    orden.verify(pedidosOutbox).buscar(objectId);
+                },
+                () -> verify(productoService).liberarStock(Map.of(idProducto, 1)),
+                () -> verify(pedidosOutbox).registrarBorrado(pedido),
+                () -> verifyNoInteractions(pedidoRepository),
                 () -> verify(pedidosMapper).toResponse(pedido)
         );
-
-        // Verificar llamada asíncrona con timeout
-        verify(webSocketHandler, timeout(1000)).sendMessage(anyString());
     }
 
     @Test
     @DisplayName("Delete - Lanza NotFoundException si pedido no existe")
     void delete_ShouldThrowNotFoundException() {
         // Arrange
-        when(pedidoRepository.findById(objectId)).thenReturn(Optional.empty());
+        when(pedidosOutbox.buscar(objectId)).thenReturn(Optional.empty());
 
         // Act & Assert
         var exception = assertThrows(PedidoException.NotFoundException.class, () -> {
@@ -311,8 +499,21 @@ class PedidosServiceImplTest {
         });
 
         assertEquals("Pedido no encontrado con id: " + objectId, exception.getMessage());
-        verify(pedidoRepository).findById(objectId);
-        verify(pedidoRepository, never()).delete(any());
+        verify(pedidosOutbox).buscar(objectId);
+        verify(pedidosOutbox, never()).registrarBorrado(any());
         verify(pedidosMapper, never()).toResponse(any());
     }
+
+    @Test
+    @DisplayName("Delete - Lanza ParkedException si el pedido tiene eventos aparcados")
+    void delete_ShouldThrowParkedException() {
+        // Arrange
+        when(pedidosOutbox.tieneAparcados(objectId)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(PedidoException.ParkedException.class, () -> pedidosServiceImpl.delete(objectId));
+
+        verify(productoService, never()).liberarStock(any());
+        verify(pedidosOutbox, never()).registrarBorrado(any());
+    }
 }
\ No newline at end of file
@@ -413,26 +413,11 @@ class PedidosValidatorTest {
         }
 
         @Test
-        @DisplayName("Precio de Producto Nulo lanza ValidationException")
-        void validarLineas_PrecioNulo_LanzaValidationException() {
-            // NO usamos lineaValida.setPrecioProducto(null); por la misma razón (NPE).
+        @DisplayName("Precio de Producto Nulo es válido (se toma el del catálogo)")
+        void validarLineas_PrecioNulo_EsValido() {
+            lineaValida.setPrecioProducto(null);
 
-            // Creamos una línea inválida usando el constructor @AllArgsConstructor
-            LineaPedido lineaInvalida = new LineaPedido(
-                    lineaValida.getCantidad(), // cantidad
-                    lineaValida.getIdProducto(), // idProducto
-                    null, // precioProducto
-                    lineaValida.getTotal() // total
-            );
-
-            // Reemplazamos la línea en el DTO
-            pedidoDto.getLineaPedido().clear();
-            pedidoDto.getLineaPedido().add(lineaInvalida);
-
-            // Probamos el validador
-            assertThatExceptionOfType(ValidationException.class)
-                    .isThrownBy(() -> validator.validarPedido(pedidoDto))
-                    .withMessageContaining("'precioProducto' no es válido");
+            assertDoesNotThrow(() -> validator.validarPedido(pedidoDto));
         }
 
         @Test
@@ -1,6 +1,9 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.luisvives.trabajoprogramacionsegundo.common.cache.CatalogoGeneracion;
+import dev.luisvives.trabajoprogramacionsegundo.common.http.ListadosHttpPropiedades;
+import dev.luisvives.trabajoprogramacionsegundo.common.http.RespuestaListado;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.DELETEcategoryResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.GENERICcategoryResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.PATCHcategoryRequestDTO;
@@ -10,20 +13,24 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,7 +42,9 @@ class CategoriesRestControllerTest {
     @Mock
     private CategoriesService categoryService;
 
-    @InjectMocks
+    @Mock
+    private CatalogoGeneracion catalogoGeneracion;
+
     private CategoriesRestController categoryController;
 
     private final ObjectMapper mapper = new ObjectMapper();
@@ -48,6 +57,8 @@ class CategoriesRestControllerTest {
 
     @BeforeEach
     void setUp() {
+        categoryController = new CategoriesRestController(categoryService,
+                new RespuestaListado(catalogoGeneracion, new ListadosHttpPropiedades()));
         mockMvc = MockMvcBuilders.standaloneSetup(categoryController).build();
 
         cat = new GENERICcategoryResponseDTO();
@@ -67,6 +78,48 @@ class CategoriesRestControllerTest {
                 .andExpect(jsonPath("$[0].id").value(validId));
     }
 
+    @Test
+    @DisplayName("GET /categories?withCounts=true&withPrices=true devuelve los recuentos y precios")
+    void getAllConRecuentos() throws Exception {
+        cat.setProductCount(3L);
+        cat.setMinPrice(9.5);
+        cat.setMaxPrice(40.0);
+        when(categoryService.getAll(true, true)).thenReturn(List.of(cat));
+
+        mockMvc.perform(get("/categories").param("withCounts", "true").param("withPrices", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productCount").value(3))
+                .andExpect(jsonPath("$[0].minPrice").value(9.5))
+                .andExpect(jsonPath("$[0].maxPrice").value(40.0));
+
+        verify(categoryService, never()).getAll();
+    }
+
+    @Test
+    @DisplayName("GET /categories sin parámetros no incluye recuentos")
+    void getAllSinRecuentos() throws Exception {
+        when(categoryService.getAll()).thenReturn(List.of(cat));
+
+        mockMvc.perform(get("/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productCount").doesNotExist())
+                .andExpect(jsonPath("$[0].minPrice").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /categories con el ETag de la generación actual devuelve 304 sin consultar")
+    void getAllNoModificado() throws Exception {
+        when(catalogoGeneracion.actual()).thenReturn(7L);
+
+        mockMvc.perform(get("/categories").header(HttpHeaders.IF_NONE_MATCH, "\"catalogo-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"catalogo-7\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=30")))
+                .andExpect(content().string(""));
+
+        verify(categoryService, never()).getAll();
+    }
+
     // 🔹 GET /categories/{id}
     @Test
     @DisplayName("GET /categories/{id} devuelve la categoría por id")
@@ -79,6 +132,40 @@ class CategoriesRestControllerTest {
                 .andExpect(jsonPath("$.name").value("ANIME"));
     }
 
+    @Test
+    @DisplayName("GET /categories/{id} con el ETag de la versión actual devuelve 304 sin cuerpo")
+    void getByIdNoModificada() throws Exception {
+        cat.setFechaModificacion(LocalDateTime.of(2025, 11, 20, 10, 30));
+        when(categoryService.getById(validId)).thenReturn(cat);
+
+        String etag = mockMvc.perform(get("/categories/" + validId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/categories/" + validId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("GET /categories/{id} con un ETag antiguo devuelve la categoría modificada")
+    void getByIdModificada() throws Exception {
+        cat.setFechaModificacion(LocalDateTime.of(2025, 11, 20, 10, 30));
+        when(categoryService.getById(validId)).thenReturn(cat);
+        String etag = mockMvc.perform(get("/categories/" + validId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        cat.setName("SERIES");
+        cat.setFechaModificacion(LocalDateTime.of(2025, 11, 21, 9, 0));
+
+        mockMvc.perform(get("/categories/" + validId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("SERIES"));
+    }
+
     // POST /categories
     @Test
     @DisplayName("POST /categories crea una nueva categoría")
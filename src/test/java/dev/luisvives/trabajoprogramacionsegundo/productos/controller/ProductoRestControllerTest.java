@@ -1,13 +1,26 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.luisvives.trabajoprogramacionsegundo.common.cache.CatalogoGeneracion;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.http.ListadosHttpPropiedades;
+import dev.luisvives.trabajoprogramacionsegundo.common.http.RespuestaListado;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.CursorInvalidoException;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas.FacetaCategoriaDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas.FacetaPrecioDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas.FacetasResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.importacion.ErrorFilaDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.importacion.ImportacionResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios.AjustePreciosRequestDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios.AjustePreciosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.DELETEProductoResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.PATCHProductoRequestDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.POSTandPUTProductoRequestDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.mapper.ProductoMapper;
-import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
+import dev.luisvives.trabajoprogramacionsegundo.productos.service.FormatoExportacion;
+import dev.luisvives.trabajoprogramacionsegundo.productos.service.ProductoImportacionService;
 import dev.luisvives.trabajoprogramacionsegundo.productos.service.ProductoService;
 import dev.luisvives.trabajoprogramacionsegundo.usuarios.service.auth.JwtService;
 import dev.luisvives.trabajoprogramacionsegundo.usuarios.service.auth.UserServiceImpl;
@@ -24,17 +37,25 @@ import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -47,6 +68,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * <p>
  * Se utiliza {@link WebMvcTest} para cargar únicamente el contexto web necesario,
  * y {@link MockitoBean} para simular las dependencias del servicio y mapper.
+ * Las respuestas de los listados se construyen con el {@link RespuestaListado} real sobre
+ * una {@link CatalogoGeneracion} simulada.
  * </p>
  */
 @WebMvcTest(
@@ -62,6 +85,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
                 RedisRepositoriesAutoConfiguration.class
         }
 )
+@Import({RespuestaListado.class, ListadosHttpPropiedades.class})
 class ProductoRestControllerTest {
 
     @Autowired
@@ -79,6 +103,12 @@ class ProductoRestControllerTest {
     @MockitoBean
     private ProductoMapper mapper;
 
+    @MockitoBean
+    private ProductoImportacionService importacionService;
+
+    @MockitoBean
+    private CatalogoGeneracion catalogoGeneracion;
+
     @MockitoBean
     private JwtService jwtService;
 
@@ -128,13 +158,7 @@ class ProductoRestControllerTest {
     @DisplayName("GET /productos - Obtener todos los productos paginados - OK")
     void getAllProductos_ShouldReturnPagedProducts() throws Exception {
         // Arrange
-        Producto producto = new Producto();
-        producto.setId(1L);
-        producto.setNombre("Producto Test");
-        producto.setPrecio(99.99);
-
         var responseList = List.of(productoResponseDTO);
-        var page = new PageImpl<>(List.of(producto));
         var pageDto = new PageResponseDTO<>(
                 responseList,
                 0,
@@ -149,8 +173,7 @@ class ProductoRestControllerTest {
                 "asc"
         );
 
-        when(service.findAll(any(), any(), any(), any(Pageable.class))).thenReturn(page);
-        when(mapper.pageToDTO(any(), eq("id"), eq("asc"))).thenReturn(pageDto);
+        when(service.findAllDto(any(), any(), any(), any(Pageable.class))).thenReturn(pageDto);
 
         // Act & Assert
         mockMvc.perform(get("/productos")
@@ -164,21 +187,105 @@ class ProductoRestControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.totalElements").value(10));
 
-        verify(service).findAll(any(), any(), any(), any(Pageable.class));
-        verify(mapper).pageToDTO(any(), eq("id"), eq("asc"));
+        verify(service).findAllDto(any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("GET /productos - Sin conteo - OK")
+    void getAllProductos_WithoutCount_ShouldReturnSlice() throws Exception {
+        // Arrange
+        var responseList = List.of(productoResponseDTO);
+        var pageDto = new PageResponseDTO<>(
+                responseList,
+                -1,
+                -1L,
+                10,
+                0,
+                responseList.size(),
+                false,
+                true,
+                false,
+                "id",
+                "asc"
+        );
+
+        when(service.findAllSliceDto(any(), any(), any(), any(Pageable.class))).thenReturn(pageDto);
+
+        // Act & Assert
+        mockMvc.perform(get("/productos")
+                        .with(user("testuser").roles("USER"))
+                        .param("withCount", "false")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(-1))
+                .andExpect(jsonPath("$.last").value(false));
+
+        verify(service).findAllSliceDto(any(), any(), any(), any(Pageable.class));
+        verify(service, never()).findAllDto(any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("GET /productos - ETag de la generación del catálogo y Cache-Control - OK")
+    void getAllProductos_ShouldReturnCatalogEtagAndCacheControl() throws Exception {
+        // Arrange
+        when(catalogoGeneracion.actual()).thenReturn(4L);
+        when(service.findAllDto(any(), any(), any(), any(Pageable.class)))
+                .thenReturn(new PageResponseDTO<>(List.of(productoResponseDTO), 0, 1L, 1, 10, 1, false, true, false, "id", "asc"));
+
+        // Act & Assert
+        mockMvc.perform(get("/productos")
+                        .with(user("testuser").roles("USER"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"catalogo-4\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=30")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("stale-while-revalidate=60")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("public")));
+    }
+
+    @Test
+    @DisplayName("GET /productos - Con el ETag de la generación actual - Not Modified (304) sin consultar")
+    void getAllProductos_WithCurrentEtag_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        when(catalogoGeneracion.actual()).thenReturn(4L);
+
+        // Act & Assert
+        mockMvc.perform(get("/productos")
+                        .with(user("testuser").roles("USER"))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"catalogo-4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"catalogo-4\""))
+                .andExpect(header().exists(HttpHeaders.CACHE_CONTROL))
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    @DisplayName("GET /productos/facetas - Con el ETag de una generación anterior - OK")
+    void getFacetas_WithStaleEtag_ShouldReturnCounts() throws Exception {
+        // Arrange: el catálogo ha cambiado desde que el cliente guardó la respuesta
+        when(catalogoGeneracion.actual()).thenReturn(5L);
+        when(service.findFacetas(any(), any(), any())).thenReturn(FacetasResponseDTO.builder()
+                .categories(List.of())
+                .prices(List.of())
+                .build());
+
+        // Act & Assert
+        mockMvc.perform(get("/productos/facetas")
+                        .with(user("testuser").roles("USER"))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"catalogo-4\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"catalogo-5\""));
+
+        verify(service).findFacetas(any(), any(), any());
     }
 
     @Test
     @DisplayName("GET /productos - Con filtros - OK")
     void getAllProductos_WithFilters_ShouldReturnFilteredProducts() throws Exception {
         // Arrange
-        Producto producto = new Producto();
-        producto.setId(1L);
-        producto.setNombre("Producto Test");
-        producto.setPrecio(99.99);
-
         var responseList = List.of(productoResponseDTO);
-        var page = new PageImpl<>(List.of(producto));
         var pageDto = new PageResponseDTO<>(
                 responseList,
                 0,
@@ -193,8 +300,7 @@ class ProductoRestControllerTest {
                 "asc"
         );
 
-        when(service.findAll(any(), any(), any(), any(Pageable.class))).thenReturn(page);
-        when(mapper.pageToDTO(any(), eq("id"), eq("asc"))).thenReturn(pageDto);
+        when(service.findAllDto(any(), any(), any(), any(Pageable.class))).thenReturn(pageDto);
 
         // Act & Assert
         mockMvc.perform(get("/productos")
@@ -209,7 +315,7 @@ class ProductoRestControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.content[0].name").value("Producto Test"));
 
-        verify(service).findAll(any(), any(), any(), any(Pageable.class));
+        verify(service).findAllDto(any(), any(), any(), any(Pageable.class));
     }
 
     @Test
@@ -233,6 +339,50 @@ class ProductoRestControllerTest {
         verify(service).getById(1L);
     }
 
+    @Test
+    @DisplayName("GET /productos/{id} - Con el ETag de la versión actual - Not Modified (304)")
+    void getById_WithCurrentEtag_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        productoResponseDTO.setFechaModificacion(LocalDateTime.of(2025, 11, 20, 10, 30));
+        when(service.getById(1L)).thenReturn(productoResponseDTO);
+
+        String etag = mockMvc.perform(get("/productos/{id}", 1L)
+                        .with(user("testuser").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        mockMvc.perform(get("/productos/{id}", 1L)
+                        .with(user("testuser").roles("USER"))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("GET /productos/{id} - Con un ETag antiguo - OK con el producto modificado")
+    void getById_WithStaleEtag_ShouldReturnProduct() throws Exception {
+        // Arrange
+        productoResponseDTO.setFechaModificacion(LocalDateTime.of(2025, 11, 20, 10, 30));
+        when(service.getById(1L)).thenReturn(productoResponseDTO);
+        String etag = mockMvc.perform(get("/productos/{id}", 1L)
+                        .with(user("testuser").roles("USER")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Cambia el nombre de la categoría sin cambiar la fecha del producto
+        productoResponseDTO.setCategory("Otra categoría");
+
+        // Act & Assert
+        mockMvc.perform(get("/productos/{id}", 1L)
+                        .with(user("testuser").roles("USER"))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category").value("Otra categoría"));
+    }
+
     @Test
     @DisplayName("GET /productos/{id} - Producto no encontrado - Not Found (404)")
     void getById_WhenNotFound_ShouldReturnNotFound() throws Exception {
@@ -466,12 +616,7 @@ class ProductoRestControllerTest {
     @DisplayName("GET /productos - Con ordenación descendente - OK")
     void getAllProductos_WithDescendingOrder_ShouldWork() throws Exception {
         // Arrange
-        Producto producto = new Producto();
-        producto.setId(1L);
-        producto.setNombre("Producto Test");
-
         var responseList = List.of(productoResponseDTO);
-        var page = new PageImpl<>(List.of(producto));
         var pageDto = new PageResponseDTO<>(
                 responseList,
                 0,
@@ -486,8 +631,7 @@ class ProductoRestControllerTest {
                 "desc"
         );
 
-        when(service.findAll(any(), any(), any(), any(Pageable.class))).thenReturn(page);
-        when(mapper.pageToDTO(any(), eq("price"), eq("desc"))).thenReturn(pageDto);
+        when(service.findAllDto(any(), any(), any(), any(Pageable.class))).thenReturn(pageDto);
 
         // Act & Assert
         mockMvc.perform(get("/productos")
@@ -497,7 +641,220 @@ class ProductoRestControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
-        verify(service).findAll(any(), any(), any(), any(Pageable.class));
-        verify(mapper).pageToDTO(any(), eq("price"), eq("desc"));
+        verify(service).findAllDto(any(), any(), any(),
+                argThat(pageable -> pageable.getSort().equals(Sort.by("price").descending())));
+    }
+
+    @Test
+    @DisplayName("GET /productos/search - Búsqueda por texto - OK")
+    void search_ShouldReturnRankedProducts() throws Exception {
+        // Arrange
+        var responseList = List.of(productoResponseDTO);
+        var pageDto = new PageResponseDTO<>(
+                responseList,
+                1,
+                1L,
+                10,
+                0,
+                responseList.size(),
+                false,
+                true,
+                true,
+                "relevancia",
+                "desc"
+        );
+
+        when(service.search(eq("laptop"), any(Pageable.class))).thenReturn(pageDto);
+
+        // Act & Assert
+        mockMvc.perform(get("/productos/search")
+                        .with(user("testuser").roles("USER"))
+                        .param("q", "laptop")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Producto Test"))
+                .andExpect(jsonPath("$.sortBy").value("relevancia"));
+
+        verify(service).search(eq("laptop"), argThat(pageable -> pageable.getPageNumber() == 0 && pageable.getPageSize() == 10));
+    }
+
+    @Test
+    @DisplayName("GET /productos/search - Sin texto - 400")
+    void search_WithoutQuery_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/productos/search")
+                        .with(user("testuser").roles("USER"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).search(any(), any());
+    }
+
+    @Test
+    @DisplayName("GET /productos/facetas - Recuentos por categoría y tramo de precio - OK")
+    void getFacetas_ShouldReturnCounts() throws Exception {
+        var facetas = new FacetasResponseDTO(
+                3,
+                List.of(new FacetaCategoriaDTO("Categoría Test", 3)),
+                List.of(new FacetaPrecioDTO(null, 10.0, 1), new FacetaPrecioDTO(10.0, null, 2))
+        );
+        when(service.findFacetas(Optional.empty(), Optional.of(150.0), Optional.empty())).thenReturn(facetas);
+
+        mockMvc.perform(get("/productos/facetas")
+                        .with(user("testuser").roles("USER"))
+                        .param("maxPrice", "150.0")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.categories[0].category").value("Categoría Test"))
+                .andExpect(jsonPath("$.prices[1].min").value(10.0))
+                .andExpect(jsonPath("$.prices[1].count").value(2));
+
+        verify(service).findFacetas(Optional.empty(), Optional.of(150.0), Optional.empty());
+    }
+
+    @Test
+    @DisplayName("POST /productos/importar - Importar CSV - OK con el resumen")
+    void importarCsv_ShouldReturnSummary() throws Exception {
+        var resumen = new ImportacionResponseDTO(2, 1, 1,
+                List.of(new ErrorFilaDTO(3, "La categoría PERIFERICOS no existe.")), 5, 400.0);
+        when(importacionService.importarCsv(any())).thenReturn(resumen);
+
+        mockMvc.perform(post("/productos/importar")
+                        .with(user("testuser").roles("ADMIN"))
+                        .with(csrf())
+                        .contentType("text/csv")
+                        .content("name,price,category\nSilla,10,MUEBLES\nRatón,5,PERIFERICOS\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(3));
+
+        verify(importacionService).importarCsv(any());
+        verify(importacionService, never()).importarNdjson(any());
+    }
+
+    @Test
+    @DisplayName("POST /productos/importar - Importar NDJSON - OK")
+    void importarNdjson_ShouldCallNdjsonImport() throws Exception {
+        when(importacionService.importarNdjson(any())).thenReturn(new ImportacionResponseDTO(1, 1, 0, List.of(), 1, 1000.0));
+
+        mockMvc.perform(post("/productos/importar")
+                        .with(user("testuser").roles("ADMIN"))
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"Silla\",\"price\":10,\"category\":\"MUEBLES\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read").value(1));
+
+        verify(importacionService).importarNdjson(any());
+    }
+
+    @Test
+    @DisplayName("PATCH /productos/precios - Ajustar precios de una categoría - OK")
+    void ajustarPrecios_ShouldReturnUpdatedCount() throws Exception {
+        when(service.ajustarPrecios(any(AjustePreciosRequestDTO.class))).thenReturn(new AjustePreciosResponseDTO(12));
+
+        mockMvc.perform(patch("/productos/precios")
+                        .with(user("testuser").roles("ADMIN"))
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"category\":\"MUEBLES\",\"percentage\":15}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(12));
+
+        verify(service).ajustarPrecios(AjustePreciosRequestDTO.builder().category("MUEBLES").percentage(15.0).build());
+        verify(service, never()).patch(any(), any());
+    }
+
+    @Test
+    @DisplayName("PATCH /productos/precios - Rebaja de más del 100% - Bad Request")
+    void ajustarPrecios_WhenPercentageTooLow_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(patch("/productos/precios")
+                        .with(user("testuser").roles("ADMIN"))
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"percentage\":-150}"))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).ajustarPrecios(any());
+    }
+
+    @Test
+    @DisplayName("GET /productos/exportar - Exportar CSV - Escribe el fichero como adjunto")
+    void exportarCsv_ShouldStreamAttachment() throws Exception {
+        doAnswer(inv -> {
+            OutputStream salida = inv.getArgument(4);
+            salida.write("id,name\n1,Silla\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(service).exportar(any(), any(), any(), eq(FormatoExportacion.CSV), any());
+
+        MvcResult resultado = mockMvc.perform(get("/productos/exportar")
+                        .with(user("testuser").roles("ADMIN"))
+                        .param("category", "MUEBLES")
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"productos.csv\""))
+                .andExpect(content().string("id,name\n1,Silla\n"));
+
+        verify(service).exportar(eq(Optional.empty()), eq(Optional.empty()), eq(Optional.of("MUEBLES")),
+                eq(FormatoExportacion.CSV), any());
+    }
+
+    @Test
+    @DisplayName("GET /productos/exportar - Formato no válido - Bad Request")
+    void exportar_WhenInvalidFormat_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/productos/exportar")
+                        .with(user("testuser").roles("ADMIN"))
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).exportar(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("GET /productos/cursor - Primera página por cursor - OK")
+    void getAllProductosCursor_ShouldReturnNextCursor() throws Exception {
+        // Arrange
+        var cursorDto = new CursorPageResponseDTO<>(
+                List.of(productoResponseDTO),
+                1,
+                "siguiente",
+                true,
+                "precio",
+                "desc"
+        );
+        when(service.findAllCursor(any(), any(), any(), any(), eq("precio"), eq("desc"), eq(1))).thenReturn(cursorDto);
+
+        // Act & Assert
+        mockMvc.perform(get("/productos/cursor")
+                        .with(user("testuser").roles("USER"))
+                        .param("sortBy", "precio")
+                        .param("direction", "desc")
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Producto Test"))
+                .andExpect(jsonPath("$.nextCursor").value("siguiente"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        verify(service).findAllCursor(any(), any(), any(), argThat(cursor -> cursor.isEmpty()), eq("precio"), eq("desc"), eq(1));
+    }
+
+    @Test
+    @DisplayName("GET /productos/cursor - Cursor no válido - 400")
+    void getAllProductosCursor_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        when(service.findAllCursor(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenThrow(new CursorInvalidoException("El cursor no es válido"));
+
+        mockMvc.perform(get("/productos/cursor")
+                        .with(user("testuser").roles("USER"))
+                        .param("cursor", "no-es-un-cursor")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("El cursor no es válido"));
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,14 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.mapper;
 
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas.FacetaCategoriaDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas.FacetaPrecioDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.DELETEProductoResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.PATCHProductoRequestDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.POSTandPUTProductoRequestDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
+import dev.luisvives.trabajoprogramacionsegundo.productos.repository.FacetaFila;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.PageImpl;
@@ -85,4 +88,24 @@ class ProductoMapperTest {
         val result= mapper.pageToDTO(new PageImpl<>(List.of(producto)), "id","asc");
         assertEquals(productoResponse, result.getContent().get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void facetasToDTO() {
+        val filas = List.of(
+                new FacetaFila("ANIME", 0, 2),
+                new FacetaFila("ANIME", 2, 1),
+                new FacetaFila("MANGA", 2, 4),
+                new FacetaFila(null, 1, 1)
+        );
+        val result = mapper.facetasToDTO(filas, List.of(10.0, 50.0));
+        assertAll(
+                () -> assertEquals(8, result.getTotal()),
+                () -> assertEquals(List.of(new FacetaCategoriaDTO("MANGA", 4), new FacetaCategoriaDTO("ANIME", 3)), result.getCategories()),
+                () -> assertEquals(List.of(
+                        new FacetaPrecioDTO(null, 10.0, 2),
+                        new FacetaPrecioDTO(10.0, 50.0, 1),
+                        new FacetaPrecioDTO(50.0, null, 5)
+                ), result.getPrices())
+        );
+    }
+}
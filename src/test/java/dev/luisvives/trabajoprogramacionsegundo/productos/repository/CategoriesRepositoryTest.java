@@ -3,6 +3,7 @@ package dev.luisvives.trabajoprogramacionsegundo.productos.repository;
 
 import dev.luisvives.trabajoprogramacionsegundo.BaseRepositoryTest;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -199,6 +200,14 @@ class CategoriesRepositoryTest extends BaseRepositoryTest {
         assertThat(resultado.get().getName()).isEqualTo("Toys & Games");
     }
 
+    @Test
+    @DisplayName("existsByNameIgnoreCase - Comprueba el nombre sin distinguir mayúsculas")
+    void testExistsByNameIgnoreCase() {
+        assertThat(categoriesRepository.existsByNameIgnoreCase("electronica")).isTrue();
+        assertThat(categoriesRepository.existsByNameIgnoreCase("DePorTes")).isTrue();
+        assertThat(categoriesRepository.existsByNameIgnoreCase("LIBROS")).isFalse();
+    }
+
     // ==========================================
     // TESTS PARA operaciones CRUD básicas
     // ==========================================
@@ -418,4 +427,24 @@ class CategoriesRepositoryTest extends BaseRepositoryTest {
         // Then
         assertThat(resultado).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("findEstadisticas - Cuenta productos y rango de precios de todas las categorías en una consulta")
+    void testFindEstadisticas() {
+        // Given
+        entityManager.persist(Producto.builder().nombre("Laptop").precio(1200.0).cantidad(1).categoria(categoriaElectronica).build());
+        entityManager.persist(Producto.builder().nombre("Mouse").precio(25.0).cantidad(1).categoria(categoriaElectronica).build());
+        entityManager.persist(Producto.builder().nombre("Camiseta").precio(15.0).cantidad(1).categoria(categoriaRopa).build());
+        entityManager.flush();
+
+        // When
+        List<EstadisticaCategoria> resultado = categoriesRepository.findEstadisticas();
+
+        // Then
+        assertThat(resultado).containsExactly(
+                new EstadisticaCategoria(categoriaElectronica.getId(), "ELECTRONICA", 2L, 25.0, 1200.0),
+                new EstadisticaCategoria(categoriaRopa.getId(), "Ropa", 1L, 15.0, 15.0),
+                new EstadisticaCategoria(categoriaDeportes.getId(), "deportes", 0L, null, null)
+        );
+    }
+}
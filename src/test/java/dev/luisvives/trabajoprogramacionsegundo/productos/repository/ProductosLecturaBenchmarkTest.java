@@ -0,0 +1,130 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.repository;
+
+import dev.luisvives.trabajoprogramacionsegundo.BaseRepositoryTest;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.mapper.ProductoMapper;
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comparativa entre leer el listado de productos como entidades (y convertirlas con
+ * {@link ProductoMapper}) y leerlo con la proyección directa a DTO
+ * ({@link ProductsRepository#findAllResponse}).
+ * <p>
+ * Mide la memoria reservada por el hilo y el tiempo medio por página. No se ejecuta con
+ * <code>./gradlew test</code>; se lanza con <code>./gradlew benchmark</code>.
+ * </p>
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductosLecturaBenchmarkTest extends BaseRepositoryTest {
+
+    private static final int PRODUCTOS = 2_000;
+    private static final int CALENTAMIENTO = 50;
+    private static final int ITERACIONES = 200;
+
+    @Autowired
+    private ProductsRepository productosRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final ProductoMapper mapper = new ProductoMapper();
+    private final Specification<Producto> todos = (root, query, cb) -> cb.conjunction();
+    private final Pageable pagina = PageRequest.of(3, 50, Sort.by("precio", "id"));
+
+    @BeforeEach
+    void setUp() {
+        productosRepository.deleteAll();
+        List<Categoria> categorias = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Categoria categoria = new Categoria();
+            categoria.setName("CATEGORIA_" + i);
+            categoria.setFechaCreacion(LocalDateTime.now());
+            categoria.setFechaModificacion(LocalDateTime.now());
+            categorias.add(entityManager.persist(categoria));
+        }
+        List<Producto> productos = new ArrayList<>();
+        for (int i = 0; i < PRODUCTOS; i++) {
+            productos.add(Producto.builder()
+                    .nombre("Producto " + i)
+                    .descripcion("Descripción del producto " + i)
+                    .precio(1.0 + (i * 37 % 1000))
+                    .cantidad(i % 100)
+                    .imagen("producto" + i + ".jpg")
+                    .categoria(categorias.get(i % categorias.size()))
+                    .build());
+        }
+        productosRepository.saveAll(productos);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("La proyección a DTO reserva menos memoria por página que cargar entidades")
+    void proyeccionFrenteAEntidades() {
+        Supplier<List<GENERICProductosResponseDTO>> entidades = () ->
+                productosRepository.findAll(todos, pagina).map(mapper::modelToGenericResponseDTO).getContent();
+        Supplier<List<GENERICProductosResponseDTO>> proyeccion = () ->
+                productosRepository.findAllResponse(todos, pagina).getContent();
+
+        assertThat(proyeccion.get()).isEqualTo(entidades.get());
+
+        Medida conEntidades = medir(entidades);
+        Medida conProyeccion = medir(proyeccion);
+
+        log.info("Entidades:  {} bytes/página, {} ms/página", String.format("%,d", conEntidades.bytes()), String.format("%.3f", conEntidades.milisegundos()));
+        log.info("Proyección: {} bytes/página, {} ms/página", String.format("%,d", conProyeccion.bytes()), String.format("%.3f", conProyeccion.milisegundos()));
+
+        assertThat(conProyeccion.bytes()).isLessThan(conEntidades.bytes());
+    }
+
+    /**
+     * Ejecuta la lectura como si cada iteración fuera una petición nueva (contexto de
+     * persistencia vacío) y devuelve la media por página.
+     */
+    private Medida medir(Supplier<List<GENERICProductosResponseDTO>> lectura) {
+        com.sun.management.ThreadMXBean hilo = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            lectura.get();
+            entityManager.clear();
+        }
+        long bytes = 0;
+        long nanos = 0;
+        for (int i = 0; i < ITERACIONES; i++) {
+            long bytesAntes = hilo.getCurrentThreadAllocatedBytes();
+            long inicio = System.nanoTime();
+            lectura.get();
+            nanos += System.nanoTime() - inicio;
+            bytes += hilo.getCurrentThreadAllocatedBytes() - bytesAntes;
+            entityManager.clear();
+        }
+        return new Medida(bytes / ITERACIONES, nanos / (ITERACIONES * 1_000_000.0));
+    }
+
+    private record Medida(long bytes, double milisegundos) {
+    }
+}
@@ -1,8 +1,13 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.repository;
 
 import dev.luisvives.trabajoprogramacionsegundo.BaseRepositoryTest;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.Cursor;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.PaginacionKeyset;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,12 +18,20 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 /**
  * Tests de integración para ProductosRepository usando Testcontainers.
@@ -323,6 +336,23 @@ class ProductsRepositoryTest extends BaseRepositoryTest {
         assertThat(resultado).isEmpty();
     }
 
+    @Test
+    @DisplayName("existsByCategoriaId - Indica si la categoría tiene algún producto")
+    void testExistsByCategoriaId() {
+        // Given
+        Categoria categoriaSinProductos = new Categoria();
+        categoriaSinProductos.setName("DEPORTES");
+        categoriaSinProductos.setFechaCreacion(LocalDateTime.now());
+        categoriaSinProductos.setFechaModificacion(LocalDateTime.now());
+        categoriaSinProductos = entityManager.persist(categoriaSinProductos);
+        entityManager.flush();
+
+        // Then
+        assertThat(productosRepository.existsByCategoriaId(categoriaElectronica.getId())).isTrue();
+        assertThat(productosRepository.existsByCategoriaId(categoriaSinProductos.getId())).isFalse();
+        assertThat(productosRepository.existsByCategoriaId(999L)).isFalse();
+    }
+
     // ==========================================
     // TESTS PARA findAllByFechaCreacionBetween
     // ==========================================
@@ -361,5 +391,363 @@ class ProductsRepositoryTest extends BaseRepositoryTest {
         assertThat(resultado).isEmpty();
     }
 
+    // ==========================================
+    // TESTS PARA buscar(texto, Pageable)
+    // ==========================================
+
+    private void crearExtensionTrigramas() {
+        entityManager.getEntityManager()
+                .createNativeQuery("CREATE EXTENSION IF NOT EXISTS pg_trgm")
+                .executeUpdate();
+    }
+
+    @Test
+    @DisplayName("buscar - Encuentra por palabra de la descripción")
+    void testBuscarPorDescripcion() {
+        // Given
+        crearExtensionTrigramas();
+
+        // When
+        Page<GENERICProductosResponseDTO> resultado = productosRepository.buscar("gaming", PageRequest.of(0, 10));
+
+        // Then
+        assertThat(resultado.getContent()).extracting(GENERICProductosResponseDTO::getName).containsExactly("Laptop");
+        assertThat(resultado.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("buscar - La categoría sale de la misma consulta (búsqueda + conteo)")
+    void testBuscarCargaCategoriaSinConsultasExtra() {
+        // Given
+        crearExtensionTrigramas();
+        Statistics estadisticas = contarSentencias();
+
+        // When
+        Page<GENERICProductosResponseDTO> resultado = productosRepository.buscar("a", PageRequest.of(0, 2));
+
+        // Then
+        assertThat(resultado.getContent()).hasSize(2)
+                .extracting(GENERICProductosResponseDTO::getCategory)
+                .doesNotContainNull();
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("buscar - Encuentra nombres mal escritos y subcadenas")
+    void testBuscarAproximado() {
+        // Given
+        crearExtensionTrigramas();
+
+        // When
+        Page<GENERICProductosResponseDTO> malEscrito = productosRepository.buscar("Laptp", PageRequest.of(0, 10));
+        Page<GENERICProductosResponseDTO> subcadena = productosRepository.buscar("miset", PageRequest.of(0, 10));
+
+        // Then
+        assertThat(malEscrito.getContent()).extracting(GENERICProductosResponseDTO::getName).containsExactly("Laptop");
+        assertThat(subcadena.getContent()).extracting(GENERICProductosResponseDTO::getName).containsExactly("Camiseta");
+    }
+
+    @Test
+    @DisplayName("buscar - % y _ se buscan tal cual, no como comodines")
+    void testBuscarComodinesLiterales() {
+        // Given
+        crearExtensionTrigramas();
+        productosRepository.save(Producto.builder()
+                .nombre("Tarjeta 100%")
+                .precio(10.00)
+                .cantidad(5)
+                .build());
+        entityManager.flush();
+
+        // When
+        Page<GENERICProductosResponseDTO> porcentaje = productosRepository.buscar("%", PageRequest.of(0, 10));
+        Page<GENERICProductosResponseDTO> guionBajo = productosRepository.buscar("_", PageRequest.of(0, 10));
+
+        // Then
+        assertThat(porcentaje.getContent()).extracting(GENERICProductosResponseDTO::getName).containsExactly("Tarjeta 100%");
+        assertThat(porcentaje.getTotalElements()).isEqualTo(1);
+        assertThat(guionBajo.getContent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("buscar - Sin coincidencias devuelve página vacía")
+    void testBuscarSinResultados() {
+        // Given
+        crearExtensionTrigramas();
+
+        // When
+        Page<GENERICProductosResponseDTO> resultado = productosRepository.buscar("zzzzzz", PageRequest.of(0, 10));
+
+        // Then
+        assertThat(resultado.getContent()).isEmpty();
+        assertThat(resultado.getTotalElements()).isZero();
+    }
+
+    // ==========================================
+    // TESTS PARA findSlice(Specification, Pageable)
+    // ==========================================
+
+    @Test
+    @DisplayName("findSlice - Recorre los productos por cursor desempatando por id")
+    void testFindSlicePorCursor() {
+        // Given
+        Producto teclado = Producto.builder()
+                .nombre("Teclado")
+                .precio(25.00)
+                .cantidad(20)
+                .categoria(categoriaElectronica)
+                .build();
+        productosRepository.save(teclado);
+        entityManager.flush();
+
+        Map<String, Function<String, ? extends Comparable<?>>> campos = Map.of(
+                "id", Long::valueOf,
+                "precio", Double::valueOf
+        );
+        PaginacionKeyset<Producto> keyset = new PaginacionKeyset<>(campos);
+        Sort orden = keyset.orden("precio", "desc");
+
+        // When
+        Slice<Producto> primera = productosRepository.findSlice(keyset.despuesDe(Optional.empty()), PageRequest.of(0, 2, orden));
+        Cursor cursor = keyset.cursorDe(primera.getContent().getLast(), "precio", "desc");
+        Slice<Producto> segunda = productosRepository.findSlice(keyset.despuesDe(Optional.of(cursor)), PageRequest.of(0, 2, orden));
+
+        // Then
+        assertThat(primera.getContent()).extracting(Producto::getNombre).containsExactly("Laptop", "Teclado");
+        assertThat(primera.hasNext()).isTrue();
+        assertThat(segunda.getContent()).extracting(Producto::getNombre).containsExactly("Mouse", "Camiseta");
+        assertThat(segunda.hasNext()).isFalse();
+    }
+
+    // ==========================================
+    // TESTS PARA contarFacetas
+    // ==========================================
+
+    @Test
+    @DisplayName("contarFacetas - Agrupa por categoría y tramo de precio")
+    void testContarFacetas() {
+        // Laptop 1200 (tramo 2), Mouse 25 (tramo 1), Camiseta 15 (tramo 1) con límites 20 y 100
+        List<FacetaFila> filas = productosRepository.contarFacetas(
+                Optional.empty(), Optional.empty(), Optional.empty(), List.of(20.0, 100.0));
+
+        assertThat(filas).containsExactlyInAnyOrder(
+                new FacetaFila("ELECTRONICA", 1, 1),
+                new FacetaFila("ELECTRONICA", 2, 1),
+                new FacetaFila("ROPA", 0, 1)
+        );
+    }
+
+    @Test
+    @DisplayName("contarFacetas - Aplica los mismos filtros que el listado")
+    void testContarFacetasConFiltros() {
+        List<FacetaFila> filas = productosRepository.contarFacetas(
+                Optional.of("O"), Optional.of(100.0), Optional.of(List.of(categoriaElectronica.getId())), List.of(20.0));
+
+        assertThat(filas).containsExactly(new FacetaFila("ELECTRONICA", 1, 1));
+        assertThat(productosRepository.contarFacetas(
+                Optional.empty(), Optional.empty(), Optional.of(List.of()), List.of(20.0))).isEmpty();
+    }
+
+    // ==========================================
+    // TESTS PARA LA PROYECCIÓN A DTO
+    // ==========================================
+
+    @Test
+    @DisplayName("findAllResponse - Devuelve DTOs filtrados y ordenados sin cargar entidades")
+    void testFindAllResponse() {
+        Specification<Producto> electronica = (root, query, cb) ->
+                root.get("categoria").get("id").in(categoriaElectronica.getId());
+        entityManager.clear();
+
+        Page<GENERICProductosResponseDTO> resultado = productosRepository.findAllResponse(
+                electronica, PageRequest.of(0, 1, Sort.by("precio").descending()));
+
+        assertThat(resultado.getTotalElements()).isEqualTo(2);
+        assertThat(resultado.getContent()).hasSize(1);
+        GENERICProductosResponseDTO laptop = resultado.getContent().get(0);
+        assertThat(laptop.getName()).isEqualTo("Laptop");
+        assertThat(laptop.getPrice()).isEqualTo(1200.00);
+        assertThat(laptop.getCantidad()).isEqualTo(10);
+        assertThat(laptop.getCategory()).isEqualTo("ELECTRONICA");
+        assertThat(laptop.getImage()).isEqualTo("laptop.jpg");
+        assertThat(entityManager.getEntityManager().contains(producto1)).isFalse();
+    }
+
+    @Test
+    @DisplayName("findResponseById - Devuelve el DTO del producto o vacío si no existe")
+    void testFindResponseById() {
+        Optional<GENERICProductosResponseDTO> encontrado = productosRepository.findResponseById(producto3.getId());
+
+        assertThat(encontrado).isPresent();
+        assertThat(encontrado.get().getName()).isEqualTo("Camiseta");
+        assertThat(encontrado.get().getCategory()).isEqualTo("ROPA");
+        // La fecha de modificación se lee para el ETag del controlador
+        assertThat(encontrado.get().getFechaModificacion()).isNotNull();
+        assertThat(productosRepository.findResponseById(-1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("findResponseByIdIn - Devuelve en una consulta los DTOs de los ids que existen")
+    void testFindResponseByIdIn() {
+        List<GENERICProductosResponseDTO> encontrados =
+                productosRepository.findResponseByIdIn(List.of(producto1.getId(), producto3.getId(), -1L));
+
+        assertThat(encontrados)
+                .extracting(GENERICProductosResponseDTO::getId, GENERICProductosResponseDTO::getPrice,
+                        GENERICProductosResponseDTO::getCantidad, GENERICProductosResponseDTO::getCategory)
+                .containsExactlyInAnyOrder(
+                        tuple(producto1.getId(), 1200.00, 10, "ELECTRONICA"),
+                        tuple(producto3.getId(), producto3.getPrecio(), producto3.getCantidad(), "ROPA"));
+    }
+
+    @Test
+    @DisplayName("streamResponse - Recorre los DTOs filtrados en orden de id sin cargar entidades")
+    void testStreamResponse() {
+        Specification<Producto> baratos = (root, query, cb) -> cb.lessThan(root.get("precio"), 100.0);
+        entityManager.clear();
+
+        List<GENERICProductosResponseDTO> exportados;
+        try (Stream<GENERICProductosResponseDTO> productos = productosRepository.streamResponse(baratos)) {
+            exportados = productos.toList();
+        }
+
+        assertThat(exportados)
+                .extracting(GENERICProductosResponseDTO::getId, GENERICProductosResponseDTO::getCategory)
+                .containsExactly(
+                        tuple(producto2.getId(), "ELECTRONICA"),
+                        tuple(producto3.getId(), "ROPA"));
+        assertThat(entityManager.getEntityManager().contains(producto2)).isFalse();
+    }
+
+    // ==========================================
+    // TESTS DE NÚMERO DE CONSULTAS (N+1)
+    // ==========================================
+
+    /**
+     * Vacía el contexto de persistencia (para que las categorías no estén ya cargadas)
+     * y reinicia las estadísticas de Hibernate para contar las sentencias del test.
+     */
+    private Statistics contarSentencias() {
+        entityManager.clear();
+        Statistics estadisticas = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        estadisticas.setStatisticsEnabled(true);
+        estadisticas.clear();
+        return estadisticas;
+    }
+
+    @Test
+    @DisplayName("findAll con Specification - La categoría se carga en la misma consulta (listado + conteo)")
+    void testFindAllCargaCategoriaSinConsultasExtra() {
+        Specification<Producto> todos = (root, query, cb) -> cb.conjunction();
+        Statistics estadisticas = contarSentencias();
+
+        Page<Producto> resultado = productosRepository.findAll(todos, PageRequest.of(0, 2, Sort.by("precio")));
+
+        assertThat(resultado.getContent())
+                .extracting(producto -> producto.getCategoria().getName())
+                .containsExactly("ROPA", "ELECTRONICA");
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("findSlice - La categoría se carga en una única consulta")
+    void testFindSliceCargaCategoriaSinConsultasExtra() {
+        Specification<Producto> todos = (root, query, cb) -> cb.conjunction();
+        Statistics estadisticas = contarSentencias();
 
-}
\ No newline at end of file
+        Slice<Producto> resultado = productosRepository.findSlice(todos, PageRequest.of(0, 2, Sort.by("precio")));
+
+        assertThat(resultado.getContent())
+                .extracting(producto -> producto.getCategoria().getName())
+                .containsExactly("ROPA", "ELECTRONICA");
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findAllByFechaCreacionBetween y findByCategoria - Una única consulta con la categoría")
+    void testConsultasDerivadasCarganCategoriaSinConsultasExtra() {
+        LocalDateTime ahora = LocalDateTime.now();
+        Statistics estadisticas = contarSentencias();
+
+        List<Producto> porFecha = productosRepository.findAllByFechaCreacionBetween(ahora.minusDays(30), ahora);
+        porFecha.forEach(producto -> producto.getCategoria().getName());
+        assertThat(porFecha).hasSize(3);
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+
+        List<Producto> porCategoria = productosRepository.findByCategoria(categoriaRopa);
+        porCategoria.forEach(producto -> producto.getCategoria().getName());
+        assertThat(porCategoria).hasSize(1);
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("ajustarPrecios - Aplica el porcentaje redondeado solo a los productos filtrados")
+    void testAjustarPreciosPorcentaje() {
+        int actualizados = productosRepository.ajustarPrecios(Optional.empty(), Optional.empty(),
+                Optional.of(List.of(categoriaElectronica.getId())), Optional.of(10.0), Optional.empty());
+        entityManager.clear();
+
+        assertThat(actualizados).isEqualTo(2);
+        assertThat(productosRepository.findById(producto1.getId())).get()
+                .extracting(Producto::getPrecio).isEqualTo(1320.0);
+        assertThat(productosRepository.findById(producto2.getId())).get()
+                .extracting(Producto::getPrecio).isEqualTo(27.5);
+        assertThat(productosRepository.findById(producto3.getId())).get()
+                .extracting(Producto::getPrecio).isEqualTo(15.0);
+    }
+
+    @Test
+    @DisplayName("ajustarPrecios - Fija el precio nuevo con los filtros de nombre y precio máximo")
+    void testAjustarPreciosPrecioNuevo() {
+        int actualizados = productosRepository.ajustarPrecios(Optional.of("O"), Optional.of(100.0),
+                Optional.empty(), Optional.empty(), Optional.of(9.99));
+        entityManager.clear();
+
+        assertThat(actualizados).isEqualTo(1);
+        assertThat(productosRepository.findById(producto2.getId())).get()
+                .extracting(Producto::getPrecio).isEqualTo(9.99);
+        assertThat(productosRepository.findById(producto1.getId())).get()
+                .extracting(Producto::getPrecio).isEqualTo(1200.0);
+    }
+
+    @Test
+    @DisplayName("insertarLote - Inserta todos los productos del lote con su categoría")
+    void testInsertarLote() {
+        LocalDateTime fecha = LocalDateTime.of(2025, 1, 1, 10, 0);
+        List<Producto> lote = List.of(
+                Producto.builder().nombre("Teclado").precio(30.0).cantidad(5).imagen("teclado.png")
+                        .categoria(categoriaElectronica).fechaCreacion(fecha).fechaModificacion(fecha).build(),
+                Producto.builder().nombre("Pantalón").descripcion("Vaquero").precio(40.0).cantidad(0)
+                        .categoria(categoriaRopa).fechaCreacion(fecha).fechaModificacion(fecha).build()
+        );
+
+        int insertados = productosRepository.insertarLote(lote);
+
+        assertThat(insertados).isEqualTo(2);
+        assertThat(productosRepository.count()).isEqualTo(5);
+        assertThat(productosRepository.findByCategoria(categoriaRopa))
+                .extracting(Producto::getNombre, Producto::getImagen)
+                .contains(tuple("Pantalón", Producto.IMAGE_DEFAULT));
+    }
+
+    @Test
+    @DisplayName("saveAll - Con ids de secuencia los INSERT se agrupan en lotes JDBC")
+    void testSaveAllAgrupaInserts() {
+        List<Producto> productos = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            productos.add(Producto.builder().nombre("Producto " + i).precio(1.0 + i).cantidad(i)
+                    .categoria(categoriaElectronica).build());
+        }
+        Statistics estadisticas = contarSentencias();
+
+        productosRepository.saveAll(productos);
+        entityManager.flush();
+
+        // 3 lotes de INSERT (batch_size = 50) más unas pocas llamadas a la secuencia, en lugar de 120 INSERT
+        assertThat(estadisticas.getPrepareStatementCount()).isLessThan(10);
+        assertThat(productosRepository.count()).isEqualTo(123);
+    }
+}
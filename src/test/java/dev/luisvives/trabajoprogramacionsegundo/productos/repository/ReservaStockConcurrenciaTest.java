@@ -0,0 +1,184 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.repository;
+
+import dev.luisvives.trabajoprogramacionsegundo.BaseRepositoryTest;
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de carga de {@link ProductsRepository#cambiarStock}: cientos de hilos compran a la vez
+ * los mismos productos, cada uno en su propia transacción confirmada, igual que hace la reserva
+ * de stock de un pedido (si falta stock de algún producto se deshace la transacción entera).
+ * <p>
+ * No se usa la transacción del test (que se desharía al terminar), así que los productos se
+ * borran a mano después de cada prueba.
+ * </p>
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReservaStockConcurrenciaTest extends BaseRepositoryTest {
+
+    private static final int HILOS = 200;
+
+    @Autowired
+    private ProductsRepository productosRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> creados = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        productosRepository.deleteAllById(creados);
+    }
+
+    @Test
+    @DisplayName("Con 200 compras simultáneas de una unidad y 50 en stock, se venden exactamente 50")
+    void mismoProducto() throws Exception {
+        Long id = crear(50);
+
+        long vendidas = comprarEnParalelo(i -> new TreeMap<>(Map.of(id, 1)));
+
+        assertThat(vendidas).isEqualTo(50);
+        assertThat(cantidad(id)).isZero();
+    }
+
+    @Test
+    @DisplayName("Los pedidos de varios productos no se interbloquean y se reservan enteros o nada")
+    void variosProductos() throws Exception {
+        Long a = crear(100);
+        Long b = crear(100);
+
+        // La mitad de los hilos construye el pedido con los productos al revés: el lote los
+        // actualiza igualmente en orden de id
+        long vendidas = comprarEnParalelo(i -> i % 2 == 0
+                ? new TreeMap<>(Map.of(a, 1, b, 1))
+                : new TreeMap<>(Map.of(b, 1, a, 1)));
+
+        assertThat(vendidas).isEqualTo(100);
+        assertThat(cantidad(a)).isZero();
+        assertThat(cantidad(b)).isZero();
+    }
+
+    @Test
+    @DisplayName("Las cantidades negativas devuelven stock sin condición")
+    void devolverStock() {
+        Long id = crear(0);
+
+        int[] filas = new TransactionTemplate(transactionManager)
+                .execute(estado -> productosRepository.cambiarStock(new TreeMap<>(Map.of(id, -3))));
+
+        assertThat(filas).containsExactly(1);
+        assertThat(cantidad(id)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Editar el producto a la vez que se compra no pierde unidades vendidas")
+    void edicionesYCompras() throws Exception {
+        Long id = crear(500);
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+
+        // Los hilos impares editan el producto como el PATCH y el cambio de imagen: cargan la
+        // entidad, cambian nombre e imagen y la guardan mientras los pares compran
+        long vendidas = comprarEnParalelo(i -> new TreeMap<>(Map.of(id, 1)), i -> transaccion.executeWithoutResult(estado -> {
+            Producto producto = productosRepository.findById(id).orElseThrow();
+            producto.setNombre("Producto concurrencia " + i);
+            producto.setImagen("producto-" + i + ".png");
+            productosRepository.save(producto);
+        }));
+
+        assertThat(vendidas).isEqualTo(HILOS / 2);
+        assertThat(cantidad(id)).isEqualTo(500 - HILOS / 2);
+    }
+
+    /**
+     * Lanza {@value #HILOS} reservas a la vez y devuelve cuántas se confirmaron.
+     */
+    private long comprarEnParalelo(IntFunction<SortedMap<Long, Integer>> pedido) throws Exception {
+        return comprarEnParalelo(pedido, null);
+    }
+
+    /**
+     * Como {@link #comprarEnParalelo(IntFunction)}, pero si se indica una edición la lanzan los
+     * hilos impares en lugar de comprar.
+     */
+    private long comprarEnParalelo(IntFunction<SortedMap<Long, Integer>> pedido, IntConsumer edicion) throws Exception {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        try {
+            for (int i = 0; i < HILOS; i++) {
+                if (edicion != null && i % 2 == 1) {
+                    int hilo = i;
+                    resultados.add(hilos.submit(() -> {
+                        salida.await();
+                        edicion.accept(hilo);
+                        return false;
+                    }));
+                    continue;
+                }
+                SortedMap<Long, Integer> unidades = pedido.apply(i);
+                resultados.add(hilos.submit(() -> {
+                    salida.await();
+                    return transaccion.execute(estado -> {
+                        boolean reservado = Arrays.stream(productosRepository.cambiarStock(unidades)).allMatch(filas -> filas == 1);
+                        if (!reservado) {
+                            estado.setRollbackOnly();
+                        }
+                        return reservado;
+                    });
+                }));
+            }
+            salida.countDown();
+            long confirmadas = 0;
+            for (Future<Boolean> resultado : resultados) {
+                // Un interbloqueo haría fallar aquí la transacción del hilo
+                if (resultado.get(60, TimeUnit.SECONDS)) {
+                    confirmadas++;
+                }
+            }
+            return confirmadas;
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    private Long crear(int cantidad) {
+        Producto producto = productosRepository.save(Producto.builder()
+                .nombre("Producto concurrencia")
+                .descripcion("Prueba de reserva de stock")
+                .precio(10.0)
+                .cantidad(cantidad)
+                .imagen("default.png")
+                .build());
+        creados.add(producto.getId());
+        return producto.getId();
+    }
+
+    private int cantidad(Long id) {
+        return productosRepository.findById(id).orElseThrow().getCantidad();
+    }
+}
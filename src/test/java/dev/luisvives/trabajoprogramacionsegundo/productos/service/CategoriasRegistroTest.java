@@ -0,0 +1,91 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.service;
+
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
+import dev.luisvives.trabajoprogramacionsegundo.productos.repository.CategoriesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoriasRegistroTest {
+    @Mock
+    private CategoriesRepository repository;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private CategoriasRegistro registro;
+
+    private final Categoria muebles = new Categoria(1L, "MUEBLES", LocalDateTime.now(), LocalDateTime.now());
+    private final Categoria mueblesJardin = new Categoria(2L, "MUEBLES JARDIN", LocalDateTime.now(), LocalDateTime.now());
+    private final Categoria anime = new Categoria(3L, "ANIME", LocalDateTime.now(), LocalDateTime.now());
+
+    @BeforeEach
+    void setUp() {
+        registro = new CategoriasRegistro(repository, redisTemplate, listenerContainer, "canal");
+    }
+
+    @Test
+    @DisplayName("buscar resuelve la categoría sin distinguir mayúsculas y solo consulta la base de datos una vez")
+    void buscar() {
+        when(repository.findAll()).thenReturn(List.of(muebles, anime));
+
+        assertEquals(Optional.of(muebles), registro.buscar("muebles"));
+        assertEquals(Optional.of(anime), registro.buscar(" Anime "));
+        assertTrue(registro.buscar("comics").isEmpty());
+        verify(repository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("idsQueContienen devuelve las categorías cuyo nombre contiene el texto")
+    void idsQueContienen() {
+        when(repository.findAll()).thenReturn(List.of(muebles, mueblesJardin, anime));
+
+        List<Long> ids = registro.idsQueContienen("Mueble");
+
+        assertEquals(2, ids.size());
+        assertTrue(ids.containsAll(List.of(1L, 2L)));
+        assertTrue(registro.idsQueContienen("juguetes").isEmpty());
+    }
+
+    @Test
+    @DisplayName("notificarCambio recarga el diccionario y avisa al resto de réplicas")
+    void notificarCambio() {
+        when(repository.findAll()).thenReturn(List.of(muebles), List.of(muebles, anime));
+        registro.cargar();
+        assertTrue(registro.buscar("anime").isEmpty());
+
+        registro.notificarCambio();
+
+        assertEquals(Optional.of(anime), registro.buscar("anime"));
+        verify(redisTemplate, times(1)).convertAndSend(eq("canal"), anyString());
+    }
+
+    @Test
+    @DisplayName("Un aviso de otra réplica recarga el diccionario")
+    void onMessage() {
+        when(repository.findAll()).thenReturn(List.of(muebles), List.of(anime));
+        registro.cargar();
+
+        registro.onMessage(new DefaultMessage("canal".getBytes(StandardCharsets.UTF_8),
+                "otra-replica".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertTrue(registro.buscar("muebles").isEmpty());
+        assertEquals(Optional.of(anime), registro.buscar("anime"));
+    }
+}
@@ -1,5 +1,6 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.service;
 
+import dev.luisvives.trabajoprogramacionsegundo.common.cache.CatalogoGeneracion;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.DELETEcategoryResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.GENERICcategoryResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.category.PATCHcategoryRequestDTO;
@@ -8,8 +9,8 @@ import dev.luisvives.trabajoprogramacionsegundo.productos.exceptions.CategoryNot
 import dev.luisvives.trabajoprogramacionsegundo.productos.exceptions.CategoryValidationException;
 import dev.luisvives.trabajoprogramacionsegundo.productos.mapper.CategoriesMapper;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
-import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
 import dev.luisvives.trabajoprogramacionsegundo.productos.repository.CategoriesRepository;
+import dev.luisvives.trabajoprogramacionsegundo.productos.repository.EstadisticaCategoria;
 import dev.luisvives.trabajoprogramacionsegundo.productos.repository.ProductsRepository;
 import lombok.val;
 import org.junit.jupiter.api.DisplayName;
@@ -37,6 +38,10 @@ class CategoriesServiceImplTest {
     private ProductsRepository productsRepository;
     @Mock
     private CategoriesMapper categoriaMapper;
+    @Mock
+    private CatalogoGeneracion catalogoGeneracion;
+    @Mock
+    private CategoriasRegistro categoriasRegistro;
     @InjectMocks
     private CategoriesServiceImpl categoriaServiceImpl;
     private final Categoria categoria = new Categoria(
@@ -55,17 +60,6 @@ class CategoriesServiceImplTest {
     private final PATCHcategoryRequestDTO categoriaRequestDtoPATCH = PATCHcategoryRequestDTO.builder()
             .name(categoria.getName()).build();
 
-    private final Producto producto = Producto.builder()
-            .id(1L)
-            .nombre("hola")
-            .precio(1.0)
-            .imagen("imagen.png")
-            .cantidad(3)
-            .fechaCreacion(LocalDateTime.now())
-            .fechaModificacion(LocalDateTime.now())
-            .categoria(categoria)
-            .build();
-
     @Nested
     @DisplayName("test buenos")
     class buenos {
@@ -79,6 +73,34 @@ class CategoriesServiceImplTest {
             verify(categoriaMapper, times(1)).modelToGenericResponseDTO(categoria);
         }
 
+        @Test
+        @DisplayName("getAll con recuentos - una sola consulta agrupada para todas las categorías")
+        void findAllConRecuentos() {
+            EstadisticaCategoria estadistica = new EstadisticaCategoria(1L, "ANIME", 4L, 2.5, 30.0);
+            GENERICcategoryResponseDTO conRecuento = GENERICcategoryResponseDTO.builder()
+                    .id(1L).name("ANIME").productCount(4L).build();
+            when(repository.findEstadisticas()).thenReturn(List.of(estadistica));
+            when(categoriaMapper.estadisticaToGenericResponseDTO(estadistica, true, false)).thenReturn(conRecuento);
+
+            val result = categoriaServiceImpl.getAll(true, false);
+
+            assertEquals(List.of(conRecuento), result);
+            verify(repository, never()).findAll();
+            verifyNoInteractions(productsRepository);
+        }
+
+        @Test
+        @DisplayName("getAll sin recuentos ni precios - no lanza la consulta agrupada")
+        void findAllSinRecuentos() {
+            when(repository.findAll()).thenReturn(List.of(categoria));
+            when(categoriaMapper.modelToGenericResponseDTO(categoria)).thenReturn(categoriaResponseDto);
+
+            val result = categoriaServiceImpl.getAll(false, false);
+
+            assertEquals(List.of(categoriaResponseDto), result);
+            verify(repository, never()).findEstadisticas();
+        }
+
         @Test
         void getById() {
             when(repository.findById(categoria.getId())).thenReturn(Optional.of(categoria));
@@ -99,6 +121,7 @@ class CategoriesServiceImplTest {
             verify(repository, times(1)).save(categoria);
             verify(categoriaMapper, times(1)).modelToGenericResponseDTO(categoria);
             verify(categoriaMapper, times(1)).postPutDTOToModel(categoriaRequestDtoPOSTandPUT);
+            verify(categoriasRegistro, times(1)).notificarCambio();
         }
 
         @Test
@@ -214,7 +237,7 @@ class CategoriesServiceImplTest {
         @DisplayName("delete bad products with category")
         void deleteBadproductsWithCategory() {
             when(repository.findById(categoria.getId())).thenReturn(Optional.of(categoria));
-            when(productsRepository.findByCategoria(categoria)).thenReturn(List.of(producto));
+            when(productsRepository.existsByCategoriaId(categoria.getId())).thenReturn(true);
 
             val result = assertThrows(DataIntegrityViolationException.class,
                     () -> categoriaServiceImpl.deleteById(categoria.getId()));
@@ -263,7 +286,7 @@ class CategoriesServiceImplTest {
         @Test
         @DisplayName("save bad categoria already exists")
         void saveBadCategoriaAlreadyExists() {
-            when(repository.findByNameIgnoreCase(categoria.getName())).thenReturn(Optional.of(categoria));
+            when(repository.existsByNameIgnoreCase(categoria.getName())).thenReturn(true);
 
             val result = assertThrows(CategoryValidationException.class,
                     () -> categoriaServiceImpl.save(categoriaRequestDtoPOSTandPUT));
@@ -0,0 +1,188 @@
+package dev.luisvives.trabajoprogramacionsegundo.productos.service;
+
+import dev.luisvives.trabajoprogramacionsegundo.common.cache.CatalogoGeneracion;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.importacion.ErrorFilaDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.importacion.ImportacionResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
+import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
+import dev.luisvives.trabajoprogramacionsegundo.productos.repository.ProductsRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de {@link ProductoImportacionServiceImpl} con los ficheros de
+ * <code>src/test/resources/importacion</code>, basados en los ejemplos de <code>data/productos.jsonc</code>.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductoImportacionServiceImplTest {
+    @Mock
+    private ProductsRepository repository;
+    @Mock
+    private CategoriasRegistro categoriasRegistro;
+    @Mock
+    private CatalogoGeneracion catalogoGeneracion;
+
+    private final ImportacionPropiedades propiedades = new ImportacionPropiedades();
+    private ProductoImportacionServiceImpl service;
+
+    private final Categoria tecnologia = new Categoria(1L, "TECNOLOGIA", LocalDateTime.now(), LocalDateTime.now());
+    private final Categoria deportes = new Categoria(2L, "DEPORTES", LocalDateTime.now(), LocalDateTime.now());
+
+    /**
+     * Copia de cada lote que recibe el repositorio.
+     */
+    private final List<List<Producto>> lotes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        propiedades.setTamanoLote(2);
+        service = new ProductoImportacionServiceImpl(repository, categoriasRegistro, catalogoGeneracion,
+                Validation.buildDefaultValidatorFactory().getValidator(), propiedades);
+    }
+
+    private void conCategorias() {
+        when(categoriasRegistro.buscar(anyString())).thenAnswer(inv -> switch ((String) inv.getArgument(0)) {
+            case "TECNOLOGIA" -> Optional.of(tecnologia);
+            case "DEPORTES" -> Optional.of(deportes);
+            default -> Optional.empty();
+        });
+    }
+
+    private void guardandoLotes() {
+        when(repository.insertarLote(anyList())).thenAnswer(inv -> {
+            List<Producto> lote = inv.getArgument(0);
+            lotes.add(List.copyOf(lote));
+            return lote.size();
+        });
+    }
+
+    private InputStream fichero(String nombre) {
+        return getClass().getResourceAsStream("/importacion/" + nombre);
+    }
+
+    @Test
+    @DisplayName("Importar CSV guarda las filas válidas e informa de cada fila descartada")
+    void importarCsv() {
+        conCategorias();
+        guardandoLotes();
+
+        ImportacionResponseDTO resumen = service.importarCsv(fichero("productos.csv"));
+
+        assertAll(
+                () -> assertEquals(7, resumen.getRead()),
+                () -> assertEquals(2, resumen.getImported()),
+                () -> assertEquals(5, resumen.getFailed()),
+                () -> assertEquals(List.of(3L, 5L, 6L, 7L, 8L), resumen.getErrors().stream().map(ErrorFilaDTO::getRow).toList()),
+                () -> assertEquals("La categoría PERIFERICOS no existe.", resumen.getErrors().get(0).getMessage()),
+                () -> assertEquals("El precio no puede ser negativo", resumen.getErrors().get(1).getMessage()),
+                () -> assertEquals("El nombre no puede estar vacío", resumen.getErrors().get(2).getMessage()),
+                () -> assertEquals("El precio no puede estar vacío", resumen.getErrors().get(3).getMessage()),
+                () -> assertTrue(resumen.getErrors().get(4).getMessage().startsWith("Formato no válido"))
+        );
+        // Las dos filas válidas llenan un lote
+        assertEquals(1, lotes.size());
+        Producto laptop = lotes.get(0).get(0);
+        Producto balon = lotes.get(0).get(1);
+        assertAll(
+                () -> assertEquals("Laptop Ultraligera Pro", laptop.getNombre()),
+                () -> assertEquals(1499.99, laptop.getPrecio()),
+                () -> assertEquals(5, laptop.getCantidad()),
+                () -> assertEquals(tecnologia, laptop.getCategoria()),
+                () -> assertEquals("Balón de cuero sintético, tamaño 7 oficial.", balon.getDescripcion()),
+                () -> assertEquals(Producto.IMAGE_DEFAULT, balon.getImagen()),
+                () -> assertEquals(deportes, balon.getCategoria())
+        );
+        verify(catalogoGeneracion).incrementar();
+    }
+
+    @Test
+    @DisplayName("Importar NDJSON ignora las líneas en blanco y descarta las que no son JSON")
+    void importarNdjson() {
+        conCategorias();
+        guardandoLotes();
+
+        ImportacionResponseDTO resumen = service.importarNdjson(fichero("productos.ndjson"));
+
+        assertAll(
+                () -> assertEquals(5, resumen.getRead()),
+                () -> assertEquals(2, resumen.getImported()),
+                () -> assertEquals(3, resumen.getFailed()),
+                () -> assertEquals(List.of(2L, 5L, 6L), resumen.getErrors().stream().map(ErrorFilaDTO::getRow).toList()),
+                () -> assertTrue(resumen.getRowsPerSecond() > 0)
+        );
+        assertEquals(12, lotes.get(0).get(1).getCantidad());
+        verify(catalogoGeneracion).incrementar();
+    }
+
+    @Test
+    @DisplayName("Las filas válidas se insertan en lotes del tamaño configurado y el último se guarda al terminar")
+    void importarPorLotes() {
+        conCategorias();
+        guardandoLotes();
+        StringBuilder csv = new StringBuilder("name,price,category\n");
+        for (int i = 0; i < 5; i++) {
+            csv.append("Producto ").append(i).append(",1.5,TECNOLOGIA\n");
+        }
+
+        ImportacionResponseDTO resumen = service.importarCsv(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(5, resumen.getImported());
+        assertEquals(List.of(2, 2, 1), lotes.stream().map(List::size).toList());
+        assertEquals(0, lotes.get(2).get(0).getCantidad());
+    }
+
+    @Test
+    @DisplayName("Si la base de datos rechaza un lote se descartan sus filas y la importación sigue")
+    void loteRechazado() {
+        conCategorias();
+        when(repository.insertarLote(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicado"))
+                .thenReturn(1);
+        String csv = "name,price,category\nA,1,TECNOLOGIA\nB,2,TECNOLOGIA\nC,3,TECNOLOGIA\n";
+
+        ImportacionResponseDTO resumen = service.importarCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertAll(
+                () -> assertEquals(3, resumen.getRead()),
+                () -> assertEquals(1, resumen.getImported()),
+                () -> assertEquals(2, resumen.getFailed()),
+                () -> assertEquals(2L, resumen.getErrors().get(0).getRow())
+        );
+        verify(catalogoGeneracion).incrementar();
+    }
+
+    @Test
+    @DisplayName("El detalle de errores se limita pero el recuento es completo, y sin importados no se invalida la caché")
+    void limiteDeErrores() {
+        propiedades.setMaxErrores(2);
+        String csv = "name,price,category\nA,-1,X\nB,-2,X\nC,-3,X\n";
+
+        ImportacionResponseDTO resumen = service.importarCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, resumen.getFailed());
+        assertEquals(2, resumen.getErrors().size());
+        verifyNoInteractions(repository, catalogoGeneracion);
+    }
+}
@@ -2,8 +2,17 @@
 package dev.luisvives.trabajoprogramacionsegundo.productos.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.luisvives.trabajoprogramacionsegundo.common.cache.CatalogoGeneracion;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.Cursor;
+import dev.luisvives.trabajoprogramacionsegundo.common.paginacion.CursorInvalidoException;
 import dev.luisvives.trabajoprogramacionsegundo.notificaciones.config.WebSocketConfig;
 import dev.luisvives.trabajoprogramacionsegundo.notificaciones.config.WebSocketHandler;
+import dev.luisvives.trabajoprogramacionsegundo.pedidos.repository.PedidosRepository;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.facetas.FacetasResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios.AjustePreciosRequestDTO;
+import dev.luisvives.trabajoprogramacionsegundo.productos.dto.precios.AjustePreciosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.DELETEProductoResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.GENERICProductosResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.productos.dto.producto.PATCHProductoRequestDTO;
@@ -12,7 +21,7 @@ import dev.luisvives.trabajoprogramacionsegundo.productos.exceptions.ProductoExc
 import dev.luisvives.trabajoprogramacionsegundo.productos.mapper.ProductoMapper;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Categoria;
 import dev.luisvives.trabajoprogramacionsegundo.productos.model.Producto;
-import dev.luisvives.trabajoprogramacionsegundo.productos.repository.CategoriesRepository;
+import dev.luisvives.trabajoprogramacionsegundo.productos.repository.FacetaFila;
 import dev.luisvives.trabajoprogramacionsegundo.productos.repository.ProductsRepository;
 import dev.luisvives.trabajoprogramacionsegundo.storage.StorageService;
 import lombok.val;
@@ -22,14 +31,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -41,7 +60,7 @@ class ProductoServiceImplTest {
     @Mock
     private ProductoMapper mapper;
     @Mock
-    private CategoriesRepository categoriaRepository;
+    private CategoriasRegistro categoriasRegistro;
     @Mock
     private WebSocketHandler webSocketHandler;
     @Mock
@@ -50,6 +69,16 @@ class ProductoServiceImplTest {
     private StorageService storageService;
     @Mock
     private WebSocketConfig webSocketConfig;
+    @Mock
+    private CatalogoGeneracion catalogoGeneracion;
+    @Spy
+    private FacetasPropiedades facetasPropiedades = new FacetasPropiedades();
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache cache;
+    @Mock
+    private PedidosRepository pedidosRepository;
     @InjectMocks
     private ProductoServiceImpl service;
     private final Categoria categoria= new Categoria(
@@ -173,6 +202,7 @@ class ProductoServiceImplTest {
             );
 
             verify(repository, times(1)).findAll(any(Specification.class), any(Pageable.class));
+            verify(categoriasRegistro, times(1)).idsQueContienen("ANIME");
         }
 
         @Test
@@ -196,24 +226,270 @@ class ProductoServiceImplTest {
             verify(repository, times(1)).findAll(any(Specification.class), any(Pageable.class));
         }
 
+        @Test
+        @DisplayName("findAllDto - lee la proyección a DTO y la devuelve con la ordenación del Pageable")
+        void findAllDto() {
+            Page<GENERICProductosResponseDTO> page = new PageImpl<>(List.of(productoResponse));
+            PageResponseDTO<GENERICProductosResponseDTO> pageDto = new PageResponseDTO<>();
+            when(repository.findAllResponse(any(Specification.class), any(Pageable.class))).thenReturn(page);
+            when(mapper.responsePageToDTO(page, "precio", "desc")).thenReturn(pageDto);
+
+            PageResponseDTO<GENERICProductosResponseDTO> result = service.findAllDto(
+                    Optional.of("hola"),
+                    Optional.empty(),
+                    Optional.empty(),
+                    PageRequest.of(0, 10, Sort.by("precio").descending())
+            );
+
+            assertSame(pageDto, result);
+            verify(mapper, times(1)).responsePageToDTO(page, "precio", "desc");
+            verify(repository, never()).findAll(any(Specification.class), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("exportar - escribe un producto por línea en NDJSON y cierra el stream del repositorio")
+        void exportarNdjson() throws IOException {
+            GENERICProductosResponseDTO otro = GENERICProductosResponseDTO.builder().id(2L).name("adiós").price(2.5).build();
+            AtomicBoolean cerrado = new AtomicBoolean(false);
+            when(repository.streamResponse(any(Specification.class)))
+                    .thenReturn(Stream.of(productoResponse, otro).onClose(() -> cerrado.set(true)));
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+            service.exportar(Optional.empty(), Optional.of(10.0), Optional.empty(), FormatoExportacion.NDJSON, salida);
+
+            String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+            assertAll(
+                    () -> assertEquals(2, lineas.length),
+                    () -> assertTrue(lineas[0].startsWith("{\"id\":1,\"name\":\"hola\"")),
+                    () -> assertTrue(lineas[1].contains("\"name\":\"adiós\"")),
+                    () -> assertTrue(cerrado.get())
+            );
+        }
+
+        @Test
+        @DisplayName("exportar - escribe CSV con cabecera y las columnas de la importación")
+        void exportarCsv() throws IOException {
+            when(repository.streamResponse(any(Specification.class))).thenReturn(Stream.of(productoResponse));
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+            service.exportar(Optional.empty(), Optional.empty(), Optional.of("anime"), FormatoExportacion.CSV, salida);
+
+            assertEquals(
+                    "id,name,price,category,descripcion,image,cantidad\n1,hola,1.0,ANIME,mueble,imagen.png,\n",
+                    salida.toString(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("ajustarPrecios - una sola actualización, invalida el catálogo y envía una notificación")
+        void ajustarPrecios() throws Exception {
+            when(categoriasRegistro.buscar("ANIME")).thenReturn(Optional.of(categoria));
+            when(repository.ajustarPrecios(Optional.empty(), Optional.empty(), Optional.of(List.of(1L)),
+                    Optional.of(-20.0), Optional.empty())).thenReturn(3);
+            when(webSocketConfig.webSocketProductosHandler()).thenReturn(webSocketHandler);
+
+            AjustePreciosResponseDTO result = service.ajustarPrecios(
+                    AjustePreciosRequestDTO.builder().category("ANIME").percentage(-20.0).build());
+
+            assertEquals(3, result.getUpdated());
+            verify(catalogoGeneracion, times(1)).incrementar();
+            verify(webSocketHandler, timeout(1000).times(1)).sendMessage(
+                    argThat(json -> json.contains("\"entity\":\"Productos\"") && json.contains("\"actualizados\":3")));
+            verify(repository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("ajustarPrecios - si no cambia ningún producto no invalida ni notifica")
+        void ajustarPreciosSinCambios() {
+            when(repository.ajustarPrecios(Optional.of("nada"), Optional.empty(), Optional.empty(),
+                    Optional.empty(), Optional.of(9.99))).thenReturn(0);
+
+            AjustePreciosResponseDTO result = service.ajustarPrecios(
+                    AjustePreciosRequestDTO.builder().name("nada").price(9.99).build());
+
+            assertEquals(0, result.getUpdated());
+            verifyNoInteractions(catalogoGeneracion);
+        }
+
+        @Test
+        @DisplayName("ajustarPrecios - con all ajusta todo el catálogo")
+        void ajustarPreciosTodos() {
+            when(repository.ajustarPrecios(Optional.empty(), Optional.empty(), Optional.empty(),
+                    Optional.of(10.0), Optional.empty())).thenReturn(0);
+
+            AjustePreciosResponseDTO result = service.ajustarPrecios(
+                    AjustePreciosRequestDTO.builder().all(true).percentage(10.0).build());
+
+            assertEquals(0, result.getUpdated());
+        }
+
+        @Test
+        @DisplayName("findAllSliceDto - pide un Slice y no lanza la consulta de conteo")
+        void findAllSliceDto() {
+            Pageable pageable = PageRequest.of(0, 10, Sort.by("precio").descending());
+            Slice<Producto> slice = new SliceImpl<>(List.of(producto), pageable, true);
+            PageResponseDTO<GENERICProductosResponseDTO> pageDto = new PageResponseDTO<>();
+            when(repository.findSlice(any(Specification.class), eq(pageable))).thenReturn(slice);
+            when(mapper.sliceToDTO(slice, "precio", "desc")).thenReturn(pageDto);
+
+            PageResponseDTO<GENERICProductosResponseDTO> result = service.findAllSliceDto(
+                    Optional.empty(), Optional.empty(), Optional.empty(), pageable);
+
+            assertSame(pageDto, result);
+            verify(repository, never()).findAll(any(Specification.class), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("findFacetas - una consulta agrupada con los límites ordenados y las categorías resueltas en memoria")
+        void findFacetas() {
+            facetasPropiedades.setLimitesPrecio(List.of(50.0, 10.0, 50.0));
+            List<FacetaFila> filas = List.of(new FacetaFila("ANIME", 1, 3));
+            FacetasResponseDTO facetasDto = new FacetasResponseDTO();
+            when(categoriasRegistro.idsQueContienen("ani")).thenReturn(List.of(1L));
+            when(repository.contarFacetas(Optional.of("hola"), Optional.empty(), Optional.of(List.of(1L)), List.of(10.0, 50.0)))
+                    .thenReturn(filas);
+            when(mapper.facetasToDTO(filas, List.of(10.0, 50.0))).thenReturn(facetasDto);
+
+            FacetasResponseDTO result = service.findFacetas(Optional.of("hola"), Optional.empty(), Optional.of("ani"));
+
+            assertSame(facetasDto, result);
+            verify(repository, times(1)).contarFacetas(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("search - busca por texto sin ordenación y devuelve la página por relevancia")
+        void search() {
+            Page<GENERICProductosResponseDTO> page = new PageImpl<>(List.of(productoResponse));
+            PageResponseDTO<GENERICProductosResponseDTO> pageDto = new PageResponseDTO<>();
+            when(repository.buscar("hola", PageRequest.of(1, 5))).thenReturn(page);
+            when(mapper.responsePageToDTO(page, "relevancia", "desc")).thenReturn(pageDto);
+
+            PageResponseDTO<GENERICProductosResponseDTO> result = service.search(" hola ", PageRequest.of(1, 5, Sort.by("precio")));
+
+            assertSame(pageDto, result);
+            verify(repository, times(1)).buscar("hola", PageRequest.of(1, 5));
+        }
+
+        @Test
+        @DisplayName("findAllCursor - pide la página ordenada por campo e id y devuelve el cursor de la siguiente")
+        void findAllCursor() {
+            Slice<Producto> slice = new SliceImpl<>(List.of(producto), PageRequest.of(0, 1), true);
+            CursorPageResponseDTO<GENERICProductosResponseDTO> cursorDto = new CursorPageResponseDTO<>();
+            when(repository.findSlice(any(Specification.class), any(Pageable.class))).thenReturn(slice);
+            when(mapper.sliceToCursorDTO(eq(slice), anyString(), eq("precio"), eq("desc"))).thenReturn(cursorDto);
+
+            CursorPageResponseDTO<GENERICProductosResponseDTO> result = service.findAllCursor(
+                    Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), "precio", "DESC", 1);
+
+            assertSame(cursorDto, result);
+            verify(repository, times(1)).findSlice(any(Specification.class), argThat(pageable ->
+                    pageable.getOffset() == 0
+                            && pageable.getPageSize() == 1
+                            && pageable.getSort().equals(Sort.by(Sort.Direction.DESC, "precio", "id"))));
+            verify(mapper, times(1)).sliceToCursorDTO(eq(slice), argThat(siguiente -> {
+                Cursor cursor = Cursor.decodificar(siguiente);
+                return cursor.sortBy().equals("precio") && cursor.valor().equals("1.0") && cursor.id().equals("1");
+            }), eq("precio"), eq("desc"));
+        }
+
+        @Test
+        @DisplayName("findAllCursor - con cursor se usa su ordenación y en la última página no hay cursor siguiente")
+        void findAllCursorUltimaPagina() {
+            String cursor = new Cursor("nombre", "asc", "a", "7").codificar();
+            Slice<Producto> slice = new SliceImpl<>(List.of(producto), PageRequest.of(0, 10), false);
+            CursorPageResponseDTO<GENERICProductosResponseDTO> cursorDto = new CursorPageResponseDTO<>();
+            when(repository.findSlice(any(Specification.class), any(Pageable.class))).thenReturn(slice);
+            when(mapper.sliceToCursorDTO(slice, null, "nombre", "asc")).thenReturn(cursorDto);
+
+            CursorPageResponseDTO<GENERICProductosResponseDTO> result = service.findAllCursor(
+                    Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(cursor), "id", "desc", 10);
+
+            assertSame(cursorDto, result);
+            verify(repository, times(1)).findSlice(any(Specification.class), argThat(pageable ->
+                    pageable.getSort().equals(Sort.by(Sort.Direction.ASC, "nombre", "id"))));
+        }
+
 
         @Test
         @DisplayName("encontrar bien")
         void findById() {
-            when(repository.findById(1L)).thenReturn(Optional.of(producto));
-            when(mapper.modelToGenericResponseDTO(producto)).thenReturn(productoResponse);
+            when(repository.findResponseById(1L)).thenReturn(Optional.of(productoResponse));
             GENERICProductosResponseDTO result = service.getById(1L);
             assertAll(
                     ()-> assertEquals(result, productoResponse,"deberian ser iguales")
             );
-            verify(mapper, times(1)).modelToGenericResponseDTO(producto);
-            verify(repository, times(1)).findById(1L);
+            verify(mapper, times(0)).modelToGenericResponseDTO(producto);
+            verify(repository, times(1)).findResponseById(1L);
+            verify(repository, times(0)).findById(1L);
+        }
+
+        @Test
+        @DisplayName("encontrar varios: los cacheados no se consultan y el resto se leen en una sola consulta")
+        void findByIds() {
+            GENERICProductosResponseDTO otro = GENERICProductosResponseDTO.builder().id(2L).name("otro").price(2.0).build();
+            when(cacheManager.getCache("productos")).thenReturn(cache);
+            when(cache.get(1L, GENERICProductosResponseDTO.class)).thenReturn(productoResponse);
+            when(repository.findResponseByIdIn(List.of(2L, 3L))).thenReturn(List.of(otro));
+
+            Map<Long, GENERICProductosResponseDTO> result = service.getByIds(List.of(1L, 2L, 1L, 3L));
+
+            assertEquals(Map.of(1L, productoResponse, 2L, otro), result);
+            verify(repository, times(1)).findResponseByIdIn(List.of(2L, 3L));
+            verify(cache).put(2L, otro);
+            verify(cache, never()).put(eq(3L), any());
+        }
+
+        @Test
+        @DisplayName("encontrar varios: si todos están en caché no se consulta la base de datos")
+        void findByIdsTodosCacheados() {
+            when(cacheManager.getCache("productos")).thenReturn(cache);
+            when(cache.get(1L, GENERICProductosResponseDTO.class)).thenReturn(productoResponse);
+
+            assertEquals(Map.of(1L, productoResponse), service.getByIds(List.of(1L)));
+            verifyNoInteractions(repository);
+        }
+
+        @Test
+        @DisplayName("reservar stock: un lote ordenado por id que informa de los productos sin stock")
+        void reservarStock() {
+            // 3 se reserva, 1 no tiene stock y 2 no cambia
+            when(repository.cambiarStock(new TreeMap<>(Map.of(1L, 4, 3L, 1)))).thenReturn(new int[]{0, 1});
+
+            List<Long> sinStock = service.reservarStock(Map.of(3L, 1, 2L, 0, 1L, 4));
+
+            assertEquals(List.of(1L), sinStock);
+            // Si falta stock la transacción se deshace: no se toca la caché
+            verifyNoInteractions(cacheManager, catalogoGeneracion);
+        }
+
+        @Test
+        @DisplayName("reservar stock: si se reserva todo se sacan los productos de la caché y se invalidan los listados")
+        void reservarStockCompleto() {
+            when(cacheManager.getCache("productos")).thenReturn(cache);
+            when(repository.cambiarStock(new TreeMap<>(Map.of(1L, 2, 2L, -1)))).thenReturn(new int[]{1, 1});
+
+            assertTrue(service.reservarStock(Map.of(1L, 2, 2L, -1)).isEmpty());
+            verify(cache).evict(1L);
+            verify(cache).evict(2L);
+            verify(catalogoGeneracion, times(1)).incrementar();
+        }
+
+        @Test
+        @DisplayName("liberar stock: devuelve las unidades con cantidades negativas")
+        void liberarStock() {
+            when(cacheManager.getCache("productos")).thenReturn(cache);
+
+            service.liberarStock(Map.of(2L, 3, 1L, 1));
+
+            verify(repository).cambiarStock(new TreeMap<>(Map.of(1L, -1, 2L, -3)));
+            verify(cache).evict(1L);
+            verify(cache).evict(2L);
+            verify(catalogoGeneracion, times(1)).incrementar();
         }
 
         @Test
         @DisplayName("guardar bien")
         void save() {
-            when(categoriaRepository.findByNameIgnoreCase(producto.getCategoria().getName())).thenReturn(Optional.of(categoria));
+            when(categoriasRegistro.buscar(producto.getCategoria().getName())).thenReturn(Optional.of(categoria));
             when(repository.save(producto)).thenReturn(producto);
             when(mapper.postPutDTOToModel(productoRequestDto)).thenReturn(producto);
             when(mapper.modelToGenericResponseDTO(producto)).thenReturn(productoResponse);
@@ -221,16 +497,17 @@ class ProductoServiceImplTest {
             assertAll(
                     ()-> assertEquals(result, productoResponse,"deberian ser iguales")
             );
-            verify(categoriaRepository, times(1)).findByNameIgnoreCase(producto.getCategoria().getName());
+            verify(categoriasRegistro, times(1)).buscar(producto.getCategoria().getName());
             verify(mapper, times(1)).modelToGenericResponseDTO(producto);
             verify(repository, times(1)).save(producto);
+            verify(catalogoGeneracion, times(1)).incrementar();
 
         }
 
         @Test
         @DisplayName("patch good")
         void patch() {
-            when(categoriaRepository.findByNameIgnoreCase(producto.getCategoria().getName())).thenReturn(Optional.of(categoria));
+            when(categoriasRegistro.buscar(producto.getCategoria().getName())).thenReturn(Optional.of(categoria));
             when(repository.save(producto)).thenReturn(producto);
             when(repository.findById(1L)).thenReturn(Optional.of(producto));
             when(mapper.modelToGenericResponseDTO(producto)).thenReturn(productoResponse);
@@ -238,7 +515,7 @@ class ProductoServiceImplTest {
             assertAll(
                     ()-> assertEquals(result, productoResponse,"deberian ser iguales")
             );
-            verify(categoriaRepository, times(1)).findByNameIgnoreCase(producto.getCategoria().getName());
+            verify(categoriasRegistro, times(1)).buscar(producto.getCategoria().getName());
             verify(mapper, times(1)).modelToGenericResponseDTO(producto);
             verify(repository, times(1)).save(producto);
             verify(repository, times(1)).findById(1L);
@@ -253,7 +530,7 @@ class ProductoServiceImplTest {
             assertAll(
                     ()-> assertEquals(result, productoResponse,"deberian ser iguales")
             );
-            verify(categoriaRepository, times(0)).findByNameIgnoreCase(producto.getCategoria().getName());
+            verify(categoriasRegistro, times(0)).buscar(producto.getCategoria().getName());
             verify(mapper, times(1)).modelToGenericResponseDTO(producto);
             verify(repository, times(1)).save(producto);
             verify(repository, times(1)).findById(1L);
@@ -277,7 +554,7 @@ class ProductoServiceImplTest {
         @Test
         @DisplayName("update good")
         void updateProducto() {
-            when(categoriaRepository.findByNameIgnoreCase(producto.getCategoria().getName())).thenReturn(Optional.of(categoria));
+            when(categoriasRegistro.buscar(producto.getCategoria().getName())).thenReturn(Optional.of(categoria));
             when(repository.findById(1L)).thenReturn(Optional.of(producto));
             when(repository.save(producto)).thenReturn(producto);
             when(mapper.postPutDTOToModel(productoRequestDto)).thenReturn(producto);
@@ -286,17 +563,93 @@ class ProductoServiceImplTest {
             assertAll(
                     ()-> assertEquals(result, productoResponse,"deberian ser iguales")
             );
-            verify(categoriaRepository, times(1)).findByNameIgnoreCase(producto.getCategoria().getName());
+            verify(categoriasRegistro, times(1)).buscar(producto.getCategoria().getName());
             verify(mapper, times(1)).modelToGenericResponseDTO(producto);
             verify(repository, times(1)).save(producto);
             verify(repository, times(1)).findById(1L);
 
         }
+
+        @Test
+        @DisplayName("update aplica la cantidad como diferencia con la leída")
+        void updateCantidadRelativa() {
+            Producto nuevo = Producto.builder().nombre("adios").precio(2.0).imagen("otra.png").cantidad(5).build();
+            when(categoriasRegistro.buscar(producto.getCategoria().getName())).thenReturn(Optional.of(categoria));
+            when(repository.findById(1L)).thenReturn(Optional.of(producto));
+            when(mapper.postPutDTOToModel(productoRequestDto)).thenReturn(nuevo);
+            when(repository.cambiarStock(new TreeMap<>(Map.of(1L, -2)))).thenReturn(new int[]{1});
+            when(repository.save(producto)).thenReturn(producto);
+            when(mapper.modelToGenericResponseDTO(producto)).thenReturn(productoResponse);
+            when(repository.findCantidadById(1L)).thenReturn(Optional.of(4));
+
+            GENERICProductosResponseDTO result = service.update(1L, productoRequestDto);
+
+            // La entidad cargada conserva su cantidad: el UPDATE de la entidad no la reescribe
+            assertAll(
+                    () -> assertEquals("adios", producto.getNombre()),
+                    () -> assertEquals(3, producto.getCantidad()),
+                    () -> assertEquals(4, result.getCantidad())
+            );
+            verify(repository).cambiarStock(new TreeMap<>(Map.of(1L, -2)));
+        }
     }
     @Nested
     @DisplayName("test bad")
     class BadTest{
 
+        @Test
+        @DisplayName("ajustarPrecios con porcentaje y precio a la vez")
+        void ajustarPreciosDosAjustes() {
+            AjustePreciosRequestDTO ajuste = AjustePreciosRequestDTO.builder().percentage(10.0).price(5.0).build();
+
+            assertThrows(ProductoException.ValidationException.class, () -> service.ajustarPrecios(ajuste));
+            verifyNoInteractions(repository, catalogoGeneracion);
+        }
+
+        @Test
+        @DisplayName("ajustarPrecios sin filtros ni all")
+        void ajustarPreciosSinFiltros() {
+            AjustePreciosRequestDTO ajuste = AjustePreciosRequestDTO.builder().percentage(10.0).build();
+
+            assertThrows(ProductoException.ValidationException.class, () -> service.ajustarPrecios(ajuste));
+            verifyNoInteractions(repository, catalogoGeneracion);
+        }
+
+        @Test
+        @DisplayName("ajustarPrecios con una categoría que no existe")
+        void ajustarPreciosCategoriaInexistente() {
+            when(categoriasRegistro.buscar("NADA")).thenReturn(Optional.empty());
+            AjustePreciosRequestDTO ajuste = AjustePreciosRequestDTO.builder().category("NADA").price(5.0).build();
+
+            assertThrows(ProductoException.ValidationException.class, () -> service.ajustarPrecios(ajuste));
+            verifyNoInteractions(repository, catalogoGeneracion);
+        }
+
+        @Test
+        @DisplayName("search con texto vacío")
+        void searchVacio() {
+            assertThrows(ProductoException.ValidationException.class, () -> service.search("  ", PageRequest.of(0, 10)));
+            verify(repository, never()).buscar(any(), any());
+        }
+
+        @Test
+        @DisplayName("findAllCursor con un campo de ordenación no permitido")
+        void findAllCursorCampoNoPermitido() {
+            String cursor = new Cursor("descripcion", "asc", "mueble", "1").codificar();
+
+            assertThrows(CursorInvalidoException.class, () -> service.findAllCursor(
+                    Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(cursor), "id", "asc", 10));
+            verify(repository, never()).findSlice(any(), any());
+        }
+
+        @Test
+        @DisplayName("findAllCursor con un cursor mal formado")
+        void findAllCursorMalFormado() {
+            assertThrows(CursorInvalidoException.class, () -> service.findAllCursor(
+                    Optional.empty(), Optional.empty(), Optional.empty(), Optional.of("%%%"), "id", "asc", 10));
+            verify(repository, never()).findSlice(any(), any());
+        }
+
 
 
 
@@ -304,10 +657,10 @@ class ProductoServiceImplTest {
         @DisplayName("patch bad categoria not found")
         void patchBadCategoria() {
             when(repository.findById(1L)).thenReturn(Optional.of(producto));
-            when(categoriaRepository.findByNameIgnoreCase(producto.getCategoria().getName())).thenReturn(Optional.empty());
+            when(categoriasRegistro.buscar(producto.getCategoria().getName())).thenReturn(Optional.empty());
             val result = assertThrows(ProductoException.ValidationException.class, () -> service.patch(1L,productoPatchRequestDto));
             assertEquals("La categoría ANIME no existe.", result.getMessage(), "deberian ser iguales");
-            verify(categoriaRepository, times(1)).findByNameIgnoreCase(producto.getCategoria().getName());
+            verify(categoriasRegistro, times(1)).buscar(producto.getCategoria().getName());
             verify(mapper, times(0)).modelToGenericResponseDTO(producto);
             verify(repository, times(0)).save(producto);
             verify(repository, times(1)).findById(1L);
@@ -315,25 +668,25 @@ class ProductoServiceImplTest {
         @Test
         @DisplayName("find by id Bad")
         void findById() {
-            when(repository.findById(1L)).thenReturn(Optional.empty());
+            when(repository.findResponseById(1L)).thenReturn(Optional.empty());
             val result=assertThrows(ProductoException.NotFoundException.class, () -> service.getById(1L));
             assertAll(
                     ()-> assertEquals(result.getMessage(),"SERVICE: No se encontró Producto con id: 1","deberian ser iguales")
             );
             verify(mapper, times(0)).modelToGenericResponseDTO(producto);
-            verify(repository,times(1)).findById(1L);
+            verify(repository,times(1)).findResponseById(1L);
         }
         @Test
         @DisplayName("update by id Bad")
         void updateByIdBadCategory() {
             when(repository.findById(1L)).thenReturn(Optional.of(producto));
-            when(categoriaRepository.findByNameIgnoreCase(producto.getCategoria().getName())).thenReturn(Optional.empty());
+            when(categoriasRegistro.buscar(producto.getCategoria().getName())).thenReturn(Optional.empty());
             val result=assertThrows(ProductoException.ValidationException.class, ()-> service.update(1L,productoRequestDto));
             assertAll(
                     ()-> assertEquals(result.getMessage(),"La categoría ANIME no existe.","deberian ser iguales")
             );
             verify(repository,times(1)).findById(1L);
-            verify(categoriaRepository, times(1)).findByNameIgnoreCase(producto.getCategoria().getName());
+            verify(categoriasRegistro, times(1)).buscar(producto.getCategoria().getName());
             verify(repository,times(0)).save(producto);
             verify(mapper,times(0)).modelToGenericResponseDTO(producto);
 
@@ -341,13 +694,13 @@ class ProductoServiceImplTest {
         @Test
         @DisplayName("update by  Bad category")
         void saveByIdBadCategory() {
-            when(categoriaRepository.findByNameIgnoreCase(producto.getCategoria().getName())).thenReturn(Optional.empty());
+            when(categoriasRegistro.buscar(producto.getCategoria().getName())).thenReturn(Optional.empty());
             val result=assertThrows(ProductoException.ValidationException.class, ()-> service.save(productoRequestDto));
             assertAll(
                     ()-> assertEquals(result.getMessage(),"La categoría ANIME no existe.","deberian ser iguales")
             );
 
-            verify(categoriaRepository, times(1)).findByNameIgnoreCase(producto.getCategoria().getName());
+            verify(categoriasRegistro, times(1)).buscar(producto.getCategoria().getName());
             verify(repository,times(0)).save(producto);
             verify(mapper,times(0)).modelToGenericResponseDTO(producto);
 
@@ -361,12 +714,25 @@ class ProductoServiceImplTest {
                     ()-> assertEquals(result.getMessage(),"SERVICE: No se encontró producto con id: 1","deberian ser iguales")
             );
             verify(repository,times(1)).findById(1L);
-            verify(categoriaRepository, times(0)).findByNameIgnoreCase(producto.getCategoria().getName());
+            verify(categoriasRegistro, times(0)).buscar(producto.getCategoria().getName());
             verify(repository,times(0)).save(producto);
             verify(mapper,times(0)).modelToGenericResponseDTO(producto);
 
         }
         @Test
+        @DisplayName("update sin las unidades que retirar")
+        void updateSinStockQueRetirar() {
+            Producto nuevo = Producto.builder().nombre("hola").precio(1.0).imagen("imagen.png").cantidad(0).build();
+            when(categoriasRegistro.buscar(producto.getCategoria().getName())).thenReturn(Optional.of(categoria));
+            when(repository.findById(1L)).thenReturn(Optional.of(producto));
+            when(mapper.postPutDTOToModel(productoRequestDto)).thenReturn(nuevo);
+            when(repository.cambiarStock(new TreeMap<>(Map.of(1L, 3)))).thenReturn(new int[]{0});
+
+            assertThrows(ProductoException.ValidationException.class, () -> service.update(1L, productoRequestDto));
+
+            verify(repository, never()).save(any());
+        }
+        @Test
         @DisplayName("delete by id Bad")
         void deleteById() {
             when(repository.findById(1L)).thenReturn(Optional.empty());
@@ -379,6 +745,17 @@ class ProductoServiceImplTest {
             verify(mapper,times(0)).modelToGenericResponseDTO(producto);
         }
         @Test
+        @DisplayName("delete by id de un producto que aparece en pedidos")
+        void deleteByIdConPedidos() {
+            when(repository.findById(1L)).thenReturn(Optional.of(producto));
+            when(pedidosRepository.existsByLineasPedidoIdProducto(1L)).thenReturn(true);
+
+            assertThrows(ProductoException.ValidationException.class, () -> service.deleteById(1L));
+
+            verify(repository, never()).delete(any());
+            verifyNoInteractions(catalogoGeneracion);
+        }
+        @Test
         @DisplayName("patch bad")
         void patchBad() {
 
@@ -425,7 +802,7 @@ class ProductoServiceImplTest {
         // Assert
         verify(storageService, never()).delete(any());
         verify(storageService).store(mockImage);
-        verify(repository).save(any(Producto.class));
+        verify(repository).save(argThat(guardado -> guardado.getCantidad().equals(producto.getCantidad())));
 
         assertEquals(newImageName, result.getImage());
     }
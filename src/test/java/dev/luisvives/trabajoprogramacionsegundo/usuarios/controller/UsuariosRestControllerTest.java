@@ -1,7 +1,9 @@
 package dev.luisvives.trabajoprogramacionsegundo.usuarios.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.luisvives.trabajoprogramacionsegundo.common.dto.CursorPageResponseDTO;
 import dev.luisvives.trabajoprogramacionsegundo.common.dto.PageResponseDTO;
+import dev.luisvives.trabajoprogramacionsegundo.common.idempotencia.Idempotencia;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.request.PostAndPutPedidoRequestDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.DeletePedidosResponseDto;
 import dev.luisvives.trabajoprogramacionsegundo.pedidos.dto.response.GenericPedidosResponseDto;
@@ -32,6 +34,7 @@ import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
@@ -45,6 +48,7 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -92,6 +96,9 @@ class UsuariosRestControllerTest {
     @MockitoBean
     private JwtService jwtService;
 
+    @MockitoBean
+    private Idempotencia idempotencia;
+
     @MockitoBean
     private UserServiceImpl userServiceImpl;
 
@@ -107,6 +114,10 @@ class UsuariosRestControllerTest {
 
     @BeforeEach
     void setUp() {
+        // Sin Redis: el control de idempotencia ejecuta directamente la petición
+        when(idempotencia.ejecutar(anyString(), any(), any(), any(), any()))
+                .thenAnswer(invocacion -> ((Supplier<?>) invocacion.getArgument(4)).get());
+
         pedidoId = new ObjectId();
 
         testUser = Usuario.builder()
@@ -202,6 +213,66 @@ class UsuariosRestControllerTest {
         verify(mapper).pageToDTO(any(), eq("id"), eq("asc"));
     }
 
+    @Test
+    @DisplayName("GET /usuario - Obtener usuarios sin conteo - OK (Admin)")
+    void findAll_WithoutCount_ShouldReturnSlice_WhenAdmin() throws Exception {
+        var responseList = List.of(userResponseDto);
+        var slice = new SliceImpl<>(responseList);
+        var pageDto = new PageResponseDTO<>(
+                responseList,
+                -1,
+                -1L,
+                20,
+                0,
+                responseList.size(),
+                false,
+                true,
+                true,
+                "id",
+                "asc"
+        );
+
+        when(usuariosService.findAllSlice(any(Optional.class), any(Pageable.class))).thenReturn(slice);
+        when(mapper.sliceToDTO(any(), eq("id"), eq("asc"))).thenReturn(pageDto);
+
+        mockMvc.perform(get("/usuario")
+                        .with(user("admin").roles("ADMIN"))
+                        .param("withCount", "false")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalPages").value(-1))
+                .andExpect(jsonPath("$.last").value(true));
+
+        verify(usuariosService, never()).findAll(any(Optional.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("GET /usuario/cursor - Obtener usuarios por cursor - OK (Admin)")
+    void findAllCursor_ShouldReturnCursorPage_WhenAdmin() throws Exception {
+        var cursorDto = new CursorPageResponseDTO<>(
+                List.of(userResponseDto),
+                1,
+                "siguiente",
+                true,
+                "username",
+                "asc"
+        );
+
+        when(usuariosService.findAllCursor(any(), eq(Optional.of("anterior")), eq("username"), eq("asc"), eq(1))).thenReturn(cursorDto);
+
+        mockMvc.perform(get("/usuario/cursor")
+                        .with(user("admin").roles("ADMIN"))
+                        .param("cursor", "anterior")
+                        .param("size", "1")
+                        .param("sortBy", "username")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("siguiente"))
+                .andExpect(jsonPath("$.content[0].email").value("test@user.com"));
+
+        verify(usuariosService).findAllCursor(any(), eq(Optional.of("anterior")), eq("username"), eq("asc"), eq(1));
+    }
+
 
 
     @Test
@@ -121,7 +121,7 @@ class UsuariosPedidosServiceImplTest {
     void findById_successful() {
         Long userId = usuario.getId();
         when(usuariosRepository.findById(userId)).thenReturn(Optional.of(usuario));
-        when(pedidosRepository.findPedidosByIdUsuario(userId)).thenReturn(List.of(pedido));
+        when(pedidosRepository.findIdsByIdUsuario(userId)).thenReturn(List.of(pedido));
         when(usuariosMapper.usuariosAdminResponseDto(usuario, List.of(pedido.getId().toHexString())))
                 .thenReturn(usuariosAdminResponseDto);
 
@@ -129,7 +129,7 @@ class UsuariosPedidosServiceImplTest {
 
         assertSame(usuariosAdminResponseDto, result);
         verify(usuariosRepository).findById(userId);
-        verify(pedidosRepository).findPedidosByIdUsuario(userId);
+        verify(pedidosRepository).findIdsByIdUsuario(userId);
         verify(usuariosMapper).usuariosAdminResponseDto(usuario, List.of(pedido.getId().toHexString()));
     }
 
@@ -237,7 +237,7 @@ class UsuariosPedidosServiceImplTest {
     void delete_whenHasPedidos_marksIsDeletedAndReturnsLogicalDeletionResponse() {
         Long userId = usuario.getId();
         when(usuariosRepository.findById(userId)).thenReturn(Optional.of(usuario));
-        when(pedidosRepository.findPedidosByIdUsuario(userId)).thenReturn(List.of(pedido));
+        when(pedidosRepository.existsByIdUsuario(userId)).thenReturn(true);
         when(usuariosMapper.usuariosResponseDtoToUsuariosDto(usuario)).thenReturn(usuariosResponseDto);
 
         UsuariosDeleteResponse response = service.delete(userId);
@@ -261,7 +261,7 @@ class UsuariosPedidosServiceImplTest {
                 .build();
 
         when(usuariosRepository.findById(otherId)).thenReturn(Optional.of(otherUser));
-        when(pedidosRepository.findPedidosByIdUsuario(otherId)).thenReturn(List.of());
+        when(pedidosRepository.existsByIdUsuario(otherId)).thenReturn(false);
         UsuariosResponseDto dto = UsuariosResponseDto.builder().build();
         when(usuariosMapper.usuariosResponseDtoToUsuariosDto(otherUser)).thenReturn(dto);
 